@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.benchmark;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.preference.PreferenceFragmentCompat;
+import androidx.preference.PreferenceScreen;
+import de.mrapp.android.preference.activity.NavigationPreference;
+import de.mrapp.android.preference.activity.PreferenceActivity;
+import de.mrapp.util.Condition;
+
+/**
+ * A {@link PreferenceActivity}, whose navigation consists of a configurable number of synthetic
+ * navigation preferences. Each of them is associated with a {@link SyntheticPreferenceFragment}.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class SyntheticPreferenceActivity extends PreferenceActivity {
+
+    /**
+     * The name of the extra, which specifies the number of navigation preferences.
+     */
+    public static final String EXTRA_NAVIGATION_PREFERENCE_COUNT =
+            SyntheticPreferenceActivity.class.getName() + "::NavigationPreferenceCount";
+
+    /**
+     * Creates and returns an intent, which allows to start the activity.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param navigationPreferenceCount
+     *         The number of navigation preferences, which should be shown by the activity, as an
+     *         {@link Integer} value. The number must be at least 1
+     * @param preferenceCount
+     *         The number of preferences, which should be shown by each fragment, as an {@link
+     *         Integer} value. The number must be at least 0
+     * @return The intent, which has been created, as an instance of the class {@link Intent}. The
+     * intent may not be null
+     */
+    @NonNull
+    public static Intent createIntent(@NonNull final Context context,
+                                      final int navigationPreferenceCount,
+                                      final int preferenceCount) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        Condition.INSTANCE.ensureAtLeast(navigationPreferenceCount, 1,
+                "The number of navigation preferences must be at least 1");
+        Condition.INSTANCE
+                .ensureAtLeast(preferenceCount, 0, "The number of preferences must be at least 0");
+        Intent intent = new Intent(context, SyntheticPreferenceActivity.class);
+        intent.putExtra(EXTRA_NAVIGATION_PREFERENCE_COUNT, navigationPreferenceCount);
+        intent.putExtra(SyntheticPreferenceFragment.EXTRA_PREFERENCE_COUNT, preferenceCount);
+        return intent;
+    }
+
+    @Override
+    protected final void onCreateNavigation(@NonNull final PreferenceFragmentCompat fragment) {
+        super.onCreateNavigation(fragment);
+        Intent intent = getIntent();
+        int navigationPreferenceCount = intent.getIntExtra(EXTRA_NAVIGATION_PREFERENCE_COUNT, 1);
+        int preferenceCount =
+                intent.getIntExtra(SyntheticPreferenceFragment.EXTRA_PREFERENCE_COUNT, 0);
+        PreferenceScreen preferenceScreen = fragment.getPreferenceManager()
+                .createPreferenceScreen(fragment.getPreferenceManager().getContext());
+
+        for (int i = 0; i < navigationPreferenceCount; i++) {
+            Bundle extras = new Bundle();
+            extras.putInt(SyntheticPreferenceFragment.EXTRA_PREFERENCE_COUNT, preferenceCount);
+            extras.putInt(SyntheticPreferenceFragment.EXTRA_NAVIGATION_INDEX, i);
+            NavigationPreference navigationPreference = new NavigationPreference(this);
+            navigationPreference.setTitle("Navigation preference " + i);
+            navigationPreference.setFragment(SyntheticPreferenceFragment.class.getName());
+            navigationPreference.setExtras(extras);
+            preferenceScreen.addPreference(navigationPreference);
+        }
+
+        fragment.setPreferenceScreen(preferenceScreen);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.benchmark;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import androidx.preference.CheckBoxPreference;
+import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceScreen;
+import de.mrapp.android.preference.activity.PreferenceFragment;
+
+/**
+ * A {@link PreferenceFragment}, which shows a configurable number of synthetic preferences. The
+ * preferences are grouped into categories of ten preferences each.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class SyntheticPreferenceFragment extends PreferenceFragment {
+
+    /**
+     * The name of the extra, which specifies the number of preferences.
+     */
+    public static final String EXTRA_PREFERENCE_COUNT =
+            SyntheticPreferenceFragment.class.getName() + "::PreferenceCount";
+
+    /**
+     * The name of the extra, which specifies the index of the navigation preference, the fragment
+     * belongs to.
+     */
+    public static final String EXTRA_NAVIGATION_INDEX =
+            SyntheticPreferenceFragment.class.getName() + "::NavigationIndex";
+
+    /**
+     * The number of preferences per category.
+     */
+    private static final int PREFERENCES_PER_CATEGORY = 10;
+
+    @Override
+    public final void onCreatePreferences(final Bundle savedInstanceState, final String rootKey) {
+        Bundle arguments = getArguments();
+        int preferenceCount = arguments != null ? arguments.getInt(EXTRA_PREFERENCE_COUNT) : 0;
+        int navigationIndex = arguments != null ? arguments.getInt(EXTRA_NAVIGATION_INDEX) : 0;
+        Context context = getPreferenceManager().getContext();
+        PreferenceScreen preferenceScreen =
+                getPreferenceManager().createPreferenceScreen(context);
+        setPreferenceScreen(preferenceScreen);
+        PreferenceCategory category = null;
+
+        for (int i = 0; i < preferenceCount; i++) {
+            if (i % PREFERENCES_PER_CATEGORY == 0) {
+                category = new PreferenceCategory(context);
+                category.setTitle("Category " + i / PREFERENCES_PER_CATEGORY);
+                preferenceScreen.addPreference(category);
+            }
+
+            CheckBoxPreference preference = new CheckBoxPreference(context);
+            preference.setKey("synthetic_preference_" + navigationIndex + "_" + i);
+            preference.setTitle("Preference " + i);
+            preference.setDefaultValue(true);
+            category.addPreference(preference);
+        }
+    }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Records the wall time and the number of allocated bytes of consecutive phases of a benchmark and
+ * writes them to a JSON file.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+final class BenchmarkReport {
+
+    /**
+     * A phase, which has been measured.
+     */
+    private static final class Phase {
+
+        /**
+         * The name of the phase.
+         */
+        private final String name;
+
+        /**
+         * The number of times, the phase has been repeated.
+         */
+        private final int repetitions;
+
+        /**
+         * The wall time of the phase in nanoseconds.
+         */
+        private final long wallTimeNanos;
+
+        /**
+         * The number of bytes, which have been allocated by the current thread during the phase,
+         * or -1, if the allocations cannot be measured.
+         */
+        private final long allocatedBytes;
+
+        /**
+         * Creates a new phase.
+         *
+         * @param name
+         *         The name of the phase as a {@link String}. The name may not be null
+         * @param repetitions
+         *         The number of times, the phase has been repeated, as an {@link Integer} value
+         * @param wallTimeNanos
+         *         The wall time of the phase in nanoseconds as a {@link Long} value
+         * @param allocatedBytes
+         *         The number of allocated bytes as a {@link Long} value or -1, if the allocations
+         *         cannot be measured
+         */
+        Phase(@NonNull final String name, final int repetitions, final long wallTimeNanos,
+              final long allocatedBytes) {
+            this.name = name;
+            this.repetitions = repetitions;
+            this.wallTimeNanos = wallTimeNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+    }
+
+    /**
+     * The parameters of the benchmark.
+     */
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    /**
+     * A list, which contains the phases, which have been measured.
+     */
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * The name of the phase, which is currently measured, or null, if no phase is measured.
+     */
+    private String currentPhase;
+
+    /**
+     * The number of times, the current phase is repeated.
+     */
+    private int currentRepetitions;
+
+    /**
+     * The time, when the current phase has been started, in nanoseconds.
+     */
+    private long startTimeNanos;
+
+    /**
+     * The number of bytes, which had been allocated by the current thread, when the current phase
+     * has been started.
+     */
+    private long startAllocatedBytes;
+
+    /**
+     * Returns the number of bytes, which have been allocated by the current thread so far.
+     *
+     * @return The number of bytes, which have been allocated by the current thread, as a {@link
+     * Long} value or -1, if the JVM does not support to measure allocations
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean =
+                    (com.sun.management.ThreadMXBean) threadMXBean;
+
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported() &&
+                    sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Appends a specific string to a JSON document as a quoted string literal.
+     *
+     * @param builder
+     *         The builder, the string should be appended to, as an instance of the class {@link
+     *         StringBuilder}. The builder may not be null
+     * @param value
+     *         The string, which should be appended, as a {@link String}. The string may not be
+     *         null
+     */
+    private static void appendString(@NonNull final StringBuilder builder,
+                                     @NonNull final String value) {
+        builder.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+
+        builder.append('"');
+    }
+
+    /**
+     * Sets the value of a parameter of the benchmark.
+     *
+     * @param name
+     *         The name of the parameter as a {@link String}. The name may not be null
+     * @param value
+     *         The value of the parameter as an instance of the class {@link Object}. The value must
+     *         either be a number, or a string
+     */
+    public void putParameter(@NonNull final String name, @NonNull final Object value) {
+        parameters.put(name, value);
+    }
+
+    /**
+     * Starts to measure a specific phase.
+     *
+     * @param name
+     *         The name of the phase as a {@link String}. The name may not be null
+     * @param repetitions
+     *         The number of times, the phase is repeated, as an {@link Integer} value
+     */
+    public void start(@NonNull final String name, final int repetitions) {
+        if (currentPhase != null) {
+            throw new IllegalStateException("Phase \"" + currentPhase + "\" has not been stopped");
+        }
+
+        currentPhase = name;
+        currentRepetitions = repetitions;
+        startAllocatedBytes = getAllocatedBytes();
+        startTimeNanos = System.nanoTime();
+    }
+
+    /**
+     * Stops to measure the current phase.
+     */
+    public void stop() {
+        long wallTimeNanos = System.nanoTime() - startTimeNanos;
+        long allocatedBytes = getAllocatedBytes();
+
+        if (currentPhase == null) {
+            throw new IllegalStateException("No phase has been started");
+        }
+
+        phases.add(new Phase(currentPhase, currentRepetitions, wallTimeNanos,
+                allocatedBytes != -1 && startAllocatedBytes != -1 ?
+                        allocatedBytes - startAllocatedBytes : -1));
+        currentPhase = null;
+    }
+
+    /**
+     * Returns a JSON document, which contains the parameters of the benchmark and all phases,
+     * which have been measured.
+     *
+     * @return The JSON document as a {@link String}. The document may not be null
+     */
+    @NonNull
+    public String toJson() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\n  \"parameters\": {");
+        boolean first = true;
+
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            builder.append(first ? "\n    " : ",\n    ");
+            appendString(builder, entry.getKey());
+            builder.append(": ");
+            Object value = entry.getValue();
+
+            if (value instanceof Number) {
+                builder.append(value);
+            } else {
+                appendString(builder, String.valueOf(value));
+            }
+
+            first = false;
+        }
+
+        builder.append("\n  },\n  \"phases\": [");
+        first = true;
+
+        for (Phase phase : phases) {
+            builder.append(first ? "\n    {" : ",\n    {");
+            builder.append("\"name\": ");
+            appendString(builder, phase.name);
+            builder.append(", \"repetitions\": ").append(phase.repetitions);
+            builder.append(", \"wallTimeNanos\": ").append(phase.wallTimeNanos);
+            builder.append(", \"allocatedBytes\": ").append(phase.allocatedBytes);
+            builder.append('}');
+            first = false;
+        }
+
+        builder.append("\n  ]\n}\n");
+        return builder.toString();
+    }
+
+    /**
+     * Writes the JSON document, which contains the parameters of the benchmark and all phases,
+     * which have been measured, to a specific file.
+     *
+     * @param file
+     *         The file, the document should be written to, as an instance of the class {@link
+     *         File}. The file may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be written
+     */
+    public void write(@NonNull final File file) throws IOException {
+        File directory = file.getParentFile();
+
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + directory);
+        }
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                Charset.forName("UTF-8"))) {
+            writer.write(toJson());
+        }
+    }
+
+}
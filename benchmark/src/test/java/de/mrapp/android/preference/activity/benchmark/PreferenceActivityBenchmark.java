@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.benchmark;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.test.core.app.ApplicationProvider;
+import de.mrapp.android.preference.activity.PreferenceFragment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * A macro benchmark, which measures the cold start of a {@link SyntheticPreferenceActivity}, the
+ * first fragment, which is shown, repeated selections of navigation preferences and the
+ * restoration of default values. The number of navigation preferences, the number of preferences
+ * per fragment and the number of selections can be configured using the system properties
+ * "benchmark.navigationPreferences", "benchmark.preferences" and "benchmark.selections". The
+ * results are written to the file, which is specified by the system property "benchmark.output".
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PreferenceActivityBenchmark {
+
+    /**
+     * Returns the value of a specific integer system property.
+     *
+     * @param name
+     *         The name of the system property as a {@link String}. The name may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the system property is not set, as an
+     *         {@link Integer} value
+     * @return The value of the system property as an {@link Integer} value
+     */
+    private static int getIntProperty(@NonNull final String name, final int defaultValue) {
+        String value = System.getProperty(name);
+        return value != null && value.length() > 0 ? Integer.parseInt(value) : defaultValue;
+    }
+
+    /**
+     * Processes all pending transactions of the activity's fragment manager and runs all tasks,
+     * which have been posted to the main thread.
+     *
+     * @param activity
+     *         The activity as an instance of the class {@link SyntheticPreferenceActivity}. The
+     *         activity may not be null
+     */
+    private static void idle(@NonNull final SyntheticPreferenceActivity activity) {
+        activity.getSupportFragmentManager().executePendingTransactions();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * Runs the benchmark and writes its results.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the results could not be written
+     */
+    @Test
+    public final void benchmark() throws IOException {
+        int navigationPreferenceCount = getIntProperty("benchmark.navigationPreferences", 50);
+        int preferenceCount = getIntProperty("benchmark.preferences", 20);
+        int selectionCount = getIntProperty("benchmark.selections", 100);
+        String output = System.getProperty("benchmark.output", "benchmark-results.json");
+        BenchmarkReport report = new BenchmarkReport();
+        report.putParameter("navigationPreferences", navigationPreferenceCount);
+        report.putParameter("preferences", preferenceCount);
+        report.putParameter("selections", selectionCount);
+        Context context = ApplicationProvider.getApplicationContext();
+        Intent intent = SyntheticPreferenceActivity
+                .createIntent(context, navigationPreferenceCount, preferenceCount);
+
+        report.start("onCreate-to-onNavigationAdapterCreated", 1);
+        ActivityController<SyntheticPreferenceActivity> controller =
+                Robolectric.buildActivity(SyntheticPreferenceActivity.class, intent).setup();
+        SyntheticPreferenceActivity activity = controller.get();
+        idle(activity);
+        report.stop();
+        assertEquals(navigationPreferenceCount, activity.getNavigationPreferenceCount());
+
+        report.start("first-fragment-shown", 1);
+        activity.selectNavigationPreference(0, null);
+        idle(activity);
+        report.stop();
+        assertTrue(activity.getPreferenceFragment() instanceof PreferenceFragment);
+
+        report.start("select-navigation-preference", selectionCount);
+
+        for (int i = 1; i <= selectionCount; i++) {
+            activity.selectNavigationPreference(i % navigationPreferenceCount, null);
+            idle(activity);
+        }
+
+        report.stop();
+
+        Fragment fragment = activity.getPreferenceFragment();
+        assertTrue(fragment instanceof PreferenceFragment);
+        report.start("restore-defaults", 1);
+        ((PreferenceFragment) fragment).restoreDefaults();
+        idle(activity);
+        report.stop();
+
+        controller.pause().stop().destroy();
+        report.write(new File(output));
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.benchmark;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import androidx.test.core.app.ApplicationProvider;
+import de.mrapp.android.preference.activity.PreferenceFragment;
+import de.mrapp.android.preference.activity.inflater.CompiledPreferenceInflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * A benchmark, which compares inflating a preference hierarchy from an XML resource using the
+ * method <code>PreferenceManager#inflateFromResource</code> to inflating it from a compiled
+ * representation using the class {@link CompiledPreferenceInflater}. The number of inflations can
+ * be configured using the system property "benchmark.inflations". The results are written to the
+ * file, which is specified by the system property "benchmark.inflationOutput".
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PreferenceInflationBenchmark {
+
+    /**
+     * The number of inflations, which are performed before the measurements are started.
+     */
+    private static final int WARM_UP_INFLATIONS = 10;
+
+    /**
+     * Returns the value of a specific integer system property.
+     *
+     * @param name
+     *         The name of the system property as a {@link String}. The name may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the system property is not set, as an
+     *         {@link Integer} value
+     * @return The value of the system property as an {@link Integer} value
+     */
+    private static int getIntProperty(@NonNull final String name, final int defaultValue) {
+        String value = System.getProperty(name);
+        return value != null && value.length() > 0 ? Integer.parseInt(value) : defaultValue;
+    }
+
+    /**
+     * Returns the total number of preferences, which are contained by a specific preference
+     * group, including the preferences, which are contained by nested groups.
+     *
+     * @param preferenceGroup
+     *         The preference group as an instance of the class PreferenceGroup. The preference
+     *         group may not be null
+     * @return The total number of preferences as an {@link Integer} value
+     */
+    private static int countPreferences(@NonNull final PreferenceGroup preferenceGroup) {
+        int count = preferenceGroup.getPreferenceCount();
+
+        for (int i = 0; i < preferenceGroup.getPreferenceCount(); i++) {
+            if (preferenceGroup.getPreference(i) instanceof PreferenceGroup) {
+                count += countPreferences((PreferenceGroup) preferenceGroup.getPreference(i));
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Runs the benchmark and writes its results.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the results could not be written
+     */
+    @Test
+    public final void benchmark() throws IOException {
+        int inflationCount = getIntProperty("benchmark.inflations", 200);
+        String output =
+                System.getProperty("benchmark.inflationOutput", "benchmark-inflation-results.json");
+        BenchmarkReport report = new BenchmarkReport();
+        report.putParameter("inflations", inflationCount);
+        Context applicationContext = ApplicationProvider.getApplicationContext();
+        Intent intent = SyntheticPreferenceActivity.createIntent(applicationContext, 1, 0);
+        ActivityController<SyntheticPreferenceActivity> controller =
+                Robolectric.buildActivity(SyntheticPreferenceActivity.class, intent).setup();
+        SyntheticPreferenceActivity activity = controller.get();
+        activity.selectNavigationPreference(0, null);
+        activity.getSupportFragmentManager().executePendingTransactions();
+        shadowOf(Looper.getMainLooper()).idle();
+        Fragment fragment = activity.getPreferenceFragment();
+        assertTrue(fragment instanceof PreferenceFragment);
+        PreferenceManager preferenceManager =
+                ((PreferenceFragment) fragment).getPreferenceManager();
+        Context context = preferenceManager.getContext();
+        int resourceId = R.xml.inflation_preferences;
+
+        for (int i = 0; i < WARM_UP_INFLATIONS; i++) {
+            preferenceManager.inflateFromResource(context, resourceId, null);
+        }
+
+        CompiledPreferenceInflater.clearCache();
+        report.start("compile", 1);
+        boolean compiled = CompiledPreferenceInflater.compile(context, resourceId);
+        report.stop();
+        assertTrue(compiled);
+
+        for (int i = 0; i < WARM_UP_INFLATIONS; i++) {
+            CompiledPreferenceInflater.inflate(preferenceManager, context, resourceId, null);
+        }
+
+        PreferenceScreen inflatedPreferenceScreen = null;
+        report.start("inflateFromResource", inflationCount);
+
+        for (int i = 0; i < inflationCount; i++) {
+            inflatedPreferenceScreen =
+                    preferenceManager.inflateFromResource(context, resourceId, null);
+        }
+
+        report.stop();
+
+        PreferenceScreen compiledPreferenceScreen = null;
+        report.start("compiled-inflate", inflationCount);
+
+        for (int i = 0; i < inflationCount; i++) {
+            compiledPreferenceScreen = CompiledPreferenceInflater
+                    .inflate(preferenceManager, context, resourceId, null);
+        }
+
+        report.stop();
+        assertEquals(countPreferences(inflatedPreferenceScreen),
+                countPreferences(compiledPreferenceScreen));
+
+        controller.pause().stop().destroy();
+        report.write(new File(output));
+    }
+
+}
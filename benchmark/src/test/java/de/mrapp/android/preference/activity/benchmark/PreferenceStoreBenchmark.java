@@ -0,0 +1,283 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.benchmark;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import de.mrapp.android.preference.activity.core.PreferenceLog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A benchmark, which compares storing the values of preferences in {@link SharedPreferences} to
+ * storing them in a {@link PreferenceLog}. It measures the time needed to load all values, the
+ * latency of writing a single value and the size of the files. The number of values, the number
+ * of loads and the number of writes can be configured using the system properties
+ * "benchmark.storeKeys", "benchmark.storeLoads" and "benchmark.storeWrites". The results are
+ * written to the file, which is specified by the system property "benchmark.storeOutput".
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PreferenceStoreBenchmark {
+
+    /**
+     * The name of the shared preferences, which are used by the benchmark.
+     */
+    private static final String SHARED_PREFERENCES_NAME = "store_benchmark";
+
+    /**
+     * The key of the value, which is written repeatedly in order to measure the write latency.
+     */
+    private static final String COUNTER_KEY = "counter";
+
+    /**
+     * Returns the value of a specific integer system property.
+     *
+     * @param name
+     *         The name of the system property as a {@link String}. The name may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the system property is not set, as an
+     *         {@link Integer} value
+     * @return The value of the system property as an {@link Integer} value
+     */
+    private static int getIntProperty(@NonNull final String name, final int defaultValue) {
+        String value = System.getProperty(name);
+        return value != null && value.length() > 0 ? Integer.parseInt(value) : defaultValue;
+    }
+
+    /**
+     * Copies a specific file.
+     *
+     * @param source
+     *         The file, which should be copied, as an instance of the class {@link File}. The file
+     *         may not be null
+     * @param target
+     *         The file, the source file should be copied to, as an instance of the class {@link
+     *         File}. The file may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be copied
+     */
+    private static void copy(@NonNull final File source, @NonNull final File target)
+            throws IOException {
+        InputStream inputStream = new FileInputStream(source);
+
+        try {
+            OutputStream outputStream = new FileOutputStream(target);
+
+            try {
+                byte[] buffer = new byte[8192];
+                int read;
+
+                while ((read = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, read);
+                }
+            } finally {
+                outputStream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Adds the value, which corresponds to a specific index, to an editor. Depending on the index,
+     * values of different types are used.
+     *
+     * @param editor
+     *         The editor, the value should be added to, as an instance of the type {@link
+     *         SharedPreferences.Editor}. The editor may not be null
+     * @param index
+     *         The index of the value as an {@link Integer} value
+     */
+    private static void putValue(@NonNull final SharedPreferences.Editor editor,
+                                 final int index) {
+        String key = "key" + index;
+
+        switch (index % 4) {
+            case 0:
+                editor.putString(key, "value" + index);
+                break;
+            case 1:
+                editor.putInt(key, index);
+                break;
+            case 2:
+                editor.putBoolean(key, index % 3 == 0);
+                break;
+            default:
+                editor.putLong(key, (long) index * index);
+                break;
+        }
+    }
+
+    /**
+     * Writes the value, which corresponds to a specific index, to a log. Depending on the index,
+     * values of different types are used.
+     *
+     * @param log
+     *         The log, the value should be written to, as an instance of the class {@link
+     *         PreferenceLog}. The log may not be null
+     * @param index
+     *         The index of the value as an {@link Integer} value
+     * @throws IOException
+     *         The exception, which is thrown, if the value could not be written
+     */
+    private static void putValue(@NonNull final PreferenceLog log, final int index)
+            throws IOException {
+        String key = "key" + index;
+
+        switch (index % 4) {
+            case 0:
+                log.putString(key, "value" + index);
+                break;
+            case 1:
+                log.putInt(key, index);
+                break;
+            case 2:
+                log.putBoolean(key, index % 3 == 0);
+                break;
+            default:
+                log.putLong(key, (long) index * index);
+                break;
+        }
+    }
+
+    /**
+     * Runs the benchmark and writes its results.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the benchmark fails
+     */
+    @Test
+    public final void benchmark() throws IOException {
+        int keyCount = getIntProperty("benchmark.storeKeys", 2000);
+        int loadCount = getIntProperty("benchmark.storeLoads", 20);
+        int writeCount = getIntProperty("benchmark.storeWrites", 200);
+        String output =
+                System.getProperty("benchmark.storeOutput", "benchmark-store-results.json");
+        BenchmarkReport report = new BenchmarkReport();
+        report.putParameter("keys", keyCount);
+        report.putParameter("loads", loadCount);
+        report.putParameter("writes", writeCount);
+        Context context = ApplicationProvider.getApplicationContext();
+        File sharedPreferencesDirectory =
+                new File(context.getApplicationInfo().dataDir, "shared_prefs");
+        File sharedPreferencesFile =
+                new File(sharedPreferencesDirectory, SHARED_PREFERENCES_NAME + ".xml");
+        File logDirectory = new File(context.getFilesDir(), "store_benchmark");
+        File logFile = new File(logDirectory, "preferences.log");
+        assertTrue(logDirectory.isDirectory() || logDirectory.mkdirs());
+
+        SharedPreferences sharedPreferences =
+                context.getSharedPreferences(SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE);
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+
+        for (int i = 0; i < keyCount; i++) {
+            putValue(editor, i);
+        }
+
+        assertTrue(editor.commit());
+        assertTrue(sharedPreferencesFile.exists());
+        PreferenceLog log = new PreferenceLog(logFile);
+
+        for (int i = 0; i < keyCount; i++) {
+            putValue(log, i);
+        }
+
+        log.close();
+
+        for (int i = 0; i < loadCount; i++) {
+            copy(sharedPreferencesFile,
+                    new File(sharedPreferencesDirectory, SHARED_PREFERENCES_NAME + i + ".xml"));
+            copy(logFile, new File(logDirectory, "preferences" + i + ".log"));
+        }
+
+        report.start("sharedPreferences-load", loadCount);
+
+        for (int i = 0; i < loadCount; i++) {
+            assertEquals(keyCount, context.getSharedPreferences(SHARED_PREFERENCES_NAME + i,
+                    Context.MODE_PRIVATE).getAll().size());
+        }
+
+        report.stop();
+
+        List<PreferenceLog> loadedLogs = new ArrayList<>(loadCount);
+        report.start("preferenceLog-load", loadCount);
+
+        for (int i = 0; i < loadCount; i++) {
+            loadedLogs.add(new PreferenceLog(new File(logDirectory, "preferences" + i + ".log")));
+        }
+
+        report.stop();
+
+        for (PreferenceLog loadedLog : loadedLogs) {
+            assertEquals(keyCount, loadedLog.size());
+            loadedLog.close();
+        }
+
+        report.start("sharedPreferences-write", writeCount);
+
+        for (int i = 0; i < writeCount; i++) {
+            sharedPreferences.edit().putInt(COUNTER_KEY, i).commit();
+        }
+
+        report.stop();
+
+        log = new PreferenceLog(logFile);
+        report.start("preferenceLog-write", writeCount);
+
+        for (int i = 0; i < writeCount; i++) {
+            log.putInt(COUNTER_KEY, i);
+        }
+
+        report.stop();
+        report.start("preferenceLog-writeAndSync", writeCount);
+
+        for (int i = 0; i < writeCount; i++) {
+            log.putInt(COUNTER_KEY, writeCount + i);
+            log.sync();
+        }
+
+        report.stop();
+
+        report.putParameter("sharedPreferencesFileSize", sharedPreferencesFile.length());
+        report.putParameter("preferenceLogSize", log.getSize());
+        log.compact();
+        report.putParameter("preferenceLogCompactedSize", log.getSize());
+        assertEquals(keyCount + 1, log.size());
+        log.close();
+        report.write(new File(output));
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.benchmark;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.preference.PreferenceFragmentCompat;
+import androidx.test.core.app.ApplicationProvider;
+import de.mrapp.android.preference.activity.PreferenceFragment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * A benchmark, which measures switching between the split screen layout and the layout, which is
+ * used on smartphones, while a {@link SyntheticPreferenceActivity} is running on a tablet. It
+ * ensures, that the navigation fragment and the currently shown preference fragment are retained,
+ * when the layout is switched. The number of switches can be configured using the system
+ * property "benchmark.layoutSwitches". The results are written to the file, which is specified by
+ * the system property "benchmark.layoutSwitchOutput".
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, qualifiers = "sw800dp-w1280dp-h800dp-xlarge-land")
+public class SplitScreenBenchmark {
+
+    /**
+     * Returns the value of a specific integer system property.
+     *
+     * @param name
+     *         The name of the system property as a {@link String}. The name may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the system property is not set, as an
+     *         {@link Integer} value
+     * @return The value of the system property as an {@link Integer} value
+     */
+    private static int getIntProperty(@NonNull final String name, final int defaultValue) {
+        String value = System.getProperty(name);
+        return value != null && value.length() > 0 ? Integer.parseInt(value) : defaultValue;
+    }
+
+    /**
+     * Processes all pending transactions of the activity's fragment manager and runs all tasks,
+     * which have been posted to the main thread.
+     *
+     * @param activity
+     *         The activity as an instance of the class {@link SyntheticPreferenceActivity}. The
+     *         activity may not be null
+     */
+    private static void idle(@NonNull final SyntheticPreferenceActivity activity) {
+        activity.getSupportFragmentManager().executePendingTransactions();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * Runs the benchmark and writes its results.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the results could not be written
+     */
+    @Test
+    public final void benchmark() throws IOException {
+        int navigationPreferenceCount = getIntProperty("benchmark.navigationPreferences", 50);
+        int preferenceCount = getIntProperty("benchmark.preferences", 20);
+        int switchCount = getIntProperty("benchmark.layoutSwitches", 20);
+        String output =
+                System.getProperty("benchmark.layoutSwitchOutput", "layout-switch-results.json");
+        BenchmarkReport report = new BenchmarkReport();
+        report.putParameter("navigationPreferences", navigationPreferenceCount);
+        report.putParameter("preferences", preferenceCount);
+        report.putParameter("layoutSwitches", switchCount);
+        Context context = ApplicationProvider.getApplicationContext();
+        Intent intent = SyntheticPreferenceActivity
+                .createIntent(context, navigationPreferenceCount, preferenceCount);
+        ActivityController<SyntheticPreferenceActivity> controller =
+                Robolectric.buildActivity(SyntheticPreferenceActivity.class, intent).setup();
+        SyntheticPreferenceActivity activity = controller.get();
+        idle(activity);
+        activity.selectNavigationPreference(1, null);
+        idle(activity);
+        assertTrue(activity.isSplitScreen());
+        PreferenceFragmentCompat navigationFragment = activity.getNavigationFragment();
+        Fragment preferenceFragment = activity.getPreferenceFragment();
+        assertTrue(preferenceFragment instanceof PreferenceFragment);
+
+        report.start("switch-layout", switchCount);
+
+        for (int i = 1; i <= switchCount; i++) {
+            boolean splitScreen = i % 2 == 0;
+            activity.useSplitScreen(splitScreen);
+            idle(activity);
+            assertEquals(splitScreen, activity.isSplitScreen());
+            assertSame(navigationFragment, activity.getNavigationFragment());
+            assertSame(preferenceFragment, activity.getPreferenceFragment());
+            assertTrue(preferenceFragment.isAdded());
+            assertTrue(preferenceFragment.getView() != null);
+        }
+
+        report.stop();
+
+        controller.pause().stop().destroy();
+        report.write(new File(output));
+    }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Benchmarks the operations of a {@link NavigationIndex}, which are performed, when navigation
+ * items are selected, inserted, removed, or when the initially shown fragment is looked up. As in a
+ * typical navigation, every other item is a category, i.e. not a navigation item.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NavigationIndexBenchmark {
+
+    /**
+     * A navigation item, which is used by the benchmarks.
+     */
+    private static final class Item implements NavigationItem {
+
+        /**
+         * The fully classified class name of the fragment, which is associated with the item.
+         */
+        private final String fragment;
+
+        /**
+         * Creates a new navigation item.
+         *
+         * @param fragment
+         *         The fully classified class name of the fragment, which should be associated with
+         *         the item, as a {@link String} or null, if the item is not a navigation item
+         */
+        Item(@Nullable final String fragment) {
+            this.fragment = fragment;
+        }
+
+        @Nullable
+        @Override
+        public String getFragment() {
+            return fragment;
+        }
+
+    }
+
+    /**
+     * The number of navigation items, which are contained by the index.
+     */
+    @Param({"10", "1000", "100000"})
+    public int navigationItemCount;
+
+    /**
+     * A list, which contains all items, including categories.
+     */
+    private List<Item> items;
+
+    /**
+     * The index, which is benchmarked.
+     */
+    private NavigationIndex<Item> index;
+
+    /**
+     * The selection, which is benchmarked.
+     */
+    private NavigationSelection<Item, Object> selection;
+
+    /**
+     * The navigation item in the middle of the index.
+     */
+    private Item middleItem;
+
+    /**
+     * The last navigation item of the index.
+     */
+    private Item lastItem;
+
+    /**
+     * The position of the navigation item, whose selection state has been changed most recently.
+     */
+    private int changedPosition;
+
+    /**
+     * The fragment of the last navigation item, which is the worst case of a lookup.
+     */
+    private String lastFragment;
+
+    /**
+     * Creates and returns a source, which provides the items of the list {@link #items}.
+     *
+     * @return The source, which has been created, as an instance of the type {@link
+     * NavigationIndex.Source}. The source may not be null
+     */
+    @NonNull
+    private NavigationIndex.Source<Item> createSource() {
+        return new NavigationIndex.Source<Item>() {
+
+            @Override
+            public int getItemCount() {
+                return items.size();
+            }
+
+            @Nullable
+            @Override
+            public Item getNavigationItem(final int position) {
+                Item item = items.get(position);
+                return item.getFragment() != null ? item : null;
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a listener, which ignores all changes of the index.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * NavigationIndex.Listener}. The listener may not be null
+     */
+    @NonNull
+    private NavigationIndex.Listener<Item> createListener() {
+        return new NavigationIndex.Listener<Item>() {
+
+            @Override
+            public void onItemAdded(@NonNull final Item item) {
+
+            }
+
+            @Override
+            public void onItemRemoved(@NonNull final Item item) {
+
+            }
+
+            @Override
+            public void onIndexChanged() {
+
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a callback, which looks up the position of each navigation item, whose
+     * selection state has been changed, in order to update the corresponding view.
+     *
+     * @return The callback, which has been created, as an instance of the type {@link
+     * NavigationSelection.Callback}. The callback may not be null
+     */
+    @NonNull
+    private NavigationSelection.Callback<Item, Object> createSelectionCallback() {
+        return new NavigationSelection.Callback<Item, Object>() {
+
+            @Override
+            public boolean onSelect(@NonNull final Item item) {
+                return true;
+            }
+
+            @Override
+            public void onSelected(@NonNull final Item item, @Nullable final Object arguments) {
+
+            }
+
+            @Override
+            public void onUnselected() {
+
+            }
+
+            @Override
+            public void onSelectionStateChanged(@NonNull final Item item) {
+                int itemIndex = index.indexOf(item);
+
+                if (itemIndex != -1) {
+                    changedPosition = index.getPosition(itemIndex);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Populates the index with categories and navigation items.
+     */
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(navigationItemCount * 2);
+
+        for (int i = 0; i < navigationItemCount; i++) {
+            items.add(new Item(null));
+            items.add(new Item("de.mrapp.example.Fragment" + i));
+        }
+
+        index = new NavigationIndex<>(createSource(), createListener());
+        index.rebuild();
+        selection = new NavigationSelection<>(index, createSelectionCallback());
+        middleItem = index.get(navigationItemCount / 2);
+        lastItem = index.get(navigationItemCount - 1);
+        lastFragment = lastItem.getFragment();
+    }
+
+    /**
+     * Benchmarks the selection of a navigation item. Each invocation changes the selection, which
+     * requires to look up the index of the navigation item, to ask the callback, whether it may
+     * be selected, and to look up the positions of the previously and newly selected navigation
+     * items in order to update the corresponding views.
+     *
+     * @return The position of the navigation item, whose selection state has been changed most
+     * recently, as an {@link Integer} value
+     */
+    @Benchmark
+    public int select() {
+        selection.select(selection.isSelected(middleItem) ? lastItem : middleItem, null);
+        return changedPosition;
+    }
+
+    /**
+     * Benchmarks the insertion of a navigation item in the middle of the index, followed by its
+     * removal, which restores the initial state.
+     *
+     * @return The number of navigation items after the insertion as an {@link Integer} value
+     */
+    @Benchmark
+    public int insertAndRemove() {
+        int position = items.size() / 2;
+        items.add(position, new Item("de.mrapp.example.InsertedFragment"));
+        index.onItemRangeInserted(position, 1);
+        int size = index.size();
+        items.remove(position);
+        index.onItemRangeRemoved(position, 1);
+        return size;
+    }
+
+    /**
+     * Benchmarks the lookup of the fragment, which should initially be shown.
+     *
+     * @return The index of the navigation item, which is associated with the fragment, as an
+     * {@link Integer} value
+     */
+    @Benchmark
+    public int lookUpInitialFragment() {
+        return index.indexOfFragment(lastFragment);
+    }
+
+    /**
+     * Benchmarks a full rebuild of the index, as it is performed, when the adapter's data set has
+     * been changed.
+     *
+     * @return The number of navigation items after the rebuild as an {@link Integer} value
+     */
+    @Benchmark
+    public int rebuild() {
+        index.rebuild();
+        return index.size();
+    }
+
+}
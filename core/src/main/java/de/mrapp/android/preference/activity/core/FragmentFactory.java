@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Defines the interface, a class, which allows to create fragments by their class names without
+ * using reflection, must implement. Implementations are usually generated at compile time by the
+ * annotation processor, which is provided by the module "processor".
+ *
+ * @param <T>
+ *         The type of the fragments, which are created by the factory
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public interface FragmentFactory<T> {
+
+    /**
+     * Creates a new instance of the fragment, which corresponds to a specific class name.
+     *
+     * @param className
+     *         The fully classified class name of the fragment, which should be created, as a {@link
+     *         String}. The class name may not be null
+     * @return The fragment, which has been created, as an instance of the generic type T or null,
+     * if the factory is not able to create fragments of the given class
+     */
+    @Nullable
+    T instantiate(@NonNull String className);
+
+}
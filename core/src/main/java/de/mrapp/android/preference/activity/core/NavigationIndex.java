@@ -0,0 +1,490 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import de.mrapp.util.Condition;
+
+/**
+ * An index of the navigation items, which are contained by a list of items, e.g. the items of an
+ * adapter. It maps each navigation item to its index among all navigation items and to its
+ * position within the list. The index is updated incrementally, when items are inserted, removed
+ * or changed.
+ *
+ * @param <T>
+ *         The type of the navigation items
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class NavigationIndex<T extends NavigationItem> {
+
+    /**
+     * Defines the interface, a class, which provides the items, which should be indexed, must
+     * implement.
+     *
+     * @param <T>
+     *         The type of the navigation items
+     */
+    public interface Source<T> {
+
+        /**
+         * Returns the total number of items, including items, which are not navigation items.
+         *
+         * @return The total number of items as an {@link Integer} value
+         */
+        int getItemCount();
+
+        /**
+         * Returns the navigation item at a specific position.
+         *
+         * @param position
+         *         The position of the item, which should be returned, as an {@link Integer} value
+         * @return The navigation item at the given position or null, if the item at the given
+         * position is not a navigation item
+         */
+        @Nullable
+        T getNavigationItem(int position);
+
+    }
+
+    /**
+     * Defines the interface, a class, which should be notified, when the index has been changed,
+     * must implement.
+     *
+     * @param <T>
+     *         The type of the navigation items
+     */
+    public interface Listener<T> {
+
+        /**
+         * The method, which is invoked, when a navigation item has been added to the index.
+         *
+         * @param item
+         *         The navigation item, which has been added. The item may not be null
+         */
+        void onItemAdded(@NonNull T item);
+
+        /**
+         * The method, which is invoked, when a navigation item has been removed from the index.
+         *
+         * @param item
+         *         The navigation item, which has been removed. The item may not be null
+         */
+        void onItemRemoved(@NonNull T item);
+
+        /**
+         * The method, which is invoked, when the index has been changed. It is invoked after all
+         * added and removed navigation items have been reported.
+         */
+        void onIndexChanged();
+
+    }
+
+    /**
+     * The source, which provides the items, which are indexed.
+     */
+    private final Source<T> source;
+
+    /**
+     * The listener, which is notified, when the index has been changed.
+     */
+    private final Listener<T> listener;
+
+    /**
+     * A list, which contains all navigation items in the order of their positions.
+     */
+    private List<T> items;
+
+    /**
+     * A map, which maps the navigation items to their indices among all navigation items.
+     * Navigation items are compared by identity.
+     */
+    private Map<T, Integer> indices;
+
+    /**
+     * An array, which contains the positions of the navigation items in ascending order.
+     */
+    private int[] positions;
+
+    /**
+     * The number of items, the index currently accounts for.
+     */
+    private int indexedItemCount;
+
+    /**
+     * True, if the index must be rebuilt, once the source's data is consistent again, false
+     * otherwise.
+     */
+    private boolean invalidated;
+
+    /**
+     * Updates the number of items, the index accounts for. If the number does not match the
+     * source's current item count, the source's data is not consistent with the events, which have
+     * been reported so far, e.g. while a batch of updates is reported. In such case the index is
+     * invalidated and rebuilt as soon as the data is consistent again.
+     *
+     * @param delta
+     *         The number of items, which have been inserted or removed (if negative), as an {@link
+     *         Integer} value
+     * @return True, if the index may be updated incrementally, false otherwise
+     */
+    private boolean updateIndexedItemCount(final int delta) {
+        indexedItemCount += delta;
+
+        if (indexedItemCount != source.getItemCount()) {
+            invalidated = true;
+            return false;
+        } else if (invalidated) {
+            rebuild();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the index of the first navigation item, whose position is greater or equal to a
+     * specific position.
+     *
+     * @param position
+     *         The position as an {@link Integer} value
+     * @return The index of the first navigation item, whose position is greater or equal to the
+     * given position, as an {@link Integer} value
+     */
+    private int indexOfPosition(final int position) {
+        int low = 0;
+        int high = items.size();
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (positions[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Ensures, that the array, which contains the positions of the navigation items, is able to
+     * store a specific number of positions.
+     *
+     * @param capacity
+     *         The number of positions, which must be storable, as an {@link Integer} value
+     */
+    private void ensurePositionCapacity(final int capacity) {
+        if (capacity > positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(capacity, positions.length * 2));
+        }
+    }
+
+    /**
+     * Updates the indices of all navigation items, starting at a specific index.
+     *
+     * @param fromIndex
+     *         The index of the first navigation item, whose index should be updated, as an {@link
+     *         Integer} value
+     */
+    private void reindex(final int fromIndex) {
+        for (int i = fromIndex; i < items.size(); i++) {
+            indices.put(items.get(i), i);
+        }
+    }
+
+    /**
+     * Creates a new index of navigation items. The index is initially empty until the method
+     * {@link #rebuild()} is called.
+     *
+     * @param source
+     *         The source, which provides the items, which should be indexed, as an instance of
+     *         the type {@link Source}. The source may not be null
+     * @param listener
+     *         The listener, which should be notified, when the index has been changed, as an
+     *         instance of the type {@link Listener}. The listener may not be null
+     */
+    public NavigationIndex(@NonNull final Source<T> source, @NonNull final Listener<T> listener) {
+        Condition.INSTANCE.ensureNotNull(source, "The source may not be null");
+        Condition.INSTANCE.ensureNotNull(listener, "The listener may not be null");
+        this.source = source;
+        this.listener = listener;
+        this.items = new ArrayList<>();
+        this.indices = new IdentityHashMap<>();
+        this.positions = new int[1];
+    }
+
+    /**
+     * Rebuilds the index by scanning all of the source's items. Navigation items, which have not
+     * been indexed before, are reported as added, navigation items, which are not contained by
+     * the source anymore, are reported as removed.
+     */
+    public final void rebuild() {
+        List<T> oldItems = items;
+        Map<T, Integer> oldIndices = indices;
+        List<T> addedItems = new ArrayList<>();
+        int itemCount = source.getItemCount();
+        items = new ArrayList<>();
+        indices = new IdentityHashMap<>();
+        positions = new int[Math.max(itemCount, 1)];
+        indexedItemCount = itemCount;
+        invalidated = false;
+
+        for (int i = 0; i < itemCount; i++) {
+            T item = source.getNavigationItem(i);
+
+            if (item != null) {
+                int index = items.size();
+                items.add(item);
+                indices.put(item, index);
+                positions[index] = i;
+
+                if (!oldIndices.containsKey(item)) {
+                    addedItems.add(item);
+                }
+            }
+        }
+
+        for (T addedItem : addedItems) {
+            listener.onItemAdded(addedItem);
+        }
+
+        for (T oldItem : oldItems) {
+            if (!indices.containsKey(oldItem)) {
+                listener.onItemRemoved(oldItem);
+            }
+        }
+
+        listener.onIndexChanged();
+    }
+
+    /**
+     * Updates the index, when items have been inserted into the source.
+     *
+     * @param positionStart
+     *         The position of the first item, which has been inserted, as an {@link Integer}
+     *         value
+     * @param itemCount
+     *         The number of items, which have been inserted, as an {@link Integer} value
+     */
+    public final void onItemRangeInserted(final int positionStart, final int itemCount) {
+        if (updateIndexedItemCount(itemCount)) {
+            int firstIndex = indexOfPosition(positionStart);
+            List<T> insertedItems = new ArrayList<>();
+            List<Integer> insertedPositions = new ArrayList<>();
+
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                T item = source.getNavigationItem(i);
+
+                if (item != null) {
+                    if (indices.containsKey(item)) {
+                        rebuild();
+                        return;
+                    }
+
+                    insertedItems.add(item);
+                    insertedPositions.add(i);
+                }
+            }
+
+            int size = items.size();
+            int insertedCount = insertedItems.size();
+            ensurePositionCapacity(size + insertedCount);
+            System.arraycopy(positions, firstIndex, positions, firstIndex + insertedCount,
+                    size - firstIndex);
+
+            for (int i = 0; i < insertedCount; i++) {
+                positions[firstIndex + i] = insertedPositions.get(i);
+            }
+
+            for (int i = firstIndex + insertedCount; i < size + insertedCount; i++) {
+                positions[i] += itemCount;
+            }
+
+            items.addAll(firstIndex, insertedItems);
+            reindex(firstIndex);
+
+            for (T item : insertedItems) {
+                listener.onItemAdded(item);
+            }
+
+            listener.onIndexChanged();
+        }
+    }
+
+    /**
+     * Updates the index, when items have been removed from the source.
+     *
+     * @param positionStart
+     *         The former position of the first item, which has been removed, as an {@link
+     *         Integer} value
+     * @param itemCount
+     *         The number of items, which have been removed, as an {@link Integer} value
+     */
+    public final void onItemRangeRemoved(final int positionStart, final int itemCount) {
+        if (updateIndexedItemCount(-itemCount)) {
+            int firstIndex = indexOfPosition(positionStart);
+            int lastIndex = indexOfPosition(positionStart + itemCount);
+            int size = items.size();
+            List<T> removedItems = new ArrayList<>(items.subList(firstIndex, lastIndex));
+            items.subList(firstIndex, lastIndex).clear();
+            System.arraycopy(positions, lastIndex, positions, firstIndex, size - lastIndex);
+
+            for (int i = firstIndex; i < size - (lastIndex - firstIndex); i++) {
+                positions[i] -= itemCount;
+            }
+
+            for (T item : removedItems) {
+                indices.remove(item);
+            }
+
+            reindex(firstIndex);
+
+            for (T item : removedItems) {
+                listener.onItemRemoved(item);
+            }
+
+            listener.onIndexChanged();
+        }
+    }
+
+    /**
+     * Verifies, that the index is still valid, when items of the source have been changed. If the
+     * changed items have been replaced by other items, the index is rebuilt.
+     *
+     * @param positionStart
+     *         The position of the first item, which has been changed, as an {@link Integer} value
+     * @param itemCount
+     *         The number of items, which have been changed, as an {@link Integer} value
+     */
+    public final void onItemRangeChanged(final int positionStart, final int itemCount) {
+        if (updateIndexedItemCount(0)) {
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                int index = indexOfPosition(i);
+                T indexedItem = index < items.size() && positions[index] == i ? items.get(index) :
+                        null;
+
+                if (source.getNavigationItem(i) != indexedItem) {
+                    rebuild();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the index, when items of the source have been moved.
+     */
+    public final void onItemRangeMoved() {
+        if (updateIndexedItemCount(0)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Returns the number of navigation items, which are contained by the index.
+     *
+     * @return The number of navigation items, which are contained by the index, as an {@link
+     * Integer} value
+     */
+    public final int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns the navigation item, which corresponds to a specific index.
+     *
+     * @param index
+     *         The index of the navigation item, which should be returned, as an {@link Integer}
+     *         value
+     * @return The navigation item, which corresponds to the given index. The item may not be null
+     */
+    @NonNull
+    public final T get(final int index) {
+        return items.get(index);
+    }
+
+    /**
+     * Returns a list, which contains all navigation items in the order of their positions.
+     *
+     * @return A list, which contains all navigation items, as an instance of the type {@link
+     * List}. The list may not be null
+     */
+    @NonNull
+    public final List<T> getAll() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Returns the index of a specific navigation item.
+     *
+     * @param item
+     *         The navigation item, whose index should be returned. The item may not be null
+     * @return The index of the given navigation item as an {@link Integer} value or -1, if the
+     * item is not contained by the index
+     */
+    public final int indexOf(@NonNull final T item) {
+        Condition.INSTANCE.ensureNotNull(item, "The item may not be null");
+        Integer index = indices.get(item);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the position of the navigation item, which corresponds to a specific index, within
+     * the source.
+     *
+     * @param index
+     *         The index of the navigation item, whose position should be returned, as an {@link
+     *         Integer} value
+     * @return The position of the navigation item, which corresponds to the given index, as an
+     * {@link Integer} value
+     */
+    public final int getPosition(final int index) {
+        Condition.INSTANCE.ensureAtLeast(index, 0, "The index must be at least 0");
+        Condition.INSTANCE.ensureAtMaximum(index, items.size() - 1,
+                "The index must be at maximum " + (items.size() - 1));
+        return positions[index];
+    }
+
+    /**
+     * Returns the index of the first navigation item, which is associated with a specific
+     * fragment.
+     *
+     * @param fragment
+     *         The fully classified class name of the fragment as a {@link String} or null
+     * @return The index of the first navigation item, which is associated with the given fragment,
+     * as an {@link Integer} value or -1, if no such item is contained by the index
+     */
+    public final int indexOfFragment(@Nullable final String fragment) {
+        if (fragment != null && fragment.length() > 0) {
+            for (int i = 0; i < items.size(); i++) {
+                if (fragment.equals(items.get(i).getFragment())) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+}
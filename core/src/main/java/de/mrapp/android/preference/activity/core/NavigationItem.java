@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Defines the interface, an item of a navigation, which can be managed by a {@link
+ * NavigationIndex}, must implement.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public interface NavigationItem {
+
+    /**
+     * Returns the fully classified class name of the fragment, which is associated with the item.
+     *
+     * @return The fully classified class name of the fragment, which is associated with the item,
+     * as a {@link String} or null, if no fragment is associated with the item
+     */
+    @Nullable
+    String getFragment();
+
+}
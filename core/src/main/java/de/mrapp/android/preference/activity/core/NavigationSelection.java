@@ -0,0 +1,238 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import de.mrapp.util.Condition;
+
+/**
+ * The selection of a navigation item among the items, which are contained by a {@link
+ * NavigationIndex}. At most one navigation item can be selected at once. A callback is asked,
+ * before a navigation item is selected, and is allowed to veto the selection.
+ *
+ * @param <T>
+ *         The type of the navigation items
+ * @param <A>
+ *         The type of the arguments, which are passed along with a selection
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class NavigationSelection<T extends NavigationItem, A> {
+
+    /**
+     * Defines the interface, a class, which should be notified about the selection's events, must
+     * implement.
+     *
+     * @param <T>
+     *         The type of the navigation items
+     * @param <A>
+     *         The type of the arguments, which are passed along with a selection
+     */
+    public interface Callback<T, A> {
+
+        /**
+         * The method, which is invoked, when a navigation item is about to be selected.
+         *
+         * @param item
+         *         The navigation item, which is about to be selected. The item may not be null
+         * @return True, if the navigation item should be selected, false otherwise
+         */
+        boolean onSelect(@NonNull T item);
+
+        /**
+         * The method, which is invoked, when a navigation item has been selected. It is also
+         * invoked, if the selection has been vetoed.
+         *
+         * @param item
+         *         The navigation item, which has been selected. The item may not be null
+         * @param arguments
+         *         The arguments, which have been passed along with the selection, or null, if no
+         *         arguments have been passed
+         */
+        void onSelected(@NonNull T item, @Nullable A arguments);
+
+        /**
+         * The method, which is invoked, when the selected navigation item has been unselected.
+         */
+        void onUnselected();
+
+        /**
+         * The method, which is invoked, when the selection state of a navigation item has been
+         * changed. It is invoked for the previously and the newly selected navigation item, after
+         * the other callbacks have been invoked.
+         *
+         * @param item
+         *         The navigation item, whose selection state has been changed. The item may not be
+         *         null
+         */
+        void onSelectionStateChanged(@NonNull T item);
+
+    }
+
+    /**
+     * The index, which contains the navigation items, which can be selected.
+     */
+    private final NavigationIndex<T> index;
+
+    /**
+     * The callback, which is notified about the selection's events.
+     */
+    private final Callback<T, A> callback;
+
+    /**
+     * The currently selected navigation item.
+     */
+    private T selectedItem;
+
+    /**
+     * The index of the currently selected navigation item.
+     */
+    private int selectedIndex;
+
+    /**
+     * Notifies the callback, that the selection state of a specific navigation item has been
+     * changed.
+     *
+     * @param item
+     *         The navigation item, whose selection state has been changed, or null, if the
+     *         callback should not be notified
+     */
+    private void notifyOnSelectionStateChanged(@Nullable final T item) {
+        if (item != null) {
+            callback.onSelectionStateChanged(item);
+        }
+    }
+
+    /**
+     * Creates a new selection of a navigation item. Initially, no navigation item is selected.
+     *
+     * @param index
+     *         The index, which contains the navigation items, which can be selected, as an
+     *         instance of the class {@link NavigationIndex}. The index may not be null
+     * @param callback
+     *         The callback, which should be notified about the selection's events, as an instance
+     *         of the type {@link Callback}. The callback may not be null
+     */
+    public NavigationSelection(@NonNull final NavigationIndex<T> index,
+                               @NonNull final Callback<T, A> callback) {
+        Condition.INSTANCE.ensureNotNull(index, "The index may not be null");
+        Condition.INSTANCE.ensureNotNull(callback, "The callback may not be null");
+        this.index = index;
+        this.callback = callback;
+        this.selectedItem = null;
+        this.selectedIndex = -1;
+    }
+
+    /**
+     * Returns the currently selected navigation item.
+     *
+     * @return The currently selected navigation item or null, if no navigation item is selected
+     */
+    @Nullable
+    public final T getSelectedItem() {
+        return selectedItem;
+    }
+
+    /**
+     * Returns the index of the currently selected navigation item among all navigation items.
+     *
+     * @return The index of the currently selected navigation item as an {@link Integer} value or
+     * -1, if no navigation item is selected
+     */
+    public final int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    /**
+     * Returns, whether a specific navigation item is currently selected, or not.
+     *
+     * @param item
+     *         The navigation item, which should be checked, or null
+     * @return True, if the given navigation item is currently selected, false otherwise
+     */
+    public final boolean isSelected(@Nullable final T item) {
+        return item != null && selectedItem == item;
+    }
+
+    /**
+     * Selects a specific navigation item.
+     *
+     * @param item
+     *         The navigation item, which should be selected, or null, if no navigation item should
+     *         be selected
+     * @param arguments
+     *         The arguments, which should be passed along with the selection, or null, if no
+     *         arguments should be passed
+     */
+    public final void select(@Nullable final T item, @Nullable final A arguments) {
+        select(item == null ? -1 : index.indexOf(item), arguments);
+    }
+
+    /**
+     * Selects the navigation item, which corresponds to a specific index. If the callback vetoes
+     * the selection, no navigation item is selected afterwards.
+     *
+     * @param index
+     *         The index of the navigation item, which should be selected, among all navigation
+     *         items as an {@link Integer} value or -1, if no navigation item should be selected
+     * @param arguments
+     *         The arguments, which should be passed along with the selection, or null, if no
+     *         arguments should be passed
+     */
+    public final void select(final int index, @Nullable final A arguments) {
+        T item = index == -1 ? null : this.index.get(index);
+
+        if (selectedItem != item) {
+            T previousItem = selectedItem;
+
+            if (item != null && callback.onSelect(item)) {
+                selectedItem = item;
+                selectedIndex = index;
+            } else {
+                selectedItem = null;
+                selectedIndex = -1;
+            }
+
+            if (item != null) {
+                callback.onSelected(item, arguments);
+            } else {
+                callback.onUnselected();
+            }
+
+            notifyOnSelectionStateChanged(previousItem);
+            notifyOnSelectionStateChanged(selectedItem);
+        }
+    }
+
+    /**
+     * Adapts the index of the currently selected navigation item, after the index of navigation
+     * items has been changed. If the selected navigation item has been removed, the navigation
+     * item at the same index, or the last one, is selected instead.
+     */
+    public final void onIndexChanged() {
+        if (selectedItem != null) {
+            int newIndex = index.indexOf(selectedItem);
+
+            if (newIndex != -1) {
+                selectedIndex = newIndex;
+            } else if (index.size() > 0) {
+                select(Math.min(selectedIndex, index.size() - 1), null);
+            } else {
+                select(null, null);
+            }
+        }
+    }
+
+}
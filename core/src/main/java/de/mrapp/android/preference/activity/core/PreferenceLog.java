@@ -0,0 +1,1069 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import de.mrapp.util.Condition;
+
+/**
+ * A persistent store for the values of preferences, which appends a typed record to a
+ * memory-mapped log file whenever a value is changed. Unlike an XML file, which must be parsed
+ * completely when it is loaded and rewritten completely whenever a value is changed, loading the
+ * log only requires to scan its records once and changing a value only requires to append a
+ * single record to the mapped memory.
+ *
+ * Each record is protected by a checksum and is only considered complete, once its length has
+ * been written. When the log is opened, records, which have been written incompletely, e.g.
+ * because the process has been killed, are discarded. Records, which have been superseded by
+ * later records, are removed by compacting the log, which writes the current values to a new file
+ * and replaces the log atomically. Values, which have been written, survive a crash of the
+ * process. In order to survive a crash of the operating system, the method {@link #sync()} must
+ * be called. A file must not be opened by multiple instances at the same time.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class PreferenceLog implements Closeable {
+
+    /**
+     * A value, which is contained by the log.
+     */
+    private static final class Entry {
+
+        /**
+         * The value.
+         */
+        private final Object value;
+
+        /**
+         * The size of the record, which contains the value, in bytes.
+         */
+        private final int size;
+
+        /**
+         * Creates a new value, which is contained by the log.
+         *
+         * @param value
+         *         The value. The value may not be null
+         * @param size
+         *         The size of the record, which contains the value, in bytes
+         */
+        Entry(@NonNull final Object value, final int size) {
+            this.value = value;
+            this.size = size;
+        }
+
+    }
+
+    /**
+     * The default minimum size of the log in bytes, before it is compacted.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 64 * 1024;
+
+    /**
+     * The number, which is written at the beginning of each log file in order to identify it.
+     */
+    private static final int MAGIC_NUMBER = 0x504C4F47;
+
+    /**
+     * The version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    private static final int FILE_HEADER_SIZE = 8;
+
+    /**
+     * The size of the header of each record in bytes. It consists of the length and the checksum
+     * of the record's payload.
+     */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * The minimum number of bytes, which are mapped into memory.
+     */
+    private static final int MIN_CAPACITY = 16 * 1024;
+
+    /**
+     * The suffix of the temporary file, which is used while the log is compacted.
+     */
+    private static final String COMPACTION_FILE_SUFFIX = ".compact";
+
+    /**
+     * The type of records, which remove a value.
+     */
+    private static final byte TYPE_REMOVED = 0;
+
+    /**
+     * The type of records, which contain a {@link String}.
+     */
+    private static final byte TYPE_STRING = 1;
+
+    /**
+     * The type of records, which contain a set of strings.
+     */
+    private static final byte TYPE_STRING_SET = 2;
+
+    /**
+     * The type of records, which contain an {@link Integer}.
+     */
+    private static final byte TYPE_INT = 3;
+
+    /**
+     * The type of records, which contain a {@link Long}.
+     */
+    private static final byte TYPE_LONG = 4;
+
+    /**
+     * The type of records, which contain a {@link Float}.
+     */
+    private static final byte TYPE_FLOAT = 5;
+
+    /**
+     * The type of records, which contain a {@link Boolean}.
+     */
+    private static final byte TYPE_BOOLEAN = 6;
+
+    /**
+     * The charset, which is used to encode strings.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The log file.
+     */
+    private final File file;
+
+    /**
+     * A map, which contains the current values, mapped to their keys.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * The file, which is used to access the log file.
+     */
+    private RandomAccessFile randomAccessFile;
+
+    /**
+     * The memory, the log file is mapped to.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * The position, where the next record is appended.
+     */
+    private int end;
+
+    /**
+     * The total size of the records, which contain the current values, in bytes.
+     */
+    private long liveSize;
+
+    /**
+     * The minimum size of the log in bytes, before it is compacted.
+     */
+    private long compactionThreshold;
+
+    /**
+     * True, if the log is currently compacted, false otherwise.
+     */
+    private boolean compacting;
+
+    /**
+     * True, if the log has been closed, false otherwise.
+     */
+    private boolean closed;
+
+    /**
+     * Returns the temporary file, which is used while a specific log file is compacted.
+     *
+     * @param file
+     *         The log file. The file may not be null
+     * @return The temporary file. The file may not be null
+     */
+    @NonNull
+    private static File getCompactionFile(@NonNull final File file) {
+        return new File(file.getPath() + COMPACTION_FILE_SUFFIX);
+    }
+
+    /**
+     * Returns the type of the record, which should be used to store a specific value.
+     *
+     * @param value
+     *         The value. The value may not be null
+     * @return The type of the record
+     */
+    private static byte getType(@NonNull final Object value) {
+        if (value instanceof String) {
+            return TYPE_STRING;
+        } else if (value instanceof Set) {
+            return TYPE_STRING_SET;
+        } else if (value instanceof Integer) {
+            return TYPE_INT;
+        } else if (value instanceof Long) {
+            return TYPE_LONG;
+        } else if (value instanceof Float) {
+            return TYPE_FLOAT;
+        } else if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        }
+
+        throw new IllegalArgumentException("Unsupported value type: " + value.getClass());
+    }
+
+    /**
+     * Writes a string, prefixed by its length in bytes, to a stream.
+     *
+     * @param stream
+     *         The stream, the string should be written to. The stream may not be null
+     * @param string
+     *         The string, which should be written. The string may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the string could not be written
+     */
+    private static void writeString(@NonNull final DataOutputStream stream,
+                                    @NonNull final String string) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    /**
+     * Reads a string, which is prefixed by its length in bytes, from a buffer.
+     *
+     * @param buffer
+     *         The buffer, the string should be read from. The buffer must be backed by an array
+     *         and may not be null
+     * @return The string, which has been read. The string may not be null
+     */
+    @NonNull
+    private static String readString(@NonNull final ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+
+        String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                length, UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+
+    /**
+     * Encodes a record, which sets or removes the value, which corresponds to a specific key.
+     *
+     * @param type
+     *         The type of the record
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The value or null, if the record removes the value
+     * @return An array, which contains the encoded record, including its header. The array may
+     * not be null
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    private static byte[] encode(final byte type, @NonNull final String key,
+                                 @Nullable final Object value) {
+        try {
+            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+            DataOutputStream stream = new DataOutputStream(byteStream);
+            stream.writeInt(0);
+            stream.writeInt(0);
+            stream.writeByte(type);
+            writeString(stream, key);
+
+            switch (type) {
+                case TYPE_STRING:
+                    writeString(stream, (String) value);
+                    break;
+                case TYPE_STRING_SET:
+                    Set<String> strings = (Set<String>) value;
+                    stream.writeInt(strings.size());
+
+                    for (String string : strings) {
+                        writeString(stream, string);
+                    }
+
+                    break;
+                case TYPE_INT:
+                    stream.writeInt((Integer) value);
+                    break;
+                case TYPE_LONG:
+                    stream.writeLong((Long) value);
+                    break;
+                case TYPE_FLOAT:
+                    stream.writeFloat((Float) value);
+                    break;
+                case TYPE_BOOLEAN:
+                    stream.writeBoolean((Boolean) value);
+                    break;
+                default:
+                    break;
+            }
+
+            stream.flush();
+            byte[] record = byteStream.toByteArray();
+            int length = record.length - RECORD_HEADER_SIZE;
+            CRC32 checksum = new CRC32();
+            checksum.update(record, RECORD_HEADER_SIZE, length);
+            ByteBuffer.wrap(record).putInt(0, length).putInt(4, (int) checksum.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode record", e);
+        }
+    }
+
+    /**
+     * Maps a specific number of bytes of the log file into memory. If the file is smaller, it is
+     * extended.
+     *
+     * @param capacity
+     *         The number of bytes, which should be mapped
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be mapped
+     */
+    private void map(final int capacity) throws IOException {
+        buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Opens the log file and restores the values from its records. Incomplete or corrupted records
+     * at the end of the log are discarded.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the log file could not be opened
+     */
+    private void open() throws IOException {
+        File compactionFile = getCompactionFile(file);
+
+        if (compactionFile.exists() && !compactionFile.delete()) {
+            throw new IOException("Failed to delete file " + compactionFile);
+        }
+
+        randomAccessFile = new RandomAccessFile(file, "rw");
+
+        try {
+            long length = randomAccessFile.length();
+
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("File " + file + " is too large");
+            }
+
+            map(Math.max((int) length, MIN_CAPACITY));
+
+            if (length < FILE_HEADER_SIZE) {
+                buffer.putInt(0, MAGIC_NUMBER);
+                buffer.putInt(4, VERSION);
+                end = FILE_HEADER_SIZE;
+                buffer.putInt(end, 0);
+            } else if (buffer.getInt(0) != MAGIC_NUMBER) {
+                throw new IOException("File " + file + " is not a preference log");
+            } else if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported version of file " + file);
+            } else {
+                replay();
+            }
+        } catch (IOException | RuntimeException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Restores the values from the records of the log. The records are read until the first
+     * incomplete or corrupted record is encountered. Any data after the last valid record is
+     * cleared.
+     */
+    private void replay() {
+        int capacity = buffer.capacity();
+        int position = FILE_HEADER_SIZE;
+        ByteBuffer view = buffer.duplicate();
+        CRC32 checksum = new CRC32();
+
+        while (position <= capacity - RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(position);
+
+            if (length <= 0 || length > capacity - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            view.position(position + RECORD_HEADER_SIZE);
+            view.get(payload);
+            checksum.reset();
+            checksum.update(payload, 0, length);
+
+            if ((int) checksum.getValue() != buffer.getInt(position + 4) ||
+                    !replay(payload, RECORD_HEADER_SIZE + length)) {
+                break;
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        end = position;
+
+        if (end <= capacity - 4 && buffer.getInt(end) != 0) {
+            for (int i = end; i < capacity; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Restores the value, which is contained by a specific record.
+     *
+     * @param payload
+     *         An array, which contains the payload of the record. The array may not be null
+     * @param size
+     *         The size of the record in bytes, including its header
+     * @return True, if the record is valid, false otherwise
+     */
+    private boolean replay(@NonNull final byte[] payload, final int size) {
+        try {
+            ByteBuffer record = ByteBuffer.wrap(payload);
+            byte type = record.get();
+            String key = readString(record);
+            Object value;
+
+            switch (type) {
+                case TYPE_REMOVED:
+                    value = null;
+                    break;
+                case TYPE_STRING:
+                    value = readString(record);
+                    break;
+                case TYPE_STRING_SET:
+                    int count = record.getInt();
+
+                    if (count < 0 || count > record.remaining()) {
+                        return false;
+                    }
+
+                    Set<String> strings = new HashSet<>(count);
+
+                    for (int i = 0; i < count; i++) {
+                        strings.add(readString(record));
+                    }
+
+                    value = Collections.unmodifiableSet(strings);
+                    break;
+                case TYPE_INT:
+                    value = record.getInt();
+                    break;
+                case TYPE_LONG:
+                    value = record.getLong();
+                    break;
+                case TYPE_FLOAT:
+                    value = record.getFloat();
+                    break;
+                case TYPE_BOOLEAN:
+                    value = record.get() != 0;
+                    break;
+                default:
+                    return false;
+            }
+
+            if (record.hasRemaining()) {
+                return false;
+            }
+
+            apply(key, value, size);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets or removes the value, which corresponds to a specific key, in memory.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The value or null, if the value should be removed
+     * @param size
+     *         The size of the record, which contains the value, in bytes
+     */
+    private void apply(@NonNull final String key, @Nullable final Object value, final int size) {
+        Entry previousEntry =
+                value != null ? entries.put(key, new Entry(value, size)) : entries.remove(key);
+
+        if (previousEntry != null) {
+            liveSize -= previousEntry.size;
+        }
+
+        if (value != null) {
+            liveSize += size;
+        }
+    }
+
+    /**
+     * Ensures, that a specific number of bytes is mapped into memory. If necessary, the log file
+     * is extended and mapped again.
+     *
+     * @param capacity
+     *         The number of bytes, which should at least be mapped
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be mapped
+     */
+    private void ensureCapacity(final long capacity) throws IOException {
+        if (capacity > buffer.capacity()) {
+            long newCapacity = Math.max(capacity, 2L * buffer.capacity());
+
+            if (newCapacity > Integer.MAX_VALUE) {
+                throw new IOException("File " + file + " is too large");
+            }
+
+            map((int) newCapacity);
+        }
+    }
+
+    /**
+     * Appends a specific record to the log. The record is written in a way, which ensures that
+     * it is discarded when the log is opened, if it has not been written completely.
+     *
+     * @param record
+     *         An array, which contains the record, including its header. The array may not be
+     *         null
+     * @throws IOException
+     *         The exception, which is thrown, if the record could not be written
+     */
+    private void append(@NonNull final byte[] record) throws IOException {
+        ensureCapacity((long) end + record.length + 4);
+        int position = end;
+        buffer.putInt(position + record.length, 0);
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + 4);
+        view.put(record, 4, record.length - 4);
+        buffer.putInt(position, record.length - RECORD_HEADER_SIZE);
+        end = position + record.length;
+    }
+
+    /**
+     * Sets or removes the value, which corresponds to a specific key, by appending a record to
+     * the log. If the value is equal to the current value, no record is appended.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The value or null, if the value should be removed
+     * @throws IOException
+     *         The exception, which is thrown, if the record could not be written
+     */
+    private synchronized void write(@NonNull final String key, @Nullable final Object value)
+            throws IOException {
+        Condition.INSTANCE.ensureNotNull(key, "The key may not be null");
+        ensureOpen();
+        Entry entry = entries.get(key);
+
+        if (entry != null ? !entry.value.equals(value) : value != null) {
+            byte type = value != null ? getType(value) : TYPE_REMOVED;
+            byte[] record = encode(type, key, value);
+            append(record);
+            apply(key, value, record.length);
+        }
+    }
+
+    /**
+     * Returns the value, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @return The value or null, if the log does not contain a value for the given key
+     */
+    @Nullable
+    private synchronized Object get(@NonNull final String key) {
+        Condition.INSTANCE.ensureNotNull(key, "The key may not be null");
+        Entry entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Ensures, that the log has not been closed.
+     */
+    private void ensureOpen() {
+        Condition.INSTANCE.ensureTrue(!closed, "The log has already been closed",
+                IllegalStateException.class);
+    }
+
+    /**
+     * Writes the current values to a new file, which replaces the log file, once it has been
+     * written completely. Records, which are appended to the log in the meantime, are copied to
+     * the new file.
+     *
+     * @param entries
+     *         A map, which contains the values, which should be written, mapped to their keys.
+     *         The map may not be null
+     * @param snapshotEnd
+     *         The position of the log, the given values correspond to
+     * @param compactionFile
+     *         The file, the values should be written to. The file may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the log could not be compacted
+     */
+    private void compact(@NonNull final Map<String, Entry> entries, final int snapshotEnd,
+                         @NonNull final File compactionFile) throws IOException {
+        FileOutputStream fileStream = new FileOutputStream(compactionFile);
+
+        try {
+            BufferedOutputStream stream = new BufferedOutputStream(fileStream);
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            header.putInt(MAGIC_NUMBER).putInt(VERSION);
+            stream.write(header.array());
+            int size = FILE_HEADER_SIZE;
+
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                Object value = entry.getValue().value;
+                byte[] record = encode(getType(value), entry.getKey(), value);
+                stream.write(record);
+                size += record.length;
+            }
+
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+
+                byte[] tail = new byte[end - snapshotEnd];
+                ByteBuffer view = buffer.duplicate();
+                view.position(snapshotEnd);
+                view.get(tail);
+                stream.write(tail);
+                stream.flush();
+                fileStream.getFD().sync();
+                fileStream.close();
+
+                if (!compactionFile.renameTo(file)) {
+                    throw new IOException("Failed to replace file " + file);
+                }
+
+                randomAccessFile.close();
+                randomAccessFile = new RandomAccessFile(file, "rw");
+                end = size + tail.length;
+                map(Math.max(end + 4, MIN_CAPACITY));
+            }
+        } finally {
+            fileStream.close();
+        }
+    }
+
+    /**
+     * Creates a new log, which stores its records in a specific file. If the file exists, the
+     * values are restored from its records. Otherwise, the file is created.
+     *
+     * @param file
+     *         The file, the records should be stored in. The file may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be opened or if it is not a
+     *         valid log
+     */
+    public PreferenceLog(@NonNull final File file) throws IOException {
+        Condition.INSTANCE.ensureNotNull(file, "The file may not be null");
+        this.file = file;
+        this.entries = new HashMap<>();
+        this.compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        open();
+    }
+
+    /**
+     * Returns the file, the records are stored in.
+     *
+     * @return The file, the records are stored in. The file may not be null
+     */
+    @NonNull
+    public final File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the string, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the log does not contain a value for the
+     *         given key
+     * @return The string, which corresponds to the given key, or the given default value
+     */
+    @Nullable
+    public final String getString(@NonNull final String key, @Nullable final String defaultValue) {
+        Object value = get(key);
+        return value != null ? (String) value : defaultValue;
+    }
+
+    /**
+     * Returns the set of strings, which corresponds to a specific key. The returned set must not
+     * be modified.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the log does not contain a value for the
+     *         given key
+     * @return The set of strings, which corresponds to the given key, or the given default value
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public final Set<String> getStringSet(@NonNull final String key,
+                                          @Nullable final Set<String> defaultValue) {
+        Object value = get(key);
+        return value != null ? (Set<String>) value : defaultValue;
+    }
+
+    /**
+     * Returns the integer, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the log does not contain a value for the
+     *         given key
+     * @return The integer, which corresponds to the given key, or the given default value
+     */
+    public final int getInt(@NonNull final String key, final int defaultValue) {
+        Object value = get(key);
+        return value != null ? (Integer) value : defaultValue;
+    }
+
+    /**
+     * Returns the long, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the log does not contain a value for the
+     *         given key
+     * @return The long, which corresponds to the given key, or the given default value
+     */
+    public final long getLong(@NonNull final String key, final long defaultValue) {
+        Object value = get(key);
+        return value != null ? (Long) value : defaultValue;
+    }
+
+    /**
+     * Returns the float, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the log does not contain a value for the
+     *         given key
+     * @return The float, which corresponds to the given key, or the given default value
+     */
+    public final float getFloat(@NonNull final String key, final float defaultValue) {
+        Object value = get(key);
+        return value != null ? (Float) value : defaultValue;
+    }
+
+    /**
+     * Returns the boolean, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param defaultValue
+     *         The value, which should be returned, if the log does not contain a value for the
+     *         given key
+     * @return The boolean, which corresponds to the given key, or the given default value
+     */
+    public final boolean getBoolean(@NonNull final String key, final boolean defaultValue) {
+        Object value = get(key);
+        return value != null ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * Returns, whether the log contains a value for a specific key, or not.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @return True, if the log contains a value for the given key, false otherwise
+     */
+    public final boolean contains(@NonNull final String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns all values, which are contained by the log.
+     *
+     * @return A map, which contains all values, mapped to their keys. The map may not be null
+     */
+    @NonNull
+    public final synchronized Map<String, ?> getAll() {
+        Map<String, Object> values = new HashMap<>(entries.size());
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().value);
+        }
+
+        return values;
+    }
+
+    /**
+     * Returns the number of values, which are contained by the log.
+     *
+     * @return The number of values, which are contained by the log
+     */
+    public final synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Sets the string, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The string, which should be set, or null, if the value should be removed
+     * @throws IOException
+     *         The exception, which is thrown, if the value could not be written
+     */
+    public final void putString(@NonNull final String key, @Nullable final String value)
+            throws IOException {
+        write(key, value);
+    }
+
+    /**
+     * Sets the set of strings, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The set of strings, which should be set, or null, if the value should be removed
+     * @throws IOException
+     *         The exception, which is thrown, if the value could not be written
+     */
+    public final void putStringSet(@NonNull final String key, @Nullable final Set<String> value)
+            throws IOException {
+        write(key, value != null ? Collections.unmodifiableSet(new HashSet<>(value)) : null);
+    }
+
+    /**
+     * Sets the integer, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The integer, which should be set
+     * @throws IOException
+     *         The exception, which is thrown, if the value could not be written
+     */
+    public final void putInt(@NonNull final String key, final int value) throws IOException {
+        write(key, value);
+    }
+
+    /**
+     * Sets the long, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The long, which should be set
+     * @throws IOException
+     *         The exception, which is thrown, if the value could not be written
+     */
+    public final void putLong(@NonNull final String key, final long value) throws IOException {
+        write(key, value);
+    }
+
+    /**
+     * Sets the float, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The float, which should be set
+     * @throws IOException
+     *         The exception, which is thrown, if the value could not be written
+     */
+    public final void putFloat(@NonNull final String key, final float value) throws IOException {
+        write(key, value);
+    }
+
+    /**
+     * Sets the boolean, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @param value
+     *         The boolean, which should be set
+     * @throws IOException
+     *         The exception, which is thrown, if the value could not be written
+     */
+    public final void putBoolean(@NonNull final String key, final boolean value)
+            throws IOException {
+        write(key, value);
+    }
+
+    /**
+     * Removes the value, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key. The key may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the removal could not be written
+     */
+    public final void remove(@NonNull final String key) throws IOException {
+        write(key, null);
+    }
+
+    /**
+     * Returns the size of the log, i.e. the number of bytes, which are occupied by its records,
+     * including records, which have been superseded.
+     *
+     * @return The size of the log in bytes
+     */
+    public final synchronized long getSize() {
+        return end;
+    }
+
+    /**
+     * Returns the size, the log would have after it has been compacted.
+     *
+     * @return The size of the log after compaction in bytes
+     */
+    public final synchronized long getLiveSize() {
+        return FILE_HEADER_SIZE + liveSize;
+    }
+
+    /**
+     * Returns the minimum size of the log, before it should be compacted.
+     *
+     * @return The minimum size of the log in bytes
+     */
+    public final synchronized long getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Sets the minimum size of the log, before it should be compacted.
+     *
+     * @param compactionThreshold
+     *         The minimum size of the log in bytes. The size must be at least 0
+     */
+    public final synchronized void setCompactionThreshold(final long compactionThreshold) {
+        Condition.INSTANCE
+                .ensureAtLeast(compactionThreshold, 0, "The threshold must be at least 0");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Returns, whether the log should be compacted, or not. This is the case, if its size exceeds
+     * the compaction threshold and more than half of its size is occupied by superseded records.
+     *
+     * @return True, if the log should be compacted, false otherwise
+     */
+    public final synchronized boolean needsCompaction() {
+        return !closed && !compacting && end >= compactionThreshold && end > 2 * getLiveSize();
+    }
+
+    /**
+     * Compacts the log by writing the current values to a new file, which replaces the log file
+     * atomically, once it has been written completely. Values can be read and written, while the
+     * log is compacted. This method blocks until the log has been compacted and therefore should
+     * be called on a background thread. If the log is already compacted by another thread, this
+     * method does not have any effect.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the log could not be compacted
+     */
+    public final void compact() throws IOException {
+        Map<String, Entry> snapshot;
+        int snapshotEnd;
+
+        synchronized (this) {
+            ensureOpen();
+
+            if (compacting) {
+                return;
+            }
+
+            compacting = true;
+            snapshot = new HashMap<>(entries);
+            snapshotEnd = end;
+        }
+
+        File compactionFile = getCompactionFile(file);
+
+        try {
+            compact(snapshot, snapshotEnd, compactionFile);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+
+            if (compactionFile.exists()) {
+                //noinspection ResultOfMethodCallIgnored
+                compactionFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Writes all records, which have been appended to the mapped memory, to the storage device.
+     * This method blocks until the records have been written and therefore should be called on a
+     * background thread.
+     */
+    public final synchronized void sync() {
+        if (!closed) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Writes all records to the storage device, truncates the log file to the size of its records
+     * and closes it. Afterwards, the log cannot be used anymore.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the log could not be closed
+     */
+    @Override
+    public final synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            buffer.force();
+            buffer = null;
+
+            try {
+                randomAccessFile.setLength(end);
+            } finally {
+                randomAccessFile.close();
+            }
+        }
+    }
+
+}
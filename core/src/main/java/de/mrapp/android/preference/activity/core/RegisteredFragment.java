@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a fragment, which should be created by the {@link FragmentFactory}, which is generated by
+ * the annotation processor, which is provided by the module "processor". Fragments, which are
+ * referenced by the attribute <code>android:fragment</code> of a <code>NavigationPreference</code>
+ * in an XML resource, are included automatically. This annotation is only needed for fragments,
+ * which are associated with navigation preferences programmatically. The annotated class must be
+ * public and must provide a public constructor without parameters.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface RegisteredFragment {
+
+}
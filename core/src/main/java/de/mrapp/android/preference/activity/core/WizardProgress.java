@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Provides static methods, which implement the navigation between the steps of a wizard, as well
+ * as the formatting of its progress.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public final class WizardProgress {
+
+    /**
+     * Creates a new class, which provides static methods, which implement the navigation between
+     * the steps of a wizard.
+     */
+    private WizardProgress() {
+
+    }
+
+    /**
+     * Returns, whether a next step exists, if a specific step is currently selected.
+     *
+     * @param index
+     *         The index of the currently selected step as an {@link Integer} value or -1, if no
+     *         step is selected
+     * @param count
+     *         The total number of steps as an {@link Integer} value
+     * @return True, if a next step exists, false otherwise
+     */
+    public static boolean hasNextStep(final int index, final int count) {
+        return index < count - 1;
+    }
+
+    /**
+     * Returns, whether a previous step exists, if a specific step is currently selected.
+     *
+     * @param index
+     *         The index of the currently selected step as an {@link Integer} value or -1, if no
+     *         step is selected
+     * @return True, if a previous step exists, false otherwise
+     */
+    public static boolean hasPreviousStep(final int index) {
+        return index > 0;
+    }
+
+    /**
+     * Formats a specific bread crumb title according to the progress of a wizard.
+     *
+     * @param format
+     *         The string, which should be used to format the progress, as a {@link String} or
+     *         null, if the progress should not be shown. The string must contain format
+     *         specifiers for the current step, the total number of steps and the title
+     * @param index
+     *         The index of the currently selected step as an {@link Integer} value or -1, if no
+     *         step is selected
+     * @param count
+     *         The total number of steps as an {@link Integer} value
+     * @param breadCrumbTitle
+     *         The bread crumb title, which should be formatted, as an instance of the type {@link
+     *         CharSequence} or null, if no bread crumb title should be shown
+     * @return The formatted bread crumb title as an instance of the type {@link CharSequence} or
+     * null, if no bread crumb title should be shown
+     */
+    @Nullable
+    public static CharSequence formatBreadCrumbTitle(@Nullable final String format,
+                                                     final int index, final int count,
+                                                     @Nullable final CharSequence breadCrumbTitle) {
+        if (breadCrumbTitle != null && breadCrumbTitle.length() > 0 && format != null &&
+                format.length() > 0 && index != -1) {
+            return String.format(format, index + 1, count, breadCrumbTitle);
+        }
+
+        return breadCrumbTitle;
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link NavigationIndex}.
+ *
+ * @author Michael Rapp
+ */
+public class NavigationIndexTest {
+
+    /**
+     * An item, which is used by the tests. Items, which are not associated with a fragment, are
+     * not navigation items.
+     */
+    private static final class Item implements NavigationItem {
+
+        /**
+         * The fully classified class name of the fragment, which is associated with the item.
+         */
+        private final String fragment;
+
+        /**
+         * Creates a new item.
+         *
+         * @param fragment
+         *         The fully classified class name of the fragment, which should be associated with
+         *         the item, or null, if the item is not a navigation item
+         */
+        Item(final String fragment) {
+            this.fragment = fragment;
+        }
+
+        @Override
+        public String getFragment() {
+            return fragment;
+        }
+
+        @Override
+        public String toString() {
+            return fragment != null ? fragment : "category";
+        }
+
+    }
+
+    /**
+     * A listener, which records the events of an index.
+     */
+    private static final class RecordingListener implements NavigationIndex.Listener<Item> {
+
+        /**
+         * A list, which contains the items, which have been reported as added.
+         */
+        private final List<Item> addedItems = new ArrayList<>();
+
+        /**
+         * A list, which contains the items, which have been reported as removed.
+         */
+        private final List<Item> removedItems = new ArrayList<>();
+
+        /**
+         * The number of times, the index has been changed.
+         */
+        private int changeCount;
+
+        @Override
+        public void onItemAdded(final Item item) {
+            addedItems.add(item);
+        }
+
+        @Override
+        public void onItemRemoved(final Item item) {
+            removedItems.add(item);
+        }
+
+        @Override
+        public void onIndexChanged() {
+            changeCount++;
+        }
+
+        /**
+         * Resets all recorded events.
+         */
+        void reset() {
+            addedItems.clear();
+            removedItems.clear();
+            changeCount = 0;
+        }
+
+    }
+
+    /**
+     * A list, which contains the items, which are indexed.
+     */
+    private List<Item> items;
+
+    /**
+     * The listener, which records the events of the index.
+     */
+    private RecordingListener listener;
+
+    /**
+     * The index, which is tested.
+     */
+    private NavigationIndex<Item> index;
+
+    /**
+     * Creates and returns a source, which provides the items of the list {@link #items}.
+     *
+     * @return The source, which has been created. The source may not be null
+     */
+    private NavigationIndex.Source<Item> createSource() {
+        return new NavigationIndex.Source<Item>() {
+
+            @Override
+            public int getItemCount() {
+                return items.size();
+            }
+
+            @Override
+            public Item getNavigationItem(final int position) {
+                Item item = items.get(position);
+                return item.getFragment() != null ? item : null;
+            }
+
+        };
+    }
+
+    /**
+     * Asserts, that the index is consistent with the list {@link #items}.
+     */
+    private void assertConsistent() {
+        int navigationItemCount = 0;
+
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+
+            if (item.getFragment() != null) {
+                assertSame(item, index.get(navigationItemCount));
+                assertEquals(navigationItemCount, index.indexOf(item));
+                assertEquals(i, index.getPosition(navigationItemCount));
+                navigationItemCount++;
+            }
+        }
+
+        assertEquals(navigationItemCount, index.size());
+    }
+
+    /**
+     * Initializes the tests.
+     */
+    @Before
+    public final void setUp() {
+        items = new ArrayList<>(Arrays.asList(new Item(null), new Item("Fragment0"),
+                new Item("Fragment1"), new Item(null), new Item("Fragment2")));
+        listener = new RecordingListener();
+        index = new NavigationIndex<>(createSource(), listener);
+        index.rebuild();
+    }
+
+    /**
+     * Tests, if the index is built correctly and reports all navigation items as added.
+     */
+    @Test
+    public final void testRebuild() {
+        assertConsistent();
+        assertEquals(3, listener.addedItems.size());
+        assertEquals(0, listener.removedItems.size());
+        assertEquals(1, listener.changeCount);
+        assertEquals(2, index.indexOfFragment("Fragment2"));
+        assertEquals(-1, index.indexOfFragment("Fragment3"));
+        assertEquals(-1, index.indexOfFragment(null));
+    }
+
+    /**
+     * Tests, if the index is updated incrementally, when items are inserted.
+     */
+    @Test
+    public final void testOnItemRangeInserted() {
+        listener.reset();
+        Item insertedItem = new Item("Inserted");
+        items.add(2, insertedItem);
+        items.add(3, new Item(null));
+        index.onItemRangeInserted(2, 2);
+        assertConsistent();
+        assertEquals(1, index.indexOf(insertedItem));
+        assertEquals(Arrays.asList(insertedItem), listener.addedItems);
+        assertEquals(0, listener.removedItems.size());
+        assertEquals(1, listener.changeCount);
+    }
+
+    /**
+     * Tests, if the index is updated incrementally, when items are removed.
+     */
+    @Test
+    public final void testOnItemRangeRemoved() {
+        listener.reset();
+        Item removedItem = items.get(1);
+        items.remove(1);
+        index.onItemRangeRemoved(1, 1);
+        assertConsistent();
+        assertEquals(-1, index.indexOf(removedItem));
+        assertEquals(Arrays.asList(removedItem), listener.removedItems);
+        assertEquals(0, listener.addedItems.size());
+        assertEquals(1, listener.changeCount);
+    }
+
+    /**
+     * Tests, if the index is rebuilt, when an item has been replaced by another one.
+     */
+    @Test
+    public final void testOnItemRangeChanged() {
+        listener.reset();
+        Item replacedItem = items.get(4);
+        Item newItem = new Item("Replacement");
+        items.set(4, newItem);
+        index.onItemRangeChanged(4, 1);
+        assertConsistent();
+        assertEquals(Arrays.asList(newItem), listener.addedItems);
+        assertEquals(Arrays.asList(replacedItem), listener.removedItems);
+        assertEquals(1, listener.changeCount);
+    }
+
+    /**
+     * Tests, that the index is not changed, when items have been changed without being replaced.
+     */
+    @Test
+    public final void testOnItemRangeChangedWithoutReplacement() {
+        listener.reset();
+        index.onItemRangeChanged(0, items.size());
+        assertConsistent();
+        assertEquals(0, listener.changeCount);
+    }
+
+    /**
+     * Tests, if the index is rebuilt, when items have been moved.
+     */
+    @Test
+    public final void testOnItemRangeMoved() {
+        listener.reset();
+        Item movedItem = items.remove(4);
+        items.add(0, movedItem);
+        index.onItemRangeMoved();
+        assertConsistent();
+        assertEquals(0, index.indexOf(movedItem));
+        assertEquals(0, listener.addedItems.size());
+        assertEquals(0, listener.removedItems.size());
+        assertEquals(1, listener.changeCount);
+    }
+
+    /**
+     * Tests, if the index is rebuilt once, when the reported events do not match the source's
+     * data, as it is the case, while a batch of updates is reported.
+     */
+    @Test
+    public final void testInconsistentEvents() {
+        listener.reset();
+        Item firstItem = new Item("First");
+        Item secondItem = new Item("Second");
+        items.add(0, firstItem);
+        items.add(secondItem);
+        index.onItemRangeInserted(0, 1);
+        assertEquals(0, listener.changeCount);
+        index.onItemRangeInserted(items.size() - 1, 1);
+        assertConsistent();
+        assertEquals(2, listener.addedItems.size());
+        assertTrue(listener.addedItems.contains(firstItem));
+        assertTrue(listener.addedItems.contains(secondItem));
+        assertEquals(1, listener.changeCount);
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link NavigationSelection}.
+ *
+ * @author Michael Rapp
+ */
+public class NavigationSelectionTest {
+
+    /**
+     * A navigation item, which is used by the tests.
+     */
+    private static final class Item implements NavigationItem {
+
+        /**
+         * The fully classified class name of the fragment, which is associated with the item.
+         */
+        private final String fragment;
+
+        /**
+         * Creates a new navigation item.
+         *
+         * @param fragment
+         *         The fully classified class name of the fragment, which should be associated with
+         *         the item. The fragment may not be null
+         */
+        Item(final String fragment) {
+            this.fragment = fragment;
+        }
+
+        @Override
+        public String getFragment() {
+            return fragment;
+        }
+
+        @Override
+        public String toString() {
+            return fragment;
+        }
+
+    }
+
+    /**
+     * A callback, which records the events of a selection and allows to veto selections.
+     */
+    private static final class RecordingCallback
+            implements NavigationSelection.Callback<Item, String> {
+
+        /**
+         * A list, which contains the recorded events.
+         */
+        private final List<String> events = new ArrayList<>();
+
+        /**
+         * The navigation item, whose selection should be vetoed, or null, if no selection should
+         * be vetoed.
+         */
+        private Item vetoedItem;
+
+        @Override
+        public boolean onSelect(final Item item) {
+            events.add("select " + item);
+            return item != vetoedItem;
+        }
+
+        @Override
+        public void onSelected(final Item item, final String arguments) {
+            events.add("selected " + item + " " + arguments);
+        }
+
+        @Override
+        public void onUnselected() {
+            events.add("unselected");
+        }
+
+        @Override
+        public void onSelectionStateChanged(final Item item) {
+            events.add("changed " + item);
+        }
+
+    }
+
+    /**
+     * A list, which contains the navigation items, which can be selected.
+     */
+    private List<Item> items;
+
+    /**
+     * The index, which contains the navigation items.
+     */
+    private NavigationIndex<Item> index;
+
+    /**
+     * The callback, which records the events of the selection.
+     */
+    private RecordingCallback callback;
+
+    /**
+     * The selection, which is tested.
+     */
+    private NavigationSelection<Item, String> selection;
+
+    /**
+     * Initializes the tests.
+     */
+    @Before
+    public final void setUp() {
+        items = new ArrayList<>(
+                Arrays.asList(new Item("Fragment0"), new Item("Fragment1"), new Item("Fragment2")));
+        index = new NavigationIndex<>(new NavigationIndex.Source<Item>() {
+
+            @Override
+            public int getItemCount() {
+                return items.size();
+            }
+
+            @Override
+            public Item getNavigationItem(final int position) {
+                return items.get(position);
+            }
+
+        }, new NavigationIndex.Listener<Item>() {
+
+            @Override
+            public void onItemAdded(final Item item) {
+
+            }
+
+            @Override
+            public void onItemRemoved(final Item item) {
+
+            }
+
+            @Override
+            public void onIndexChanged() {
+                selection.onIndexChanged();
+            }
+
+        });
+        callback = new RecordingCallback();
+        selection = new NavigationSelection<>(index, callback);
+        index.rebuild();
+    }
+
+    /**
+     * Tests, if a navigation item can be selected and the callback is notified in the correct
+     * order.
+     */
+    @Test
+    public final void testSelect() {
+        selection.select(1, "arguments");
+        assertSame(items.get(1), selection.getSelectedItem());
+        assertEquals(1, selection.getSelectedIndex());
+        assertTrue(selection.isSelected(items.get(1)));
+        assertFalse(selection.isSelected(items.get(0)));
+        assertEquals(Arrays.asList("select Fragment1", "selected Fragment1 arguments",
+                "changed Fragment1"), callback.events);
+        callback.events.clear();
+        selection.select(items.get(2), null);
+        assertEquals(2, selection.getSelectedIndex());
+        assertEquals(Arrays.asList("select Fragment2", "selected Fragment2 null",
+                "changed Fragment1", "changed Fragment2"), callback.events);
+    }
+
+    /**
+     * Tests, that selecting the navigation item, which is already selected, has no effect.
+     */
+    @Test
+    public final void testSelectSelectedItem() {
+        selection.select(1, null);
+        callback.events.clear();
+        selection.select(items.get(1), "arguments");
+        assertEquals(1, selection.getSelectedIndex());
+        assertTrue(callback.events.isEmpty());
+    }
+
+    /**
+     * Tests, if the selected navigation item can be unselected.
+     */
+    @Test
+    public final void testUnselect() {
+        selection.select(1, null);
+        callback.events.clear();
+        selection.select(null, null);
+        assertNull(selection.getSelectedItem());
+        assertEquals(-1, selection.getSelectedIndex());
+        assertEquals(Arrays.asList("unselected", "changed Fragment1"), callback.events);
+    }
+
+    /**
+     * Tests, that no navigation item is selected, if the callback vetoes a selection, although
+     * the callback is still notified about the selection.
+     */
+    @Test
+    public final void testVeto() {
+        selection.select(0, null);
+        callback.vetoedItem = items.get(2);
+        callback.events.clear();
+        selection.select(2, null);
+        assertNull(selection.getSelectedItem());
+        assertEquals(-1, selection.getSelectedIndex());
+        assertEquals(Arrays.asList("select Fragment2", "selected Fragment2 null",
+                "changed Fragment0"), callback.events);
+    }
+
+    /**
+     * Tests, if the index of the selected navigation item is adapted, when another navigation
+     * item has been inserted before it.
+     */
+    @Test
+    public final void testOnIndexChangedAfterInsertion() {
+        selection.select(1, null);
+        callback.events.clear();
+        items.add(0, new Item("Inserted"));
+        index.onItemRangeInserted(0, 1);
+        assertSame(items.get(2), selection.getSelectedItem());
+        assertEquals(2, selection.getSelectedIndex());
+        assertTrue(callback.events.isEmpty());
+    }
+
+    /**
+     * Tests, if the navigation item at the same index is selected, when the selected navigation
+     * item has been removed.
+     */
+    @Test
+    public final void testOnIndexChangedAfterRemoval() {
+        selection.select(1, null);
+        callback.events.clear();
+        items.remove(1);
+        index.onItemRangeRemoved(1, 1);
+        assertSame(items.get(1), selection.getSelectedItem());
+        assertEquals(1, selection.getSelectedIndex());
+        assertEquals(Arrays.asList("select Fragment2", "selected Fragment2 null",
+                "changed Fragment1", "changed Fragment2"), callback.events);
+    }
+
+    /**
+     * Tests, if the last navigation item is selected, when the selected navigation item, which
+     * has been the last one, has been removed.
+     */
+    @Test
+    public final void testOnIndexChangedAfterRemovalOfLastItem() {
+        selection.select(2, null);
+        items.remove(2);
+        index.onItemRangeRemoved(2, 1);
+        assertSame(items.get(1), selection.getSelectedItem());
+        assertEquals(1, selection.getSelectedIndex());
+    }
+
+    /**
+     * Tests, if the selection is cleared, when all navigation items have been removed.
+     */
+    @Test
+    public final void testOnIndexChangedAfterRemovalOfAllItems() {
+        selection.select(0, null);
+        callback.events.clear();
+        items.clear();
+        index.onItemRangeRemoved(0, 3);
+        assertNull(selection.getSelectedItem());
+        assertEquals(-1, selection.getSelectedIndex());
+        assertEquals(Arrays.asList("unselected", "changed Fragment0"), callback.events);
+    }
+
+}
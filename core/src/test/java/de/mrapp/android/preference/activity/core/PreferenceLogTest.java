@@ -0,0 +1,436 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the functionality of the class {@link PreferenceLog}.
+ *
+ * @author Michael Rapp
+ */
+public class PreferenceLogTest {
+
+    /**
+     * The file, which is used by the tests.
+     */
+    private File file;
+
+    /**
+     * Creates the file, which is used by the tests.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be created
+     */
+    @Before
+    public final void setUp() throws IOException {
+        file = File.createTempFile("preferences", ".log");
+        assertTrue(file.delete());
+    }
+
+    /**
+     * Deletes the files, which have been created by the tests.
+     */
+    @After
+    public final void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+        //noinspection ResultOfMethodCallIgnored
+        new File(file.getPath() + ".compact").delete();
+    }
+
+    /**
+     * Writes values of all supported types to a log.
+     *
+     * @param log
+     *         The log, the values should be written to. The log may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the values could not be written
+     */
+    private static void putValues(final PreferenceLog log) throws IOException {
+        log.putString("string", "value");
+        log.putStringSet("stringSet", new HashSet<>(Arrays.asList("a", "b", "\u00e4")));
+        log.putInt("int", 42);
+        log.putLong("long", Long.MAX_VALUE);
+        log.putFloat("float", 1.5f);
+        log.putBoolean("boolean", true);
+    }
+
+    /**
+     * Asserts, that a log contains the values, which are written by the method {@link
+     * #putValues(PreferenceLog)}.
+     *
+     * @param log
+     *         The log, which should be checked. The log may not be null
+     */
+    private static void assertValues(final PreferenceLog log) {
+        assertEquals(6, log.size());
+        assertEquals("value", log.getString("string", null));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "\u00e4")),
+                log.getStringSet("stringSet", null));
+        assertEquals(42, log.getInt("int", 0));
+        assertEquals(Long.MAX_VALUE, log.getLong("long", 0));
+        assertEquals(1.5f, log.getFloat("float", 0), 0);
+        assertTrue(log.getBoolean("boolean", false));
+    }
+
+    /**
+     * Tests, if values of all supported types can be written and read.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testPutAndGet() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        putValues(log);
+        assertValues(log);
+        assertEquals("default", log.getString("missing", "default"));
+        assertEquals(-1, log.getInt("missing", -1));
+        assertFalse(log.contains("missing"));
+        log.close();
+    }
+
+    /**
+     * Tests, if the values are restored, when a log, which has been closed, is opened again.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testReopen() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        putValues(log);
+        log.close();
+        assertEquals(log.getSize(), file.length());
+        log = new PreferenceLog(file);
+        assertValues(log);
+        log.close();
+    }
+
+    /**
+     * Tests, if the values are restored, when a log, which has not been closed, e.g. because the
+     * process has been killed, is opened again.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testReopenWithoutClosing() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        putValues(log);
+        log.putInt("int", 43);
+        log = new PreferenceLog(file);
+        assertEquals(43, log.getInt("int", 0));
+        log.close();
+    }
+
+    /**
+     * Tests, if values can be removed.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testRemove() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        putValues(log);
+        log.remove("int");
+        log.putString("string", null);
+        log.putStringSet("stringSet", null);
+        assertFalse(log.contains("int"));
+        assertNull(log.getString("string", null));
+        assertEquals(3, log.size());
+        log.close();
+        log = new PreferenceLog(file);
+        assertFalse(log.contains("int"));
+        assertFalse(log.contains("string"));
+        assertFalse(log.contains("stringSet"));
+        assertEquals(3, log.size());
+        log.close();
+    }
+
+    /**
+     * Tests, if no record is appended, if a value is set to its current value.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testPutUnchangedValue() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        log.putInt("int", 1);
+        long size = log.getSize();
+        log.putInt("int", 1);
+        log.remove("missing");
+        assertEquals(size, log.getSize());
+        log.close();
+    }
+
+    /**
+     * Tests, if an incomplete record at the end of the log is discarded, when the log is opened.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testRecoverFromIncompleteRecord() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        log.putInt("first", 1);
+        log.putString("second", "value");
+        log.close();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(file.length() - 3);
+        randomAccessFile.close();
+        log = new PreferenceLog(file);
+        assertEquals(1, log.getInt("first", 0));
+        assertFalse(log.contains("second"));
+        log.putInt("third", 3);
+        log.close();
+        log = new PreferenceLog(file);
+        assertEquals(1, log.getInt("first", 0));
+        assertEquals(3, log.getInt("third", 0));
+        assertEquals(2, log.size());
+        log.close();
+    }
+
+    /**
+     * Tests, if a corrupted record and all subsequent records are discarded, when the log is
+     * opened, and if the corrupted data is overwritten by records, which are appended afterwards.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testRecoverFromCorruptedRecord() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        log.putInt("first", 1);
+        long corruptedPosition = log.getSize() + 12;
+        log.putString("second", "a long value, which is corrupted");
+        log.putInt("third", 3);
+        log.close();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(corruptedPosition);
+        int value = randomAccessFile.read();
+        randomAccessFile.seek(corruptedPosition);
+        randomAccessFile.write(value ^ 0xFF);
+        randomAccessFile.close();
+        log = new PreferenceLog(file);
+        assertEquals(1, log.size());
+        log.putBoolean("fourth", true);
+        log.close();
+        log = new PreferenceLog(file);
+        assertEquals(1, log.getInt("first", 0));
+        assertTrue(log.getBoolean("fourth", false));
+        assertEquals(2, log.size());
+        log.close();
+    }
+
+    /**
+     * Tests, if opening a file, which is not a log, fails.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testOpenInvalidFile() throws IOException {
+        FileOutputStream stream = new FileOutputStream(file);
+        stream.write("<?xml version='1.0' encoding='utf-8'?>".getBytes("UTF-8"));
+        stream.close();
+
+        try {
+            new PreferenceLog(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(file.exists());
+        }
+    }
+
+    /**
+     * Tests, if the log grows beyond the initially mapped memory.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testGrow() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+
+        for (int i = 0; i < 100; i++) {
+            log.putString("key" + i, value + i);
+        }
+
+        assertTrue(log.getSize() > 100 * 1000);
+        log.close();
+        log = new PreferenceLog(file);
+        assertEquals(100, log.size());
+        assertEquals(value + 99, log.getString("key99", null));
+        log.close();
+    }
+
+    /**
+     * Tests, if compacting the log removes superseded records and retains the current values.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testCompact() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        log.setCompactionThreshold(1024);
+        putValues(log);
+
+        for (int i = 0; i < 1000; i++) {
+            log.putInt("counter", i);
+            log.putString("removed", "value");
+            log.remove("removed");
+        }
+
+        assertTrue(log.needsCompaction());
+        long liveSize = log.getLiveSize();
+        log.compact();
+        assertEquals(liveSize, log.getSize());
+        assertFalse(log.needsCompaction());
+        assertFalse(new File(file.getPath() + ".compact").exists());
+        log.putInt("afterCompaction", 1);
+        log.close();
+        log = new PreferenceLog(file);
+        assertEquals(999, log.getInt("counter", 0));
+        assertEquals(1, log.getInt("afterCompaction", 0));
+        assertFalse(log.contains("removed"));
+        assertEquals(8, log.size());
+        log.close();
+    }
+
+    /**
+     * Tests, if values can be written, while the log is compacted on another thread.
+     *
+     * @throws Exception
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testCompactConcurrently() throws Exception {
+        final PreferenceLog log = new PreferenceLog(file);
+
+        for (int i = 0; i < 10000; i++) {
+            log.putInt("key" + (i % 100), i);
+        }
+
+        final IOException[] error = new IOException[1];
+        Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    log.compact();
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            }
+
+        });
+        thread.start();
+
+        for (int i = 0; i < 1000; i++) {
+            log.putLong("concurrent" + i, i);
+        }
+
+        thread.join();
+        assertNull(error[0]);
+        log.close();
+        PreferenceLog reopenedLog = new PreferenceLog(file);
+        Map<String, ?> values = reopenedLog.getAll();
+        assertEquals(1100, values.size());
+        assertEquals(9999, values.get("key99"));
+        assertEquals(999L, values.get("concurrent999"));
+        reopenedLog.close();
+    }
+
+    /**
+     * Tests, if a file, which has been left over by a compaction, which has been interrupted, is
+     * deleted, when the log is opened.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testDeleteInterruptedCompaction() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        log.putInt("int", 1);
+        log.close();
+        File compactionFile = new File(file.getPath() + ".compact");
+        FileOutputStream stream = new FileOutputStream(compactionFile);
+        stream.write(new byte[]{1, 2, 3});
+        stream.close();
+        log = new PreferenceLog(file);
+        assertFalse(compactionFile.exists());
+        assertEquals(1, log.getInt("int", 0));
+        log.close();
+    }
+
+    /**
+     * Tests, if the returned set of strings cannot be modified.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public final void testStringSetIsUnmodifiable() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+
+        try {
+            Set<String> values = new HashSet<>(Arrays.asList("a", "b"));
+            log.putStringSet("stringSet", values);
+            values.add("c");
+            assertEquals(2, log.getStringSet("stringSet", null).size());
+            log.getStringSet("stringSet", null).add("c");
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Tests, if writing to a log, which has been closed, fails.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test(expected = IllegalStateException.class)
+    public final void testWriteAfterClose() throws IOException {
+        PreferenceLog log = new PreferenceLog(file);
+        log.close();
+        log.putInt("int", 1);
+    }
+
+}
@@ -150,6 +150,7 @@ public abstract class AbstractPreferenceActivity extends PreferenceActivity {
 
     @Override
     protected void onCreate(final Bundle savedInstanceState) {
+        setFragmentFactory(new GeneratedFragmentFactory());
         super.onCreate(savedInstanceState);
         SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
         initializeToolbarElevation(sharedPreferences);
@@ -26,6 +26,7 @@ import de.mrapp.android.preference.activity.PreferenceActivity;
 import de.mrapp.android.preference.activity.example.dialog.RemovePreferenceHeaderDialogBuilder;
 import de.mrapp.android.preference.activity.example.dialog.RemovePreferenceHeaderDialogListener;
 import de.mrapp.android.preference.activity.example.fragment.NewPreferenceHeaderFragment;
+import de.mrapp.android.preference.activity.fragment.AbstractPreferenceFragment;
 
 /**
  * An activity, which is used to demonstrate a {@link PreferenceActivity}, whose headers can be
@@ -142,6 +143,7 @@ public class DynamicSettingsActivity extends AbstractPreferenceActivity
 
     @Override
     protected final void onCreateNavigation(@NonNull final PreferenceFragmentCompat fragment) {
+        ((AbstractPreferenceFragment) fragment).useStableIds(true);
         fragment.addPreferencesFromResource(R.xml.dynamic_navigation);
         addNavigationPreference();
     }
@@ -20,6 +20,7 @@ import androidx.preference.PreferenceFragmentCompat;
 import de.mrapp.android.preference.activity.NavigationPreference;
 import de.mrapp.android.preference.activity.PreferenceActivity;
 import de.mrapp.android.preference.activity.PreferenceFragment;
+import de.mrapp.android.preference.activity.fragment.AbstractPreferenceFragment;
 
 /**
  * An activity, which is used to demonstrate the default appearance of a {@link
@@ -66,6 +67,7 @@ public class SettingsActivity extends AbstractPreferenceActivity {
 
     @Override
     public final void onCreateNavigation(@NonNull final PreferenceFragmentCompat fragment) {
+        ((AbstractPreferenceFragment) fragment).useCompiledPreferences(true);
         fragment.addPreferencesFromResource(R.xml.navigation);
         initializeAppearanceNavigationPreference(fragment);
         initializeBehaviorNavigationPreference(fragment);
@@ -68,7 +68,9 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragment
 
     @Override
     public void onCreate(final Bundle savedInstanceState) {
+        useCompiledPreferences(true);
         super.onCreate(savedInstanceState);
+        useStableIds(true);
         SharedPreferences sharedPreferences =
                 PreferenceManager.getDefaultSharedPreferences(getActivity());
         initializeButtonBarElevation(sharedPreferences);
@@ -19,6 +19,7 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.fragment.app.Fragment;
+import de.mrapp.android.preference.activity.core.RegisteredFragment;
 import de.mrapp.android.preference.activity.example.R;
 
 /**
@@ -27,6 +28,7 @@ import de.mrapp.android.preference.activity.example.R;
  *
  * @author Michael Rapp
  */
+@RegisteredFragment
 public class NewPreferenceHeaderFragment extends Fragment {
 
     @Override
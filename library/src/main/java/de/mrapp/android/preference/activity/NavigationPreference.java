@@ -36,6 +36,8 @@ import androidx.annotation.StyleRes;
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.preference.Preference;
+import de.mrapp.android.preference.activity.core.NavigationItem;
+import de.mrapp.android.preference.activity.fragment.AbstractPreferenceFragment;
 import de.mrapp.android.util.view.AbstractSavedState;
 import de.mrapp.util.Condition;
 
@@ -45,7 +47,7 @@ import de.mrapp.util.Condition;
  * @author Michael Rapp
  * @since 5.0.0
  */
-public class NavigationPreference extends Preference {
+public class NavigationPreference extends Preference implements NavigationItem {
 
     /**
      * Defines the callback, a class, which should be notified, when the fragment, which is
@@ -104,6 +106,11 @@ public class NavigationPreference extends Preference {
          */
         Bundle extras;
 
+        /**
+         * The saved value of the attribute "sharedPreferencesName".
+         */
+        String sharedPreferencesName;
+
         /**
          * The saved value of the attribute "tintList".
          */
@@ -141,6 +148,7 @@ public class NavigationPreference extends Preference {
             breadCrumbTitle = TextUtils.CHAR_SEQUENCE_CREATOR.createFromParcel(source);
             fragment = source.readString();
             extras = source.readBundle(NavigationPreference.class.getClassLoader());
+            sharedPreferencesName = source.readString();
             tintList = source.readParcelable(getClass().getClassLoader());
             tintMode = (PorterDuff.Mode) source.readSerializable();
         }
@@ -151,6 +159,7 @@ public class NavigationPreference extends Preference {
             TextUtils.writeToParcel(breadCrumbTitle, dest, flags);
             dest.writeString(fragment);
             dest.writeBundle(extras);
+            dest.writeString(sharedPreferencesName);
             dest.writeParcelable(tintList, flags);
             dest.writeSerializable(tintMode);
         }
@@ -173,6 +182,12 @@ public class NavigationPreference extends Preference {
      */
     private Bundle extras;
 
+    /**
+     * The name of the shared preferences, which are used by the fragment, which is associated with
+     * the preference.
+     */
+    private String sharedPreferencesName;
+
     /**
      * The color state list, which is used to tint the preference's icon.
      */
@@ -237,6 +252,7 @@ public class NavigationPreference extends Preference {
         try {
             obtainBreadCrumbTitle(typedArray);
             obtainFragment(typedArray);
+            obtainSharedPreferencesName(typedArray);
             obtainIcon(typedArray);
             obtainTint(typedArray);
         } finally {
@@ -267,6 +283,19 @@ public class NavigationPreference extends Preference {
         setFragment(typedArray.getString(R.styleable.NavigationPreference_android_fragment));
     }
 
+    /**
+     * Obtains the name of the shared preferences, which are used by the fragment, from a specific
+     * typed array.
+     *
+     * @param typedArray
+     *         The typed array, the name should be obtained from, as an instance of the class {@link
+     *         TypedArray}. The typed array may not be null
+     */
+    private void obtainSharedPreferencesName(@NonNull final TypedArray typedArray) {
+        setSharedPreferencesName(
+                typedArray.getString(R.styleable.NavigationPreference_sharedPreferencesName));
+    }
+
     /**
      * Obtains the preference's icon from a specific typed array.
      *
@@ -483,6 +512,7 @@ public class NavigationPreference extends Preference {
      * preference, as a {@link String} or null, if no fragment is associated with the preference
      */
     @Nullable
+    @Override
     public final String getFragment() {
         return fragment;
     }
@@ -524,6 +554,37 @@ public class NavigationPreference extends Preference {
         this.extras = extras;
     }
 
+    /**
+     * Returns the name of the shared preferences, which are used by the fragment, which is
+     * associated with the preference.
+     *
+     * @return The name of the shared preferences, which are used by the fragment, which is
+     * associated with the preference, as a {@link String} or null, if the fragment uses the
+     * default shared preferences
+     */
+    @Nullable
+    public final String getSharedPreferencesName() {
+        return sharedPreferencesName;
+    }
+
+    /**
+     * Sets the name of the shared preferences, which should be used by the fragment, which is
+     * associated with the preference. This allows to store the values of the fragment's
+     * preferences in a separate file, which is only loaded, when the fragment is shown for the
+     * first time, and which is not rewritten, when the values of other fragments' preferences are
+     * changed. The name is passed to the fragment using the argument {@link
+     * AbstractPreferenceFragment#EXTRA_SHARED_PREFERENCES_NAME}. It has no effect, if a
+     * PreferenceDataStore is used by the fragment.
+     *
+     * @param sharedPreferencesName
+     *         The name, which should be set, as a {@link String} or null, if the fragment should
+     *         use the default shared preferences
+     */
+    public final void setSharedPreferencesName(@Nullable final String sharedPreferencesName) {
+        this.sharedPreferencesName =
+                TextUtils.isEmpty(sharedPreferencesName) ? null : sharedPreferencesName;
+    }
+
     /**
      * Returns the color state list, which is used to tint the preference's icon.
      *
@@ -611,6 +672,7 @@ public class NavigationPreference extends Preference {
             savedState.breadCrumbTitle = getBreadCrumbTitle();
             savedState.fragment = getFragment();
             savedState.extras = getExtras();
+            savedState.sharedPreferencesName = getSharedPreferencesName();
             savedState.tintList = getIconTintList();
             savedState.tintMode = getIconTintMode();
             return savedState;
@@ -626,6 +688,7 @@ public class NavigationPreference extends Preference {
             setBreadCrumbTitle(savedState.breadCrumbTitle);
             setFragment(savedState.fragment);
             setExtras(savedState.extras);
+            setSharedPreferencesName(savedState.sharedPreferencesName);
             setIconTintList(savedState.tintList);
             setIconTintMode(savedState.tintMode);
             super.onRestoreInstanceState(savedState.getSuperState());
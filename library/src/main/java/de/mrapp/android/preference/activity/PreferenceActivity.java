@@ -13,14 +13,20 @@
  */
 package de.mrapp.android.preference.activity;
 
+import android.content.Context;
 import android.content.Intent;
-import android.content.res.Resources.NotFoundException;
+import android.content.res.Configuration;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable;
+import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.ContextThemeWrapper;
 import android.view.Gravity;
 import android.view.MenuItem;
 import android.view.View;
@@ -28,8 +34,13 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.FrameLayout;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.ColorInt;
@@ -38,6 +49,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Px;
 import androidx.annotation.StringRes;
+import androidx.annotation.StyleRes;
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
@@ -46,13 +59,24 @@ import androidx.core.content.ContextCompat;
 import androidx.core.view.ViewCompat;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.preference.PreferenceDataStore;
 import androidx.preference.PreferenceFragmentCompat;
 import de.mrapp.android.preference.activity.adapter.NavigationPreferenceAdapter;
+import de.mrapp.android.preference.activity.adapter.PreferenceViewPool;
+import de.mrapp.android.preference.activity.adapter.PreferenceViewPrewarmer;
+import de.mrapp.android.preference.activity.core.FragmentFactory;
+import de.mrapp.android.preference.activity.core.WizardProgress;
+import de.mrapp.android.preference.activity.datastore.PreferenceLogDataStore;
+import de.mrapp.android.preference.activity.datastore.SharedPreferencesPreloader;
+import de.mrapp.android.preference.activity.datastore.TransactionalPreferenceDataStore;
+import de.mrapp.android.preference.activity.datastore.WriteBehindPreferenceDataStore;
+import de.mrapp.android.preference.activity.fragment.AbstractPreferenceFragment;
+import de.mrapp.android.preference.activity.fragment.FragmentClassPreloader;
 import de.mrapp.android.preference.activity.fragment.NavigationFragment;
+import de.mrapp.android.preference.activity.fragment.ReflectiveFragmentFactory;
 import de.mrapp.android.preference.activity.view.ToolbarLarge;
 import de.mrapp.android.util.DisplayUtil.DeviceType;
 import de.mrapp.android.util.ElevationUtil;
-import de.mrapp.android.util.ThemeUtil;
 import de.mrapp.android.util.ViewUtil;
 import de.mrapp.android.util.view.ElevationShadowView;
 import de.mrapp.util.Condition;
@@ -159,7 +183,7 @@ public abstract class PreferenceActivity extends AppCompatActivity
             PreferenceActivity.class.getName() + "::NavigationFragment";
 
     /**
-     * The tag of the currently shown preference fragment.
+     * The tag of the fragment, which contains the currently shown preferences.
      */
     private static final String PREFERENCE_FRAGMENT_TAG =
             PreferenceActivity.class.getName() + "::PreferenceFragment";
@@ -178,6 +202,70 @@ public abstract class PreferenceActivity extends AppCompatActivity
     private static final String SELECTED_PREFERENCE_FRAGMENT_EXTRA =
             PreferenceActivity.class.getName() + "::SelectedPreferenceFragment";
 
+    /**
+     * The name of the extra, which is used to store the key, which identifies the currently shown
+     * preference fragment within the cache, within a bundle.
+     */
+    private static final String PREFERENCE_FRAGMENT_KEY_EXTRA =
+            PreferenceActivity.class.getName() + "::PreferenceFragmentKey";
+
+    /**
+     * The name of the extra, which is used to store the keys of the cached preference fragments
+     * within a bundle.
+     */
+    private static final String CACHED_PREFERENCE_FRAGMENTS_EXTRA =
+            PreferenceActivity.class.getName() + "::CachedPreferenceFragments";
+
+    /**
+     * The name of the extra, which is used to store the keys of the preference fragments, which
+     * have been prepared in advance, when the activity is used as a wizard, within a bundle.
+     */
+    private static final String PREPARED_PREFERENCE_FRAGMENTS_EXTRA =
+            PreferenceActivity.class.getName() + "::PreparedPreferenceFragments";
+
+    /**
+     * The separator, which precedes the index of a navigation preference within the key of a
+     * preference fragment, if the navigation preference has no key.
+     */
+    private static final String INDEX_KEY_SEPARATOR = "::#";
+
+    /**
+     * The name of the extra, which is used to store the changes, which have been staged by the
+     * wizard's transactions on shared preferences, within a bundle.
+     */
+    private static final String SHARED_PREFERENCES_TRANSACTIONS_EXTRA =
+            PreferenceActivity.class.getName() + "::SharedPreferencesTransactions";
+
+    /**
+     * The name of the extra, which is used to store the changes, which have been staged by the
+     * wizard's transaction on the activity's data store, within a bundle.
+     */
+    private static final String DATA_STORE_TRANSACTION_EXTRA =
+            PreferenceActivity.class.getName() + "::DataStoreTransaction";
+
+    /**
+     * The maximum number of views per view type, which are kept in the pool, which is shared by
+     * the lists of all preference fragments. It corresponds to the number of preferences, which
+     * fit on a screen.
+     */
+    private static final int PREFERENCE_VIEW_POOL_SIZE = 15;
+
+    /**
+     * The default maximum number of bytes, the views of preferences, which are inflated in
+     * advance, may occupy on the heap.
+     */
+    private static final long DEFAULT_PREFERENCE_VIEW_PREWARM_MEMORY_BUDGET = 1024 * 1024;
+
+    /**
+     * The default maximum number of fragment classes, which are preloaded concurrently.
+     */
+    private static final int DEFAULT_FRAGMENT_PRELOADING_CONCURRENCY = 1;
+
+    /**
+     * The resource id of the activity's theme or 0, if no theme has been set.
+     */
+    private int themeResourceId;
+
     /**
      * The activity's toolbar.
      */
@@ -262,468 +350,348 @@ public abstract class PreferenceActivity extends AppCompatActivity
     private Fragment preferenceFragment;
 
     /**
-     * True, if the split screen layout is used on tablets, false otherwise.
+     * The key, which identifies the currently shown preference fragment within the cache, or null,
+     * if the fragment may not be cached or no preference fragment is shown.
      */
-    private boolean useSplitScreen;
+    private String preferenceFragmentKey;
 
     /**
-     * The width of the navigation, when using the split screen layout, in pixels.
+     * A map, which contains the preference fragments, which have been detached instead of being
+     * removed, in order to be re-attached when they are shown again. The fragments are mapped to
+     * their keys and are ordered from the least to the most recently used one.
      */
-    private int navigationWidth;
+    private final Map<String, Fragment> preferenceFragmentCache = new LinkedHashMap<>();
 
     /**
-     * True, if the navigation is currently hidden, false otherwise.
+     * The maximum number of preference fragments, which are kept in the cache.
      */
-    private boolean hideNavigation;
+    private int preferenceFragmentCacheSize;
 
     /**
-     * True, if the behavior of the navigation icon of the activity's toolbar is overridden in order
-     * to return to the navigation when a preference fragment is currently shown and the split
-     * screen layout is used.
+     * A map, which contains the preference fragments of the steps next to the current one, which
+     * have been prepared in advance, when the activity is used as a wizard. The fragments are
+     * detached and mapped to their keys.
      */
-    private boolean overrideNavigationIcon;
+    private Map<String, Fragment> preparedPreferenceFragments = new HashMap<>();
 
     /**
-     * True, if the activity is used as a wizard, false otherwise.
+     * The idle handler, which is used to prepare the steps next to the current one, when the
+     * activity is used as a wizard, or null, if no preparation is currently scheduled.
      */
-    private boolean showButtonBar;
+    private MessageQueue.IdleHandler stepPreparationHandler;
 
     /**
-     * The text of the next button.
+     * The pool, which is shared by the lists of all preference fragments, which are shown by the
+     * activity, in order to reuse the views of preferences when switching between fragments.
      */
-    private CharSequence nextButtonText;
+    private final PreferenceViewPool preferenceViewPool =
+            new PreferenceViewPool(PREFERENCE_VIEW_POOL_SIZE);
 
     /**
-     * The text of the back button.
+     * The idle handler, which is used to start inflating the views of common preferences in
+     * advance, or null, if no pre-warming is currently scheduled.
      */
-    private CharSequence backButtonText;
+    private MessageQueue.IdleHandler preferenceViewPrewarmHandler;
 
     /**
-     * The text of the finish button.
+     * The pre-warmer, which is used to inflate the views of common preferences in advance, or
+     * null, if no pre-warming has been started yet.
      */
-    private CharSequence finishButtonText;
+    private PreferenceViewPrewarmer preferenceViewPrewarmer;
 
     /**
-     * True, if the progress is shown, when the activity is used as a wizard, false otherwise.
+     * The number of views per common preference type, which are inflated in advance.
      */
-    private boolean showProgress;
+    private int preferenceViewPrewarmCount;
 
     /**
-     * The string, which is used to format the progress, which is shown when the activity is used as
-     * a wizard.
+     * The maximum number of bytes, the views of preferences, which are inflated in advance, may
+     * occupy on the heap.
      */
-    private String progressFormat;
+    private long preferenceViewPrewarmMemoryBudget = DEFAULT_PREFERENCE_VIEW_PREWARM_MEMORY_BUDGET;
 
     /**
-     * The elevation of the activity's toolbar in dp.
+     * The factory, which is used to create preference fragments without using reflection, or
+     * null, if all preference fragments are created using reflection.
      */
-    private int toolbarElevation;
+    private FragmentFactory<Fragment> fragmentFactory;
 
     /**
-     * The elevation of the toolbar, which is used to show the bread crumb of the currently selected
-     * preference fragment, when using the split screen layout, in dp.
+     * The factory, which is used to create preference fragments, which are not known to the
+     * factory {@link #fragmentFactory}, using reflection, or null, if it has not been created yet.
      */
-    private int breadCrumbElevation;
+    private ReflectiveFragmentFactory reflectiveFragmentFactory;
 
     /**
-     * The elevation of the card view, which contains the currently shown preference fragment, when
-     * using the split screen layout, in dp.
+     * True, if the classes of the navigation preferences' fragments are preloaded on a background
+     * thread, once the navigation has been created, false otherwise.
      */
-    private int cardViewElevation;
+    private boolean fragmentPreloadingEnabled = true;
 
     /**
-     * Sets the elevation of the button bar, which is shown when using the activity as a wizard.
+     * The maximum number of fragment classes, which are preloaded concurrently.
      */
-    private int buttonBarElevation;
+    private int fragmentPreloadingConcurrency = DEFAULT_FRAGMENT_PRELOADING_CONCURRENCY;
 
     /**
-     * True, if the toolbar, which is used to show the bread crumb of the currently selected
-     * navigation preference, is hidden, false otherwise.
+     * The preloader, which is used to preload the classes of the navigation preferences'
+     * fragments, or null, if no classes are preloaded.
      */
-    private boolean hideBreadCrumb;
+    private FragmentClassPreloader fragmentClassPreloader;
 
     /**
-     * The background color fo the card view, which contains the currently shown preference
-     * fragment, when using the split screen layout.
+     * True, if the shared preferences, which are used by the navigation and by the navigation
+     * preferences' fragments, are loaded on a background thread, false otherwise.
      */
-    private int cardViewBackgroundColor;
+    private boolean sharedPreferencesPreloadingEnabled = true;
 
     /**
-     * The background color of the toolbar, which is used to show the bread crumb of the currently
-     * selected navigation preference.
+     * The preloader, which is used to load the shared preferences, which are used by the
+     * navigation and by the navigation preferences' fragments, or null, if no shared preferences
+     * are preloaded.
      */
-    private int breadCrumbBackgroundColor;
+    private SharedPreferencesPreloader sharedPreferencesPreloader;
 
     /**
-     * The background of the button bar, which is shown, when the activity is used as a wizard.
+     * True, if the fragment transactions of navigation preferences, which are clicked by the user
+     * in quick succession, are coalesced, false otherwise.
      */
-    private Drawable buttonBarBackground;
+    private boolean selectionCoalescingEnabled = true;
 
     /**
-     * The background of the navigation.
+     * The runnable, which is used to show the fragment of the most recently clicked navigation
+     * preference on the next frame, or null, if no selection is pending.
      */
-    private Drawable navigationBackground;
+    private Runnable pendingSelection;
 
     /**
-     * The background color of the currently selected navigation preference.
+     * The most recently clicked navigation preference, whose fragment has not been shown yet, or
+     * null, if no selection is pending.
      */
-    private int navigationSelectionColor;
+    private NavigationPreference pendingNavigationPreference;
 
     /**
-     * The color of dividers, which are contained by the navigation.
+     * The arguments, which should be passed to the fragment of the most recently clicked
+     * navigation preference, or null, if no arguments should be passed to the fragment.
      */
-    private int navigationDividerColor;
+    private Bundle pendingSelectionArguments;
 
     /**
-     * True, if the navigation icon of the activity's toolbar is shown by default, false otherwise.
+     * The data store, which is used to persist the values of the preferences, which are shown by
+     * the activity's preference fragments, or null, if the fragments' default is used.
      */
-    private boolean displayHomeAsUp;
+    private PreferenceDataStore preferenceDataStore;
 
     /**
-     * The fully classified class name of the currently shown preference fragment.
+     * True, if the values of the preferences, which are shown by the activity's preference
+     * fragments, are staged in memory, until the wizard is finished, false otherwise.
      */
-    private String selectedPreferenceFragment;
+    private boolean transactionalWizardEnabled;
 
     /**
-     * The arguments which have been passed to the currently shown preference fragment or null, if
-     * no arguments have been passed to the fragment or no preference fragment is shown.
+     * A map, which contains the transactions, which stage the changes of values, which are
+     * persisted in shared preferences, mapped to the names of the shared preferences.
      */
-    private Bundle selectedPreferenceFragmentArguments;
+    private final Map<String, TransactionalPreferenceDataStore> sharedPreferencesTransactions =
+            new HashMap<>();
 
     /**
-     * A set, which contains the listeners, which have been registered to be notified, when the
-     * currently shown preference fragment has changed.
+     * The transaction, which stages the changes of values, which are persisted in the activity's
+     * data store, or null, if no such transaction has been started.
      */
-    private ListenerList<PreferenceFragmentListener> preferenceFragmentListeners =
-            new ListenerList<>();
+    private TransactionalPreferenceDataStore dataStoreTransaction;
 
     /**
-     * A set, which contains the listeners, which have been registered to be notified, when the user
-     * navigates within the activity, when it used as a wizard.
+     * True, if the split screen layout is used on tablets, false otherwise.
      */
-    private ListenerList<WizardListener> wizardListeners = new ListenerList<>();
+    private boolean useSplitScreen;
 
     /**
-     * A set, which contains the listeners, which have been registered to be notified, when
-     * navigation preferences have been added or removed to/from the activity.
+     * The width of the navigation, when using the split screen layout, in pixels.
      */
-    private ListenerList<NavigationListener> navigationListeners = new ListenerList<>();
+    private int navigationWidth;
 
     /**
-     * Obtains all relevant attributes from the activity's theme.
+     * True, if the navigation is currently hidden, false otherwise.
      */
-    private void obtainStyledAttributes() {
-        obtainUseSplitScreen();
-        obtainNavigationWidth();
-        obtainNavigationVisibility();
-        obtainOverrideNavigationIcon();
-        obtainShowButtonBar();
-        obtainNextButtonText();
-        obtainBackButtonText();
-        obtainFinishButtonText();
-        obtainShowProgress();
-        obtainProgressFormat();
-        obtainBreadCrumbVisibility();
-        obtainToolbarElevation();
-        obtainBreadcrumbElevation();
-        obtainCardViewElevation();
-        obtainButtonBarElevation();
-        obtainCardViewBackgroundColor();
-        obtainBreadCrumbBackgroundColor();
-        obtainButtonBarBackground();
-        obtainNavigationBackground();
-        obtainNavigationSelectionColor();
-        obtainNavigationDividerColor();
-    }
+    private boolean hideNavigation;
 
     /**
-     * Obtains, whether the split screen layout should be used on tablets, from the activities
-     * theme.
+     * True, if the behavior of the navigation icon of the activity's toolbar is overridden in order
+     * to return to the navigation when a preference fragment is currently shown and the split
+     * screen layout is used.
      */
-    private void obtainUseSplitScreen() {
-        boolean useSplitScreen = ThemeUtil.getBoolean(this, R.attr.useSplitScreen, true);
-        useSplitScreen(useSplitScreen);
-    }
+    private boolean overrideNavigationIcon;
 
     /**
-     * Obtains the width of the navigation from the activity's theme.
+     * True, if the activity is used as a wizard, false otherwise.
      */
-    private void obtainNavigationWidth() {
-        int navigationWidth;
-
-        try {
-            navigationWidth = ThemeUtil.getDimensionPixelSize(this, R.attr.navigationWidth);
-        } catch (NotFoundException e) {
-            navigationWidth = getResources().getDimensionPixelSize(R.dimen.navigation_width);
-        }
-
-        setNavigationWidth(navigationWidth);
-    }
+    private boolean showButtonBar;
 
     /**
-     * Obtains, whether the navigation should be shown, from the activity's theme.
+     * The text of the next button.
      */
-    private void obtainNavigationVisibility() {
-        boolean hideNavigation = ThemeUtil.getBoolean(this, R.attr.hideNavigation, false);
-        hideNavigation(hideNavigation);
-    }
+    private CharSequence nextButtonText;
 
     /**
-     * Obtains, whether the behavior of the navigation icon should be overridden, or not, from the
-     * activity's theme.
+     * The text of the back button.
      */
-    private void obtainOverrideNavigationIcon() {
-        boolean overrideNavigationIcon =
-                ThemeUtil.getBoolean(this, R.attr.overrideNavigationIcon, true);
-        overrideNavigationIcon(overrideNavigationIcon);
-    }
+    private CharSequence backButtonText;
 
     /**
-     * Obtains, whether the activity should be used as a wizard, or not, from the activity's theme.
+     * The text of the finish button.
      */
-    private void obtainShowButtonBar() {
-        boolean showButtonBar = ThemeUtil.getBoolean(this, R.attr.showButtonBar, false);
-        showButtonBar(showButtonBar);
-    }
+    private CharSequence finishButtonText;
 
     /**
-     * Obtains the text of the next button from the activity's theme.
+     * True, if the progress is shown, when the activity is used as a wizard, false otherwise.
      */
-    private void obtainNextButtonText() {
-        CharSequence text;
-
-        try {
-            text = ThemeUtil.getText(this, R.attr.nextButtonText);
-        } catch (NotFoundException e) {
-            text = getText(R.string.next_button_text);
-        }
-
-        setNextButtonText(text);
-    }
+    private boolean showProgress;
 
     /**
-     * Obtains the text of the back button from the activity's theme.
+     * The string, which is used to format the progress, which is shown when the activity is used as
+     * a wizard.
      */
-    private void obtainBackButtonText() {
-        CharSequence text;
-
-        try {
-            text = ThemeUtil.getText(this, R.attr.backButtonText);
-        } catch (NotFoundException e) {
-            text = getText(R.string.back_button_text);
-        }
-
-        setBackButtonText(text);
-    }
+    private String progressFormat;
 
     /**
-     * Obtains the text of the finish button from the activity's theme.
+     * True, if the fragment of the next step is prepared in advance, when the activity is used as
+     * a wizard, false otherwise.
      */
-    private void obtainFinishButtonText() {
-        CharSequence text;
-
-        try {
-            text = ThemeUtil.getText(this, R.attr.finishButtonText);
-        } catch (NotFoundException e) {
-            text = getText(R.string.finish_button_text);
-        }
-
-        setFinishButtonText(text);
-    }
+    private boolean prepareNextStep;
 
     /**
-     * Obtains, whether the progress should be shown, when the activity is used as a wizard, or not,
-     * from the activity's theme.
+     * True, if the fragment of the previous step is prepared in advance, when the activity is used
+     * as a wizard, false otherwise.
      */
-    private void obtainShowProgress() {
-        boolean showProgress = ThemeUtil.getBoolean(this, R.attr.showProgress, true);
-        showProgress(showProgress);
-    }
+    private boolean preparePreviousStep;
 
     /**
-     * Obtains the string, which is used to format the progress, which is shown, when the activity
-     * is used as a wizard, from the activity's theme.
+     * The elevation of the activity's toolbar in dp.
      */
-    private void obtainProgressFormat() {
-        String progressFormat;
-
-        try {
-            progressFormat = ThemeUtil.getString(this, R.attr.progressFormat);
-        } catch (NotFoundException e) {
-            progressFormat = getString(R.string.progress_format);
-        }
-
-        setProgressFormat(progressFormat);
-    }
+    private int toolbarElevation;
 
     /**
-     * Obtains the visibility of the toolbar, which is used to show the breadcrumb of the currently
-     * selected navigation preference, from the activity's theme.
+     * The elevation of the toolbar, which is used to show the bread crumb of the currently selected
+     * preference fragment, when using the split screen layout, in dp.
      */
-    private void obtainBreadCrumbVisibility() {
-        boolean hide = ThemeUtil.getBoolean(this, R.attr.hideBreadCrumb, false);
-        hideBreadCrumb(hide);
-    }
+    private int breadCrumbElevation;
 
     /**
-     * Obtains the elevation of the activity's toolbar from the activity's theme.
+     * The elevation of the card view, which contains the currently shown preference fragment, when
+     * using the split screen layout, in dp.
      */
-    private void obtainToolbarElevation() {
-        int elevation;
-
-        try {
-            elevation = ThemeUtil.getDimensionPixelSize(this, R.attr.toolbarElevation);
-        } catch (NotFoundException e) {
-            elevation = getResources().getDimensionPixelSize(R.dimen.toolbar_elevation);
-        }
-
-        setToolbarElevation(pixelsToDp(this, elevation));
-    }
+    private int cardViewElevation;
 
     /**
-     * Obtains the elevation of the toolbar, which is used to show the bread crumb of the currently
-     * selected preference fragment, when using the split screen layout.
+     * Sets the elevation of the button bar, which is shown when using the activity as a wizard.
      */
-    private void obtainBreadcrumbElevation() {
-        int elevation;
-
-        try {
-            elevation = ThemeUtil.getDimensionPixelSize(this, R.attr.breadCrumbElevation);
-        } catch (NotFoundException e) {
-            elevation = getResources().getDimensionPixelSize(R.dimen.bread_crumb_toolbar_elevation);
-        }
-
-        setBreadCrumbElevation(pixelsToDp(this, elevation));
-    }
+    private int buttonBarElevation;
 
     /**
-     * Obtains the elevation of the card view, which contains the currently shown preference
-     * fragment, when using the split screen layout, from the activity's theme.
+     * True, if the toolbar, which is used to show the bread crumb of the currently selected
+     * navigation preference, is hidden, false otherwise.
      */
-    private void obtainCardViewElevation() {
-        int elevation;
-
-        try {
-            elevation = ThemeUtil.getDimensionPixelSize(this, R.attr.cardViewElevation);
-        } catch (NotFoundException e) {
-            elevation = getResources().getDimensionPixelSize(R.dimen.card_view_elevation);
-        }
-
-        setCardViewElevation(pixelsToDp(this, elevation));
-    }
+    private boolean hideBreadCrumb;
 
     /**
-     * Obtains the elevation of the button bar, which is shown when using the activity as a wizard,
-     * from the activity's theme.
+     * The background color fo the card view, which contains the currently shown preference
+     * fragment, when using the split screen layout.
      */
-    private void obtainButtonBarElevation() {
-        int elevation;
-
-        try {
-            elevation = ThemeUtil.getDimensionPixelSize(this, R.attr.buttonBarElevation);
-        } catch (NotFoundException e) {
-            elevation = getResources().getDimensionPixelSize(R.dimen.button_bar_elevation);
-        }
-
-        setButtonBarElevation(pixelsToDp(this, elevation));
-    }
+    private int cardViewBackgroundColor;
 
     /**
-     * Obtains the background color of the card view, which contains the currently shown preference
-     * fragment, when using the split screen layout, from the activity's theme.
+     * The background color of the toolbar, which is used to show the bread crumb of the currently
+     * selected navigation preference.
      */
-    private void obtainCardViewBackgroundColor() {
-        int color;
-
-        try {
-            color = ThemeUtil.getColor(this, R.attr.cardViewBackgroundColor);
-        } catch (NotFoundException e) {
-            color = ContextCompat.getColor(this, R.color.card_view_background_light);
-        }
-
-        setCardViewBackgroundColor(color);
-    }
+    private int breadCrumbBackgroundColor;
 
     /**
-     * Obtains the background color of the toolbar, which is used to show the bread crumb of the
-     * currently selected navigation preference, when using the split screen layout, from the
-     * activity's theme.
+     * The background of the button bar, which is shown, when the activity is used as a wizard.
      */
-    private void obtainBreadCrumbBackgroundColor() {
-        int color;
-
-        try {
-            color = ThemeUtil.getColor(this, R.attr.breadCrumbBackgroundColor);
-        } catch (NotFoundException e) {
-            color = ContextCompat.getColor(this, R.color.bread_crumb_background_light);
-        }
-
-        setBreadCrumbBackgroundColor(color);
-    }
+    private Drawable buttonBarBackground;
 
     /**
-     * Obtains the background of the button bar from the activity's theme.
+     * The background of the navigation.
      */
-    private void obtainButtonBarBackground() {
-        try {
-            setButtonBarBackgroundColor(ThemeUtil.getColor(this, R.attr.buttonBarBackground));
-        } catch (NotFoundException e) {
-            int resourceId = ThemeUtil.getResId(this, R.attr.buttonBarBackground, -1);
+    private Drawable navigationBackground;
 
-            if (resourceId != -1) {
-                setButtonBarBackground(resourceId);
-            } else {
-                setButtonBarBackground(null);
-            }
-        }
-    }
+    /**
+     * The background color of the currently selected navigation preference.
+     */
+    private int navigationSelectionColor;
 
     /**
-     * Obtains the background of the navigation from the activity's theme.
+     * The color of dividers, which are contained by the navigation.
      */
-    private void obtainNavigationBackground() {
-        try {
-            setNavigationBackgroundColor(ThemeUtil.getColor(this, R.attr.navigationBackground));
-        } catch (NotFoundException e) {
-            int resourceId = ThemeUtil.getResId(this, R.attr.navigationBackground, -1);
+    private int navigationDividerColor;
 
-            if (resourceId != -1) {
-                setNavigationBackground(resourceId);
-            } else {
-                setNavigationBackground(null);
-            }
-        }
-    }
+    /**
+     * True, if the navigation icon of the activity's toolbar is shown by default, false otherwise.
+     */
+    private boolean displayHomeAsUp;
 
     /**
-     * Obtains the background color of the currently selected navigation preference from the
-     * activity's theme.
+     * The fully classified class name of the currently shown preference fragment.
      */
-    private void obtainNavigationSelectionColor() {
-        int color;
+    private String selectedPreferenceFragment;
 
-        try {
-            color = ThemeUtil.getColor(this, R.attr.navigationSelectionColor);
-        } catch (NotFoundException e) {
-            color = ContextCompat.getColor(this, R.color.preference_selection_color_light);
-        }
+    /**
+     * The arguments which have been passed to the currently shown preference fragment or null, if
+     * no arguments have been passed to the fragment or no preference fragment is shown.
+     */
+    private Bundle selectedPreferenceFragmentArguments;
 
-        setNavigationSelectionColor(color);
-    }
+    /**
+     * A set, which contains the listeners, which have been registered to be notified, when the
+     * currently shown preference fragment has changed.
+     */
+    private ListenerList<PreferenceFragmentListener> preferenceFragmentListeners =
+            new ListenerList<>();
 
     /**
-     * Obtains the color of the dividers, which are contained by the navigation.
+     * A set, which contains the listeners, which have been registered to be notified, when the user
+     * navigates within the activity, when it used as a wizard.
      */
-    private void obtainNavigationDividerColor() {
-        int color;
+    private ListenerList<WizardListener> wizardListeners = new ListenerList<>();
 
-        try {
-            color = ThemeUtil.getColor(this, R.attr.navigationDividerColor);
-        } catch (NotFoundException e) {
-            color = ContextCompat.getColor(this, R.color.preference_divider_color_light);
-        }
+    /**
+     * A set, which contains the listeners, which have been registered to be notified, when
+     * navigation preferences have been added or removed to/from the activity.
+     */
+    private ListenerList<NavigationListener> navigationListeners = new ListenerList<>();
 
-        setNavigationDividerColor(color);
+    /**
+     * Obtains all relevant attributes from the activity's theme. All attributes are resolved at
+     * once and cached per theme.
+     */
+    private void obtainStyledAttributes() {
+        ThemeAppearance appearance = ThemeAppearance.obtain(this);
+        useSplitScreen(appearance.isSplitScreenUsed());
+        setNavigationWidth(appearance.getNavigationWidth());
+        hideNavigation(appearance.isNavigationHidden());
+        overrideNavigationIcon(appearance.isNavigationIconOverridden());
+        showButtonBar(appearance.isButtonBarShown());
+        setNextButtonText(appearance.getNextButtonText());
+        setBackButtonText(appearance.getBackButtonText());
+        setFinishButtonText(appearance.getFinishButtonText());
+        showProgress(appearance.isProgressShown());
+        setProgressFormat(appearance.getProgressFormat());
+        prepareNextStep(appearance.isNextStepPrepared());
+        preparePreviousStep(appearance.isPreviousStepPrepared());
+        hideBreadCrumb(appearance.isBreadCrumbHidden());
+        setToolbarElevation(pixelsToDp(this, appearance.getToolbarElevation()));
+        setBreadCrumbElevation(pixelsToDp(this, appearance.getBreadCrumbElevation()));
+        setCardViewElevation(pixelsToDp(this, appearance.getCardViewElevation()));
+        setButtonBarElevation(pixelsToDp(this, appearance.getButtonBarElevation()));
+        setCardViewBackgroundColor(appearance.getCardViewBackgroundColor());
+        setBreadCrumbBackgroundColor(appearance.getBreadCrumbBackgroundColor());
+        setButtonBarBackground(appearance.createButtonBarBackground(this));
+        setNavigationBackground(appearance.createNavigationBackground(this));
+        setNavigationSelectionColor(appearance.getNavigationSelectionColor());
+        setNavigationDividerColor(appearance.getNavigationDividerColor());
+        setPreferenceFragmentCacheSize(appearance.getPreferenceFragmentCacheSize());
+        setPreferenceViewPrewarmCount(appearance.getPreferenceViewPrewarmCount());
     }
 
     /**
@@ -745,29 +713,22 @@ public abstract class PreferenceActivity extends AppCompatActivity
      * @return True, if a fragment has been shown, false otherwise
      */
     private boolean showInitialFragment(@Nullable final String initialFragment) {
-        if (!TextUtils.isEmpty(initialFragment)) {
-            for (int i = 0; i < navigationFragment.getNavigationPreferenceCount(); i++) {
-                NavigationPreference navigationPreference =
-                        navigationFragment.getNavigationPreference(i);
-
-                if (navigationPreference != null && navigationPreference.getFragment() != null &&
-                        navigationPreference.getFragment().equals(initialFragment)) {
-                    Bundle arguments = getIntent().getBundleExtra(EXTRA_SHOW_FRAGMENT_ARGUMENTS);
-                    CharSequence title =
-                            getCharSequenceFromIntent(getIntent(), EXTRA_SHOW_FRAGMENT_TITLE);
-
-                    if (title != null) {
-                        if (arguments == null) {
-                            arguments = new Bundle();
-                        }
+        int index = navigationFragment.indexOfFragment(initialFragment);
 
-                        arguments.putCharSequence(EXTRA_SHOW_FRAGMENT_TITLE, title);
-                    }
+        if (index != -1) {
+            Bundle arguments = getIntent().getBundleExtra(EXTRA_SHOW_FRAGMENT_ARGUMENTS);
+            CharSequence title = getCharSequenceFromIntent(getIntent(), EXTRA_SHOW_FRAGMENT_TITLE);
 
-                    navigationFragment.selectNavigationPreference(i, arguments);
-                    return true;
+            if (title != null) {
+                if (arguments == null) {
+                    arguments = new Bundle();
                 }
+
+                arguments.putCharSequence(EXTRA_SHOW_FRAGMENT_TITLE, title);
             }
+
+            navigationFragment.selectNavigationPreference(index, arguments);
+            return true;
         }
 
         return false;
@@ -979,17 +940,170 @@ public abstract class PreferenceActivity extends AppCompatActivity
     }
 
     /**
-     * Initializes the activity's fragments.
+     * Returns the factory, which is used to create preference fragments using reflection. If the
+     * factory has not been created yet, it is created.
+     *
+     * @return The factory, which is used to create preference fragments using reflection, as an
+     * instance of the class {@link ReflectiveFragmentFactory}. The factory may not be null
      */
-    private void initializeFragments() {
-        navigationFragment = (NavigationFragment) getSupportFragmentManager()
-                .findFragmentByTag(NAVIGATION_FRAGMENT_TAG);
+    @NonNull
+    private ReflectiveFragmentFactory getReflectiveFragmentFactory() {
+        if (reflectiveFragmentFactory == null) {
+            reflectiveFragmentFactory = new ReflectiveFragmentFactory(getClassLoader());
+        }
 
-        if (navigationFragment == null) {
-            navigationFragment = (NavigationFragment) Fragment
-                    .instantiate(this, NavigationFragment.class.getName());
-            navigationFragment.setRetainInstance(true);
-            navigationFragment.setCallback(this);
+        return reflectiveFragmentFactory;
+    }
+
+    /**
+     * Starts preloading the classes of the fragments, which are associated with all navigation
+     * preferences, on a background thread, if preloading is enabled.
+     */
+    private void preloadFragmentClasses() {
+        cancelFragmentClassPreloading();
+
+        if (fragmentPreloadingEnabled) {
+            fragmentClassPreloader = new FragmentClassPreloader(getReflectiveFragmentFactory(),
+                    fragmentPreloadingConcurrency);
+            List<String> classNames = new ArrayList<>();
+
+            for (NavigationPreference navigationPreference : getAllNavigationPreferences()) {
+                if (!TextUtils.isEmpty(navigationPreference.getFragment())) {
+                    classNames.add(navigationPreference.getFragment());
+                }
+            }
+
+            fragmentClassPreloader.preload(classNames);
+        }
+    }
+
+    /**
+     * Preloads the class of the fragment, which is associated with a specific navigation
+     * preference, which has been added after the navigation has been created, if preloading is
+     * currently in progress.
+     *
+     * @param navigationPreference
+     *         The navigation preference as an instance of the class {@link NavigationPreference}.
+     *         The navigation preference may not be null
+     */
+    private void preloadFragmentClass(@NonNull final NavigationPreference navigationPreference) {
+        if (fragmentClassPreloader != null && !fragmentClassPreloader.isCancelled() &&
+                !TextUtils.isEmpty(navigationPreference.getFragment())) {
+            fragmentClassPreloader
+                    .preload(Collections.singletonList(navigationPreference.getFragment()));
+        }
+    }
+
+    /**
+     * Cancels preloading the classes of the navigation preferences' fragments, if it is currently
+     * in progress.
+     */
+    private void cancelFragmentClassPreloading() {
+        if (fragmentClassPreloader != null) {
+            fragmentClassPreloader.cancel();
+            fragmentClassPreloader = null;
+        }
+    }
+
+    /**
+     * Starts loading the default shared preferences on a background thread, if preloading is
+     * enabled. The default shared preferences are used by the navigation, as well as by all
+     * fragments, which do not use a PreferenceDataStore or separate shared preferences. As
+     * fragments, which are restored by the super implementation of the
+     * <code>onCreate</code>-method, may already read them, the preloading is started before.
+     */
+    private void startSharedPreferencesPreloading() {
+        cancelSharedPreferencesPreloading();
+
+        if (sharedPreferencesPreloadingEnabled) {
+            sharedPreferencesPreloader = new SharedPreferencesPreloader(this);
+            sharedPreferencesPreloader
+                    .preload(SharedPreferencesPreloader.getDefaultSharedPreferencesName(this));
+        }
+    }
+
+    /**
+     * Loads the separate shared preferences, which are used by the fragment, which is associated
+     * with a specific navigation preference, on a background thread, if preloading is currently
+     * in progress.
+     *
+     * @param navigationPreference
+     *         The navigation preference as an instance of the class {@link NavigationPreference}.
+     *         The navigation preference may not be null
+     */
+    private void preloadSharedPreferences(
+            @NonNull final NavigationPreference navigationPreference) {
+        if (sharedPreferencesPreloader != null && !sharedPreferencesPreloader.isCancelled() &&
+                navigationPreference.getSharedPreferencesName() != null) {
+            sharedPreferencesPreloader.preload(navigationPreference.getSharedPreferencesName());
+        }
+    }
+
+    /**
+     * Cancels loading shared preferences on a background thread, if it is currently in progress.
+     */
+    private void cancelSharedPreferencesPreloading() {
+        if (sharedPreferencesPreloader != null) {
+            sharedPreferencesPreloader.cancel();
+            sharedPreferencesPreloader = null;
+        }
+    }
+
+    /**
+     * Returns the preloader, which is used to load the shared preferences, which are used by the
+     * navigation and by the navigation preferences' fragments, on a background thread.
+     *
+     * @return The preloader as an instance of the class {@link SharedPreferencesPreloader} or
+     * null, if no shared preferences are preloaded
+     */
+    @VisibleForTesting
+    @Nullable
+    final SharedPreferencesPreloader getSharedPreferencesPreloader() {
+        return sharedPreferencesPreloader;
+    }
+
+    /**
+     * Creates a new instance of the preference fragment, which corresponds to a specific class
+     * name. If a fragment factory has been set, it is used to create the fragment. Otherwise, or if
+     * the factory does not know the fragment, it is created using reflection.
+     *
+     * @param className
+     *         The fully classified class name of the fragment, which should be created, as a {@link
+     *         String}. The class name may not be null
+     * @param arguments
+     *         The arguments, which should be passed to the fragment, as an instance of the class
+     *         {@link Bundle} or null, if no arguments should be passed to the fragment
+     * @return The fragment, which has been created, as an instance of the class Fragment. The
+     * fragment may not be null
+     */
+    @NonNull
+    private Fragment instantiateFragment(@NonNull final String className,
+                                         @Nullable final Bundle arguments) {
+        Fragment fragment = fragmentFactory != null ? fragmentFactory.instantiate(className) : null;
+
+        if (fragment == null) {
+            fragment = getReflectiveFragmentFactory().instantiate(className);
+        }
+
+        if (arguments != null) {
+            arguments.setClassLoader(fragment.getClass().getClassLoader());
+            fragment.setArguments(arguments);
+        }
+
+        return fragment;
+    }
+
+    /**
+     * Initializes the activity's fragments.
+     */
+    private void initializeFragments() {
+        navigationFragment = (NavigationFragment) getSupportFragmentManager()
+                .findFragmentByTag(NAVIGATION_FRAGMENT_TAG);
+
+        if (navigationFragment == null) {
+            navigationFragment = new NavigationFragment();
+            navigationFragment.setRetainInstance(true);
+            navigationFragment.setCallback(this);
             FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
             transaction.add(R.id.navigation_fragment_container, navigationFragment,
                     NAVIGATION_FRAGMENT_TAG);
@@ -999,12 +1113,244 @@ public abstract class PreferenceActivity extends AppCompatActivity
         }
 
         navigationFragment.setAdapterCallback(this);
-        preferenceFragment = getSupportFragmentManager().findFragmentByTag(PREFERENCE_FRAGMENT_TAG);
+        preferenceFragment = !TextUtils.isEmpty(selectedPreferenceFragment) ?
+                getSupportFragmentManager().findFragmentByTag(PREFERENCE_FRAGMENT_TAG) : null;
+
+        if (preferenceFragment != null && preferenceFragment.isDetached()) {
+            preferenceFragment = null;
+        }
+
+        if (preferenceFragment == null) {
+            preferenceFragmentKey = null;
+        }
+
         adaptNavigationSelectionColor();
         adaptNavigationDividerColor();
         adaptNavigationEnabledState();
     }
 
+    /**
+     * Returns the transaction, which should be used to stage the changes of the values of a
+     * specific preference fragment's preferences, when the activity is used as a transactional
+     * wizard. If the activity uses a data store, a transaction on the data store is used.
+     * Otherwise, a transaction on the shared preferences, which are used by the fragment, is used.
+     * If no such transaction exists yet, it is created.
+     *
+     * @param fragment
+     *         The preference fragment as an instance of the class {@link
+     *         AbstractPreferenceFragment}. The fragment may not be null
+     * @return The transaction as an instance of the class {@link
+     * TransactionalPreferenceDataStore}. The transaction may not be null
+     */
+    @NonNull
+    private TransactionalPreferenceDataStore getWizardTransaction(
+            @NonNull final AbstractPreferenceFragment fragment) {
+        if (preferenceDataStore != null) {
+            if (dataStoreTransaction == null) {
+                dataStoreTransaction = new TransactionalPreferenceDataStore(preferenceDataStore);
+            }
+
+            return dataStoreTransaction;
+        }
+
+        Bundle arguments = fragment.getArguments();
+        String name = arguments != null ?
+                arguments.getString(AbstractPreferenceFragment.EXTRA_SHARED_PREFERENCES_NAME) :
+                null;
+        return getWizardTransaction(!TextUtils.isEmpty(name) ? name :
+                SharedPreferencesPreloader.getDefaultSharedPreferencesName(this));
+    }
+
+    /**
+     * Returns the transaction, which should be used to stage the changes of values, which are
+     * persisted in the shared preferences, which correspond to a specific name. If no such
+     * transaction exists yet, it is created.
+     *
+     * @param name
+     *         The name of the shared preferences as a {@link String}. The name may not be null
+     * @return The transaction as an instance of the class {@link
+     * TransactionalPreferenceDataStore}. The transaction may not be null
+     */
+    @NonNull
+    private TransactionalPreferenceDataStore getWizardTransaction(@NonNull final String name) {
+        TransactionalPreferenceDataStore transaction = sharedPreferencesTransactions.get(name);
+
+        if (transaction == null) {
+            transaction = new TransactionalPreferenceDataStore(
+                    getSharedPreferences(name, Context.MODE_PRIVATE));
+            sharedPreferencesTransactions.put(name, transaction);
+        }
+
+        return transaction;
+    }
+
+    /**
+     * Returns, whether the values of the preferences, which are shown by the activity's preference
+     * fragments, should be staged by the wizard's transactions, or not. This is only the case, if
+     * transactional wizards are enabled and the activity is used as a wizard. As the activity's
+     * appearance is not known yet, when fragments are restored, the activity is also considered
+     * to be used as a wizard, if transactions have been restored.
+     *
+     * @return True, if the values should be staged by the wizard's transactions, false otherwise
+     */
+    private boolean isTransactionalWizard() {
+        return transactionalWizardEnabled && (isButtonBarShown() ||
+                !sharedPreferencesTransactions.isEmpty() || dataStoreTransaction != null);
+    }
+
+    /**
+     * Commits the changes, which have been staged by the wizard's transactions. The changes of
+     * each shared preferences are written at once.
+     */
+    private void commitWizardTransactions() {
+        for (TransactionalPreferenceDataStore transaction :
+                sharedPreferencesTransactions.values()) {
+            transaction.commitTransaction();
+        }
+
+        if (dataStoreTransaction != null) {
+            dataStoreTransaction.commitTransaction();
+        }
+    }
+
+    /**
+     * Discards the changes, which have been staged by the wizard's transactions.
+     */
+    private void rollbackWizardTransactions() {
+        for (TransactionalPreferenceDataStore transaction :
+                sharedPreferencesTransactions.values()) {
+            transaction.rollback();
+        }
+
+        if (dataStoreTransaction != null) {
+            dataStoreTransaction.rollback();
+        }
+    }
+
+    /**
+     * Stores the changes, which have been staged by the wizard's transactions, within a bundle.
+     *
+     * @param outState
+     *         The bundle, the changes should be stored in, as an instance of the class {@link
+     *         Bundle}. The bundle may not be null
+     */
+    private void saveWizardTransactions(@NonNull final Bundle outState) {
+        if (!sharedPreferencesTransactions.isEmpty()) {
+            Bundle transactions = new Bundle();
+
+            for (Map.Entry<String, TransactionalPreferenceDataStore> entry :
+                    sharedPreferencesTransactions.entrySet()) {
+                Bundle transaction = new Bundle();
+                entry.getValue().saveInstanceState(transaction);
+                transactions.putBundle(entry.getKey(), transaction);
+            }
+
+            outState.putBundle(SHARED_PREFERENCES_TRANSACTIONS_EXTRA, transactions);
+        }
+
+        if (dataStoreTransaction != null) {
+            Bundle transaction = new Bundle();
+            dataStoreTransaction.saveInstanceState(transaction);
+            outState.putBundle(DATA_STORE_TRANSACTION_EXTRA, transaction);
+        }
+    }
+
+    /**
+     * Restores the changes, which have been staged by the wizard's transactions, from a bundle.
+     * This must happen, before the activity's preference fragments are restored, as they read
+     * the values of their preferences, when they are created.
+     *
+     * @param savedInstanceState
+     *         The bundle, the changes have been stored in, as an instance of the class {@link
+     *         Bundle} or null, if the activity is created for the first time
+     */
+    private void restoreWizardTransactions(@Nullable final Bundle savedInstanceState) {
+        if (transactionalWizardEnabled && savedInstanceState != null) {
+            Bundle transactions =
+                    savedInstanceState.getBundle(SHARED_PREFERENCES_TRANSACTIONS_EXTRA);
+
+            if (transactions != null) {
+                for (String name : transactions.keySet()) {
+                    Bundle transaction = transactions.getBundle(name);
+
+                    if (transaction != null) {
+                        getWizardTransaction(name).restoreInstanceState(transaction);
+                    }
+                }
+            }
+
+            Bundle transaction = savedInstanceState.getBundle(DATA_STORE_TRANSACTION_EXTRA);
+
+            if (transaction != null && preferenceDataStore != null) {
+                dataStoreTransaction = new TransactionalPreferenceDataStore(preferenceDataStore);
+                dataStoreTransaction.restoreInstanceState(transaction);
+            }
+        }
+    }
+
+    /**
+     * Notifies all registered listeners that the user wants to skip the wizard and discards the
+     * changes, which have been staged by the wizard's transactions, if skipping the wizard is
+     * allowed.
+     *
+     * @return True, if skipping the wizard is allowed, false otherwise
+     */
+    private boolean skipWizard() {
+        boolean skip = notifyOnSkip();
+
+        if (skip) {
+            rollbackWizardTransactions();
+        }
+
+        return skip;
+    }
+
+    /**
+     * Creates and returns the arguments, which should be passed to the fragment, which is
+     * associated with a specific navigation preference. The arguments contain the navigation
+     * preference's extras and, if the navigation preference specifies the name of the shared
+     * preferences, which should be used by its fragment, the extra {@link
+     * AbstractPreferenceFragment#EXTRA_SHARED_PREFERENCES_NAME}.
+     *
+     * @param navigationPreference
+     *         The navigation preference, whose fragment the arguments should be passed to, as an
+     *         instance of the class {@link NavigationPreference}. The navigation preference may not
+     *         be null
+     * @param arguments
+     *         The arguments, the navigation preference's extras should be added to, as an instance
+     *         of the class {@link Bundle} or null, if the navigation preference's extras should be
+     *         used instead
+     * @return The arguments, which have been created, as an instance of the class {@link Bundle}
+     * or null, if no arguments should be passed to the fragment
+     */
+    @Nullable
+    private Bundle createFragmentArguments(
+            @NonNull final NavigationPreference navigationPreference,
+            @Nullable final Bundle arguments) {
+        Bundle extras = navigationPreference.getExtras();
+        String sharedPreferencesName = navigationPreference.getSharedPreferencesName();
+        Bundle fragmentArguments;
+
+        if (arguments != null) {
+            fragmentArguments = arguments;
+
+            if (extras != null) {
+                fragmentArguments.putAll(extras);
+            }
+        } else if (sharedPreferencesName != null) {
+            fragmentArguments = extras != null ? new Bundle(extras) : new Bundle();
+        } else {
+            return extras;
+        }
+
+        if (sharedPreferencesName != null) {
+            fragmentArguments.putString(AbstractPreferenceFragment.EXTRA_SHARED_PREFERENCES_NAME,
+                    sharedPreferencesName);
+        }
+
+        return fragmentArguments;
+    }
+
     /**
      * Shows the fragment, which is associated with a specific navigation preference.
      *
@@ -1018,18 +1364,13 @@ public abstract class PreferenceActivity extends AppCompatActivity
      */
     private void showPreferenceFragment(@NonNull final NavigationPreference navigationPreference,
                                         @Nullable final Bundle arguments) {
-        if (arguments != null && navigationPreference.getExtras() != null) {
-            arguments.putAll(navigationPreference.getExtras());
-        }
-
+        String key = getPreferenceFragmentKey(navigationPreference, arguments);
         selectedPreferenceFragment = navigationPreference.getFragment();
         selectedPreferenceFragmentArguments =
-                arguments != null ? arguments : navigationPreference.getExtras();
+                createFragmentArguments(navigationPreference, arguments);
 
         if (!TextUtils.isEmpty(selectedPreferenceFragment)) {
-            Fragment fragment = Fragment.instantiate(this, navigationPreference.getFragment(),
-                    selectedPreferenceFragmentArguments);
-            showPreferenceFragment(navigationPreference, fragment);
+            showPreferenceFragment(navigationPreference, key);
             showBreadCrumb(navigationPreference, selectedPreferenceFragmentArguments);
         } else {
             removePreferenceFragmentUnconditionally();
@@ -1043,45 +1384,512 @@ public abstract class PreferenceActivity extends AppCompatActivity
     }
 
     /**
-     * Shows a specific preference fragment.
+     * Shows the preference fragment, which corresponds to a specific key. If a fragment with the
+     * given key is contained by the cache or has been prepared in advance, it is re-attached.
+     * Otherwise, a new fragment is instantiated.
      *
      * @param navigationPreference
      *         The navigation preference, the fragment, which should be shown, is associated with,
      *         as an instance of the class {@link NavigationPreference}. The navigation preference
      *         may not be null
-     * @param fragment
-     *         The fragment, which should be shown, as an instance of the class Fragment. The
-     *         fragment may not be null
+     * @param key
+     *         The key, which identifies the fragment, which should be shown, within the cache, as
+     *         a {@link String} or null, if the fragment may not be cached
      */
     private void showPreferenceFragment(@NonNull final NavigationPreference navigationPreference,
-                                        @NonNull final Fragment fragment) {
-        fragment.setRetainInstance(true);
+                                        @Nullable final String key) {
         FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
+        int containerId = R.id.preference_fragment_container;
+        Fragment fragment = key != null ? preferenceFragmentCache.remove(key) : null;
+
+        if (fragment == null && key != null) {
+            fragment = preparedPreferenceFragments.remove(key);
+        }
+
+        discardPreparedPreferenceFragments(transaction);
+
+        if (fragment != null && fragment.getId() != containerId) {
+            transaction.remove(fragment);
+            fragment = null;
+        }
+
+        if (fragment == null) {
+            fragment = instantiateFragment(selectedPreferenceFragment,
+                    selectedPreferenceFragmentArguments);
+            fragment.setRetainInstance(true);
+        }
 
         if (!isSplitScreen()) {
             transaction.hide(navigationFragment);
+        }
 
-            if (preferenceFragment != null) {
-                transaction.remove(preferenceFragment);
-                notifyOnPreferenceFragmentHidden(preferenceFragment);
-            }
+        if (preferenceFragment != null) {
+            hidePreferenceFragment(transaction, preferenceFragment,
+                    preferenceFragmentKey != null && !preferenceFragmentKey.equals(key) ?
+                            preferenceFragmentKey : null);
+            notifyOnPreferenceFragmentHidden(preferenceFragment);
+        }
 
-            transaction.add(R.id.navigation_fragment_container, fragment, PREFERENCE_FRAGMENT_TAG);
+        if (fragment.isDetached()) {
+            transaction.attach(fragment);
         } else {
-            if (preferenceFragment != null) {
-                notifyOnPreferenceFragmentHidden(preferenceFragment);
-            }
-
-            transaction
-                    .replace(R.id.preference_fragment_container, fragment, PREFERENCE_FRAGMENT_TAG);
+            transaction.add(containerId, fragment, PREFERENCE_FRAGMENT_TAG);
         }
 
         transaction.setTransition(FragmentTransaction.TRANSIT_FRAGMENT_OPEN);
         transaction.commit();
         this.preferenceFragment = fragment;
+        this.preferenceFragmentKey = key;
         showToolbarNavigationIcon();
         adaptBreadCrumbVisibility(selectedPreferenceFragmentArguments);
         notifyOnPreferenceFragmentShown(navigationPreference, fragment);
+        scheduleStepPreparation();
+    }
+
+    /**
+     * Schedules showing the fragment, which is associated with a specific navigation preference,
+     * on the next frame. If another navigation preference is selected before, the selection is
+     * superseded and only the fragment of the most recently selected navigation preference is
+     * shown.
+     *
+     * @param navigationPreference
+     *         The navigation preference, whose fragment should be shown, as an instance of the
+     *         class {@link NavigationPreference}. The navigation preference may not be null
+     * @param arguments
+     *         The arguments, which should be passed to the fragment, as an instance of the class
+     *         {@link Bundle} or null, if the navigation preferences's extras should be used
+     *         instead
+     */
+    private void scheduleSelection(@NonNull final NavigationPreference navigationPreference,
+                                   @Nullable final Bundle arguments) {
+        pendingNavigationPreference = navigationPreference;
+        pendingSelectionArguments = arguments;
+
+        if (pendingSelection == null) {
+            pendingSelection = new Runnable() {
+
+                @Override
+                public void run() {
+                    commitPendingSelection();
+                }
+
+            };
+
+            ViewCompat.postOnAnimation(getWindow().getDecorView(), pendingSelection);
+        }
+    }
+
+    /**
+     * Shows the fragment of the most recently clicked navigation preference immediately, if a
+     * selection is pending.
+     */
+    private void commitPendingSelection() {
+        NavigationPreference navigationPreference = pendingNavigationPreference;
+        Bundle arguments = pendingSelectionArguments;
+        cancelPendingSelection();
+
+        if (navigationPreference != null && !isFinishing() &&
+                navigationFragment.getSelectedNavigationPreference() == navigationPreference) {
+            showPreferenceFragment(navigationPreference, arguments);
+        }
+    }
+
+    /**
+     * Cancels showing the fragment of the most recently clicked navigation preference, if a
+     * selection is pending.
+     */
+    private void cancelPendingSelection() {
+        if (pendingSelection != null) {
+            getWindow().getDecorView().removeCallbacks(pendingSelection);
+            pendingSelection = null;
+        }
+
+        pendingNavigationPreference = null;
+        pendingSelectionArguments = null;
+    }
+
+    /**
+     * Schedules inflating the views of common preferences in advance. The views are inflated on a
+     * background thread, once the main thread's message queue becomes idle, and are added to the
+     * pool, which is shared by the lists of all preference fragments. If the pool already contains
+     * the requested number of views, no pre-warming is scheduled.
+     */
+    private void schedulePreferenceViewPrewarming() {
+        if (preferenceViewPrewarmHandler == null && preferenceViewPrewarmCount > 0 &&
+                (preferenceViewPrewarmer == null || (preferenceViewPrewarmer.isCancelled() &&
+                        !preferenceViewPrewarmer.isPoolFilled()))) {
+            preferenceViewPrewarmHandler = new MessageQueue.IdleHandler() {
+
+                @Override
+                public boolean queueIdle() {
+                    preferenceViewPrewarmHandler = null;
+                    prewarmPreferenceViews();
+                    return false;
+                }
+
+            };
+
+            Looper.myQueue().addIdleHandler(preferenceViewPrewarmHandler);
+        }
+    }
+
+    /**
+     * Starts inflating the views of common preferences in advance, using the preference theme of
+     * the activity.
+     */
+    private void prewarmPreferenceViews() {
+        if (!isFinishing()) {
+            TypedValue typedValue = new TypedValue();
+            getTheme().resolveAttribute(R.attr.preferenceTheme, typedValue, true);
+            int preferenceTheme = typedValue.resourceId != 0 ? typedValue.resourceId :
+                    R.style.PreferenceThemeOverlay;
+            Context context = new ContextThemeWrapper(this, preferenceTheme);
+            preferenceViewPrewarmer = new PreferenceViewPrewarmer(context, preferenceViewPool,
+                    AsyncTask.THREAD_POOL_EXECUTOR, preferenceViewPrewarmCount,
+                    preferenceViewPrewarmMemoryBudget);
+            preferenceViewPrewarmer.start();
+        }
+    }
+
+    /**
+     * Cancels inflating the views of common preferences in advance, if it is currently scheduled
+     * or in progress.
+     */
+    private void cancelPreferenceViewPrewarming() {
+        if (preferenceViewPrewarmHandler != null) {
+            Looper.myQueue().removeIdleHandler(preferenceViewPrewarmHandler);
+            preferenceViewPrewarmHandler = null;
+        }
+
+        if (preferenceViewPrewarmer != null) {
+            preferenceViewPrewarmer.cancel();
+        }
+    }
+
+    /**
+     * Schedules the preparation of the fragments of the steps next to the current one, when the
+     * activity is used as a wizard. The fragments are prepared, once the main thread's message
+     * queue becomes idle, in order to not delay showing the current step.
+     */
+    private void scheduleStepPreparation() {
+        if (stepPreparationHandler == null && isButtonBarShown() &&
+                (prepareNextStep || preparePreviousStep)) {
+            stepPreparationHandler = new MessageQueue.IdleHandler() {
+
+                @Override
+                public boolean queueIdle() {
+                    stepPreparationHandler = null;
+                    prepareSteps();
+                    return false;
+                }
+
+            };
+
+            Looper.myQueue().addIdleHandler(stepPreparationHandler);
+        }
+    }
+
+    /**
+     * Prepares the fragments of the steps next to the current one, when the activity is used as a
+     * wizard. Previously prepared fragments, which are not needed anymore, are discarded.
+     */
+    private void prepareSteps() {
+        if (navigationFragment != null && !isFinishing() &&
+                !getSupportFragmentManager().isStateSaved()) {
+            Map<String, Fragment> preparedFragments = new HashMap<>();
+            FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
+
+            if (isButtonBarShown()) {
+                int currentIndex = navigationFragment.getSelectedNavigationPreferenceIndex();
+
+                if (currentIndex != -1) {
+                    if (prepareNextStep && WizardProgress.hasNextStep(currentIndex,
+                            navigationFragment.getNavigationPreferenceCount())) {
+                        prepareStep(transaction, currentIndex + 1, preparedFragments);
+                    }
+
+                    if (preparePreviousStep && WizardProgress.hasPreviousStep(currentIndex)) {
+                        prepareStep(transaction, currentIndex - 1, preparedFragments);
+                    }
+                }
+            }
+
+            discardPreparedPreferenceFragments(transaction);
+            preparedPreferenceFragments = preparedFragments;
+            transaction.commit();
+        }
+    }
+
+    /**
+     * Prepares the fragment of a specific step, when the activity is used as a wizard. The
+     * fragment is instantiated using the arguments, which are passed to it, if all wizard listeners
+     * return empty bundles, when navigating to the step. It is added to the fragment manager and
+     * detached immediately, which causes its preferences to be inflated without creating its
+     * view. When navigating to the step using other arguments, the fragment is discarded.
+     *
+     * @param transaction
+     *         The transaction, which should be used to add the fragment, as an instance of the
+     *         class FragmentTransaction. The transaction may not be null
+     * @param index
+     *         The index of the navigation preference, which corresponds to the step, which should
+     *         be prepared, as an {@link Integer} value
+     * @param preparedFragments
+     *         The map, the prepared fragment should be added to, as an instance of the type {@link
+     *         Map}. The map may not be null
+     */
+    private void prepareStep(@NonNull final FragmentTransaction transaction, final int index,
+                             @NonNull final Map<String, Fragment> preparedFragments) {
+        NavigationPreference navigationPreference =
+                navigationFragment.getNavigationPreference(index);
+
+        if (navigationPreference != null &&
+                !TextUtils.isEmpty(navigationPreference.getFragment())) {
+            Bundle arguments = createFragmentArguments(navigationPreference, new Bundle());
+            String key = getPreferenceFragmentKey(navigationPreference, null);
+            Fragment fragment = preparedPreferenceFragments.remove(key);
+
+            if (fragment == null && !preferenceFragmentCache.containsKey(key) &&
+                    (preferenceFragment == null || !key.equals(preferenceFragmentKey))) {
+                fragment = instantiateFragment(navigationPreference.getFragment(), arguments);
+                fragment.setRetainInstance(true);
+                transaction.add(R.id.preference_fragment_container, fragment,
+                        PREFERENCE_FRAGMENT_TAG);
+                transaction.detach(fragment);
+            }
+
+            if (fragment != null) {
+                preparedFragments.put(key, fragment);
+            }
+        }
+    }
+
+    /**
+     * Discards all preference fragments, which have been prepared in advance, when the activity is
+     * used as a wizard.
+     *
+     * @param transaction
+     *         The transaction, which should be used to remove the fragments, as an instance of the
+     *         class FragmentTransaction. The transaction may not be null
+     */
+    private void discardPreparedPreferenceFragments(
+            @NonNull final FragmentTransaction transaction) {
+        for (Fragment fragment : preparedPreferenceFragments.values()) {
+            transaction.remove(fragment);
+        }
+
+        preparedPreferenceFragments.clear();
+    }
+
+    /**
+     * Hides a specific preference fragment. If the cache is enabled, the fragment is detached and
+     * added to the cache, otherwise it is removed.
+     *
+     * @param transaction
+     *         The transaction, which should be used to hide the fragment, as an instance of the
+     *         class FragmentTransaction. The transaction may not be null
+     * @param fragment
+     *         The fragment, which should be hidden, as an instance of the class Fragment. The
+     *         fragment may not be null
+     * @param key
+     *         The key, which identifies the fragment within the cache, as a {@link String} or
+     *         null, if the fragment may not be added to the cache
+     */
+    private void hidePreferenceFragment(@NonNull final FragmentTransaction transaction,
+                                        @NonNull final Fragment fragment,
+                                        @Nullable final String key) {
+        if (key != null && preferenceFragmentCacheSize > 0 &&
+                !preferenceFragmentCache.containsKey(key)) {
+            transaction.detach(fragment);
+            preferenceFragmentCache.put(key, fragment);
+            trimPreferenceFragmentCache(transaction, preferenceFragmentCacheSize);
+        } else {
+            transaction.remove(fragment);
+        }
+    }
+
+    /**
+     * Removes the least recently used preference fragments from the cache until it does not exceed
+     * a specific size.
+     *
+     * @param transaction
+     *         The transaction, which should be used to remove the fragments, as an instance of the
+     *         class FragmentTransaction. The transaction may not be null
+     * @param maxSize
+     *         The maximum number of fragments, which should be kept in the cache, as an {@link
+     *         Integer} value
+     */
+    private void trimPreferenceFragmentCache(@NonNull final FragmentTransaction transaction,
+                                             final int maxSize) {
+        Iterator<Fragment> iterator = preferenceFragmentCache.values().iterator();
+
+        while (preferenceFragmentCache.size() > maxSize && iterator.hasNext()) {
+            Fragment fragment = iterator.next();
+            iterator.remove();
+            transaction.remove(fragment);
+        }
+    }
+
+    /**
+     * Removes the least recently used preference fragments from the cache until it does not exceed
+     * a specific size. The fragments are removed using a separate transaction.
+     *
+     * @param maxSize
+     *         The maximum number of fragments, which should be kept in the cache, as an {@link
+     *         Integer} value
+     */
+    private void evictPreferenceFragmentCache(final int maxSize) {
+        if (preferenceFragmentCache.size() > maxSize) {
+            FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
+            trimPreferenceFragmentCache(transaction, maxSize);
+            transaction.commitAllowingStateLoss();
+        }
+    }
+
+    /**
+     * Stores references to specific preference fragments within a bundle, in order to be able to
+     * restore them, when the activity is recreated.
+     *
+     * @param outState
+     *         The bundle, the references should be stored in, as an instance of the class {@link
+     *         Bundle}. The bundle may not be null
+     * @param key
+     *         The key, the keys of the fragments should be stored by, as a {@link String}. The key
+     *         may not be null
+     * @param fragments
+     *         A map, which contains the fragments, which should be stored, mapped to their keys,
+     *         as an instance of the type {@link Map}. The map may not be null
+     */
+    private void savePreferenceFragments(@NonNull final Bundle outState,
+                                         @NonNull final String key,
+                                         @NonNull final Map<String, Fragment> fragments) {
+        ArrayList<String> keys = new ArrayList<>();
+
+        for (Map.Entry<String, Fragment> entry : fragments.entrySet()) {
+            Fragment fragment = entry.getValue();
+
+            if (fragment.getFragmentManager() != null) {
+                keys.add(entry.getKey());
+                getSupportFragmentManager()
+                        .putFragment(outState, key + "::" + entry.getKey(), fragment);
+            }
+        }
+
+        outState.putStringArrayList(key, keys);
+    }
+
+    /**
+     * Restores detached preference fragments, whose references are stored within a specific
+     * bundle.
+     *
+     * @param savedInstanceState
+     *         The bundle, the references to the fragments are stored in, as an instance of the
+     *         class {@link Bundle}. The bundle may not be null
+     * @param key
+     *         The key, the keys of the fragments are stored by, as a {@link String}. The key may
+     *         not be null
+     * @param fragments
+     *         The map, the restored fragments should be added to, as an instance of the type {@link
+     *         Map}. The map may not be null
+     */
+    private void restorePreferenceFragments(@NonNull final Bundle savedInstanceState,
+                                            @NonNull final String key,
+                                            @NonNull final Map<String, Fragment> fragments) {
+        List<String> keys = savedInstanceState.getStringArrayList(key);
+
+        if (keys != null) {
+            for (String fragmentKey : keys) {
+                Fragment fragment = getSupportFragmentManager()
+                        .getFragment(savedInstanceState, key + "::" + fragmentKey);
+
+                if (fragment != null && fragment.isDetached()) {
+                    fragments.put(fragmentKey, fragment);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the key, which identifies the preference fragment, which is associated with a
+     * specific navigation preference, within the cache. The key only depends on the navigation
+     * preference, i.e. on its fragment and on its key, or its index, if it has no key. Fragments,
+     * which are shown using other arguments than the navigation preference's extras, may not be
+     * cached, as their arguments cannot be compared reliably.
+     *
+     * @param navigationPreference
+     *         The navigation preference as an instance of the class {@link NavigationPreference}.
+     *         The navigation preference may not be null
+     * @param arguments
+     *         The arguments, which are passed to the fragment in addition to the navigation
+     *         preference's extras, as an instance of the class {@link Bundle} or null, if only the
+     *         navigation preference's extras are passed to the fragment
+     * @return The key of the preference fragment as a {@link String} or null, if the fragment may
+     * not be cached
+     */
+    @Nullable
+    private String getPreferenceFragmentKey(
+            @NonNull final NavigationPreference navigationPreference,
+            @Nullable final Bundle arguments) {
+        if (arguments != null && !arguments.isEmpty()) {
+            return null;
+        }
+
+        String key = navigationPreference.getKey();
+        return navigationPreference.getFragment() + (!TextUtils.isEmpty(key) ? "::" + key :
+                INDEX_KEY_SEPARATOR +
+                        navigationFragment.indexOfNavigationPreference(navigationPreference));
+    }
+
+    /**
+     * Discards the cached and prepared preference fragments, which are identified by the index of
+     * their navigation preference, because the indices change, when navigation preferences are
+     * added or removed. For the same reason, the currently shown fragment is not added to the
+     * cache, when it is hidden, if it is identified by an index.
+     */
+    private void discardIndexedPreferenceFragments() {
+        if (preferenceFragmentKey != null && preferenceFragmentKey.contains(INDEX_KEY_SEPARATOR)) {
+            preferenceFragmentKey = null;
+        }
+
+        FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
+        boolean discarded =
+                discardIndexedPreferenceFragments(transaction, preferenceFragmentCache);
+        discarded |= discardIndexedPreferenceFragments(transaction, preparedPreferenceFragments);
+
+        if (discarded) {
+            transaction.commitAllowingStateLoss();
+        }
+    }
+
+    /**
+     * Removes the preference fragments, which are identified by the index of their navigation
+     * preference, from a specific map.
+     *
+     * @param transaction
+     *         The transaction, which should be used to remove the fragments, as an instance of the
+     *         class FragmentTransaction. The transaction may not be null
+     * @param fragments
+     *         The map, the fragments should be removed from, as an instance of the type {@link
+     *         Map}. The map may not be null
+     * @return True, if any fragments have been removed, false otherwise
+     */
+    private static boolean discardIndexedPreferenceFragments(
+            @NonNull final FragmentTransaction transaction,
+            @NonNull final Map<String, Fragment> fragments) {
+        boolean discarded = false;
+        Iterator<Map.Entry<String, Fragment>> iterator = fragments.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<String, Fragment> entry = iterator.next();
+
+            if (entry.getKey().contains(INDEX_KEY_SEPARATOR)) {
+                Fragment fragment = entry.getValue();
+                iterator.remove();
+                transaction.remove(fragment);
+                discarded = true;
+            }
+        }
+
+        return discarded;
     }
 
     /**
@@ -1113,7 +1921,7 @@ public abstract class PreferenceActivity extends AppCompatActivity
             hideToolbarNavigationIcon();
             adaptBreadCrumbVisibility();
             FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
-            transaction.remove(preferenceFragment);
+            hidePreferenceFragment(transaction, preferenceFragment, preferenceFragmentKey);
 
             if (!isSplitScreen()) {
                 transaction.show(navigationFragment);
@@ -1123,6 +1931,7 @@ public abstract class PreferenceActivity extends AppCompatActivity
             transaction.commit();
             notifyOnPreferenceFragmentHidden(preferenceFragment);
             preferenceFragment = null;
+            preferenceFragmentKey = null;
         }
     }
 
@@ -1189,21 +1998,14 @@ public abstract class PreferenceActivity extends AppCompatActivity
      *         The bread crumb title, which should be formatted, as an instance of the class {@link
      *         CharSequence} or null, if no bread crumb title should be shown
      * @return The formatted bread crumb title as an instance of the class {@link CharSequence} or
-     * null, if no bread crumb title should be shown
-     */
-    @Nullable
-    private CharSequence formatBreadCrumbTitle(@Nullable final CharSequence breadCrumbTitle) {
-        if (!TextUtils.isEmpty(breadCrumbTitle) && isButtonBarShown() &&
-                navigationFragment != null) {
-            String format = getProgressFormat();
-            int selectedNavigationPreferenceIndex =
-                    navigationFragment.getSelectedNavigationPreferenceIndex();
-
-            if (!TextUtils.isEmpty(format) && selectedNavigationPreferenceIndex != -1) {
-                int currentStep = selectedNavigationPreferenceIndex + 1;
-                int totalSteps = navigationFragment.getNavigationPreferenceCount();
-                return String.format(format, currentStep, totalSteps, breadCrumbTitle);
-            }
+     * null, if no bread crumb title should be shown
+     */
+    @Nullable
+    private CharSequence formatBreadCrumbTitle(@Nullable final CharSequence breadCrumbTitle) {
+        if (isButtonBarShown() && navigationFragment != null) {
+            return WizardProgress.formatBreadCrumbTitle(getProgressFormat(),
+                    navigationFragment.getSelectedNavigationPreferenceIndex(),
+                    navigationFragment.getNavigationPreferenceCount(), breadCrumbTitle);
         }
 
         return breadCrumbTitle;
@@ -1328,14 +2130,91 @@ public abstract class PreferenceActivity extends AppCompatActivity
     }
 
     /**
-     * Adapts, whether the split screen layout is used, or not.
+     * Adapts, whether the split screen layout is used, or not. If the layout, which is currently
+     * inflated, does not correspond to the layout, which should be used, the layout is switched in
+     * place. If the activity's state has already been saved, the activity is recreated instead.
      */
     private void adaptSplitScreen() {
-        if (navigationFragmentContainer != null) {
-            recreate();
+        if (navigationFragmentContainer != null && navigationFragment != null &&
+                (cardView != null) != isSplitScreen()) {
+            if (getSupportFragmentManager().isStateSaved()) {
+                recreate();
+            } else {
+                switchLayout();
+            }
+        }
+    }
+
+    /**
+     * Switches between the split screen layout and the layout, which is used on smartphones,
+     * without recreating the activity. The navigation fragment and the currently shown preference
+     * fragment are detached, before the layout is inflated, and re-attached afterwards. This
+     * causes their views to be re-created within the new layout, while their instances, as well as
+     * the state of their views, are retained.
+     */
+    private void switchLayout() {
+        FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
+        transaction.detach(navigationFragment);
+
+        if (preferenceFragment != null) {
+            transaction.detach(preferenceFragment);
+        }
+
+        transaction.commitNow();
+        setSupportActionBar(null);
+        inflateLayout();
+        initializeToolbar();
+        transaction = getSupportFragmentManager().beginTransaction();
+        transaction.attach(navigationFragment);
+
+        if (preferenceFragment != null) {
+            transaction.attach(preferenceFragment);
+        }
+
+        if (isSplitScreen() || preferenceFragment == null) {
+            transaction.show(navigationFragment);
+        } else {
+            transaction.hide(navigationFragment);
+        }
+
+        transaction.commitNow();
+        adaptViews();
+        NavigationPreference selectedNavigationPreference = getSelectedNavigationPreference();
+
+        if (selectedNavigationPreference != null) {
+            showBreadCrumb(selectedNavigationPreference, selectedPreferenceFragmentArguments);
+            adaptBreadCrumbVisibility(selectedPreferenceFragmentArguments);
+            showToolbarNavigationIcon();
+        } else if (isSplitScreen() && navigationFragment.getNavigationPreferenceCount() > 0) {
+            navigationFragment.selectNavigationPreference(0, null);
         }
     }
 
+    /**
+     * Adapts the appearance of all views, which are contained by the activity's layout.
+     */
+    private void adaptViews() {
+        adaptNavigationWidth();
+        adaptNavigationVisibility();
+        adaptButtonBarVisibility();
+        adaptWizardButtonVisibilities();
+        adaptNextButtonText();
+        adaptBackButtonText();
+        adaptFinishButtonText();
+        adaptProgress();
+        adaptBreadCrumbVisibility();
+        adaptToolbarElevation();
+        adaptBreadCrumbElevation();
+        adaptCardViewElevation();
+        adaptButtonBarElevation();
+        adaptCardViewBackgroundColor();
+        adaptBreadCrumbBackgroundColor();
+        adaptButtonBarBackground();
+        adaptNavigationBackground();
+        adaptNavigationSelectionColor();
+        adaptNavigationDividerColor();
+    }
+
     /**
      * Adapts the width of the navigation.
      */
@@ -1654,7 +2533,8 @@ public abstract class PreferenceActivity extends AppCompatActivity
                 if (navigationFragment != null) {
                     int currentIndex = navigationFragment.getSelectedNavigationPreferenceIndex();
 
-                    if (currentIndex < navigationFragment.getNavigationPreferenceCount() - 1) {
+                    if (WizardProgress.hasNextStep(currentIndex,
+                            navigationFragment.getNavigationPreferenceCount())) {
                         Bundle params = notifyOnNextStep();
 
                         if (params != null) {
@@ -1683,7 +2563,7 @@ public abstract class PreferenceActivity extends AppCompatActivity
                 if (navigationFragment != null) {
                     int currentIndex = navigationFragment.getSelectedNavigationPreferenceIndex();
 
-                    if (currentIndex > 0) {
+                    if (WizardProgress.hasPreviousStep(currentIndex)) {
                         Bundle params = notifyOnPreviousStep();
 
                         if (params != null) {
@@ -1709,7 +2589,9 @@ public abstract class PreferenceActivity extends AppCompatActivity
 
             @Override
             public void onClick(final View v) {
-                notifyOnFinish();
+                if (notifyOnFinish()) {
+                    commitWizardTransactions();
+                }
             }
 
         };
@@ -2322,6 +3204,57 @@ public abstract class PreferenceActivity extends AppCompatActivity
         adaptProgress();
     }
 
+    /**
+     * Returns, whether the fragment of the next step is prepared in advance, when the activity is
+     * used as a wizard.
+     *
+     * @return True, if the fragment of the next step is prepared in advance, false otherwise
+     */
+    public final boolean isNextStepPrepared() {
+        return prepareNextStep;
+    }
+
+    /**
+     * Sets, whether the fragment of the next step should be prepared in advance, when the activity
+     * is used as a wizard. If enabled, the fragment is instantiated and its preferences are
+     * inflated, once the current step has been shown and the main thread becomes idle. It is only
+     * used, if all wizard listeners return empty bundles, when navigating to the next step.
+     *
+     * @param prepareNextStep
+     *         True, if the fragment of the next step should be prepared in advance, false
+     *         otherwise
+     */
+    public final void prepareNextStep(final boolean prepareNextStep) {
+        this.prepareNextStep = prepareNextStep;
+        scheduleStepPreparation();
+    }
+
+    /**
+     * Returns, whether the fragment of the previous step is prepared in advance, when the activity
+     * is used as a wizard.
+     *
+     * @return True, if the fragment of the previous step is prepared in advance, false otherwise
+     */
+    public final boolean isPreviousStepPrepared() {
+        return preparePreviousStep;
+    }
+
+    /**
+     * Sets, whether the fragment of the previous step should be prepared in advance, when the
+     * activity is used as a wizard. If enabled, the fragment is instantiated and its preferences
+     * are inflated, once the current step has been shown and the main thread becomes idle. It is
+     * only used, if all wizard listeners return empty bundles, when navigating to the previous
+     * step.
+     *
+     * @param preparePreviousStep
+     *         True, if the fragment of the previous step should be prepared in advance, false
+     *         otherwise
+     */
+    public final void preparePreviousStep(final boolean preparePreviousStep) {
+        this.preparePreviousStep = preparePreviousStep;
+        scheduleStepPreparation();
+    }
+
     /**
      * Returns the string, which is used to format the progress, which is shown, when the activity
      * is used as a wizard.
@@ -2675,6 +3608,293 @@ public abstract class PreferenceActivity extends AppCompatActivity
         adaptNavigationDividerColor();
     }
 
+    /**
+     * Returns the maximum number of preference fragments, which are kept in a cache, when they are
+     * hidden, in order to be re-attached, instead of being re-created, when they are shown again.
+     *
+     * @return The maximum number of preference fragments, which are kept in the cache, as an
+     * {@link Integer} value or 0, if the cache is disabled
+     */
+    public final int getPreferenceFragmentCacheSize() {
+        return preferenceFragmentCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of preference fragments, which should be kept in a cache, when they
+     * are hidden, in order to be re-attached, instead of being re-created, when they are shown
+     * again. Fragments are identified by their class name and the key, or the index, of the
+     * navigation preference, they are associated with. Fragments, which have been shown using
+     * other arguments than the extras of their navigation preference, are not cached. If the
+     * cache is full, the least recently used fragment is removed.
+     *
+     * @param cacheSize
+     *         The maximum number of preference fragments, which should be kept in the cache, as an
+     *         {@link Integer} value. The value must be at least 0. If the value is 0, the cache is
+     *         disabled
+     */
+    public final void setPreferenceFragmentCacheSize(final int cacheSize) {
+        Condition.INSTANCE.ensureAtLeast(cacheSize, 0, "The cache size must be at least 0");
+        this.preferenceFragmentCacheSize = cacheSize;
+        evictPreferenceFragmentCache(cacheSize);
+    }
+
+    /**
+     * Returns the number of views per common preference type, which are inflated in advance on a
+     * background thread, in order to be reused by the preference fragments.
+     *
+     * @return The number of views per common preference type, which are inflated in advance, as
+     * an {@link Integer} value or 0, if no views are inflated in advance
+     */
+    public final int getPreferenceViewPrewarmCount() {
+        return preferenceViewPrewarmCount;
+    }
+
+    /**
+     * Sets the number of views per common preference type, which should be inflated in advance on
+     * a background thread, once the activity has been started and the main thread is idle. The
+     * views are reused by the preference fragments, which are shown by the activity. The setting
+     * takes effect, when the activity is started.
+     *
+     * @param count
+     *         The number of views per common preference type, which should be inflated in
+     *         advance, as an {@link Integer} value. The value must be at least 0. If the value is
+     *         0, no views are inflated in advance
+     */
+    public final void setPreferenceViewPrewarmCount(final int count) {
+        Condition.INSTANCE.ensureAtLeast(count, 0, "The count must be at least 0");
+        this.preferenceViewPrewarmCount = count;
+    }
+
+    /**
+     * Returns the maximum number of bytes, the views of preferences, which are inflated in
+     * advance, may occupy on the heap.
+     *
+     * @return The maximum number of bytes, the views of preferences, which are inflated in
+     * advance, may occupy on the heap, as a {@link Long} value
+     */
+    public final long getPreferenceViewPrewarmMemoryBudget() {
+        return preferenceViewPrewarmMemoryBudget;
+    }
+
+    /**
+     * Sets the maximum number of bytes, the views of preferences, which are inflated in advance,
+     * may occupy on the heap. The size of the views is estimated from the number of views, a
+     * single preference's view consists of. No further views are inflated, once they would exceed
+     * the budget.
+     *
+     * @param memoryBudget
+     *         The maximum number of bytes, which should be set, as a {@link Long} value. The
+     *         value must be at least 0
+     */
+    public final void setPreferenceViewPrewarmMemoryBudget(final long memoryBudget) {
+        Condition.INSTANCE.ensureAtLeast(memoryBudget, 0, "The memory budget must be at least 0");
+        this.preferenceViewPrewarmMemoryBudget = memoryBudget;
+    }
+
+    /**
+     * Returns the factory, which is used to create preference fragments without using reflection.
+     *
+     * @return The factory, which is used to create preference fragments without using reflection,
+     * as an instance of the type {@link FragmentFactory} or null, if all preference fragments are
+     * created using reflection
+     */
+    @Nullable
+    public final FragmentFactory<Fragment> getFragmentFactory() {
+        return fragmentFactory;
+    }
+
+    /**
+     * Sets the factory, which should be used to create preference fragments without using
+     * reflection. Such a factory can be generated at compile time by the annotation processor,
+     * which is provided by the module "processor". Fragments, which are not known to the factory,
+     * are created using reflection. In order to be used for the fragment, which is initially
+     * shown, the factory must be set before the super implementation of the activity's
+     * <code>onCreate</code>-method is invoked.
+     *
+     * @param fragmentFactory
+     *         The factory, which should be set, as an instance of the type {@link
+     *         FragmentFactory} or null, if all preference fragments should be created using
+     *         reflection
+     */
+    public final void setFragmentFactory(
+            @Nullable final FragmentFactory<Fragment> fragmentFactory) {
+        this.fragmentFactory = fragmentFactory;
+    }
+
+    /**
+     * Returns the data store, which is used to persist the values of the preferences, which are
+     * shown by the activity's preference fragments.
+     *
+     * @return The data store, which is used to persist the values of the preferences, as an
+     * instance of the class PreferenceDataStore or null, if the fragments' default is used
+     */
+    @Nullable
+    public final PreferenceDataStore getPreferenceDataStore() {
+        return preferenceDataStore;
+    }
+
+    /**
+     * Sets the data store, which should be used to persist the values of the preferences, which
+     * are shown by the activity's preference fragments. The data store is passed to all preference
+     * fragments, which are attached to the activity afterwards, unless a fragment uses its own
+     * data store. A {@link WriteBehindPreferenceDataStore} may be used to coalesce frequent
+     * changes into few writes and a {@link PreferenceLogDataStore} may be used to store a large
+     * number of values efficiently. This method should be called before the super implementation
+     * of the activity's <code>onCreate</code>-method is invoked.
+     *
+     * @param preferenceDataStore
+     *         The data store, which should be set, as an instance of the class PreferenceDataStore
+     *         or null, if the fragments' default should be used
+     */
+    public final void setPreferenceDataStore(
+            @Nullable final PreferenceDataStore preferenceDataStore) {
+        this.preferenceDataStore = preferenceDataStore;
+    }
+
+    /**
+     * Returns, whether the values of the preferences, which are shown by the activity's preference
+     * fragments, are staged in memory, until the wizard is finished, or not.
+     *
+     * @return True, if the values are staged in memory, false otherwise
+     */
+    public final boolean isTransactionalWizardEnabled() {
+        return transactionalWizardEnabled;
+    }
+
+    /**
+     * Sets, whether the values of the preferences, which are shown by the activity's preference
+     * fragments, should be staged in memory, until the wizard is finished, or not. If enabled,
+     * each preference fragment, which does not use its own data store, writes into a {@link
+     * TransactionalPreferenceDataStore}. The staged changes are committed at once, when the user
+     * finishes the wizard and all registered wizard listeners allow it, i.e. the shared
+     * preferences' file is only written once per wizard. When the user skips the wizard and all
+     * listeners allow it, the staged changes are discarded without being written. The values are
+     * only staged, while the activity is used as a wizard. If the activity is finished, while it
+     * is not used as a wizard, e.g. because the button bar has been hidden, the staged changes are
+     * committed. This method should be called before the super implementation of the activity's
+     * <code>onCreate</code>-method is invoked.
+     *
+     * @param enabled
+     *         True, if the values should be staged in memory, false otherwise
+     */
+    public final void setTransactionalWizardEnabled(final boolean enabled) {
+        this.transactionalWizardEnabled = enabled;
+    }
+
+    /**
+     * Returns, whether the fragment transactions of navigation preferences, which are clicked by
+     * the user in quick succession, are coalesced, or not.
+     *
+     * @return True, if the fragment transactions are coalesced, false otherwise
+     */
+    public final boolean isSelectionCoalescingEnabled() {
+        return selectionCoalescingEnabled;
+    }
+
+    /**
+     * Sets, whether the fragment transactions of navigation preferences, which are clicked by the
+     * user in quick succession, should be coalesced, or not. If enabled, the fragment of a clicked
+     * navigation preference is shown on the next frame, when using the split screen layout. If
+     * another navigation preference is clicked in the meantime, only the fragment of the most
+     * recently clicked one is created and shown. Navigation preferences, which are selected
+     * programmatically, are not affected. Disabling the coalescing shows the fragment of a pending
+     * selection immediately.
+     *
+     * @param enabled
+     *         True, if the fragment transactions should be coalesced, false otherwise
+     */
+    public final void setSelectionCoalescingEnabled(final boolean enabled) {
+        this.selectionCoalescingEnabled = enabled;
+
+        if (!enabled) {
+            commitPendingSelection();
+        }
+    }
+
+    /**
+     * Returns, whether the classes of the navigation preferences' fragments are preloaded on a
+     * background thread, once the navigation has been created, or not.
+     *
+     * @return True, if the classes are preloaded, false otherwise
+     */
+    public final boolean isFragmentPreloadingEnabled() {
+        return fragmentPreloadingEnabled;
+    }
+
+    /**
+     * Sets, whether the classes of the navigation preferences' fragments should be preloaded on a
+     * low-priority background thread, once the navigation has been created, or not. Preloading
+     * the classes avoids loading and initializing them on the main thread, when a navigation
+     * preference is selected for the first time. Disabling the preloading cancels it, if it is
+     * currently in progress.
+     *
+     * @param enabled
+     *         True, if the classes should be preloaded, false otherwise
+     */
+    public final void setFragmentPreloadingEnabled(final boolean enabled) {
+        this.fragmentPreloadingEnabled = enabled;
+
+        if (!enabled) {
+            cancelFragmentClassPreloading();
+        }
+    }
+
+    /**
+     * Returns the maximum number of fragment classes, which are preloaded concurrently.
+     *
+     * @return The maximum number of fragment classes, which are preloaded concurrently, as an
+     * {@link Integer} value
+     */
+    public final int getFragmentPreloadingConcurrency() {
+        return fragmentPreloadingConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of fragment classes, which should be preloaded concurrently. The
+     * concurrency is applied, when the preloading is started the next time.
+     *
+     * @param concurrency
+     *         The maximum number of fragment classes, which should be preloaded concurrently, as an
+     *         {@link Integer} value. The number must be at least 1
+     */
+    public final void setFragmentPreloadingConcurrency(final int concurrency) {
+        Condition.INSTANCE.ensureAtLeast(concurrency, 1, "The concurrency must be at least 1");
+        this.fragmentPreloadingConcurrency = concurrency;
+    }
+
+    /**
+     * Returns, whether the shared preferences, which are used by the navigation and by the
+     * navigation preferences' fragments, are loaded on a background thread, or not.
+     *
+     * @return True, if the shared preferences are loaded on a background thread, false otherwise
+     */
+    public final boolean isSharedPreferencesPreloadingEnabled() {
+        return sharedPreferencesPreloadingEnabled;
+    }
+
+    /**
+     * Sets, whether the shared preferences, which are used by the navigation and by the
+     * navigation preferences' fragments, should be loaded on a background thread, or not. If
+     * enabled, the default shared preferences are loaded in parallel to restoring the activity's
+     * fragments and inflating its layout and the separate shared preferences of navigation
+     * preferences are loaded, once the navigation has been created. This prevents the main thread
+     * from reading and parsing the files, when the preferences of the first fragment are created.
+     * To disable the preloading, this method must be called before the super implementation of the
+     * activity's <code>onCreate</code>-method is invoked. Disabling the preloading afterwards
+     * cancels it, if it is currently in progress.
+     *
+     * @param enabled
+     *         True, if the shared preferences should be loaded on a background thread, false
+     *         otherwise
+     */
+    public final void setSharedPreferencesPreloadingEnabled(final boolean enabled) {
+        this.sharedPreferencesPreloadingEnabled = enabled;
+
+        if (!enabled) {
+            cancelSharedPreferencesPreloading();
+        }
+    }
+
     /**
      * Returns, whether a preference fragment is currently shown, or not.
      *
@@ -2759,7 +3979,7 @@ public abstract class PreferenceActivity extends AppCompatActivity
                 .ensureNotNull(navigationPreference, "The navigation preference may not be null");
 
         if (navigationFragment != null) {
-            int index = getAllNavigationPreferences().indexOf(navigationPreference);
+            int index = navigationFragment.indexOfNavigationPreference(navigationPreference);
 
             if (index != -1) {
                 navigationFragment.selectNavigationPreference(index, arguments);
@@ -2778,7 +3998,9 @@ public abstract class PreferenceActivity extends AppCompatActivity
     /**
      * The method, which is invoked on implementing subclasses, when the navigation is created. It
      * may be overridden in order to add preferences to the preference fragment, which contains the
-     * navigation's preferences.
+     * navigation's preferences. In order to inflate the preferences on a background thread, the
+     * fragment can be cast to the class {@link AbstractPreferenceFragment} and its method
+     * <code>addPreferencesFromResourceAsync</code> can be used.
      *
      * @param fragment
      *         The preference fragment, which contains the navigation's preferences, as an instance
@@ -2808,33 +4030,20 @@ public abstract class PreferenceActivity extends AppCompatActivity
     @Override
     public final void onNavigationAdapterCreated() {
         navigationFragment.setCallback(null);
-        adaptNavigationWidth();
-        adaptNavigationVisibility();
-        adaptButtonBarVisibility();
-        adaptWizardButtonVisibilities();
-        adaptNextButtonText();
-        adaptBackButtonText();
-        adaptFinishButtonText();
-        adaptProgress();
-        adaptBreadCrumbVisibility();
-        adaptBreadCrumbVisibility();
-        adaptBreadCrumbVisibility();
-        adaptToolbarElevation();
-        adaptBreadCrumbElevation();
-        adaptCardViewElevation();
-        adaptButtonBarElevation();
-        adaptCardViewBackgroundColor();
-        adaptBreadCrumbBackgroundColor();
-        adaptButtonBarBackground();
-        adaptNavigationBackground();
-        adaptNavigationSelectionColor();
-        adaptNavigationDividerColor();
+
+        for (NavigationPreference navigationPreference : getAllNavigationPreferences()) {
+            preloadSharedPreferences(navigationPreference);
+        }
+
+        adaptViews();
 
         if (!handleShowFragmentIntent() && !showInitialFragment(selectedPreferenceFragment) &&
                 navigationFragment.getNavigationPreferenceCount() > 0 &&
                 (isSplitScreen() || isButtonBarShown())) {
             navigationFragment.selectNavigationPreference(0, null);
         }
+
+        preloadFragmentClasses();
     }
 
     @Override
@@ -2847,11 +4056,18 @@ public abstract class PreferenceActivity extends AppCompatActivity
     public final void onNavigationPreferenceSelected(
             @NonNull final NavigationPreference navigationPreference,
             @Nullable final Bundle arguments) {
-        showPreferenceFragment(navigationPreference, arguments);
+        if (selectionCoalescingEnabled && isSplitScreen() &&
+                navigationFragment.isSelectionByUser()) {
+            scheduleSelection(navigationPreference, arguments);
+        } else {
+            cancelPendingSelection();
+            showPreferenceFragment(navigationPreference, arguments);
+        }
     }
 
     @Override
     public final void onNavigationPreferenceUnselected() {
+        cancelPendingSelection();
         removePreferenceFragmentUnconditionally();
         showBreadCrumb(null);
     }
@@ -2859,10 +4075,14 @@ public abstract class PreferenceActivity extends AppCompatActivity
     @Override
     public final void onNavigationPreferenceAdded(
             @NonNull final NavigationPreference navigationPreference) {
-        if (isSplitScreen() && navigationFragment.getNavigationPreferenceCount() == 1) {
+        if (isSplitScreen() && navigationFragment.getSelectedNavigationPreference() == null &&
+                navigationFragment.getNavigationPreferenceCount() > 0) {
             navigationFragment.selectNavigationPreference(0, null);
         }
 
+        discardIndexedPreferenceFragments();
+        preloadSharedPreferences(navigationPreference);
+        preloadFragmentClass(navigationPreference);
         notifyOnNavigationPreferenceAdded(navigationPreference);
     }
 
@@ -2874,6 +4094,7 @@ public abstract class PreferenceActivity extends AppCompatActivity
             finish();
         }
 
+        discardIndexedPreferenceFragments();
         notifyOnNavigationPreferenceRemoved(navigationPreference);
     }
 
@@ -2883,7 +4104,7 @@ public abstract class PreferenceActivity extends AppCompatActivity
         boolean handled = removePreferenceFragment();
 
         if (!handled) {
-            handled = isButtonBarShown() && !notifyOnSkip();
+            handled = isButtonBarShown() && !skipWizard();
         }
 
         if (!handled) {
@@ -2898,16 +4119,35 @@ public abstract class PreferenceActivity extends AppCompatActivity
             if (isNavigationIconOverridden() && removePreferenceFragment()) {
                 return true;
             } else if (isButtonBarShown()) {
-                return !notifyOnSkip() || super.onOptionsItemSelected(item);
+                return !skipWizard() || super.onOptionsItemSelected(item);
             }
         }
 
         return super.onOptionsItemSelected(item);
     }
 
+    /**
+     * Returns the resource id of the activity's theme.
+     *
+     * @return The resource id of the activity's theme as an {@link Integer} value or 0, if no
+     * theme has been set
+     */
+    @StyleRes
+    final int getThemeResourceId() {
+        return themeResourceId;
+    }
+
+    @Override
+    public void setTheme(@StyleRes final int resid) {
+        super.setTheme(resid);
+        this.themeResourceId = resid;
+    }
+
     @CallSuper
     @Override
     protected void onCreate(final Bundle savedInstanceState) {
+        restoreWizardTransactions(savedInstanceState);
+        startSharedPreferencesPreloading();
         super.onCreate(savedInstanceState);
         obtainStyledAttributes();
 
@@ -2918,19 +4158,106 @@ public abstract class PreferenceActivity extends AppCompatActivity
                     savedInstanceState.getString(SELECTED_PREFERENCE_FRAGMENT_EXTRA);
             selectedPreferenceFragmentArguments =
                     savedInstanceState.getBundle(SELECTED_PREFERENCE_FRAGMENT_ARGUMENTS_EXTRA);
+            preferenceFragmentKey = savedInstanceState.getString(PREFERENCE_FRAGMENT_KEY_EXTRA);
         }
 
         inflateLayout();
         initializeToolbar();
         initializeFragments();
+
+        if (savedInstanceState != null) {
+            restorePreferenceFragments(savedInstanceState, CACHED_PREFERENCE_FRAGMENTS_EXTRA,
+                    preferenceFragmentCache);
+            restorePreferenceFragments(savedInstanceState, PREPARED_PREFERENCE_FRAGMENTS_EXTRA,
+                    preparedPreferenceFragments);
+        }
+    }
+
+    @CallSuper
+    @Override
+    protected void onStart() {
+        super.onStart();
+        schedulePreferenceViewPrewarming();
+    }
+
+    @CallSuper
+    @Override
+    protected void onStop() {
+        super.onStop();
+        cancelPreferenceViewPrewarming();
+    }
+
+    @CallSuper
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelPendingSelection();
+        cancelFragmentClassPreloading();
+        cancelSharedPreferencesPreloading();
+
+        if (isFinishing() && !isButtonBarShown()) {
+            commitWizardTransactions();
+        }
+    }
+
+    @CallSuper
+    @Override
+    public void onAttachFragment(final Fragment fragment) {
+        super.onAttachFragment(fragment);
+
+        if (fragment instanceof AbstractPreferenceFragment &&
+                !(fragment instanceof NavigationFragment)) {
+            AbstractPreferenceFragment preferenceFragment = (AbstractPreferenceFragment) fragment;
+            PreferenceDataStore dataStore = preferenceFragment.getPreferenceDataStore();
+            preferenceFragment.setViewPool(preferenceViewPool);
+
+            if (isTransactionalWizard() &&
+                    (dataStore == null || dataStore instanceof TransactionalPreferenceDataStore)) {
+                preferenceFragment.setPreferenceDataStore(getWizardTransaction(preferenceFragment));
+            } else if (preferenceDataStore != null && dataStore == null) {
+                preferenceFragment.setPreferenceDataStore(preferenceDataStore);
+            }
+        }
+    }
+
+    @CallSuper
+    @Override
+    public void onConfigurationChanged(@NonNull final Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        adaptSplitScreen();
     }
 
     @Override
     protected void onSaveInstanceState(final Bundle outState) {
+        commitPendingSelection();
         super.onSaveInstanceState(outState);
         outState.putString(SELECTED_PREFERENCE_FRAGMENT_EXTRA, selectedPreferenceFragment);
         outState.putBundle(SELECTED_PREFERENCE_FRAGMENT_ARGUMENTS_EXTRA,
                 selectedPreferenceFragmentArguments);
+        outState.putString(PREFERENCE_FRAGMENT_KEY_EXTRA, preferenceFragmentKey);
+        savePreferenceFragments(outState, CACHED_PREFERENCE_FRAGMENTS_EXTRA,
+                preferenceFragmentCache);
+        savePreferenceFragments(outState, PREPARED_PREFERENCE_FRAGMENTS_EXTRA,
+                preparedPreferenceFragments);
+        saveWizardTransactions(outState);
+    }
+
+    @CallSuper
+    @Override
+    public void onTrimMemory(final int level) {
+        super.onTrimMemory(level);
+
+        if (level >= TRIM_MEMORY_RUNNING_LOW && level != TRIM_MEMORY_UI_HIDDEN) {
+            evictPreferenceFragmentCache(0);
+            cancelPreferenceViewPrewarming();
+            preferenceViewPool.clear();
+
+            if (!preparedPreferenceFragments.isEmpty()) {
+                FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
+                discardPreparedPreferenceFragments(transaction);
+                transaction.commitAllowingStateLoss();
+            }
+        }
     }
 
     @Override
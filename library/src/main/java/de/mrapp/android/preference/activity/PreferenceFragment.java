@@ -13,11 +13,13 @@
  */
 package de.mrapp.android.preference.activity;
 
+import android.content.Context;
 import android.content.SharedPreferences;
-import android.content.res.Resources.NotFoundException;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -26,8 +28,12 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.FrameLayout;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.ColorInt;
@@ -38,10 +44,15 @@ import androidx.annotation.StringRes;
 import androidx.core.content.ContextCompat;
 import androidx.preference.AndroidResources;
 import androidx.preference.Preference;
+import androidx.preference.PreferenceDataStore;
 import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import de.mrapp.android.preference.activity.adapter.PreferenceAdapter;
 import de.mrapp.android.preference.activity.animation.HideViewOnScrollAnimation;
+import de.mrapp.android.preference.activity.datastore.BufferedSharedPreferences;
+import de.mrapp.android.preference.activity.datastore.EditableDataStore;
 import de.mrapp.android.preference.activity.fragment.AbstractPreferenceFragment;
-import de.mrapp.android.util.ThemeUtil;
 import de.mrapp.android.util.ViewUtil;
 import de.mrapp.android.util.view.ElevationShadowView;
 import de.mrapp.util.Condition;
@@ -57,6 +68,151 @@ import static de.mrapp.android.util.DisplayUtil.pixelsToDp;
  */
 public abstract class PreferenceFragment extends AbstractPreferenceFragment {
 
+    /**
+     * A preference, whose default value should be restored.
+     */
+    private static final class RestoredPreference {
+
+        /**
+         * The preference group, which contains the preference.
+         */
+        private final PreferenceGroup parent;
+
+        /**
+         * The preference, whose default value should be restored.
+         */
+        private final Preference preference;
+
+        /**
+         * The data store, which is used by the preference, or null, if the preference uses shared
+         * preferences.
+         */
+        private final PreferenceDataStore dataStore;
+
+        /**
+         * The value of the preference before its default value has been restored.
+         */
+        private final Object oldValue;
+
+        /**
+         * The default value of the preference or null, if the preference does not provide a
+         * default value.
+         */
+        private final Object newValue;
+
+        /**
+         * Creates a new preference, whose default value should be restored.
+         *
+         * @param parent
+         *         The preference group, which contains the preference, as an instance of the class
+         *         {@link PreferenceGroup}. The preference group may not be null
+         * @param preference
+         *         The preference, whose default value should be restored, as an instance of the
+         *         class {@link Preference}. The preference may not be null
+         * @param dataStore
+         *         The data store, which is used by the preference, as an instance of the class
+         *         {@link PreferenceDataStore} or null, if the preference uses shared preferences
+         * @param oldValue
+         *         The value of the preference before its default value has been restored, as an
+         *         instance of the class {@link Object}
+         * @param newValue
+         *         The default value of the preference as an instance of the class {@link Object}
+         *         or null, if the preference does not provide a default value
+         */
+        RestoredPreference(@NonNull final PreferenceGroup parent,
+                           @NonNull final Preference preference,
+                           @Nullable final PreferenceDataStore dataStore, final Object oldValue,
+                           final Object newValue) {
+            this.parent = parent;
+            this.preference = preference;
+            this.dataStore = dataStore;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+    }
+
+    /**
+     * A data store, which does not persist any values, but captures the value of a preference,
+     * when the preference reads or writes it.
+     */
+    private static final class ValueCapture extends PreferenceDataStore {
+
+        /**
+         * The value, which has been captured.
+         */
+        private Object value;
+
+        @Override
+        public void putString(final String key, @Nullable final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public void putStringSet(final String key, @Nullable final Set<String> values) {
+            this.value = values;
+        }
+
+        @Override
+        public void putInt(final String key, final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public void putLong(final String key, final long value) {
+            this.value = value;
+        }
+
+        @Override
+        public void putFloat(final String key, final float value) {
+            this.value = value;
+        }
+
+        @Override
+        public void putBoolean(final String key, final boolean value) {
+            this.value = value;
+        }
+
+        @Nullable
+        @Override
+        public String getString(final String key, @Nullable final String defValue) {
+            this.value = defValue;
+            return defValue;
+        }
+
+        @Nullable
+        @Override
+        public Set<String> getStringSet(final String key, @Nullable final Set<String> defValues) {
+            this.value = defValues;
+            return defValues;
+        }
+
+        @Override
+        public int getInt(final String key, final int defValue) {
+            this.value = defValue;
+            return defValue;
+        }
+
+        @Override
+        public long getLong(final String key, final long defValue) {
+            this.value = defValue;
+            return defValue;
+        }
+
+        @Override
+        public float getFloat(final String key, final float defValue) {
+            this.value = defValue;
+            return defValue;
+        }
+
+        @Override
+        public boolean getBoolean(final String key, final boolean defValue) {
+            this.value = defValue;
+            return defValue;
+        }
+
+    }
+
     /**
      * When attaching this fragment to an activity, the passed bundle can contain this extra boolean
      * to display the button, which allows to restore the preferences' default values.
@@ -78,6 +234,12 @@ public abstract class PreferenceFragment extends AbstractPreferenceFragment {
      */
     private final Set<RestoreDefaultsListener> restoreDefaultsListeners = new LinkedHashSet<>();
 
+    /**
+     * The task, which is currently used to restore the preferences' default values
+     * asynchronously, or null, if no such task is running.
+     */
+    private RestoreDefaultsTask restoreDefaultsTask;
+
     /**
      * The frame layout, which contains the fragment's views. It is the root view of the fragment.
      */
@@ -128,72 +290,12 @@ public abstract class PreferenceFragment extends AbstractPreferenceFragment {
      * Obtains all relevant attributes from the activity's current theme.
      */
     private void obtainStyledAttributes() {
-        obtainShowRestoreDefaultsButton();
-        obtainRestoreDefaultsButtonText();
-        obtainButtonBarBackground();
-        obtainButtonBarElevation();
-    }
-
-    /**
-     * Obtains, whether the button, which allows to restore the preferences' default values, should
-     * be shown, or not, from the activity's current theme.
-     */
-    private void obtainShowRestoreDefaultsButton() {
-        boolean show = ThemeUtil.getBoolean(getActivity(), R.attr.showRestoreDefaultsButton, false);
-        showRestoreDefaultsButton(show);
-    }
-
-    /**
-     * Obtains the text of the button, which allows to restore the preferences' default values, from
-     * the activity's current theme.
-     */
-    private void obtainRestoreDefaultsButtonText() {
-        CharSequence text;
-
-        try {
-            text = ThemeUtil.getText(getActivity(), R.attr.restoreDefaultsButtonText);
-        } catch (NotFoundException e) {
-            text = getText(R.string.restore_defaults_button_text);
-        }
-
-        setRestoreDefaultsButtonText(text);
-    }
-
-    /**
-     * Obtains the background of the button bar from the activity's current theme.
-     */
-    private void obtainButtonBarBackground() {
-        try {
-            int color =
-                    ThemeUtil.getColor(getActivity(), R.attr.restoreDefaultsButtonBarBackground);
-            setButtonBarBackgroundColor(color);
-        } catch (NotFoundException e) {
-            int resourceId = ThemeUtil
-                    .getResId(getActivity(), R.attr.restoreDefaultsButtonBarBackground, -1);
-
-            if (resourceId != -1) {
-                setButtonBarBackground(resourceId);
-            } else {
-                setButtonBarBackgroundColor(
-                        ContextCompat.getColor(getActivity(), R.color.button_bar_background_light));
-            }
-        }
-    }
-
-    /**
-     * Obtains the elevation of the button bar from the activity's current theme.
-     */
-    private void obtainButtonBarElevation() {
-        int elevation;
-
-        try {
-            elevation = ThemeUtil
-                    .getDimensionPixelSize(getActivity(), R.attr.restoreDefaultsButtonBarElevation);
-        } catch (NotFoundException e) {
-            elevation = getResources().getDimensionPixelSize(R.dimen.button_bar_elevation);
-        }
-
-        setButtonBarElevation(pixelsToDp(getActivity(), elevation));
+        ThemeAppearance appearance = ThemeAppearance.obtain(getActivity());
+        showRestoreDefaultsButton(appearance.isRestoreDefaultsButtonShown());
+        setRestoreDefaultsButtonText(appearance.getRestoreDefaultsButtonText());
+        setButtonBarBackground(appearance.createRestoreDefaultsButtonBarBackground(getActivity()));
+        setButtonBarElevation(
+                pixelsToDp(getActivity(), appearance.getRestoreDefaultsButtonBarElevation()));
     }
 
     /**
@@ -289,38 +391,498 @@ public abstract class PreferenceFragment extends AbstractPreferenceFragment {
     }
 
     /**
-     * Restores the default preferences, which are contained by a specific preference group.
+     * Restores the default values of the preferences, which are contained by a specific
+     * preference group, in memory. The preferences are visited in the order of the preference
+     * hierarchy. For each preference, the registered listeners are asked, whether its default
+     * value should be restored, or not. If so, the default value is applied to the preference
+     * without being persisted and, if desired, the listeners are notified about the restored
+     * value, before the next preference is visited.
      *
      * @param preferenceGroup
      *         The preference group, whose preferences should be restored, as an instance of the
      *         class {@link PreferenceGroup}. The preference group may not be null
-     * @param sharedPreferences
-     *         The shared preferences, which should be used to restore the preferences, as an
-     *         instance of the type {@link SharedPreferences}. The shared preferences may not be
-     *         null
+     * @param values
+     *         A map, which contains the currently persisted values of all preferences, as an
+     *         instance of the type {@link Map} or null, if the values cannot be obtained at once
+     * @param restoredPreferences
+     *         The list, the preferences, whose default values have been restored, should be added
+     *         to, as an instance of the type {@link List}. The list may not be null
+     * @param notify
+     *         True, if the listeners should be notified about each restored value, false
+     *         otherwise
      */
     private void restoreDefaults(@NonNull final PreferenceGroup preferenceGroup,
-                                 @NonNull final SharedPreferences sharedPreferences) {
+                                 @Nullable final Map<String, ?> values,
+                                 @NonNull final List<RestoredPreference> restoredPreferences,
+                                 final boolean notify) {
         for (int i = 0; i < preferenceGroup.getPreferenceCount(); i++) {
             Preference preference = preferenceGroup.getPreference(i);
 
             if (preference instanceof PreferenceGroup) {
-                restoreDefaults((PreferenceGroup) preference, sharedPreferences);
-            } else if (preference.getKey() != null && !preference.getKey().isEmpty()) {
-                Object oldValue = sharedPreferences.getAll().get(preference.getKey());
+                restoreDefaults((PreferenceGroup) preference, values, restoredPreferences, notify);
+            } else if (!TextUtils.isEmpty(preference.getKey())) {
+                Object oldValue = getPersistedValue(preferenceGroup, preference, values);
 
                 if (notifyOnRestoreDefaultValueRequested(preference, oldValue)) {
-                    sharedPreferences.edit().remove(preference.getKey()).apply();
-                    preferenceGroup.removePreference(preference);
-                    preferenceGroup.addPreference(preference);
-                    Object newValue = sharedPreferences.getAll().get(preference.getKey());
-                    notifyOnRestoredDefaultValue(preference, oldValue, newValue);
+                    RestoredPreference restoredPreference =
+                            restoreDefaultValue(preferenceGroup, preference, oldValue);
+                    restoredPreferences.add(restoredPreference);
+
+                    if (notify) {
+                        notifyOnRestoredDefaultValue(preference, oldValue,
+                                restoredPreference.newValue);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the currently persisted value of a specific preference. The value is obtained from
+     * a snapshot of the values, which are persisted by the preference manager, or from the
+     * preference's own {@link EditableDataStore}. If any other {@link PreferenceDataStore} is
+     * used, the value is captured from the preference itself.
+     *
+     * @param parent
+     *         The preference group, which contains the preference, as an instance of the class
+     *         {@link PreferenceGroup}. The preference group may not be null
+     * @param preference
+     *         The preference, whose value should be returned, as an instance of the class {@link
+     *         Preference}. The preference may not be null
+     * @param values
+     *         A map, which contains the values, which are persisted by the preference manager, as
+     *         an instance of the type {@link Map} or null, if the values cannot be obtained at
+     *         once
+     * @return The currently persisted value of the preference as an instance of the class {@link
+     * Object} or null, if no value is persisted
+     */
+    @Nullable
+    private Object getPersistedValue(@NonNull final PreferenceGroup parent,
+                                     @NonNull final Preference preference,
+                                     @Nullable final Map<String, ?> values) {
+        PreferenceDataStore ownDataStore = getOwnDataStore(preference);
+
+        if (ownDataStore == null && values != null) {
+            return values.get(preference.getKey());
+        } else if (ownDataStore instanceof EditableDataStore) {
+            return ((EditableDataStore) ownDataStore).getAll().get(preference.getKey());
+        }
+
+        return preference.isPersistent() ? captureValue(parent, preference, ownDataStore) : null;
+    }
+
+    /**
+     * Returns the data store, which has been set to a specific preference itself, instead of
+     * being inherited from the preference manager.
+     *
+     * @param preference
+     *         The preference, whose data store should be returned, as an instance of the class
+     *         {@link Preference}. The preference may not be null
+     * @return The data store, which has been set to the preference itself, as an instance of the
+     * class {@link PreferenceDataStore} or null, if the preference's data store is inherited from
+     * the preference manager
+     */
+    @Nullable
+    private PreferenceDataStore getOwnDataStore(@NonNull final Preference preference) {
+        PreferenceDataStore dataStore = preference.getPreferenceDataStore();
+        return dataStore != getPreferenceManager().getPreferenceDataStore() ? dataStore : null;
+    }
+
+    /**
+     * Applies the default value of a specific preference without persisting it. The preference is
+     * moved to a preference screen, whose preference manager uses {@link
+     * BufferedSharedPreferences}, which do not contain the preference's value. This causes the
+     * default value to be applied and to be persisted in the buffer. Afterwards, the preference is
+     * moved back to its parent without being persistent, which keeps the default value. If the
+     * preference does not provide a default value, nothing is persisted in the buffer and the
+     * preference's value is removed, when the default values are written.
+     *
+     * @param parent
+     *         The preference group, which contains the preference, as an instance of the class
+     *         {@link PreferenceGroup}. The preference group may not be null
+     * @param preference
+     *         The preference, whose default value should be restored, as an instance of the class
+     *         {@link Preference}. The preference may not be null
+     * @param oldValue
+     *         The currently persisted value of the preference as an instance of the class {@link
+     *         Object}
+     * @return The preference, whose default value has been restored, as an instance of the class
+     * {@link RestoredPreference}. The preference may not be null
+     */
+    @NonNull
+    private RestoredPreference restoreDefaultValue(@NonNull final PreferenceGroup parent,
+                                                   @NonNull final Preference preference,
+                                                   final Object oldValue) {
+        Context context = preference.getContext();
+        BufferedSharedPreferences buffer = new BufferedSharedPreferences();
+        PreferenceScreen probe =
+                buffer.createPreferenceManager(context).createPreferenceScreen(context);
+        PreferenceDataStore dataStore = preference.getPreferenceDataStore();
+        PreferenceDataStore ownDataStore = getOwnDataStore(preference);
+        boolean persistent = preference.isPersistent();
+        parent.removePreference(preference);
+        preference.setPreferenceDataStore(null);
+
+        try {
+            probe.addPreference(preference);
+            probe.removePreference(preference);
+        } finally {
+            preference.setPreferenceDataStore(ownDataStore);
+            preference.setPersistent(false);
+
+            try {
+                parent.addPreference(preference);
+            } finally {
+                preference.setPersistent(persistent);
+            }
+        }
+
+        Object newValue = buffer.getChanges().get(preference.getKey());
+        return new RestoredPreference(parent, preference, dataStore, oldValue, newValue);
+    }
+
+    /**
+     * Captures the current value of a specific preference by re-attaching it to its parent using
+     * a {@link ValueCapture}. The preference's value is not changed.
+     *
+     * @param parent
+     *         The preference group, which contains the preference, as an instance of the class
+     *         {@link PreferenceGroup}. The preference group may not be null
+     * @param preference
+     *         The preference, whose value should be captured, as an instance of the class {@link
+     *         Preference}. The preference may not be null
+     * @param dataStore
+     *         The data store, which has been set to the preference itself, as an instance of the
+     *         class {@link PreferenceDataStore} or null, if no data store has been set to the
+     *         preference itself
+     * @return The value of the preference as an instance of the class {@link Object} or null, if
+     * the preference does not persist a value
+     */
+    @Nullable
+    private static Object captureValue(@NonNull final PreferenceGroup parent,
+                                       @NonNull final Preference preference,
+                                       @Nullable final PreferenceDataStore dataStore) {
+        ValueCapture valueCapture = new ValueCapture();
+        preference.setPreferenceDataStore(valueCapture);
+
+        try {
+            reattach(parent, preference);
+        } finally {
+            preference.setPreferenceDataStore(dataStore);
+        }
+
+        return valueCapture.value;
+    }
+
+    /**
+     * Re-attaches a specific preference to its parent in order to reload its value.
+     *
+     * @param parent
+     *         The preference group, which contains the preference, as an instance of the class
+     *         {@link PreferenceGroup}. The preference group may not be null
+     * @param preference
+     *         The preference, which should be re-attached, as an instance of the class {@link
+     *         Preference}. The preference may not be null
+     */
+    private static void reattach(@NonNull final PreferenceGroup parent,
+                                 @NonNull final Preference preference) {
+        parent.removePreference(preference);
+        parent.addPreference(preference);
+    }
+
+    /**
+     * Returns the values of all preferences, which are persisted by a specific preference manager.
+     * If an {@link EditableDataStore} is used, the values are obtained from the data store. If any
+     * other {@link PreferenceDataStore} is used, the values cannot be obtained at once, because
+     * the preference manager does not provide any shared preferences in such case.
+     *
+     * @param preferenceManager
+     *         The preference manager as an instance of the class PreferenceManager. The preference
+     *         manager may not be null
+     * @return A map, which contains the persisted values, mapped to their keys, as an instance of
+     * the type {@link Map} or null, if the values cannot be obtained at once
+     */
+    @Nullable
+    private static Map<String, ?> getPersistedValues(
+            @NonNull final PreferenceManager preferenceManager) {
+        PreferenceDataStore dataStore = preferenceManager.getPreferenceDataStore();
+
+        if (dataStore instanceof EditableDataStore) {
+            return ((EditableDataStore) dataStore).getAll();
+        } else if (dataStore != null) {
+            return null;
+        }
+
+        return preferenceManager.getSharedPreferences().getAll();
+    }
+
+    /**
+     * Writes the default values of specific preferences at once. The values, which are persisted
+     * in shared preferences, are written using a single editor. If an {@link EditableDataStore}
+     * is used, the values are written together with its other pending changes. Any other {@link
+     * PreferenceDataStore} does not allow to remove values. Therefore, the values of preferences,
+     * which do not provide a default value, are left unchanged in such case.
+     *
+     * @param preferenceManager
+     *         The preference manager, which persists the preferences' values, as an instance of
+     *         the class PreferenceManager. The preference manager may not be null
+     * @param restoredPreferences
+     *         A list, which contains the preferences, whose default values should be written, as
+     *         an instance of the type {@link List}. The list may not be null
+     * @param synchronous
+     *         True, if the values should be written on the calling thread, false, if they should
+     *         be written asynchronously
+     */
+    private static void writeDefaultValues(
+            @NonNull final PreferenceManager preferenceManager,
+            @NonNull final List<RestoredPreference> restoredPreferences,
+            final boolean synchronous) {
+        SharedPreferences.Editor editor = null;
+        Set<EditableDataStore> editableDataStores = new LinkedHashSet<>();
+
+        for (RestoredPreference restoredPreference : restoredPreferences) {
+            String key = restoredPreference.preference.getKey();
+            Object value = restoredPreference.newValue;
+            PreferenceDataStore dataStore = restoredPreference.dataStore;
+
+            if (dataStore == null) {
+                if (editor == null) {
+                    editor = preferenceManager.getSharedPreferences().edit();
+                }
+
+                writeValue(editor, key, value);
+            } else if (dataStore instanceof EditableDataStore) {
+                EditableDataStore editableDataStore = (EditableDataStore) dataStore;
+                editableDataStores.add(editableDataStore);
+
+                if (value == null) {
+                    editableDataStore.remove(key);
                 } else {
-                    preferenceGroup.removePreference(preference);
-                    preferenceGroup.addPreference(preference);
+                    writeValue(dataStore, key, value);
                 }
+            } else if (value != null) {
+                writeValue(dataStore, key, value);
+            }
+        }
+
+        if (editor != null) {
+            if (synchronous) {
+                editor.commit();
+            } else {
+                editor.apply();
+            }
+        }
+
+        if (synchronous) {
+            for (EditableDataStore editableDataStore : editableDataStores) {
+                editableDataStore.commit();
+            }
+        }
+    }
+
+    /**
+     * Writes a specific value using an editor of shared preferences.
+     *
+     * @param editor
+     *         The editor, which should be used, as an instance of the type {@link
+     *         SharedPreferences.Editor}. The editor may not be null
+     * @param key
+     *         The key of the value as a {@link String}. The key may not be null
+     * @param value
+     *         The value, which should be written, as an instance of the class {@link Object} or
+     *         null, if the value should be removed
+     */
+    @SuppressWarnings("unchecked")
+    private static void writeValue(@NonNull final SharedPreferences.Editor editor,
+                                   @NonNull final String key, @Nullable final Object value) {
+        if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+        } else if (value instanceof Set) {
+            editor.putStringSet(key, (Set<String>) value);
+        } else if (value != null) {
+            editor.putString(key, value.toString());
+        } else {
+            editor.remove(key);
+        }
+    }
+
+    /**
+     * Writes a specific value using a data store.
+     *
+     * @param dataStore
+     *         The data store, which should be used, as an instance of the class
+     *         PreferenceDataStore. The data store may not be null
+     * @param key
+     *         The key of the value as a {@link String}. The key may not be null
+     * @param value
+     *         The value, which should be written, as an instance of the class {@link Object}. The
+     *         value may not be null
+     */
+    @SuppressWarnings("unchecked")
+    private static void writeValue(@NonNull final PreferenceDataStore dataStore,
+                                   @NonNull final String key, @NonNull final Object value) {
+        if (value instanceof Boolean) {
+            dataStore.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            dataStore.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            dataStore.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            dataStore.putFloat(key, (Float) value);
+        } else if (value instanceof Set) {
+            dataStore.putStringSet(key, (Set<String>) value);
+        } else {
+            dataStore.putString(key, value.toString());
+        }
+    }
+
+    /**
+     * Writes the default values of specific preferences in a background thread. The values are
+     * written synchronously, unless the given task has been cancelled before. Once writing the
+     * values is started, the given listener is notified on the main thread.
+     *
+     * @param preferenceManager
+     *         The preference manager, which persists the preferences' values, as an instance of
+     *         the class PreferenceManager. The preference manager may not be null
+     * @param restoredPreferences
+     *         A list, which contains the preferences, whose default values should be written, as
+     *         an instance of the type {@link List}. The list may not be null
+     * @param task
+     *         The task, which is used to restore the default values, as an instance of the class
+     *         {@link RestoreDefaultsTask}. The task may not be null
+     * @param listener
+     *         The listener, which should be notified about the progress, as an instance of the
+     *         type {@link RestoreDefaultsProgressListener} or null, if no listener should be
+     *         notified
+     * @param handler
+     *         The handler, which should be used to notify the listener on the main thread, as an
+     *         instance of the class {@link Handler}. The handler may not be null
+     * @return True, if the values have been written, false, if the task has been cancelled
+     */
+    private boolean writeDefaultValues(
+            @NonNull final PreferenceManager preferenceManager,
+            @NonNull final List<RestoredPreference> restoredPreferences,
+            @NonNull final RestoreDefaultsTask task,
+            @Nullable final RestoreDefaultsProgressListener listener,
+            @NonNull final Handler handler) {
+        if (task.startWriting()) {
+            if (listener != null) {
+                handler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        listener.onRestoreDefaultsWritingStarted(PreferenceFragment.this, task);
+                    }
+
+                });
+            }
+
+            writeDefaultValues(preferenceManager, restoredPreferences, true);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * The method, which is invoked, when the default values of specific preferences have been
+     * written asynchronously. It notifies the listeners about the restored values and refreshes
+     * the adapter. If the fragment's preferences are not shown anymore, the listeners are not
+     * notified.
+     *
+     * @param restoredPreferences
+     *         A list, which contains the preferences, whose default values have been restored, as
+     *         an instance of the type {@link List}. The list may not be null
+     * @param adapter
+     *         The adapter, whose notifications have been suspended, while the default values have
+     *         been restored, as an instance of the class {@link PreferenceAdapter} or null, if no
+     *         adapter is used
+     */
+    private void onDefaultsRestored(@NonNull final List<RestoredPreference> restoredPreferences,
+                                    @Nullable final PreferenceAdapter adapter) {
+        try {
+            if (isPreferenceScreenShown()) {
+                for (RestoredPreference restoredPreference : restoredPreferences) {
+                    notifyOnRestoredDefaultValue(restoredPreference.preference,
+                            restoredPreference.oldValue, restoredPreference.newValue);
+                }
+            }
+        } finally {
+            resumeNotifications(adapter);
+        }
+    }
 
+    /**
+     * The method, which is invoked, when restoring the default values of specific preferences
+     * asynchronously has been cancelled. It reloads the persisted values of the preferences and
+     * refreshes the adapter. If the fragment's preferences are not shown anymore, the preferences
+     * are not reloaded.
+     *
+     * @param restoredPreferences
+     *         A list, which contains the preferences, whose default values have been applied in
+     *         memory, as an instance of the type {@link List}. The list may not be null
+     * @param adapter
+     *         The adapter, whose notifications have been suspended, while the default values have
+     *         been restored, as an instance of the class {@link PreferenceAdapter} or null, if no
+     *         adapter is used
+     */
+    private void onRestoreDefaultsCancelled(
+            @NonNull final List<RestoredPreference> restoredPreferences,
+            @Nullable final PreferenceAdapter adapter) {
+        try {
+            if (isPreferenceScreenShown()) {
+                for (RestoredPreference restoredPreference : restoredPreferences) {
+                    reattach(restoredPreference.parent, restoredPreference.preference);
+                }
             }
+        } finally {
+            resumeNotifications(adapter);
+        }
+    }
+
+    /**
+     * Returns, whether the fragment is added to an activity and shows its preferences, or not.
+     *
+     * @return True, if the fragment is added to an activity and shows its preferences, false
+     * otherwise
+     */
+    private boolean isPreferenceScreenShown() {
+        return isAdded() && getPreferenceScreen() != null;
+    }
+
+    /**
+     * Suspends the notifications of the fragment's adapter, if it is available.
+     *
+     * @return The adapter, whose notifications have been suspended, as an instance of the class
+     * {@link PreferenceAdapter} or null, if no adapter is available
+     */
+    @Nullable
+    private PreferenceAdapter suspendNotifications() {
+        PreferenceAdapter adapter = getPreferenceAdapter();
+
+        if (adapter != null) {
+            adapter.suspendNotifications();
+        }
+
+        return adapter;
+    }
+
+    /**
+     * Resumes the notifications of a specific adapter, which causes it to be refreshed once.
+     *
+     * @param adapter
+     *         The adapter, whose notifications should be resumed, as an instance of the class
+     *         {@link PreferenceAdapter} or null, if no adapter is used
+     */
+    private static void resumeNotifications(@Nullable final PreferenceAdapter adapter) {
+        if (adapter != null) {
+            adapter.resumeNotifications();
         }
     }
 
@@ -483,16 +1045,128 @@ public abstract class PreferenceFragment extends AbstractPreferenceFragment {
     }
 
     /**
-     * Restores the default values of all preferences, which are contained by the fragment.
+     * Restores the default values of all preferences, which are contained by the fragment. The
+     * preferences are visited in the order of the preference hierarchy. For each preference, the
+     * registered listeners are asked, whether its default value should be restored, and are
+     * notified about the restored value, before the next preference is visited. The values are
+     * compared to a snapshot, which is taken before any value is changed. Afterwards, all values
+     * are written at once and the adapter is refreshed only once. If an {@link
+     * EditableDataStore} is used, the restored values are written together with its other pending
+     * changes.
      */
     public final void restoreDefaults() {
-        SharedPreferences sharedPreferences = getPreferenceManager().getSharedPreferences();
+        PreferenceManager preferenceManager = getPreferenceManager();
 
         if (getPreferenceScreen() != null) {
-            restoreDefaults(getPreferenceScreen(), sharedPreferences);
+            Map<String, ?> values = getPersistedValues(preferenceManager);
+            List<RestoredPreference> restoredPreferences = new ArrayList<>();
+            PreferenceAdapter adapter = suspendNotifications();
+
+            try {
+                restoreDefaults(getPreferenceScreen(), values, restoredPreferences, true);
+                writeDefaultValues(preferenceManager, restoredPreferences, false);
+            } finally {
+                resumeNotifications(adapter);
+            }
         }
     }
 
+    /**
+     * Restores the default values of all preferences, which are contained by the fragment,
+     * asynchronously. The registered listeners are asked for each preference, whether its default
+     * value should be restored, on the calling thread in the order of the preference hierarchy.
+     * Afterwards, the preferences' values are written using a specific executor. Once this is
+     * done, the listeners are notified about each restored value in the same order and the
+     * adapter is refreshed on the main thread.
+     *
+     * @param executor
+     *         The executor, which should be used to write the preferences' values, as an instance
+     *         of the type {@link Executor}. The executor may not be null
+     * @return The task, which is used to restore the default values, as an instance of the class
+     * {@link RestoreDefaultsTask}. The task may not be null
+     */
+    @NonNull
+    public final RestoreDefaultsTask restoreDefaultsAsync(@NonNull final Executor executor) {
+        return restoreDefaultsAsync(executor, null);
+    }
+
+    /**
+     * Restores the default values of all preferences, which are contained by the fragment,
+     * asynchronously. The registered listeners are asked for each preference, whether its default
+     * value should be restored, on the calling thread in the order of the preference hierarchy.
+     * Afterwards, the preferences' values are written using a specific executor. Once this is
+     * done, the listeners are notified about each restored value in the same order and the
+     * adapter is refreshed on the main thread. The restoration can be cancelled by using the
+     * returned task, as long as the values have not been written yet. In such case, the
+     * preferences' persisted values are reloaded. The restoration is cancelled automatically,
+     * when the fragment is destroyed.
+     *
+     * @param executor
+     *         The executor, which should be used to write the preferences' values, as an instance
+     *         of the type {@link Executor}. The executor may not be null
+     * @param listener
+     *         The listener, which should be notified about the progress, as an instance of the
+     *         type {@link RestoreDefaultsProgressListener} or null, if no listener should be
+     *         notified
+     * @return The task, which is used to restore the default values, as an instance of the class
+     * {@link RestoreDefaultsTask}. The task may not be null
+     */
+    @NonNull
+    public final RestoreDefaultsTask restoreDefaultsAsync(
+            @NonNull final Executor executor,
+            @Nullable final RestoreDefaultsProgressListener listener) {
+        Condition.INSTANCE.ensureNotNull(executor, "The executor may not be null");
+        final PreferenceManager preferenceManager = getPreferenceManager();
+        final List<RestoredPreference> restoredPreferences = new ArrayList<>();
+        final PreferenceAdapter adapter = suspendNotifications();
+
+        try {
+            if (getPreferenceScreen() != null) {
+                restoreDefaults(getPreferenceScreen(), getPersistedValues(preferenceManager),
+                        restoredPreferences, false);
+            }
+        } catch (RuntimeException e) {
+            resumeNotifications(adapter);
+            throw e;
+        }
+
+        final RestoreDefaultsTask task = new RestoreDefaultsTask(restoredPreferences.size());
+        final Handler handler = new Handler(Looper.getMainLooper());
+        restoreDefaultsTask = task;
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final boolean written = writeDefaultValues(preferenceManager,
+                        restoredPreferences, task, listener, handler);
+                handler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (restoreDefaultsTask == task) {
+                            restoreDefaultsTask = null;
+                        }
+
+                        if (written) {
+                            onDefaultsRestored(restoredPreferences, adapter);
+                            task.finish();
+                        } else {
+                            onRestoreDefaultsCancelled(restoredPreferences, adapter);
+                        }
+
+                        if (listener != null) {
+                            listener.onRestoreDefaultsFinished(PreferenceFragment.this, task);
+                        }
+                    }
+
+                });
+            }
+
+        });
+
+        return task;
+    }
+
     /**
      * Returns, whether the button, which allows to restore the preferences' default values, is
      * currently shown, or not.
@@ -642,6 +1316,16 @@ public abstract class PreferenceFragment extends AbstractPreferenceFragment {
                 HideViewOnScrollAnimation.Direction.DOWN));
     }
 
+    @CallSuper
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        if (restoreDefaultsTask != null) {
+            restoreDefaultsTask.cancel();
+        }
+    }
+
     @NonNull
     @CallSuper
     @Override
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Defines the interface, a class, which should be notified about the progress of restoring the
+ * default values of the preferences, which belong to a {@link PreferenceFragment}
+ * asynchronously, must implement.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public interface RestoreDefaultsProgressListener {
+
+    /**
+     * The method, which is invoked, when writing the restored values has been started. Once this
+     * method has been invoked, the task cannot be cancelled anymore. This method is invoked on
+     * the main thread.
+     *
+     * @param fragment
+     *         The fragment, whose preferences' default values are restored, as an instance of the
+     *         class {@link PreferenceFragment}
+     * @param task
+     *         The task, which is used to restore the default values, as an instance of the class
+     *         {@link RestoreDefaultsTask}
+     */
+    void onRestoreDefaultsWritingStarted(@NonNull PreferenceFragment fragment,
+                                         @NonNull RestoreDefaultsTask task);
+
+    /**
+     * The method, which is invoked, when restoring the default values has been finished or
+     * cancelled. This method is invoked on the main thread.
+     *
+     * @param fragment
+     *         The fragment, whose preferences' default values have been restored, as an instance
+     *         of the class {@link PreferenceFragment}
+     * @param task
+     *         The task, which has been used to restore the default values, as an instance of the
+     *         class {@link RestoreDefaultsTask}
+     */
+    void onRestoreDefaultsFinished(@NonNull PreferenceFragment fragment,
+                                   @NonNull RestoreDefaultsTask task);
+
+}
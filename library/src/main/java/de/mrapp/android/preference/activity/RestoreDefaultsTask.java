@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A handle, which allows to observe and cancel the asynchronous restoration of the default values
+ * of the preferences, which belong to a {@link PreferenceFragment}. The restoration can only be
+ * cancelled, as long as the preferences' values have not been written yet.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public final class RestoreDefaultsTask {
+
+    /**
+     * The state of a task, whose values have not been written yet.
+     */
+    private static final int STATE_PENDING = 0;
+
+    /**
+     * The state of a task, whose values are currently written.
+     */
+    private static final int STATE_WRITING = 1;
+
+    /**
+     * The state of a task, which has been cancelled.
+     */
+    private static final int STATE_CANCELLED = 2;
+
+    /**
+     * The state of a task, which has been finished.
+     */
+    private static final int STATE_FINISHED = 3;
+
+    /**
+     * The current state of the task.
+     */
+    private final AtomicInteger state = new AtomicInteger(STATE_PENDING);
+
+    /**
+     * The total number of preferences, whose default values are restored.
+     */
+    private final int total;
+
+    /**
+     * Creates a new handle, which allows to observe and cancel the asynchronous restoration of the
+     * default values of preferences.
+     *
+     * @param total
+     *         The total number of preferences, whose default values are restored, as an {@link
+     *         Integer} value
+     */
+    RestoreDefaultsTask(final int total) {
+        this.total = total;
+    }
+
+    /**
+     * Marks the task as being written. This causes the task to not be cancellable anymore.
+     *
+     * @return True, if the task has been marked as being written, false, if it has been cancelled
+     */
+    boolean startWriting() {
+        return state.compareAndSet(STATE_PENDING, STATE_WRITING);
+    }
+
+    /**
+     * Marks the task as finished.
+     */
+    void finish() {
+        state.compareAndSet(STATE_WRITING, STATE_FINISHED);
+    }
+
+    /**
+     * Returns the total number of preferences, whose default values are restored by the task.
+     *
+     * @return The total number of preferences, whose default values are restored by the task, as
+     * an {@link Integer} value
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Cancels the task. This is only possible, as long as the preferences' values have not been
+     * written yet. A cancelled task does not modify any values.
+     *
+     * @return True, if the task has been cancelled, false, if it has already been written or
+     * finished
+     */
+    public boolean cancel() {
+        return state.compareAndSet(STATE_PENDING, STATE_CANCELLED);
+    }
+
+    /**
+     * Returns, whether the task has been cancelled, or not.
+     *
+     * @return True, if the task has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return state.get() == STATE_CANCELLED;
+    }
+
+    /**
+     * Returns, whether the task has been finished, or not. A task is finished, once the
+     * preferences' values have been written and the preferences have been reloaded.
+     *
+     * @return True, if the task has been finished, false otherwise
+     */
+    public boolean isFinished() {
+        return state.get() == STATE_FINISHED;
+    }
+
+}
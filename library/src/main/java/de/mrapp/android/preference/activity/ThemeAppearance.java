@@ -0,0 +1,830 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.SparseArray;
+import android.util.TypedValue;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.ColorRes;
+import androidx.annotation.DimenRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.Px;
+import androidx.annotation.StringRes;
+import androidx.annotation.StyleRes;
+import androidx.annotation.StyleableRes;
+import androidx.core.content.ContextCompat;
+import de.mrapp.util.Condition;
+
+/**
+ * An immutable representation of the theme attributes, which are used by a {@link
+ * PreferenceActivity} and its fragments. All attributes are resolved at once. Appearances are
+ * cached per theme resource id and configuration in order to be reused, when an activity is
+ * recreated, or by multiple fragments.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public final class ThemeAppearance {
+
+    /**
+     * A sparse array, which contains the appearances, which have already been resolved, mapped to
+     * the resource ids of the corresponding themes.
+     */
+    private static final SparseArray<ThemeAppearance> CACHE = new SparseArray<>();
+
+    /**
+     * The configuration, the appearance has been resolved for.
+     */
+    private final Configuration configuration;
+
+    /**
+     * True, if the split screen layout should be used on tablets, false otherwise.
+     */
+    private final boolean useSplitScreen;
+
+    /**
+     * The width of the navigation, when using the split screen layout, in pixels.
+     */
+    private final int navigationWidth;
+
+    /**
+     * True, if the navigation should be hidden, false otherwise.
+     */
+    private final boolean hideNavigation;
+
+    /**
+     * True, if the behavior of the navigation icon should be overridden, false otherwise.
+     */
+    private final boolean overrideNavigationIcon;
+
+    /**
+     * True, if the activity should be used as a wizard, false otherwise.
+     */
+    private final boolean showButtonBar;
+
+    /**
+     * The text of the next button.
+     */
+    private final CharSequence nextButtonText;
+
+    /**
+     * The text of the back button.
+     */
+    private final CharSequence backButtonText;
+
+    /**
+     * The text of the finish button.
+     */
+    private final CharSequence finishButtonText;
+
+    /**
+     * True, if the progress should be shown, when the activity is used as a wizard, false
+     * otherwise.
+     */
+    private final boolean showProgress;
+
+    /**
+     * The string, which should be used to format the progress, which is shown when the activity is
+     * used as a wizard.
+     */
+    private final String progressFormat;
+
+    /**
+     * True, if the fragment of the next step should be prepared in advance, false otherwise.
+     */
+    private final boolean prepareNextStep;
+
+    /**
+     * True, if the fragment of the previous step should be prepared in advance, false otherwise.
+     */
+    private final boolean preparePreviousStep;
+
+    /**
+     * True, if the toolbar, which is used to show the bread crumb, should be hidden, false
+     * otherwise.
+     */
+    private final boolean hideBreadCrumb;
+
+    /**
+     * The elevation of the activity's toolbar in pixels.
+     */
+    private final int toolbarElevation;
+
+    /**
+     * The elevation of the toolbar, which is used to show the bread crumb, in pixels.
+     */
+    private final int breadCrumbElevation;
+
+    /**
+     * The elevation of the card view, which contains the currently shown preference fragment, in
+     * pixels.
+     */
+    private final int cardViewElevation;
+
+    /**
+     * The elevation of the button bar, which is shown when the activity is used as a wizard, in
+     * pixels.
+     */
+    private final int buttonBarElevation;
+
+    /**
+     * The background color of the card view, which contains the currently shown preference
+     * fragment.
+     */
+    private final int cardViewBackgroundColor;
+
+    /**
+     * The background color of the toolbar, which is used to show the bread crumb.
+     */
+    private final int breadCrumbBackgroundColor;
+
+    /**
+     * The value of the background of the button bar, which is shown when the activity is used as a
+     * wizard, or null, if no background is specified.
+     */
+    private final TypedValue buttonBarBackground;
+
+    /**
+     * The value of the background of the navigation or null, if no background is specified.
+     */
+    private final TypedValue navigationBackground;
+
+    /**
+     * The background color of the currently selected navigation preference.
+     */
+    private final int navigationSelectionColor;
+
+    /**
+     * The color of the dividers, which are contained by the navigation.
+     */
+    private final int navigationDividerColor;
+
+    /**
+     * The maximum number of preference fragments, which should be kept in the cache.
+     */
+    private final int preferenceFragmentCacheSize;
+
+    /**
+     * The number of views per common preference type, which should be inflated in advance.
+     */
+    private final int preferenceViewPrewarmCount;
+
+    /**
+     * The color of the dividers, which are shown above preference categories.
+     */
+    private final int dividerColor;
+
+    /**
+     * True, if the button, which allows to restore the preferences' default values, should be
+     * shown, false otherwise.
+     */
+    private final boolean showRestoreDefaultsButton;
+
+    /**
+     * The text of the button, which allows to restore the preferences' default values.
+     */
+    private final CharSequence restoreDefaultsButtonText;
+
+    /**
+     * The value of the background of the button bar, which contains the button, which allows to
+     * restore the preferences' default values, or null, if no background is specified.
+     */
+    private final TypedValue restoreDefaultsButtonBarBackground;
+
+    /**
+     * The elevation of the button bar, which contains the button, which allows to restore the
+     * preferences' default values, in pixels.
+     */
+    private final int restoreDefaultsButtonBarElevation;
+
+    /**
+     * Returns the dimension, which corresponds to a specific index of a typed array, in pixels.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param typedArray
+     *         The typed array, the dimension should be retrieved from, as an instance of the class
+     *         {@link TypedArray}. The typed array may not be null
+     * @param index
+     *         The index of the dimension as an {@link Integer} value
+     * @param defaultResourceId
+     *         The resource id of the dimension, which should be returned, if the typed array does
+     *         not contain a value at the given index, as an {@link Integer} value
+     * @return The dimension, which corresponds to the given index, in pixels as an {@link
+     * Integer} value
+     */
+    @Px
+    private static int getDimensionPixelSize(@NonNull final Context context,
+                                             @NonNull final TypedArray typedArray,
+                                             @StyleableRes final int index,
+                                             @DimenRes final int defaultResourceId) {
+        return typedArray.hasValue(index) ? typedArray.getDimensionPixelSize(index, 0) :
+                context.getResources().getDimensionPixelSize(defaultResourceId);
+    }
+
+    /**
+     * Returns the color, which corresponds to a specific index of a typed array.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param typedArray
+     *         The typed array, the color should be retrieved from, as an instance of the class
+     *         {@link TypedArray}. The typed array may not be null
+     * @param index
+     *         The index of the color as an {@link Integer} value
+     * @param defaultResourceId
+     *         The resource id of the color, which should be returned, if the typed array does not
+     *         contain a value at the given index, as an {@link Integer} value
+     * @return The color, which corresponds to the given index, as an {@link Integer} value
+     */
+    @ColorInt
+    private static int getColor(@NonNull final Context context,
+                                @NonNull final TypedArray typedArray,
+                                @StyleableRes final int index,
+                                @ColorRes final int defaultResourceId) {
+        return typedArray.hasValue(index) ? typedArray.getColor(index, 0) :
+                ContextCompat.getColor(context, defaultResourceId);
+    }
+
+    /**
+     * Returns the text, which corresponds to a specific index of a typed array.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param typedArray
+     *         The typed array, the text should be retrieved from, as an instance of the class
+     *         {@link TypedArray}. The typed array may not be null
+     * @param index
+     *         The index of the text as an {@link Integer} value
+     * @param defaultResourceId
+     *         The resource id of the text, which should be returned, if the typed array does not
+     *         contain a value at the given index, as an {@link Integer} value
+     * @return The text, which corresponds to the given index, as an instance of the type {@link
+     * CharSequence}. The text may not be null
+     */
+    @NonNull
+    private static CharSequence getText(@NonNull final Context context,
+                                        @NonNull final TypedArray typedArray,
+                                        @StyleableRes final int index,
+                                        @StringRes final int defaultResourceId) {
+        CharSequence text = typedArray.getText(index);
+        return text != null ? text : context.getText(defaultResourceId);
+    }
+
+    /**
+     * Returns a copy of the value, which corresponds to a specific index of a typed array.
+     *
+     * @param typedArray
+     *         The typed array, the value should be retrieved from, as an instance of the class
+     *         {@link TypedArray}. The typed array may not be null
+     * @param index
+     *         The index of the value as an {@link Integer} value
+     * @return A copy of the value, which corresponds to the given index, as an instance of the
+     * class {@link TypedValue} or null, if the typed array does not contain a value at the given
+     * index
+     */
+    @Nullable
+    private static TypedValue getValue(@NonNull final TypedArray typedArray,
+                                       @StyleableRes final int index) {
+        TypedValue value = typedArray.peekValue(index);
+
+        if (value != null && value.type != TypedValue.TYPE_NULL) {
+            TypedValue copy = new TypedValue();
+            copy.setTo(value);
+            return copy;
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates and returns a drawable, which corresponds to a specific value. The value may either
+     * be a color or reference a drawable resource.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @param value
+     *         The value, the drawable should be created from, as an instance of the class {@link
+     *         TypedValue} or null, if no drawable should be created
+     * @return The drawable, which has been created, as an instance of the class {@link Drawable}
+     * or null, if no drawable has been created
+     */
+    @Nullable
+    private static Drawable createDrawable(@NonNull final Context context,
+                                           @Nullable final TypedValue value) {
+        if (value != null) {
+            if (value.type >= TypedValue.TYPE_FIRST_COLOR_INT &&
+                    value.type <= TypedValue.TYPE_LAST_COLOR_INT) {
+                return new ColorDrawable(value.data);
+            } else if (value.resourceId != 0) {
+                return ContextCompat.getDrawable(context, value.resourceId);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a new representation of the theme attributes, which are used by a {@link
+     * PreferenceActivity} and its fragments, by resolving them from a context's theme.
+     *
+     * @param context
+     *         The context, whose theme should be used, as an instance of the class {@link
+     *         Context}. The context may not be null
+     */
+    private ThemeAppearance(@NonNull final Context context) {
+        this.configuration = new Configuration(context.getResources().getConfiguration());
+        TypedArray typedArray =
+                context.getTheme().obtainStyledAttributes(R.styleable.PreferenceActivityTheme);
+
+        try {
+            this.useSplitScreen = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_useSplitScreen, true);
+            this.navigationWidth = getDimensionPixelSize(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_navigationWidth, R.dimen.navigation_width);
+            this.hideNavigation = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_hideNavigation, false);
+            this.overrideNavigationIcon = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_overrideNavigationIcon, true);
+            this.showButtonBar = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_showButtonBar, false);
+            this.nextButtonText = getText(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_nextButtonText,
+                    R.string.next_button_text);
+            this.backButtonText = getText(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_backButtonText,
+                    R.string.back_button_text);
+            this.finishButtonText = getText(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_finishButtonText,
+                    R.string.finish_button_text);
+            this.showProgress = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_showProgress, true);
+            String progressFormat =
+                    typedArray.getString(R.styleable.PreferenceActivityTheme_progressFormat);
+            this.progressFormat = progressFormat != null ? progressFormat :
+                    context.getString(R.string.progress_format);
+            this.prepareNextStep = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_prepareNextStep, false);
+            this.preparePreviousStep = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_preparePreviousStep, false);
+            this.hideBreadCrumb = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_hideBreadCrumb, false);
+            this.toolbarElevation = getDimensionPixelSize(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_toolbarElevation,
+                    R.dimen.toolbar_elevation);
+            this.breadCrumbElevation = getDimensionPixelSize(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_breadCrumbElevation,
+                    R.dimen.bread_crumb_toolbar_elevation);
+            this.cardViewElevation = getDimensionPixelSize(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_cardViewElevation,
+                    R.dimen.card_view_elevation);
+            this.buttonBarElevation = getDimensionPixelSize(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_buttonBarElevation,
+                    R.dimen.button_bar_elevation);
+            this.cardViewBackgroundColor = getColor(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_cardViewBackgroundColor,
+                    R.color.card_view_background_light);
+            this.breadCrumbBackgroundColor = getColor(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_breadCrumbBackgroundColor,
+                    R.color.bread_crumb_background_light);
+            this.buttonBarBackground =
+                    getValue(typedArray, R.styleable.PreferenceActivityTheme_buttonBarBackground);
+            this.navigationBackground =
+                    getValue(typedArray, R.styleable.PreferenceActivityTheme_navigationBackground);
+            this.navigationSelectionColor = getColor(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_navigationSelectionColor,
+                    R.color.preference_selection_color_light);
+            this.navigationDividerColor = getColor(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_navigationDividerColor,
+                    R.color.preference_divider_color_light);
+            this.preferenceFragmentCacheSize = typedArray
+                    .getInt(R.styleable.PreferenceActivityTheme_preferenceFragmentCacheSize, 0);
+            this.preferenceViewPrewarmCount = typedArray
+                    .getInt(R.styleable.PreferenceActivityTheme_preferenceViewPrewarmCount, 0);
+            this.dividerColor = getColor(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_dividerColor,
+                    R.color.preference_divider_color_light);
+            this.showRestoreDefaultsButton = typedArray
+                    .getBoolean(R.styleable.PreferenceActivityTheme_showRestoreDefaultsButton,
+                            false);
+            this.restoreDefaultsButtonText = getText(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_restoreDefaultsButtonText,
+                    R.string.restore_defaults_button_text);
+            this.restoreDefaultsButtonBarBackground = getValue(typedArray,
+                    R.styleable.PreferenceActivityTheme_restoreDefaultsButtonBarBackground);
+            this.restoreDefaultsButtonBarElevation = getDimensionPixelSize(context, typedArray,
+                    R.styleable.PreferenceActivityTheme_restoreDefaultsButtonBarElevation,
+                    R.dimen.button_bar_elevation);
+        } finally {
+            typedArray.recycle();
+        }
+    }
+
+    /**
+     * Returns the appearance, which corresponds to the theme of a specific context. If the context
+     * is a {@link PreferenceActivity}, the appearance is cached per resource id of the activity's
+     * theme and reused as long as the configuration does not change.
+     *
+     * @param context
+     *         The context, whose theme should be used, as an instance of the class {@link
+     *         Context}. The context may not be null
+     * @return The appearance, which corresponds to the theme of the given context, as an instance
+     * of the class {@link ThemeAppearance}. The appearance may not be null
+     */
+    @NonNull
+    public static ThemeAppearance obtain(@NonNull final Context context) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        int themeResourceId = context instanceof PreferenceActivity ?
+                ((PreferenceActivity) context).getThemeResourceId() : 0;
+        return obtain(context, themeResourceId);
+    }
+
+    /**
+     * Returns the appearance, which corresponds to the theme of a specific context. The appearance
+     * is cached per resource id of the theme and reused as long as the configuration does not
+     * change. Themes, which have been modified programmatically, must not be cached.
+     *
+     * @param context
+     *         The context, whose theme should be used, as an instance of the class {@link
+     *         Context}. The context may not be null
+     * @param themeResourceId
+     *         The resource id of the context's theme as an {@link Integer} value or 0, if the
+     *         appearance should not be cached
+     * @return The appearance, which corresponds to the theme of the given context, as an instance
+     * of the class {@link ThemeAppearance}. The appearance may not be null
+     */
+    @NonNull
+    public static synchronized ThemeAppearance obtain(@NonNull final Context context,
+                                                      @StyleRes final int themeResourceId) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        ThemeAppearance appearance = themeResourceId != 0 ? CACHE.get(themeResourceId) : null;
+
+        if (appearance == null ||
+                appearance.configuration.diff(context.getResources().getConfiguration()) != 0) {
+            appearance = new ThemeAppearance(context);
+
+            if (themeResourceId != 0) {
+                CACHE.put(themeResourceId, appearance);
+            }
+        }
+
+        return appearance;
+    }
+
+    /**
+     * Returns, whether the split screen layout should be used on tablets, or not.
+     *
+     * @return True, if the split screen layout should be used on tablets, false otherwise
+     */
+    public boolean isSplitScreenUsed() {
+        return useSplitScreen;
+    }
+
+    /**
+     * Returns the width of the navigation, when using the split screen layout.
+     *
+     * @return The width of the navigation in pixels as an {@link Integer} value
+     */
+    @Px
+    public int getNavigationWidth() {
+        return navigationWidth;
+    }
+
+    /**
+     * Returns, whether the navigation should be hidden, or not.
+     *
+     * @return True, if the navigation should be hidden, false otherwise
+     */
+    public boolean isNavigationHidden() {
+        return hideNavigation;
+    }
+
+    /**
+     * Returns, whether the behavior of the navigation icon should be overridden, or not.
+     *
+     * @return True, if the behavior of the navigation icon should be overridden, false otherwise
+     */
+    public boolean isNavigationIconOverridden() {
+        return overrideNavigationIcon;
+    }
+
+    /**
+     * Returns, whether the activity should be used as a wizard, or not.
+     *
+     * @return True, if the activity should be used as a wizard, false otherwise
+     */
+    public boolean isButtonBarShown() {
+        return showButtonBar;
+    }
+
+    /**
+     * Returns the text of the next button.
+     *
+     * @return The text of the next button as an instance of the type {@link CharSequence}. The
+     * text may not be null
+     */
+    @NonNull
+    public CharSequence getNextButtonText() {
+        return nextButtonText;
+    }
+
+    /**
+     * Returns the text of the back button.
+     *
+     * @return The text of the back button as an instance of the type {@link CharSequence}. The
+     * text may not be null
+     */
+    @NonNull
+    public CharSequence getBackButtonText() {
+        return backButtonText;
+    }
+
+    /**
+     * Returns the text of the finish button.
+     *
+     * @return The text of the finish button as an instance of the type {@link CharSequence}. The
+     * text may not be null
+     */
+    @NonNull
+    public CharSequence getFinishButtonText() {
+        return finishButtonText;
+    }
+
+    /**
+     * Returns, whether the progress should be shown, when the activity is used as a wizard, or
+     * not.
+     *
+     * @return True, if the progress should be shown, false otherwise
+     */
+    public boolean isProgressShown() {
+        return showProgress;
+    }
+
+    /**
+     * Returns the string, which should be used to format the progress, which is shown when the
+     * activity is used as a wizard.
+     *
+     * @return The string, which should be used to format the progress, as a {@link String}. The
+     * string may not be null
+     */
+    @NonNull
+    public String getProgressFormat() {
+        return progressFormat;
+    }
+
+    /**
+     * Returns, whether the fragment of the next step should be prepared in advance, when the
+     * activity is used as a wizard, or not.
+     *
+     * @return True, if the fragment of the next step should be prepared in advance, false
+     * otherwise
+     */
+    public boolean isNextStepPrepared() {
+        return prepareNextStep;
+    }
+
+    /**
+     * Returns, whether the fragment of the previous step should be prepared in advance, when the
+     * activity is used as a wizard, or not.
+     *
+     * @return True, if the fragment of the previous step should be prepared in advance, false
+     * otherwise
+     */
+    public boolean isPreviousStepPrepared() {
+        return preparePreviousStep;
+    }
+
+    /**
+     * Returns, whether the toolbar, which is used to show the bread crumb, should be hidden, or
+     * not.
+     *
+     * @return True, if the toolbar, which is used to show the bread crumb, should be hidden, false
+     * otherwise
+     */
+    public boolean isBreadCrumbHidden() {
+        return hideBreadCrumb;
+    }
+
+    /**
+     * Returns the elevation of the activity's toolbar.
+     *
+     * @return The elevation of the activity's toolbar in pixels as an {@link Integer} value
+     */
+    @Px
+    public int getToolbarElevation() {
+        return toolbarElevation;
+    }
+
+    /**
+     * Returns the elevation of the toolbar, which is used to show the bread crumb.
+     *
+     * @return The elevation of the toolbar, which is used to show the bread crumb, in pixels as an
+     * {@link Integer} value
+     */
+    @Px
+    public int getBreadCrumbElevation() {
+        return breadCrumbElevation;
+    }
+
+    /**
+     * Returns the elevation of the card view, which contains the currently shown preference
+     * fragment.
+     *
+     * @return The elevation of the card view in pixels as an {@link Integer} value
+     */
+    @Px
+    public int getCardViewElevation() {
+        return cardViewElevation;
+    }
+
+    /**
+     * Returns the elevation of the button bar, which is shown when the activity is used as a
+     * wizard.
+     *
+     * @return The elevation of the button bar in pixels as an {@link Integer} value
+     */
+    @Px
+    public int getButtonBarElevation() {
+        return buttonBarElevation;
+    }
+
+    /**
+     * Returns the background color of the card view, which contains the currently shown preference
+     * fragment.
+     *
+     * @return The background color of the card view as an {@link Integer} value
+     */
+    @ColorInt
+    public int getCardViewBackgroundColor() {
+        return cardViewBackgroundColor;
+    }
+
+    /**
+     * Returns the background color of the toolbar, which is used to show the bread crumb.
+     *
+     * @return The background color of the toolbar, which is used to show the bread crumb, as an
+     * {@link Integer} value
+     */
+    @ColorInt
+    public int getBreadCrumbBackgroundColor() {
+        return breadCrumbBackgroundColor;
+    }
+
+    /**
+     * Creates and returns the background of the button bar, which is shown when the activity is
+     * used as a wizard.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @return The background, which has been created, as an instance of the class {@link
+     * Drawable} or null, if no background is specified
+     */
+    @Nullable
+    public Drawable createButtonBarBackground(@NonNull final Context context) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        return createDrawable(context, buttonBarBackground);
+    }
+
+    /**
+     * Creates and returns the background of the navigation.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @return The background, which has been created, as an instance of the class {@link
+     * Drawable} or null, if no background is specified
+     */
+    @Nullable
+    public Drawable createNavigationBackground(@NonNull final Context context) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        return createDrawable(context, navigationBackground);
+    }
+
+    /**
+     * Returns the background color of the currently selected navigation preference.
+     *
+     * @return The background color of the currently selected navigation preference as an {@link
+     * Integer} value
+     */
+    @ColorInt
+    public int getNavigationSelectionColor() {
+        return navigationSelectionColor;
+    }
+
+    /**
+     * Returns the color of the dividers, which are contained by the navigation.
+     *
+     * @return The color of the dividers, which are contained by the navigation, as an {@link
+     * Integer} value
+     */
+    @ColorInt
+    public int getNavigationDividerColor() {
+        return navigationDividerColor;
+    }
+
+    /**
+     * Returns the maximum number of preference fragments, which should be kept in the cache.
+     *
+     * @return The maximum number of preference fragments, which should be kept in the cache, as an
+     * {@link Integer} value
+     */
+    public int getPreferenceFragmentCacheSize() {
+        return preferenceFragmentCacheSize;
+    }
+
+    /**
+     * Returns the number of views per common preference type, which should be inflated in
+     * advance.
+     *
+     * @return The number of views per common preference type, which should be inflated in
+     * advance, as an {@link Integer} value
+     */
+    public int getPreferenceViewPrewarmCount() {
+        return preferenceViewPrewarmCount;
+    }
+
+    /**
+     * Returns the color of the dividers, which are shown above preference categories.
+     *
+     * @return The color of the dividers, which are shown above preference categories, as an {@link
+     * Integer} value
+     */
+    @ColorInt
+    public int getDividerColor() {
+        return dividerColor;
+    }
+
+    /**
+     * Returns, whether the button, which allows to restore the preferences' default values, should
+     * be shown, or not.
+     *
+     * @return True, if the button should be shown, false otherwise
+     */
+    public boolean isRestoreDefaultsButtonShown() {
+        return showRestoreDefaultsButton;
+    }
+
+    /**
+     * Returns the text of the button, which allows to restore the preferences' default values.
+     *
+     * @return The text of the button as an instance of the type {@link CharSequence}. The text may
+     * not be null
+     */
+    @NonNull
+    public CharSequence getRestoreDefaultsButtonText() {
+        return restoreDefaultsButtonText;
+    }
+
+    /**
+     * Creates and returns the background of the button bar, which contains the button, which
+     * allows to restore the preferences' default values.
+     *
+     * @param context
+     *         The context, which should be used, as an instance of the class {@link Context}. The
+     *         context may not be null
+     * @return The background, which has been created, as an instance of the class {@link
+     * Drawable}. The background may not be null
+     */
+    @NonNull
+    public Drawable createRestoreDefaultsButtonBarBackground(@NonNull final Context context) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        Drawable background = createDrawable(context, restoreDefaultsButtonBarBackground);
+        return background != null ? background : new ColorDrawable(
+                ContextCompat.getColor(context, R.color.button_bar_background_light));
+    }
+
+    /**
+     * Returns the elevation of the button bar, which contains the button, which allows to restore
+     * the preferences' default values.
+     *
+     * @return The elevation of the button bar in pixels as an {@link Integer} value
+     */
+    @Px
+    public int getRestoreDefaultsButtonBarElevation() {
+        return restoreDefaultsButtonBarElevation;
+    }
+
+}
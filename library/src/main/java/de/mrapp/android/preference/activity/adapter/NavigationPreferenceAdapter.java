@@ -14,10 +14,14 @@
 package de.mrapp.android.preference.activity.adapter;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.StateListDrawable;
 import android.os.Bundle;
+import android.util.StateSet;
+import android.view.View;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import androidx.annotation.ColorInt;
@@ -30,6 +34,8 @@ import androidx.recyclerview.widget.RecyclerView;
 import de.mrapp.android.preference.activity.NavigationPreference;
 import de.mrapp.android.preference.activity.PreferenceActivity;
 import de.mrapp.android.preference.activity.R;
+import de.mrapp.android.preference.activity.core.NavigationIndex;
+import de.mrapp.android.preference.activity.core.NavigationSelection;
 import de.mrapp.android.util.ThemeUtil;
 import de.mrapp.android.util.ViewUtil;
 import de.mrapp.util.Condition;
@@ -105,74 +111,122 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
     }
 
     /**
-     * The callback, which is notified about the adapter's events.
+     * The payload, which is passed to the adapter's observers, when the selection state of a
+     * navigation preference has changed. View holders, which are bound with this payload, only
+     * update their selection background.
      */
-    private final Callback callback;
+    public static final Object SELECTION_PAYLOAD = new Object();
 
     /**
-     * A list, which contains all navigation preferences, which are contained by the adapter.
+     * The callback, which is notified about the adapter's events.
      */
-    private final List<NavigationPreference> navigationPreferences;
+    private final Callback callback;
 
     /**
-     * The currently selected navigation preference.
+     * The index of the navigation preferences, which are contained by the adapter.
      */
-    private NavigationPreference selectedNavigationPreference;
+    private final NavigationIndex<NavigationPreference> navigationIndex;
 
     /**
-     * The index of the currently selected navigation preference.
+     * The selection of the currently selected navigation preference.
      */
-    private int selectedNavigationPreferenceIndex;
+    private final NavigationSelection<NavigationPreference, Bundle> navigationSelection;
 
     /**
      * The background color of the currently selected navigation preference.
      */
     private int selectionColor;
 
+    /**
+     * The constant state of the drawable, which is used as the background of navigation
+     * preferences, depending on whether they are activated, i.e. selected, or not. It is shared by
+     * all view holders and only rebuilt, when the selection color has been changed.
+     */
+    private Drawable.ConstantState selectionBackgroundState;
+
     /**
      * True, if the items of the adapter are enabled, false otherwise.
      */
     private boolean enabled;
 
     /**
-     * Updates the navigation preferences, which are contained by the adapter.
+     * True, if the navigation preference, which is currently being selected, has been clicked by
+     * the user, false otherwise.
      */
-    private void updateNavigationPreferences() {
-        List<NavigationPreference> oldNavigationPreferences =
-                new ArrayList<>(navigationPreferences);
-        navigationPreferences.clear();
-        boolean selectedNavigationPreferenceFound = selectedNavigationPreference == null;
+    private boolean selectionByUser;
 
-        for (int i = 0; i < getItemCount(); i++) {
-            Preference item = getItem(i);
-
-            if (item instanceof NavigationPreference) {
-                NavigationPreference navigationPreference = (NavigationPreference) item;
-                navigationPreferences.add(navigationPreference);
-
-                if (selectedNavigationPreference == navigationPreference) {
-                    selectedNavigationPreferenceFound = true;
-                }
+    /**
+     * Notifies the adapter's observers, that the selection state of a specific navigation
+     * preference has changed. Only the view holder of the given navigation preference is updated.
+     *
+     * @param navigationPreference
+     *         The navigation preference, whose selection state has changed, as an instance of the
+     *         class {@link NavigationPreference}. The navigation preference may not be null
+     */
+    private void notifySelectionChanged(
+            @NonNull final NavigationPreference navigationPreference) {
+        int index = navigationIndex.indexOf(navigationPreference);
 
-                if (!oldNavigationPreferences.contains(navigationPreference)) {
-                    notifyOnNavigationPreferenceAdded(navigationPreference);
-                    oldNavigationPreferences.remove(navigationPreference);
-                }
-            }
+        if (index != -1) {
+            notifyItemChanged(navigationIndex.getPosition(index), SELECTION_PAYLOAD);
         }
+    }
 
-        for (NavigationPreference removedNavigationPreference : oldNavigationPreferences) {
-            notifyOnNavigationPreferenceRemoved(removedNavigationPreference);
+    /**
+     * Visualizes the selection state of a specific navigation preference.
+     *
+     * @param navigationPreference
+     *         The navigation preference, whose selection state should be visualized, as an
+     *         instance of the class {@link NavigationPreference}. The navigation preference may not
+     *         be null
+     * @param viewHolder
+     *         The view holder, which corresponds to the navigation preference, as an instance of
+     *         the class PreferenceViewHolder. The view holder may not be null
+     */
+    private void visualizeSelection(@NonNull final NavigationPreference navigationPreference,
+                                    @NonNull final PreferenceViewHolder viewHolder) {
+        View itemView = viewHolder.itemView;
+        Drawable.ConstantState backgroundState =
+                getSelectionBackgroundState(navigationPreference.getContext());
+
+        if (itemView.getTag(R.id.selection_background) != backgroundState) {
+            ViewUtil.setBackground(itemView, backgroundState.newDrawable(itemView.getResources()));
+            itemView.setTag(R.id.selection_background, backgroundState);
         }
 
-        if (!selectedNavigationPreferenceFound) {
-            if (getNavigationPreferenceCount() > 0) {
-                selectNavigationPreference(Math.min(selectedNavigationPreferenceIndex,
-                        getNavigationPreferenceCount() - 1), null);
-            } else {
-                selectNavigationPreference(null, null);
+        itemView.setActivated(navigationSelection.isSelected(navigationPreference));
+    }
+
+    /**
+     * Returns the constant state of the drawable, which is used as the background of navigation
+     * preferences. The background shows the selection color, if a navigation preference is
+     * activated, and the theme's selectable item background otherwise. If necessary, the drawable
+     * is created.
+     *
+     * @param context
+     *         The context, which should be used to obtain the selectable item background, as an
+     *         instance of the class {@link Context}. The context may not be null
+     * @return The constant state of the drawable, which is used as the background of navigation
+     * preferences, as an instance of the class {@link Drawable.ConstantState}. The constant state
+     * may not be null
+     */
+    @NonNull
+    private Drawable.ConstantState getSelectionBackgroundState(@NonNull final Context context) {
+        if (selectionBackgroundState == null) {
+            StateListDrawable background = new StateListDrawable();
+            background.addState(new int[]{android.R.attr.state_activated},
+                    new ColorDrawable(selectionColor));
+            Drawable selectableItemBackground =
+                    ThemeUtil.getDrawable(context, R.attr.selectableItemBackground);
+
+            if (selectableItemBackground != null) {
+                background.addState(StateSet.WILD_CARD, selectableItemBackground);
             }
+
+            selectionBackgroundState = background.getConstantState();
         }
+
+        return selectionBackgroundState;
     }
 
     /**
@@ -258,39 +312,129 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
             @Override
             public void onChanged() {
                 super.onChanged();
-                updateNavigationPreferences();
+                navigationIndex.rebuild();
             }
 
             @Override
             public void onItemRangeChanged(final int positionStart, final int itemCount) {
                 super.onItemRangeChanged(positionStart, itemCount);
-                updateNavigationPreferences();
+                navigationIndex.onItemRangeChanged(positionStart, itemCount);
             }
 
             @Override
             public void onItemRangeChanged(final int positionStart, final int itemCount,
                                            @Nullable final Object payload) {
                 super.onItemRangeChanged(positionStart, itemCount, payload);
-                updateNavigationPreferences();
+                navigationIndex.onItemRangeChanged(positionStart, itemCount);
             }
 
             @Override
             public void onItemRangeInserted(final int positionStart, final int itemCount) {
                 super.onItemRangeInserted(positionStart, itemCount);
-                updateNavigationPreferences();
+                navigationIndex.onItemRangeInserted(positionStart, itemCount);
             }
 
             @Override
             public void onItemRangeRemoved(final int positionStart, final int itemCount) {
                 super.onItemRangeRemoved(positionStart, itemCount);
-                updateNavigationPreferences();
+                navigationIndex.onItemRangeRemoved(positionStart, itemCount);
             }
 
             @Override
             public void onItemRangeMoved(final int fromPosition, final int toPosition,
                                          final int itemCount) {
                 super.onItemRangeMoved(fromPosition, toPosition, itemCount);
-                updateNavigationPreferences();
+                navigationIndex.onItemRangeMoved();
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a source, which provides the navigation preferences, which are contained
+     * by the adapter, to the index of navigation preferences.
+     *
+     * @return The source, which has been created, as an instance of the type {@link
+     * NavigationIndex.Source}. The source may not be null
+     */
+    @NonNull
+    private NavigationIndex.Source<NavigationPreference> createNavigationIndexSource() {
+        return new NavigationIndex.Source<NavigationPreference>() {
+
+            @Override
+            public int getItemCount() {
+                return NavigationPreferenceAdapter.this.getItemCount();
+            }
+
+            @Nullable
+            @Override
+            public NavigationPreference getNavigationItem(final int position) {
+                Preference item = getItem(position);
+                return item instanceof NavigationPreference ? (NavigationPreference) item : null;
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a listener, which allows to notify the callback and to adapt the
+     * selected navigation preference, when the index of navigation preferences has been changed.
+     *
+     * @return The listener, which has been created, as an instance of the type {@link
+     * NavigationIndex.Listener}. The listener may not be null
+     */
+    @NonNull
+    private NavigationIndex.Listener<NavigationPreference> createNavigationIndexListener() {
+        return new NavigationIndex.Listener<NavigationPreference>() {
+
+            @Override
+            public void onItemAdded(@NonNull final NavigationPreference item) {
+                notifyOnNavigationPreferenceAdded(item);
+            }
+
+            @Override
+            public void onItemRemoved(@NonNull final NavigationPreference item) {
+                notifyOnNavigationPreferenceRemoved(item);
+            }
+
+            @Override
+            public void onIndexChanged() {
+                navigationSelection.onIndexChanged();
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a callback, which allows to notify the adapter's callback and to update
+     * the affected view holders, when the selected navigation preference has been changed.
+     *
+     * @return The callback, which has been created, as an instance of the type {@link
+     * NavigationSelection.Callback}. The callback may not be null
+     */
+    @NonNull
+    private NavigationSelection.Callback<NavigationPreference, Bundle> createSelectionCallback() {
+        return new NavigationSelection.Callback<NavigationPreference, Bundle>() {
+
+            @Override
+            public boolean onSelect(@NonNull final NavigationPreference item) {
+                return notifyOnSelectNavigationPreference(item);
+            }
+
+            @Override
+            public void onSelected(@NonNull final NavigationPreference item,
+                                   @Nullable final Bundle arguments) {
+                notifyOnNavigationPreferenceSelected(item, arguments);
+            }
+
+            @Override
+            public void onUnselected() {
+                notifyOnNavigationPreferenceUnselected();
+            }
+
+            @Override
+            public void onSelectionStateChanged(@NonNull final NavigationPreference item) {
+                notifySelectionChanged(item);
             }
 
         };
@@ -312,12 +456,13 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
                                        @Nullable final Callback callback) {
         super(preferenceScreen);
         this.callback = callback;
-        this.navigationPreferences = new ArrayList<>();
-        this.selectedNavigationPreference = null;
-        this.selectedNavigationPreferenceIndex = -1;
         this.enabled = true;
+        this.navigationIndex = new NavigationIndex<>(createNavigationIndexSource(),
+                createNavigationIndexListener());
+        this.navigationSelection =
+                new NavigationSelection<>(navigationIndex, createSelectionCallback());
         registerAdapterDataObserver(createAdapterDataObserver());
-        updateNavigationPreferences();
+        navigationIndex.rebuild();
     }
 
     /**
@@ -327,7 +472,7 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
      * {@link Integer} value
      */
     public final int getNavigationPreferenceCount() {
-        return navigationPreferences.size();
+        return navigationIndex.size();
     }
 
     /**
@@ -340,7 +485,7 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
      */
     @NonNull
     public final List<NavigationPreference> getAllNavigationPreferences() {
-        return navigationPreferences;
+        return navigationIndex.getAll();
     }
 
     /**
@@ -357,12 +502,26 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
             @NonNull final NavigationPreference navigationPreference) {
         Condition.INSTANCE
                 .ensureNotNull(navigationPreference, "The navigation preference may not be null");
-        return navigationPreferences.indexOf(navigationPreference);
+        return navigationIndex.indexOf(navigationPreference);
+    }
+
+    /**
+     * Returns the index of the first navigation preference, which is associated with a specific
+     * fragment, among all navigation preferences, which are contained by the adapter.
+     *
+     * @param fragment
+     *         The fully classified class name of the fragment as a {@link String} or null
+     * @return The index of the first navigation preference, which is associated with the given
+     * fragment, as an {@link Integer} value or -1, if no such navigation preference is contained by
+     * the adapter
+     */
+    public final int indexOfFragment(@Nullable final String fragment) {
+        return navigationIndex.indexOfFragment(fragment);
     }
 
     /**
      * Returns the navigation preference, which corresponds to a specific index.
-     *Condition.INSTANCE.
+     *
      * @param index
      *         The index of the navigation preference, which should be returned, among all
      *         navigation preferences as an {@link Integer} value
@@ -371,7 +530,7 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
      */
     @NonNull
     public final NavigationPreference getNavigationPreference(final int index) {
-        return navigationPreferences.get(index);
+        return navigationIndex.get(index);
     }
 
     /**
@@ -382,7 +541,7 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
      */
     @Nullable
     public final NavigationPreference getSelectedNavigationPreference() {
-        return selectedNavigationPreference;
+        return navigationSelection.getSelectedItem();
     }
 
     /**
@@ -393,7 +552,7 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
      * Integer} value or -1, if no navigation preference is selected
      */
     public final int getSelectedNavigationPreferenceIndex() {
-        return selectedNavigationPreferenceIndex;
+        return navigationSelection.getSelectedIndex();
     }
 
     /**
@@ -410,8 +569,7 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
     public final void selectNavigationPreference(
             @Nullable final NavigationPreference navigationPreference,
             @Nullable final Bundle arguments) {
-        selectNavigationPreference(navigationPreference == null ? -1 :
-                indexOfNavigationPreference(navigationPreference), arguments);
+        navigationSelection.select(navigationPreference, arguments);
     }
 
     /**
@@ -428,27 +586,7 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
      */
     public final void selectNavigationPreference(final int index,
                                                  @Nullable final Bundle arguments) {
-        NavigationPreference navigationPreference =
-                index == -1 ? null : navigationPreferences.get(index);
-
-        if (selectedNavigationPreference != navigationPreference) {
-            if (navigationPreference != null &&
-                    notifyOnSelectNavigationPreference(navigationPreference)) {
-                selectedNavigationPreference = navigationPreference;
-                selectedNavigationPreferenceIndex = index;
-            } else {
-                selectedNavigationPreference = null;
-                selectedNavigationPreferenceIndex = -1;
-            }
-
-            if (navigationPreference != null) {
-                notifyOnNavigationPreferenceSelected(navigationPreference, arguments);
-            } else {
-                notifyOnNavigationPreferenceUnselected();
-            }
-
-            super.notifyDataSetChanged();
-        }
+        navigationSelection.select(index, arguments);
     }
 
     /**
@@ -458,8 +596,16 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
      *         The color, which should be set, as an {@link Integer} value
      */
     public final void setSelectionColor(@ColorInt final int color) {
-        this.selectionColor = color;
-        super.notifyDataSetChanged();
+        if (this.selectionColor != color) {
+            this.selectionColor = color;
+            this.selectionBackgroundState = null;
+            NavigationPreference selectedNavigationPreference =
+                    navigationSelection.getSelectedItem();
+
+            if (selectedNavigationPreference != null) {
+                notifySelectionChanged(selectedNavigationPreference);
+            }
+        }
     }
 
     /**
@@ -472,10 +618,27 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
         this.enabled = enabled;
     }
 
+    /**
+     * Returns, whether the navigation preference, which is currently being selected, has been
+     * clicked by the user, or whether it is selected programmatically. This method is intended to
+     * be called by the callback, while it is notified about a selection.
+     *
+     * @return True, if the navigation preference has been clicked by the user, false otherwise
+     */
+    public final boolean isSelectionByUser() {
+        return selectionByUser;
+    }
+
     @Override
     public final void onShowFragment(@NonNull final NavigationPreference navigationPreference) {
         if (enabled) {
-            selectNavigationPreference(navigationPreference, null);
+            selectionByUser = true;
+
+            try {
+                selectNavigationPreference(navigationPreference, null);
+            } finally {
+                selectionByUser = false;
+            }
         }
     }
 
@@ -487,11 +650,27 @@ public class NavigationPreferenceAdapter extends PreferenceAdapter
         if (preference instanceof NavigationPreference) {
             NavigationPreference navigationPreference = (NavigationPreference) preference;
             navigationPreference.setCallback(this);
-            boolean selected = selectedNavigationPreference == navigationPreference;
-            ViewUtil.setBackground(viewHolder.itemView,
-                    selected ? new ColorDrawable(selectionColor) : ThemeUtil
-                            .getDrawable(preference.getContext(), R.attr.selectableItemBackground));
+            visualizeSelection(navigationPreference, viewHolder);
+        } else if (viewHolder.itemView.getTag(R.id.selection_background) != null) {
+            viewHolder.itemView.setActivated(false);
+        }
+    }
+
+    @Override
+    protected final boolean onVisualizePayloads(@NonNull final Preference preference,
+                                                @NonNull final PreferenceViewHolder viewHolder,
+                                                @NonNull final List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != SELECTION_PAYLOAD) {
+                return false;
+            }
         }
+
+        if (preference instanceof NavigationPreference) {
+            visualizeSelection((NavigationPreference) preference, viewHolder);
+        }
+
+        return true;
     }
 
 }
\ No newline at end of file
@@ -15,9 +15,20 @@ package de.mrapp.android.preference.activity.adapter;
 
 import android.annotation.SuppressLint;
 import android.text.TextUtils;
+import android.util.SparseIntArray;
+import android.view.ViewGroup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
 import androidx.preference.PreferenceGroupAdapter;
@@ -35,6 +46,120 @@ import androidx.recyclerview.widget.RecyclerView;
 @SuppressLint("RestrictedApi")
 public class PreferenceAdapter extends PreferenceGroupAdapter {
 
+    /**
+     * An ID, which has been assigned to the key of a preference.
+     */
+    private static final class KeyId {
+
+        /**
+         * The ID.
+         */
+        private final long id;
+
+        /**
+         * The preference, which currently uses the ID.
+         */
+        private Preference preference;
+
+        /**
+         * Creates a new ID, which has been assigned to the key of a preference.
+         *
+         * @param id
+         *         The ID as a {@link Long} value
+         * @param preference
+         *         The preference, which uses the ID, as an instance of the class Preference. The
+         *         preference may not be null
+         */
+        KeyId(final long id, @NonNull final Preference preference) {
+            this.id = id;
+            this.preference = preference;
+        }
+
+    }
+
+    /**
+     * The number of times, notifications about changes of the adapter's preferences have been
+     * suspended without being resumed.
+     */
+    private int suspendedNotifications;
+
+    /**
+     * True, if the adapter's preferences have been changed while notifications were suspended,
+     * false otherwise.
+     */
+    private boolean changedWhileSuspended;
+
+    /**
+     * True, if the IDs of preferences, which have a key, are derived from their keys, false
+     * otherwise.
+     */
+    private boolean stableIdsUsed;
+
+    /**
+     * A map, which contains the IDs, which have been assigned to the keys of the adapter's
+     * preferences.
+     */
+    private final Map<String, KeyId> keyIds;
+
+    /**
+     * The ID, which is assigned to the next key. Key-based IDs are negative in order to not
+     * collide with the non-negative IDs, which are generated for preferences without a key.
+     */
+    private long nextKeyId;
+
+    /**
+     * The pool, which is shared with other adapters and provides the view types of the adapter's
+     * items, or null, if the adapter's view types are not shared.
+     */
+    private PreferenceViewPool viewPool;
+
+    /**
+     * An array, which maps the view types, which are provided by the shared pool, to the view
+     * types of the adapter's superclass.
+     */
+    private final SparseIntArray localViewTypes;
+
+    /**
+     * Returns, whether notifications about changes of the adapter's preferences are currently
+     * suspended. If this is the case, the change is recorded in order to be applied when the
+     * notifications are resumed.
+     *
+     * @return True, if notifications are currently suspended, false otherwise
+     */
+    private boolean deferChange() {
+        if (suspendedNotifications > 0) {
+            changedWhileSuspended = true;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the IDs of keys, which are not used by any of the adapter's preferences anymore, if
+     * the number of assigned IDs exceeds twice the number of the adapter's items.
+     */
+    private void trimKeyIds() {
+        int itemCount = getItemCount();
+
+        if (keyIds.size() > itemCount * 2) {
+            Set<Preference> items =
+                    Collections.newSetFromMap(new IdentityHashMap<Preference, Boolean>());
+
+            for (int i = 0; i < itemCount; i++) {
+                items.add(getItem(i));
+            }
+
+            Iterator<KeyId> iterator = keyIds.values().iterator();
+
+            while (iterator.hasNext()) {
+                if (!items.contains(iterator.next().preference)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
     /**
      * The method, which is invoked, when a specific preference is visualized. This method may be
      * overridden by subclasses in order to modify the appearance of the preference.
@@ -57,6 +182,31 @@ public class PreferenceAdapter extends PreferenceGroupAdapter {
         }
     }
 
+    /**
+     * The method, which is invoked, when a specific preference should be updated according to
+     * specific payloads, instead of being visualized from scratch. This method may be overridden by
+     * subclasses in order to handle the payloads, they have passed to the adapter's
+     * <code>notifyItemChanged</code> or <code>notifyItemRangeChanged</code> methods, without
+     * rebinding the whole view holder.
+     *
+     * @param preference
+     *         The preference, which should be updated, as an instance of the class Preference. The
+     *         preference may not be null
+     * @param viewHolder
+     *         The view holder, which corresponds to the preference, as an instance of the class
+     *         PreferenceViewHolder. The view holder may not be null
+     * @param payloads
+     *         A list, which contains the payloads, the preference should be updated according to,
+     *         as an instance of the type {@link List}. The list may neither be null, nor empty
+     * @return True, if the payloads have been handled, false, if the view holder should be bound
+     * from scratch
+     */
+    protected boolean onVisualizePayloads(@NonNull final Preference preference,
+                                          @NonNull final PreferenceViewHolder viewHolder,
+                                          @NonNull final List<Object> payloads) {
+        return false;
+    }
+
     /**
      * Creates a new recycler view adapter, which extends the class PreferenceGroupAdapter in order
      * to modify the appearance of preferences.
@@ -68,6 +218,160 @@ public class PreferenceAdapter extends PreferenceGroupAdapter {
      */
     public PreferenceAdapter(@NonNull final PreferenceScreen preferenceScreen) {
         super(preferenceScreen);
+        this.stableIdsUsed = false;
+        this.keyIds = new HashMap<>();
+        this.nextKeyId = RecyclerView.NO_ID - 1;
+        this.viewPool = null;
+        this.localViewTypes = new SparseIntArray();
+    }
+
+    /**
+     * Sets the pool, which is shared with other adapters. If a pool is set, the adapter uses view
+     * types, which are provided by the pool, so that views can be recycled across adapters. This
+     * method must be called before the adapter is attached to a recycler view.
+     *
+     * @param viewPool
+     *         The pool, which should be set, as an instance of the class {@link
+     *         PreferenceViewPool} or null, if the adapter's view types should not be shared
+     */
+    public final void setViewPool(@Nullable final PreferenceViewPool viewPool) {
+        this.viewPool = viewPool;
+        this.localViewTypes.clear();
+    }
+
+    /**
+     * Returns the pool, which is shared with other adapters.
+     *
+     * @return The pool, which is shared with other adapters, as an instance of the class {@link
+     * PreferenceViewPool} or null, if the adapter's view types are not shared
+     */
+    @Nullable
+    public final PreferenceViewPool getViewPool() {
+        return viewPool;
+    }
+
+    /**
+     * Sets, whether the IDs of the adapter's items should be stable across changes of the
+     * preference hierarchy, or not. If stable IDs are used, the ID of a preference, which has a
+     * key, is derived from its key, i.e. a preference, which is removed and re-added, or replaced
+     * by another preference with the same key, keeps its ID. Preferences without a key keep using
+     * the IDs, which are generated by their preference manager. If multiple preferences share the
+     * same key, only the first one, whose ID is requested, uses the key-based ID, while the others
+     * keep using the generated IDs. This method must be called before the adapter is attached to a
+     * recycler view.
+     *
+     * @param useStableIds
+     *         True, if stable IDs should be used, false otherwise
+     */
+    public final void useStableIds(final boolean useStableIds) {
+        this.stableIdsUsed = useStableIds;
+    }
+
+    /**
+     * Returns, whether the IDs of the adapter's items are stable across changes of the preference
+     * hierarchy, or not.
+     *
+     * @return True, if stable IDs are used, false otherwise
+     */
+    public final boolean areStableIdsUsed() {
+        return stableIdsUsed;
+    }
+
+    /**
+     * Suspends notifications about changes of the adapter's preferences. As long as notifications
+     * are suspended, changes of single preferences, as well as changes of the preference
+     * hierarchy, are not propagated to the adapter's observers. Instead, the adapter is refreshed
+     * once, when the notifications are resumed by calling the method {@link
+     * #resumeNotifications()}. Calls of this method may be nested.
+     */
+    public final void suspendNotifications() {
+        suspendedNotifications++;
+    }
+
+    /**
+     * Resumes notifications about changes of the adapter's preferences, which have previously been
+     * suspended by calling the method {@link #suspendNotifications()}. If any preferences have been
+     * changed in the meantime, the adapter is refreshed once.
+     */
+    public final void resumeNotifications() {
+        if (suspendedNotifications > 0 && --suspendedNotifications == 0 &&
+                changedWhileSuspended) {
+            changedWhileSuspended = false;
+            super.onPreferenceHierarchyChange(null);
+        }
+    }
+
+    @Override
+    public void onPreferenceChange(final Preference preference) {
+        if (!deferChange()) {
+            super.onPreferenceChange(preference);
+        }
+    }
+
+    @Override
+    public void onPreferenceHierarchyChange(final Preference preference) {
+        if (!deferChange()) {
+            super.onPreferenceHierarchyChange(preference);
+        }
+    }
+
+    @Override
+    public void onPreferenceVisibilityChange(final Preference preference) {
+        if (!deferChange()) {
+            super.onPreferenceVisibilityChange(preference);
+        }
+    }
+
+    @Override
+    public long getItemId(final int position) {
+        if (stableIdsUsed && hasStableIds()) {
+            Preference preference = getItem(position);
+            String key = preference.getKey();
+
+            if (!TextUtils.isEmpty(key)) {
+                KeyId keyId = keyIds.get(key);
+
+                if (keyId == null) {
+                    trimKeyIds();
+                    keyId = new KeyId(nextKeyId--, preference);
+                    keyIds.put(key, keyId);
+                } else if (keyId.preference != preference) {
+                    if (getPreferenceAdapterPosition(keyId.preference) !=
+                            RecyclerView.NO_POSITION) {
+                        return super.getItemId(position);
+                    }
+
+                    keyId.preference = preference;
+                }
+
+                return keyId.id;
+            }
+        }
+
+        return super.getItemId(position);
+    }
+
+    @Override
+    public int getItemViewType(final int position) {
+        int viewType = super.getItemViewType(position);
+
+        if (viewPool != null) {
+            Preference preference = getItem(position);
+            int sharedViewType = viewPool.obtainViewType(preference.getLayoutResource(),
+                    preference.getWidgetLayoutResource());
+            localViewTypes.put(sharedViewType, viewType);
+            return sharedViewType;
+        }
+
+        return viewType;
+    }
+
+    @NonNull
+    @Override
+    public PreferenceViewHolder onCreateViewHolder(@NonNull final ViewGroup parent,
+                                                   final int viewType) {
+        return super.onCreateViewHolder(parent,
+                viewPool != null ? localViewTypes.get(viewType) : viewType);
     }
 
     @Override
@@ -78,4 +382,12 @@ public class PreferenceAdapter extends PreferenceGroupAdapter {
         onVisualizePreference(preference, viewHolder);
     }
 
+    @Override
+    public final void onBindViewHolder(@NonNull final PreferenceViewHolder viewHolder,
+                                       final int position, @NonNull final List<Object> payloads) {
+        if (payloads.isEmpty() || !onVisualizePayloads(getItem(position), viewHolder, payloads)) {
+            super.onBindViewHolder(viewHolder, position, payloads);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.adapter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.LayoutRes;
+import androidx.recyclerview.widget.RecyclerView;
+import de.mrapp.util.Condition;
+
+/**
+ * A pool of recycled views, which can be shared by the recycler views of multiple preference
+ * fragments. As the view types, which are used by a {@link PreferenceAdapter}, are only unique
+ * within a single adapter, the pool assigns view types, which are derived from the layout
+ * resources of the preferences and are consistent across all adapters, which share the pool.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class PreferenceViewPool extends RecyclerView.RecycledViewPool {
+
+    /**
+     * A map, which contains the view types, which have been assigned to combinations of layout and
+     * widget layout resources.
+     */
+    private final Map<Long, Integer> viewTypes;
+
+    /**
+     * The maximum number of views, which are kept in the pool per view type.
+     */
+    private final int maxRecycledViewsPerViewType;
+
+    /**
+     * Creates a new pool of recycled views, which can be shared by the recycler views of multiple
+     * preference fragments.
+     *
+     * @param maxRecycledViewsPerViewType
+     *         The maximum number of views, which should be kept in the pool per view type, as an
+     *         {@link Integer} value. The number must be at least 1
+     */
+    public PreferenceViewPool(final int maxRecycledViewsPerViewType) {
+        Condition.INSTANCE.ensureAtLeast(maxRecycledViewsPerViewType, 1,
+                "The maximum number of views per view type must be at least 1");
+        this.viewTypes = new HashMap<>();
+        this.maxRecycledViewsPerViewType = maxRecycledViewsPerViewType;
+    }
+
+    /**
+     * Returns the maximum number of views, which are kept in the pool per view type.
+     *
+     * @return The maximum number of views, which are kept in the pool per view type, as an {@link
+     * Integer} value
+     */
+    public final int getMaxRecycledViewsPerViewType() {
+        return maxRecycledViewsPerViewType;
+    }
+
+    /**
+     * Returns the view type, which corresponds to a specific combination of a layout and widget
+     * layout resource. If no view type has been assigned to the combination yet, a new one is
+     * assigned.
+     *
+     * @param layoutResourceId
+     *         The resource id of the layout as an {@link Integer} value
+     * @param widgetLayoutResourceId
+     *         The resource id of the widget layout as an {@link Integer} value or 0, if no widget
+     *         layout is used
+     * @return The view type, which corresponds to the given combination, as an {@link Integer}
+     * value
+     */
+    public final int obtainViewType(@LayoutRes final int layoutResourceId,
+                                    @LayoutRes final int widgetLayoutResourceId) {
+        long key = ((long) layoutResourceId << 32) | (widgetLayoutResourceId & 0xffffffffL);
+        Integer viewType = viewTypes.get(key);
+
+        if (viewType == null) {
+            viewType = viewTypes.size();
+            viewTypes.put(key, viewType);
+            setMaxRecycledViews(viewType, maxRecycledViewsPerViewType);
+        }
+
+        return viewType;
+    }
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.adapter;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import androidx.annotation.NonNull;
+import androidx.preference.CheckBoxPreference;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import androidx.preference.PreferenceViewHolder;
+import androidx.preference.SwitchPreferenceCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import de.mrapp.util.Condition;
+
+/**
+ * Inflates the views of common preferences on a background thread and adds them to a {@link
+ * PreferenceViewPool}, in order to avoid inflating them on the main thread, when a preference
+ * fragment is shown for the first time. The views are inflated in rounds, each of which inflates
+ * one view per view type, until the pool contains the requested number of views, the memory
+ * budget has been exhausted, or the pre-warming has been cancelled. The memory, which is occupied
+ * by the views, is estimated from the number of views, the first view holder of each view type
+ * consists of.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@SuppressLint("RestrictedApi")
+public class PreferenceViewPrewarmer {
+
+    /**
+     * The estimated number of bytes, a single view occupies on the heap, including its drawables
+     * and layout parameters.
+     */
+    private static final long ESTIMATED_VIEW_SIZE = 1024;
+
+    /**
+     * The pool, the inflated views are added to.
+     */
+    private final PreferenceViewPool viewPool;
+
+    /**
+     * The executor, which is used to inflate the views.
+     */
+    private final Executor executor;
+
+    /**
+     * The handler, which is used to add the inflated views to the pool on the main thread.
+     */
+    private final Handler handler;
+
+    /**
+     * The adapter, which is used to inflate the views. It contains one preference per common
+     * preference type and uses the view types of the pool.
+     */
+    private final PreferenceAdapter adapter;
+
+    /**
+     * The view, which is used as the parent of the inflated views.
+     */
+    private final RecyclerView parent;
+
+    /**
+     * The view types of the views, which are inflated.
+     */
+    private final int[] viewTypes;
+
+    /**
+     * True, if the pre-warming has been cancelled, false otherwise.
+     */
+    private final AtomicBoolean cancelled;
+
+    /**
+     * The number of views, which should be inflated per view type.
+     */
+    private final int count;
+
+    /**
+     * The maximum number of bytes, the inflated views may occupy on the heap.
+     */
+    private final long memoryBudget;
+
+    /**
+     * True, if the pre-warming has been started, false otherwise.
+     */
+    private boolean started;
+
+    /**
+     * Returns the number of views, a specific view hierarchy consists of.
+     *
+     * @param view
+     *         The root of the view hierarchy as an instance of the class {@link View}. The view
+     *         may not be null
+     * @return The number of views, the given view hierarchy consists of, as an {@link Integer}
+     * value
+     */
+    private static int countViews(@NonNull final View view) {
+        int viewCount = 1;
+
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                viewCount += countViews(viewGroup.getChildAt(i));
+            }
+        }
+
+        return viewCount;
+    }
+
+    /**
+     * Returns the estimated number of bytes, a specific view holder occupies on the heap.
+     *
+     * @param viewHolder
+     *         The view holder as an instance of the class PreferenceViewHolder. The view holder
+     *         may not be null
+     * @return The estimated number of bytes, the given view holder occupies on the heap, as a
+     * {@link Long} value
+     */
+    private static long estimateSize(@NonNull final PreferenceViewHolder viewHolder) {
+        return countViews(viewHolder.itemView) * ESTIMATED_VIEW_SIZE;
+    }
+
+    /**
+     * Creates and returns a preference screen, which contains one preference per common
+     * preference type.
+     *
+     * @param context
+     *         The context, which should be used to create the preferences, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @return The preference screen, which has been created, as an instance of the class
+     * PreferenceScreen. The preference screen may not be null
+     */
+    @NonNull
+    private static PreferenceScreen createPreferenceScreen(@NonNull final Context context) {
+        PreferenceScreen preferenceScreen =
+                new PreferenceManager(context).createPreferenceScreen(context);
+        PreferenceCategory category = new PreferenceCategory(context);
+        preferenceScreen.addPreference(category);
+        category.addPreference(new Preference(context));
+        category.addPreference(new CheckBoxPreference(context));
+        category.addPreference(new SwitchPreferenceCompat(context));
+        return preferenceScreen;
+    }
+
+    /**
+     * Inflates the views on the background thread. The size of the first view holder of each view
+     * type is estimated and used to account for all further view holders of the same type. No
+     * more view holders of a view type are inflated, once they would exceed the memory budget.
+     *
+     * @param missingCounts
+     *         An array, which contains the number of views, which are missing in the pool, per
+     *         view type, as an {@link Integer} array. The array may not be null
+     */
+    private void inflateViews(@NonNull final int[] missingCounts) {
+        long[] sizes = new long[viewTypes.length];
+        long usedMemory = 0;
+
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < viewTypes.length; j++) {
+                if (cancelled.get()) {
+                    return;
+                } else if (i < missingCounts[j] &&
+                        (sizes[j] == 0 || usedMemory + sizes[j] <= memoryBudget)) {
+                    final PreferenceViewHolder viewHolder =
+                            adapter.createViewHolder(parent, viewTypes[j]);
+
+                    if (sizes[j] == 0) {
+                        sizes[j] = estimateSize(viewHolder);
+
+                        if (usedMemory + sizes[j] > memoryBudget) {
+                            continue;
+                        }
+                    }
+
+                    usedMemory += sizes[j];
+                    handler.post(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            if (!cancelled.get()) {
+                                viewPool.putRecycledView(viewHolder);
+                            }
+                        }
+
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new pre-warmer, which inflates the views of common preferences on a background
+     * thread. The pre-warmer must be created on the main thread.
+     *
+     * @param context
+     *         The context, which should be used to inflate the views, as an instance of the class
+     *         {@link Context}. The context must use the theme of the preference fragments and may
+     *         not be null
+     * @param viewPool
+     *         The pool, the inflated views should be added to, as an instance of the class {@link
+     *         PreferenceViewPool}. The pool may not be null
+     * @param executor
+     *         The executor, which should be used to inflate the views, as an instance of the type
+     *         {@link Executor}. The executor may not be null
+     * @param count
+     *         The number of views, which should be inflated per view type, as an {@link Integer}
+     *         value. The number must be at least 1. It is limited by the maximum number of views
+     *         per view type, which are kept by the pool
+     * @param memoryBudget
+     *         The maximum number of bytes, the inflated views may occupy on the heap, as a {@link
+     *         Long} value. The budget must be at least 0. The size of the views is estimated from
+     *         the number of views, the first view holder of each view type consists of
+     */
+    public PreferenceViewPrewarmer(@NonNull final Context context,
+                                   @NonNull final PreferenceViewPool viewPool,
+                                   @NonNull final Executor executor, final int count,
+                                   final long memoryBudget) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        Condition.INSTANCE.ensureNotNull(viewPool, "The view pool may not be null");
+        Condition.INSTANCE.ensureNotNull(executor, "The executor may not be null");
+        Condition.INSTANCE.ensureAtLeast(count, 1, "The count must be at least 1");
+        Condition.INSTANCE.ensureAtLeast(memoryBudget, 0, "The memory budget must be at least 0");
+        this.viewPool = viewPool;
+        this.executor = executor;
+        this.handler = new Handler(Looper.getMainLooper());
+        this.count = Math.min(count, viewPool.getMaxRecycledViewsPerViewType());
+        this.memoryBudget = memoryBudget;
+        this.cancelled = new AtomicBoolean(false);
+        this.started = false;
+        this.adapter = new PreferenceAdapter(createPreferenceScreen(context));
+        this.adapter.setViewPool(viewPool);
+        this.parent = new RecyclerView(context);
+        this.parent.setLayoutManager(new LinearLayoutManager(context));
+        List<Integer> distinctViewTypes = new ArrayList<>();
+
+        for (int i = 0; i < adapter.getItemCount(); i++) {
+            int viewType = adapter.getItemViewType(i);
+
+            if (!distinctViewTypes.contains(viewType)) {
+                distinctViewTypes.add(viewType);
+            }
+        }
+
+        this.viewTypes = new int[distinctViewTypes.size()];
+
+        for (int i = 0; i < viewTypes.length; i++) {
+            viewTypes[i] = distinctViewTypes.get(i);
+        }
+    }
+
+    /**
+     * Starts to inflate the views, which are missing in the pool. A pre-warmer can only be
+     * started once. This method must be called on the main thread.
+     */
+    public final void start() {
+        if (!started && !cancelled.get()) {
+            started = true;
+            final int[] missingCounts = new int[viewTypes.length];
+
+            for (int i = 0; i < viewTypes.length; i++) {
+                missingCounts[i] =
+                        Math.max(count - viewPool.getRecycledViewCount(viewTypes[i]), 0);
+            }
+
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    inflateViews(missingCounts);
+                }
+
+            });
+        }
+    }
+
+    /**
+     * Returns, whether the pool already contains the requested number of views of each view
+     * type, or not. This method must be called on the main thread.
+     *
+     * @return True, if the pool already contains the requested number of views of each view
+     * type, false otherwise
+     */
+    public final boolean isPoolFilled() {
+        for (int viewType : viewTypes) {
+            if (viewPool.getRecycledViewCount(viewType) < count) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Cancels the pre-warming. Views, which are inflated after the pre-warming has been
+     * cancelled, are not added to the pool.
+     */
+    public final void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Returns, whether the pre-warming has been cancelled, or not.
+     *
+     * @return True, if the pre-warming has been cancelled, false otherwise
+     */
+    public final boolean isCancelled() {
+        return cancelled.get();
+    }
+
+}
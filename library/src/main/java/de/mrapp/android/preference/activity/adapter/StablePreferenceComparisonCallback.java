@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.adapter;
+
+import android.text.TextUtils;
+
+import androidx.preference.Preference;
+import androidx.preference.PreferenceManager;
+
+/**
+ * A comparison callback, which allows to compute fine-grained updates, when the preference
+ * hierarchy of a {@link PreferenceAdapter}, which uses stable IDs, has been changed. Preferences,
+ * which have the same key, are considered to be the same item, even if they have been removed and
+ * re-added to the hierarchy. Preferences without a key are identified by their generated IDs.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class StablePreferenceComparisonCallback
+        extends PreferenceManager.SimplePreferenceComparisonCallback {
+
+    @Override
+    public boolean arePreferenceItemsTheSame(final Preference preference1,
+                                             final Preference preference2) {
+        String key1 = preference1.getKey();
+        String key2 = preference2.getKey();
+
+        if (!TextUtils.isEmpty(key1) || !TextUtils.isEmpty(key2)) {
+            return TextUtils.equals(key1, key2);
+        }
+
+        return super.arePreferenceItemsTheSame(preference1, preference2);
+    }
+
+}
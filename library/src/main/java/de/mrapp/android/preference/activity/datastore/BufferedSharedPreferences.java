@@ -0,0 +1,384 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
+import de.mrapp.util.Condition;
+
+/**
+ * {@link SharedPreferences}, which buffer all changes in memory instead of writing them. Values,
+ * which have not been changed, are read from other shared preferences, if available. The buffered
+ * changes can be obtained and written to the other shared preferences using a single editor. By
+ * using a preference manager, which is created by the method {@link
+ * #createPreferenceManager(Context)}, the values, which are persisted by preferences, when they
+ * are attached to the manager, including their default values, can be collected.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class BufferedSharedPreferences implements SharedPreferences {
+
+    /**
+     * An editor, which adds its changes to the buffer, when they are applied or committed.
+     */
+    private class BufferedEditor implements Editor {
+
+        /**
+         * A map, which contains the changed values, mapped to their keys. Removed values are
+         * mapped to null.
+         */
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+
+        /**
+         * True, if all values should be removed, before the changes are added, false otherwise.
+         */
+        private boolean clear;
+
+        @Override
+        public Editor putString(final String key, @Nullable final String value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putStringSet(final String key, @Nullable final Set<String> values) {
+            changes.put(key, values != null ? new HashSet<>(values) : null);
+            return this;
+        }
+
+        @Override
+        public Editor putInt(final String key, final int value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putLong(final String key, final long value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putFloat(final String key, final float value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putBoolean(final String key, final boolean value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor remove(final String key) {
+            changes.put(key, null);
+            return this;
+        }
+
+        @Override
+        public Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            apply();
+            return true;
+        }
+
+        @Override
+        public void apply() {
+            synchronized (BufferedSharedPreferences.this) {
+                if (clear) {
+                    values.clear();
+                    cleared = true;
+                }
+
+                values.putAll(changes);
+            }
+        }
+
+    }
+
+    /**
+     * The shared preferences, unchanged values are read from and the buffered changes are
+     * written to, or null, if no such shared preferences are available.
+     */
+    private final SharedPreferences sharedPreferences;
+
+    /**
+     * A map, which contains the buffered changes, mapped to their keys, in the order they have
+     * been made. Removed values are mapped to null.
+     */
+    private final Map<String, Object> values;
+
+    /**
+     * True, if all values have been removed, false otherwise.
+     */
+    private boolean cleared;
+
+    /**
+     * Returns, whether the value, which corresponds to a specific key, is read from the buffer, or
+     * not.
+     *
+     * @param key
+     *         The key of the value as a {@link String}
+     * @return True, if the value is read from the buffer, false, if it is read from the other
+     * shared preferences
+     */
+    private boolean isBuffered(final String key) {
+        return sharedPreferences == null || cleared || values.containsKey(key);
+    }
+
+    /**
+     * Adds a specific value to an editor.
+     *
+     * @param editor
+     *         The editor, the value should be added to, as an instance of the type {@link Editor}.
+     *         The editor may not be null
+     * @param key
+     *         The key of the value as a {@link String}. The key may not be null
+     * @param value
+     *         The value, which should be added, as an instance of the class {@link Object} or
+     *         null, if the value should be removed
+     */
+    @SuppressWarnings("unchecked")
+    private static void putValue(@NonNull final Editor editor, @NonNull final String key,
+                                 @Nullable final Object value) {
+        if (value == null) {
+            editor.remove(key);
+        } else if (value instanceof String) {
+            editor.putString(key, (String) value);
+        } else if (value instanceof Set) {
+            editor.putStringSet(key, (Set<String>) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        }
+    }
+
+    /**
+     * Creates new shared preferences, which buffer all changes in memory and do not contain any
+     * values initially.
+     */
+    public BufferedSharedPreferences() {
+        this(null);
+    }
+
+    /**
+     * Creates new shared preferences, which buffer all changes in memory and read unchanged
+     * values from other shared preferences.
+     *
+     * @param sharedPreferences
+     *         The shared preferences, unchanged values should be read from and the buffered
+     *         changes should be written to, as an instance of the type {@link SharedPreferences}
+     *         or null, if the buffer should not contain any values initially
+     */
+    public BufferedSharedPreferences(@Nullable final SharedPreferences sharedPreferences) {
+        this.sharedPreferences = sharedPreferences;
+        this.values = new LinkedHashMap<>();
+        this.cleared = false;
+    }
+
+    /**
+     * Creates and returns a preference manager, which uses the buffer as its shared preferences.
+     * Preferences, which are attached to the manager, persist their values, including their
+     * default values, in the buffer, unless they use a data store.
+     *
+     * @param context
+     *         The context, which should be used by the preference manager, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @return The preference manager, which has been created, as an instance of the class
+     * PreferenceManager. The preference manager may not be null
+     */
+    @SuppressLint("RestrictedApi")
+    @NonNull
+    public final PreferenceManager createPreferenceManager(@NonNull final Context context) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        return new PreferenceManager(new ContextWrapper(context) {
+
+            @Override
+            public SharedPreferences getSharedPreferences(final String name, final int mode) {
+                return BufferedSharedPreferences.this;
+            }
+
+        });
+    }
+
+    /**
+     * Returns the buffered changes.
+     *
+     * @return A map, which contains the buffered changes, mapped to their keys, as an instance of
+     * the type {@link Map}. Removed values are mapped to null. The map may not be null
+     */
+    @NonNull
+    public final synchronized Map<String, ?> getChanges() {
+        return new LinkedHashMap<>(values);
+    }
+
+    /**
+     * Writes the buffered changes to the other shared preferences using a single editor, which
+     * is applied asynchronously, and clears the buffer. If no other shared preferences are
+     * available, the buffer is only cleared.
+     */
+    public final synchronized void flush() {
+        if (sharedPreferences != null && (cleared || !values.isEmpty())) {
+            Editor editor = sharedPreferences.edit();
+
+            if (cleared) {
+                editor.clear();
+            }
+
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                putValue(editor, entry.getKey(), entry.getValue());
+            }
+
+            editor.apply();
+        }
+
+        values.clear();
+        cleared = false;
+    }
+
+    @Override
+    public final synchronized Map<String, ?> getAll() {
+        Map<String, Object> result = new HashMap<>();
+
+        if (sharedPreferences != null && !cleared) {
+            result.putAll(sharedPreferences.getAll());
+        }
+
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() != null) {
+                result.put(entry.getKey(), entry.getValue());
+            } else {
+                result.remove(entry.getKey());
+            }
+        }
+
+        return result;
+    }
+
+    @Nullable
+    @Override
+    public final synchronized String getString(final String key,
+                                               @Nullable final String defValue) {
+        if (isBuffered(key)) {
+            String value = (String) values.get(key);
+            return value != null ? value : defValue;
+        }
+
+        return sharedPreferences.getString(key, defValue);
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public final synchronized Set<String> getStringSet(final String key,
+                                                      @Nullable final Set<String> defValues) {
+        if (isBuffered(key)) {
+            Set<String> values = (Set<String>) this.values.get(key);
+            return values != null ? values : defValues;
+        }
+
+        return sharedPreferences.getStringSet(key, defValues);
+    }
+
+    @Override
+    public final synchronized int getInt(final String key, final int defValue) {
+        if (isBuffered(key)) {
+            Integer value = (Integer) values.get(key);
+            return value != null ? value : defValue;
+        }
+
+        return sharedPreferences.getInt(key, defValue);
+    }
+
+    @Override
+    public final synchronized long getLong(final String key, final long defValue) {
+        if (isBuffered(key)) {
+            Long value = (Long) values.get(key);
+            return value != null ? value : defValue;
+        }
+
+        return sharedPreferences.getLong(key, defValue);
+    }
+
+    @Override
+    public final synchronized float getFloat(final String key, final float defValue) {
+        if (isBuffered(key)) {
+            Float value = (Float) values.get(key);
+            return value != null ? value : defValue;
+        }
+
+        return sharedPreferences.getFloat(key, defValue);
+    }
+
+    @Override
+    public final synchronized boolean getBoolean(final String key, final boolean defValue) {
+        if (isBuffered(key)) {
+            Boolean value = (Boolean) values.get(key);
+            return value != null ? value : defValue;
+        }
+
+        return sharedPreferences.getBoolean(key, defValue);
+    }
+
+    @Override
+    public final synchronized boolean contains(final String key) {
+        return isBuffered(key) ? values.get(key) != null : sharedPreferences.contains(key);
+    }
+
+    @Override
+    public final Editor edit() {
+        return new BufferedEditor();
+    }
+
+    @Override
+    public final void registerOnSharedPreferenceChangeListener(
+            final OnSharedPreferenceChangeListener listener) {
+        if (sharedPreferences != null) {
+            sharedPreferences.registerOnSharedPreferenceChangeListener(listener);
+        }
+    }
+
+    @Override
+    public final void unregisterOnSharedPreferenceChangeListener(
+            final OnSharedPreferenceChangeListener listener) {
+        if (sharedPreferences != null) {
+            sharedPreferences.unregisterOnSharedPreferenceChangeListener(listener);
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Provides a handler, which is shared by all data stores in order to write values on a
+ * background thread.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+final class DataStoreThread {
+
+    /**
+     * The handler, which is used to write values on a background thread.
+     */
+    private static Handler handler;
+
+    /**
+     * Creates a new class, which provides a handler, which is shared by all data stores. This
+     * constructor should not be used, as this class only provides static methods.
+     */
+    private DataStoreThread() {
+
+    }
+
+    /**
+     * Returns the handler, which is used to write values on a background thread. If the handler
+     * has not been created yet, it is created.
+     *
+     * @return The handler, which is used to write values on a background thread, as an instance
+     * of the class {@link Handler}. The handler may not be null
+     */
+    @NonNull
+    static synchronized Handler getHandler() {
+        if (handler == null) {
+            HandlerThread thread = new HandlerThread(DataStoreThread.class.getSimpleName(),
+                    Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+
+        return handler;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Defines the interface, a data store, which allows to enumerate and remove its values and to
+ * write pending changes on demand, must implement. Such data stores can be used by a {@link
+ * de.mrapp.android.preference.activity.PreferenceFragment} in order to restore the default values
+ * of its preferences.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public interface EditableDataStore {
+
+    /**
+     * Returns, whether the data store contains a value, which corresponds to a specific key, or
+     * not.
+     *
+     * @param key
+     *         The key of the value as a {@link String}. The key may not be null
+     * @return True, if the data store contains a value, which corresponds to the given key, false
+     * otherwise
+     */
+    boolean contains(@NonNull String key);
+
+    /**
+     * Returns all values, which are contained by the data store.
+     *
+     * @return A map, which contains all values, mapped to their keys, as an instance of the type
+     * {@link Map}. The map may not be null
+     */
+    @NonNull
+    Map<String, ?> getAll();
+
+    /**
+     * Removes the value, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key of the value, which should be removed, as a {@link String}. The key may not
+     *         be null
+     */
+    void remove(@NonNull String key);
+
+    /**
+     * Writes all pending changes to the storage device on a background thread.
+     */
+    void flush();
+
+    /**
+     * Writes all pending changes to the storage device on the calling thread. This method blocks
+     * until the changes have been written and therefore should not be called on the main thread.
+     *
+     * @return True, if the changes have been written successfully, false otherwise
+     */
+    boolean commit();
+
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import android.os.Handler;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceDataStore;
+import de.mrapp.android.preference.activity.core.PreferenceLog;
+import de.mrapp.util.Condition;
+
+/**
+ * A {@link PreferenceDataStore}, which stores the values of preferences in a {@link
+ * PreferenceLog}, i.e. in an append-only, memory-mapped log of typed records. Changing a value
+ * only appends a single record to the mapped memory, instead of rewriting a whole XML file, and
+ * loading the values does not require to parse XML. Appended records are written to the storage
+ * device on a background thread shortly afterwards. The log is compacted on a background thread,
+ * once the majority of its size is occupied by records, which have been superseded.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class PreferenceLogDataStore extends PreferenceDataStore
+        implements EditableDataStore, Closeable {
+
+    /**
+     * The delay in milliseconds, after which appended records are written to the storage device.
+     */
+    private static final long SYNC_DELAY = 1000;
+
+    /**
+     * The tag, which is used for logging.
+     */
+    private static final String LOG_TAG = PreferenceLogDataStore.class.getSimpleName();
+
+    /**
+     * The log, the values are stored in.
+     */
+    private final PreferenceLog log;
+
+    /**
+     * The runnable, which is used to write appended records to the storage device.
+     */
+    private final Runnable syncRunnable;
+
+    /**
+     * The runnable, which is used to compact the log.
+     */
+    private final Runnable compactionRunnable;
+
+    /**
+     * True, if writing appended records to the storage device has been scheduled, false
+     * otherwise.
+     */
+    private boolean syncScheduled;
+
+    /**
+     * True, if compacting the log has been scheduled, false otherwise.
+     */
+    private boolean compactionScheduled;
+
+    /**
+     * Creates and returns a runnable, which writes appended records to the storage device, when
+     * executed.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}.
+     * The runnable may not be null
+     */
+    @NonNull
+    private Runnable createSyncRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                synchronized (PreferenceLogDataStore.this) {
+                    syncScheduled = false;
+                }
+
+                log.sync();
+            }
+
+        };
+    }
+
+    /**
+     * Creates and returns a runnable, which compacts the log, when executed.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}.
+     * The runnable may not be null
+     */
+    @NonNull
+    private Runnable createCompactionRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                synchronized (PreferenceLogDataStore.this) {
+                    compactionScheduled = false;
+                }
+
+                try {
+                    log.compact();
+                } catch (IOException | IllegalStateException e) {
+                    Log.w(LOG_TAG, "Failed to compact preference log " + log.getFile(), e);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Schedules writing appended records to the storage device and compacting the log, if
+     * necessary.
+     */
+    private synchronized void scheduleMaintenance() {
+        Handler handler = DataStoreThread.getHandler();
+
+        if (!syncScheduled) {
+            syncScheduled = true;
+            handler.postDelayed(syncRunnable, SYNC_DELAY);
+        }
+
+        if (!compactionScheduled && log.needsCompaction()) {
+            compactionScheduled = true;
+            handler.post(compactionRunnable);
+        }
+    }
+
+    /**
+     * Converts an exception, which has been thrown while writing a value, into an unchecked
+     * exception.
+     *
+     * @param key
+     *         The key of the value, which could not be written, as a {@link String}
+     * @param e
+     *         The exception, which has been thrown, as an instance of the class {@link
+     *         IOException}. The exception may not be null
+     * @return The unchecked exception as an instance of the class {@link RuntimeException}. The
+     * exception may not be null
+     */
+    @NonNull
+    private RuntimeException createWriteException(final String key,
+                                                  @NonNull final IOException e) {
+        return new RuntimeException("Failed to write value of preference \"" + key + "\"", e);
+    }
+
+    /**
+     * Creates a new data store, which stores the values of preferences in a specific file. If the
+     * file exists, the values are restored from it.
+     *
+     * @param file
+     *         The file, the values should be stored in, as an instance of the class {@link File}.
+     *         The file may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be opened or if it is not a
+     *         valid log
+     */
+    public PreferenceLogDataStore(@NonNull final File file) throws IOException {
+        this(new PreferenceLog(file));
+    }
+
+    /**
+     * Creates a new data store, which stores the values of preferences in a specific log.
+     *
+     * @param log
+     *         The log, the values should be stored in, as an instance of the class {@link
+     *         PreferenceLog}. The log may not be null
+     */
+    public PreferenceLogDataStore(@NonNull final PreferenceLog log) {
+        Condition.INSTANCE.ensureNotNull(log, "The log may not be null");
+        this.log = log;
+        this.syncRunnable = createSyncRunnable();
+        this.compactionRunnable = createCompactionRunnable();
+    }
+
+    /**
+     * Returns the log, the values are stored in.
+     *
+     * @return The log, the values are stored in, as an instance of the class {@link
+     * PreferenceLog}. The log may not be null
+     */
+    @NonNull
+    public final PreferenceLog getLog() {
+        return log;
+    }
+
+    @Override
+    public final boolean contains(@NonNull final String key) {
+        return log.contains(key);
+    }
+
+    @NonNull
+    @Override
+    public final Map<String, ?> getAll() {
+        return log.getAll();
+    }
+
+    @Override
+    public final void remove(@NonNull final String key) {
+        try {
+            log.remove(key);
+            scheduleMaintenance();
+        } catch (IOException e) {
+            throw createWriteException(key, e);
+        }
+    }
+
+    @Override
+    public final void flush() {
+        Handler handler = DataStoreThread.getHandler();
+
+        synchronized (this) {
+            handler.removeCallbacks(syncRunnable);
+            handler.post(syncRunnable);
+            syncScheduled = true;
+        }
+    }
+
+    @Override
+    public final boolean commit() {
+        log.sync();
+        return true;
+    }
+
+    @Override
+    public final void close() throws IOException {
+        Handler handler = DataStoreThread.getHandler();
+
+        synchronized (this) {
+            handler.removeCallbacks(syncRunnable);
+            handler.removeCallbacks(compactionRunnable);
+            syncScheduled = false;
+            compactionScheduled = false;
+        }
+
+        log.close();
+    }
+
+    @Override
+    public final void putString(final String key, @Nullable final String value) {
+        try {
+            log.putString(key, value);
+            scheduleMaintenance();
+        } catch (IOException e) {
+            throw createWriteException(key, e);
+        }
+    }
+
+    @Override
+    public final void putStringSet(final String key, @Nullable final Set<String> values) {
+        try {
+            log.putStringSet(key, values);
+            scheduleMaintenance();
+        } catch (IOException e) {
+            throw createWriteException(key, e);
+        }
+    }
+
+    @Override
+    public final void putInt(final String key, final int value) {
+        try {
+            log.putInt(key, value);
+            scheduleMaintenance();
+        } catch (IOException e) {
+            throw createWriteException(key, e);
+        }
+    }
+
+    @Override
+    public final void putLong(final String key, final long value) {
+        try {
+            log.putLong(key, value);
+            scheduleMaintenance();
+        } catch (IOException e) {
+            throw createWriteException(key, e);
+        }
+    }
+
+    @Override
+    public final void putFloat(final String key, final float value) {
+        try {
+            log.putFloat(key, value);
+            scheduleMaintenance();
+        } catch (IOException e) {
+            throw createWriteException(key, e);
+        }
+    }
+
+    @Override
+    public final void putBoolean(final String key, final boolean value) {
+        try {
+            log.putBoolean(key, value);
+            scheduleMaintenance();
+        } catch (IOException e) {
+            throw createWriteException(key, e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public final String getString(final String key, @Nullable final String defValue) {
+        return log.getString(key, defValue);
+    }
+
+    @Nullable
+    @Override
+    public final Set<String> getStringSet(final String key, @Nullable final Set<String> defValues) {
+        return log.getStringSet(key, defValues);
+    }
+
+    @Override
+    public final int getInt(final String key, final int defValue) {
+        return log.getInt(key, defValue);
+    }
+
+    @Override
+    public final long getLong(final String key, final long defValue) {
+        return log.getLong(key, defValue);
+    }
+
+    @Override
+    public final float getFloat(final String key, final float defValue) {
+        return log.getFloat(key, defValue);
+    }
+
+    @Override
+    public final boolean getBoolean(final String key, final boolean defValue) {
+        return log.getBoolean(key, defValue);
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Process;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import androidx.annotation.NonNull;
+import de.mrapp.util.Condition;
+
+/**
+ * Loads {@link SharedPreferences} on a background thread, in order to avoid reading and parsing
+ * their files on the main thread, when they are accessed for the first time. As the instances of
+ * shared preferences are cached by the application's context, subsequent calls of the method
+ * <code>Context#getSharedPreferences</code> return the instances, which have already been loaded.
+ * If such a call happens, while the file is still loaded, it waits for the loading to be finished
+ * instead of reading the file itself.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class SharedPreferencesPreloader {
+
+    /**
+     * The number of seconds, an idle thread is kept alive, before it is terminated.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 1;
+
+    /**
+     * The context, which is used to load the shared preferences.
+     */
+    private final Context context;
+
+    /**
+     * The executor, which is used to load the shared preferences.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * A set, which contains the names of the shared preferences, which have already been
+     * preloaded.
+     */
+    private final Set<String> names;
+
+    /**
+     * True, if the preloading has been cancelled, false otherwise.
+     */
+    private final AtomicBoolean cancelled;
+
+    /**
+     * Creates and returns a factory, which creates background daemon threads.
+     *
+     * @return The factory, which has been created, as an instance of the type {@link
+     * ThreadFactory}. The factory may not be null
+     */
+    @NonNull
+    private static ThreadFactory createThreadFactory() {
+        return new ThreadFactory() {
+
+            @Override
+            public Thread newThread(@NonNull final Runnable runnable) {
+                Thread thread = new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+
+                }, SharedPreferencesPreloader.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        };
+    }
+
+    /**
+     * Loads the shared preferences, which correspond to a specific name.
+     *
+     * @param name
+     *         The name of the shared preferences, which should be loaded, as a {@link String}. The
+     *         name may not be null
+     */
+    private void load(@NonNull final String name) {
+        try {
+            context.getSharedPreferences(name, Context.MODE_PRIVATE).getAll();
+        } catch (RuntimeException e) {
+            // The shared preferences are loaded on the main thread instead
+        }
+    }
+
+    /**
+     * Creates a new preloader, which loads shared preferences on a background thread.
+     *
+     * @param context
+     *         The context, which should be used to load the shared preferences, as an instance of
+     *         the class {@link Context}. The context may not be null
+     */
+    public SharedPreferencesPreloader(@NonNull final Context context) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        this.context = context.getApplicationContext();
+        this.executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), createThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.names = new HashSet<>();
+        this.cancelled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns the name of the default shared preferences of a specific context, i.e. the name of
+     * the shared preferences, which are used by the class PreferenceManager, unless another name
+     * has been set.
+     *
+     * @param context
+     *         The context as an instance of the class {@link Context}. The context may not be null
+     * @return The name of the default shared preferences as a {@link String}. The name may not be
+     * null
+     */
+    @NonNull
+    public static String getDefaultSharedPreferencesName(@NonNull final Context context) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        return context.getPackageName() + "_preferences";
+    }
+
+    /**
+     * Loads the shared preferences, which correspond to a specific name, on a background thread.
+     * The shared preferences are loaded in the order this method has been called. Shared
+     * preferences, which have already been preloaded, are not loaded again. If the preloading has
+     * been cancelled, this method does not have any effect.
+     *
+     * @param name
+     *         The name of the shared preferences, which should be loaded, as a {@link String}. The
+     *         name may neither be null, nor empty
+     */
+    public final synchronized void preload(@NonNull final String name) {
+        Condition.INSTANCE.ensureNotNull(name, "The name may not be null");
+        Condition.INSTANCE.ensureNotEmpty(name, "The name may not be empty");
+
+        if (!cancelled.get() && names.add(name)) {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (!cancelled.get()) {
+                        load(name);
+                    }
+                }
+
+            });
+        }
+    }
+
+    /**
+     * Loads the shared preferences, which correspond to specific names, on a background thread.
+     *
+     * @param names
+     *         A collection, which contains the names of the shared preferences, which should be
+     *         loaded, as an instance of the type {@link Collection}. The collection may not be
+     *         null
+     */
+    public final void preload(@NonNull final Collection<String> names) {
+        Condition.INSTANCE.ensureNotNull(names, "The collection may not be null");
+
+        for (String name : names) {
+            preload(name);
+        }
+    }
+
+    /**
+     * Cancels the preloading. Shared preferences, which are currently loaded, are loaded
+     * completely, but no further shared preferences are loaded.
+     */
+    public final void cancel() {
+        cancelled.set(true);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns, whether the preloading has been cancelled, or not.
+     *
+     * @return True, if the preloading has been cancelled, false otherwise
+     */
+    public final boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Blocks, until all shared preferences, which have been passed to the preloader, have been
+     * loaded, or until a specific timeout has elapsed. As this method blocks the calling thread,
+     * it is mainly intended for testing purposes.
+     *
+     * @param timeout
+     *         The maximum time to wait in milliseconds as a {@link Long} value. The timeout must be
+     *         at least 0
+     * @return True, if all shared preferences have been loaded, false, if the timeout has elapsed
+     * @throws InterruptedException
+     *         The exception, which is thrown, if the current thread has been interrupted while
+     *         waiting
+     */
+    public final boolean await(final long timeout) throws InterruptedException {
+        Condition.INSTANCE.ensureAtLeast(timeout, 0, "The timeout must be at least 0");
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        try {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+
+            });
+        } catch (RejectedExecutionException e) {
+            return executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        return latch.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import android.content.SharedPreferences;
+import android.os.Bundle;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceDataStore;
+import de.mrapp.util.Condition;
+
+/**
+ * A {@link PreferenceDataStore}, which stages all changed values in memory, until they are either
+ * committed or rolled back. Committing the staged changes writes them to the underlying {@link
+ * SharedPreferences} or data store at once, i.e. the shared preferences' file is only rewritten
+ * once, regardless of the number of changes. Rolling back discards the staged changes without
+ * writing them. Staged values are returned by the data store's getter methods, but are not
+ * visible when using the underlying shared preferences or data store directly.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class TransactionalPreferenceDataStore extends PreferenceDataStore
+        implements EditableDataStore {
+
+    /**
+     * The value, which is used to mark values, which have been removed, but not committed yet.
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * The name of the extra, which is used to store the staged values within a bundle.
+     */
+    private static final String STAGED_VALUES_EXTRA =
+            TransactionalPreferenceDataStore.class.getName() + "::StagedValues";
+
+    /**
+     * The name of the extra, which is used to store the keys of the staged removals within a
+     * bundle.
+     */
+    private static final String STAGED_REMOVALS_EXTRA =
+            TransactionalPreferenceDataStore.class.getName() + "::StagedRemovals";
+
+    /**
+     * The shared preferences, the staged changes are committed to, or null, if they are committed
+     * to a data store.
+     */
+    private final SharedPreferences sharedPreferences;
+
+    /**
+     * The data store, the staged changes are committed to, or null, if they are committed to
+     * shared preferences.
+     */
+    private final PreferenceDataStore dataStore;
+
+    /**
+     * A map, which contains the values, which have been changed, but not committed yet, mapped to
+     * their keys.
+     */
+    private final Map<String, Object> stagedChanges;
+
+    /**
+     * Adds a specific value to an editor.
+     *
+     * @param editor
+     *         The editor, the value should be added to, as an instance of the type {@link
+     *         SharedPreferences.Editor}. The editor may not be null
+     * @param key
+     *         The key of the value as a {@link String}. The key may not be null
+     * @param value
+     *         The value, which should be added, as an instance of the class {@link Object}. The
+     *         value may not be null
+     */
+    @SuppressWarnings("unchecked")
+    private static void putValue(@NonNull final SharedPreferences.Editor editor,
+                                 @NonNull final String key, @NonNull final Object value) {
+        if (value == REMOVED) {
+            editor.remove(key);
+        } else if (value instanceof String) {
+            editor.putString(key, (String) value);
+        } else if (value instanceof Set) {
+            editor.putStringSet(key, (Set<String>) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        }
+    }
+
+    /**
+     * Writes a specific value to a data store. Removals are only written, if the data store
+     * implements the interface {@link EditableDataStore}.
+     *
+     * @param dataStore
+     *         The data store, the value should be written to, as an instance of the class
+     *         PreferenceDataStore. The data store may not be null
+     * @param key
+     *         The key of the value as a {@link String}. The key may not be null
+     * @param value
+     *         The value, which should be written, as an instance of the class {@link Object}. The
+     *         value may not be null
+     */
+    @SuppressWarnings("unchecked")
+    private static void putValue(@NonNull final PreferenceDataStore dataStore,
+                                 @NonNull final String key, @NonNull final Object value) {
+        if (value == REMOVED) {
+            if (dataStore instanceof EditableDataStore) {
+                ((EditableDataStore) dataStore).remove(key);
+            }
+        } else if (value instanceof String) {
+            dataStore.putString(key, (String) value);
+        } else if (value instanceof Set) {
+            dataStore.putStringSet(key, (Set<String>) value);
+        } else if (value instanceof Integer) {
+            dataStore.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            dataStore.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            dataStore.putFloat(key, (Float) value);
+        } else if (value instanceof Boolean) {
+            dataStore.putBoolean(key, (Boolean) value);
+        }
+    }
+
+    /**
+     * Stages a change of the value, which corresponds to a specific key.
+     *
+     * @param key
+     *         The key of the value, which should be changed, as a {@link String}. The key may not
+     *         be null
+     * @param value
+     *         The value, which should be set, as an instance of the class {@link Object} or null,
+     *         if the value should be removed
+     */
+    private synchronized void change(@NonNull final String key, @Nullable final Object value) {
+        Condition.INSTANCE.ensureNotNull(key, "The key may not be null");
+        stagedChanges.put(key, value != null ? value : REMOVED);
+    }
+
+    /**
+     * Returns the staged value, which corresponds to a specific key. This method must only be
+     * called, while synchronizing on the data store and if a staged change for the given key
+     * exists.
+     *
+     * @param key
+     *         The key of the value, which should be returned, as a {@link String}. The key may not
+     *         be null
+     * @param defaultValue
+     *         The value, which should be returned, if the value has been removed, as an instance
+     *         of the class {@link Object}
+     * @return The staged value, which corresponds to the given key, as an instance of the class
+     * {@link Object}
+     */
+    private Object getStagedValue(@NonNull final String key, final Object defaultValue) {
+        Object value = stagedChanges.get(key);
+        return value != REMOVED ? value : defaultValue;
+    }
+
+    /**
+     * Creates a new data store, which stages changed values in memory, until they are committed
+     * to specific shared preferences.
+     *
+     * @param sharedPreferences
+     *         The shared preferences, the staged changes should be committed to, as an instance of
+     *         the type {@link SharedPreferences}. The shared preferences may not be null
+     */
+    public TransactionalPreferenceDataStore(@NonNull final SharedPreferences sharedPreferences) {
+        Condition.INSTANCE
+                .ensureNotNull(sharedPreferences, "The shared preferences may not be null");
+        this.sharedPreferences = sharedPreferences;
+        this.dataStore = null;
+        this.stagedChanges = new HashMap<>();
+    }
+
+    /**
+     * Creates a new data store, which stages changed values in memory, until they are committed
+     * to another data store. Removals are only committed, if the data store implements the
+     * interface {@link EditableDataStore}.
+     *
+     * @param dataStore
+     *         The data store, the staged changes should be committed to, as an instance of the
+     *         class PreferenceDataStore. The data store may not be null
+     */
+    public TransactionalPreferenceDataStore(@NonNull final PreferenceDataStore dataStore) {
+        Condition.INSTANCE.ensureNotNull(dataStore, "The data store may not be null");
+        this.sharedPreferences = null;
+        this.dataStore = dataStore;
+        this.stagedChanges = new HashMap<>();
+    }
+
+    /**
+     * Returns the shared preferences, the staged changes are committed to.
+     *
+     * @return The shared preferences, the staged changes are committed to, as an instance of the
+     * type {@link SharedPreferences} or null, if they are committed to a data store
+     */
+    @Nullable
+    public final SharedPreferences getSharedPreferences() {
+        return sharedPreferences;
+    }
+
+    /**
+     * Returns the data store, the staged changes are committed to.
+     *
+     * @return The data store, the staged changes are committed to, as an instance of the class
+     * PreferenceDataStore or null, if they are committed to shared preferences
+     */
+    @Nullable
+    public final PreferenceDataStore getDataStore() {
+        return dataStore;
+    }
+
+    /**
+     * Returns, whether the data store contains changes, which have not been committed yet, or
+     * not.
+     *
+     * @return True, if the data store contains changes, which have not been committed yet, false
+     * otherwise
+     */
+    public final synchronized boolean hasStagedChanges() {
+        return !stagedChanges.isEmpty();
+    }
+
+    /**
+     * Commits all staged changes at once. When using shared preferences, the changes are applied
+     * using a single editor, which writes the preferences' file on a background thread. When
+     * using a data store, the changes are passed to the data store and, if it implements the
+     * interface {@link EditableDataStore}, it is flushed afterwards.
+     */
+    public final void commitTransaction() {
+        Map<String, Object> changes;
+
+        synchronized (this) {
+            if (stagedChanges.isEmpty()) {
+                return;
+            }
+
+            changes = new HashMap<>(stagedChanges);
+            stagedChanges.clear();
+        }
+
+        if (sharedPreferences != null) {
+            SharedPreferences.Editor editor = sharedPreferences.edit();
+
+            for (Map.Entry<String, Object> entry : changes.entrySet()) {
+                putValue(editor, entry.getKey(), entry.getValue());
+            }
+
+            editor.apply();
+        } else {
+            for (Map.Entry<String, Object> entry : changes.entrySet()) {
+                putValue(dataStore, entry.getKey(), entry.getValue());
+            }
+
+            if (dataStore instanceof EditableDataStore) {
+                ((EditableDataStore) dataStore).flush();
+            }
+        }
+    }
+
+    /**
+     * Discards all staged changes without writing them.
+     */
+    public final synchronized void rollback() {
+        stagedChanges.clear();
+    }
+
+    /**
+     * Stores the staged changes within a bundle, in order to restore them, e.g. after the
+     * activity, which uses the data store, has been recreated.
+     *
+     * @param outState
+     *         The bundle, the staged changes should be stored in, as an instance of the class
+     *         {@link Bundle}. The bundle may not be null
+     */
+    public final synchronized void saveInstanceState(@NonNull final Bundle outState) {
+        Condition.INSTANCE.ensureNotNull(outState, "The bundle may not be null");
+        Bundle values = new Bundle();
+        ArrayList<String> removals = new ArrayList<>();
+
+        for (Map.Entry<String, Object> entry : stagedChanges.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            if (value == REMOVED) {
+                removals.add(key);
+            } else if (value instanceof String) {
+                values.putString(key, (String) value);
+            } else if (value instanceof Set) {
+                values.putSerializable(key, (Serializable) value);
+            } else if (value instanceof Integer) {
+                values.putInt(key, (Integer) value);
+            } else if (value instanceof Long) {
+                values.putLong(key, (Long) value);
+            } else if (value instanceof Float) {
+                values.putFloat(key, (Float) value);
+            } else if (value instanceof Boolean) {
+                values.putBoolean(key, (Boolean) value);
+            }
+        }
+
+        outState.putBundle(STAGED_VALUES_EXTRA, values);
+        outState.putStringArrayList(STAGED_REMOVALS_EXTRA, removals);
+    }
+
+    /**
+     * Restores staged changes, which have previously been stored within a bundle by using the
+     * method {@link #saveInstanceState(Bundle)}. The restored changes are added to the changes,
+     * which are currently staged.
+     *
+     * @param savedInstanceState
+     *         The bundle, the staged changes have been stored in, as an instance of the class
+     *         {@link Bundle}. The bundle may not be null
+     */
+    public final synchronized void restoreInstanceState(
+            @NonNull final Bundle savedInstanceState) {
+        Condition.INSTANCE.ensureNotNull(savedInstanceState, "The bundle may not be null");
+        Bundle values = savedInstanceState.getBundle(STAGED_VALUES_EXTRA);
+        ArrayList<String> removals =
+                savedInstanceState.getStringArrayList(STAGED_REMOVALS_EXTRA);
+
+        if (values != null) {
+            for (String key : values.keySet()) {
+                Object value = values.get(key);
+
+                if (value != null) {
+                    stagedChanges.put(key, value);
+                }
+            }
+        }
+
+        if (removals != null) {
+            for (String key : removals) {
+                stagedChanges.put(key, REMOVED);
+            }
+        }
+    }
+
+    @Override
+    public final boolean contains(@NonNull final String key) {
+        Condition.INSTANCE.ensureNotNull(key, "The key may not be null");
+
+        synchronized (this) {
+            if (stagedChanges.containsKey(key)) {
+                return stagedChanges.get(key) != REMOVED;
+            }
+        }
+
+        if (sharedPreferences != null) {
+            return sharedPreferences.contains(key);
+        }
+
+        return dataStore instanceof EditableDataStore &&
+                ((EditableDataStore) dataStore).contains(key);
+    }
+
+    @NonNull
+    @Override
+    public final Map<String, ?> getAll() {
+        Map<String, ?> committedValues = sharedPreferences != null ? sharedPreferences.getAll() :
+                dataStore instanceof EditableDataStore ? ((EditableDataStore) dataStore).getAll() :
+                        Collections.<String, Object>emptyMap();
+        Map<String, Object> values = new HashMap<String, Object>(committedValues);
+
+        synchronized (this) {
+            for (Map.Entry<String, Object> entry : stagedChanges.entrySet()) {
+                if (entry.getValue() == REMOVED) {
+                    values.remove(entry.getKey());
+                } else {
+                    values.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public final void remove(@NonNull final String key) {
+        change(key, null);
+    }
+
+    @Override
+    public final void flush() {
+        // Staged changes are only written, when the transaction is committed
+    }
+
+    @Override
+    public final boolean commit() {
+        // Staged changes are only written, when the transaction is committed
+        return true;
+    }
+
+    @Override
+    public final void putString(final String key, @Nullable final String value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putStringSet(final String key, @Nullable final Set<String> values) {
+        change(key, values != null ? new HashSet<>(values) : null);
+    }
+
+    @Override
+    public final void putInt(final String key, final int value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putLong(final String key, final long value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putFloat(final String key, final float value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putBoolean(final String key, final boolean value) {
+        change(key, value);
+    }
+
+    @Nullable
+    @Override
+    public final String getString(final String key, @Nullable final String defValue) {
+        synchronized (this) {
+            if (stagedChanges.containsKey(key)) {
+                return (String) getStagedValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences != null ? sharedPreferences.getString(key, defValue) :
+                dataStore.getString(key, defValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public final Set<String> getStringSet(final String key, @Nullable final Set<String> defValues) {
+        synchronized (this) {
+            if (stagedChanges.containsKey(key)) {
+                return (Set<String>) getStagedValue(key, defValues);
+            }
+        }
+
+        return sharedPreferences != null ? sharedPreferences.getStringSet(key, defValues) :
+                dataStore.getStringSet(key, defValues);
+    }
+
+    @Override
+    public final int getInt(final String key, final int defValue) {
+        synchronized (this) {
+            if (stagedChanges.containsKey(key)) {
+                return (Integer) getStagedValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences != null ? sharedPreferences.getInt(key, defValue) :
+                dataStore.getInt(key, defValue);
+    }
+
+    @Override
+    public final long getLong(final String key, final long defValue) {
+        synchronized (this) {
+            if (stagedChanges.containsKey(key)) {
+                return (Long) getStagedValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences != null ? sharedPreferences.getLong(key, defValue) :
+                dataStore.getLong(key, defValue);
+    }
+
+    @Override
+    public final float getFloat(final String key, final float defValue) {
+        synchronized (this) {
+            if (stagedChanges.containsKey(key)) {
+                return (Float) getStagedValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences != null ? sharedPreferences.getFloat(key, defValue) :
+                dataStore.getFloat(key, defValue);
+    }
+
+    @Override
+    public final boolean getBoolean(final String key, final boolean defValue) {
+        synchronized (this) {
+            if (stagedChanges.containsKey(key)) {
+                return (Boolean) getStagedValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences != null ? sharedPreferences.getBoolean(key, defValue) :
+                dataStore.getBoolean(key, defValue);
+    }
+
+}
@@ -0,0 +1,451 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceDataStore;
+import de.mrapp.util.Condition;
+
+/**
+ * A {@link PreferenceDataStore}, which keeps changed values in memory and writes them to {@link
+ * SharedPreferences} on a background thread. All changes, which are made within a configurable
+ * time window, are coalesced into a single commit, which rewrites the preferences' file once,
+ * instead of once per change. Values, which have not been written yet, are returned by the data
+ * store's getter methods, but are not visible when using the shared preferences directly.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class WriteBehindPreferenceDataStore extends PreferenceDataStore
+        implements EditableDataStore {
+
+    /**
+     * The default time window in milliseconds, changes are coalesced within.
+     */
+    public static final long DEFAULT_WRITE_DELAY = 500;
+
+    /**
+     * The value, which is used to mark values, which have been removed, but not written yet.
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * The shared preferences, the values are written to.
+     */
+    private final SharedPreferences sharedPreferences;
+
+    /**
+     * A map, which contains the values, which have been changed, but not written yet, mapped to
+     * their keys.
+     */
+    private final Map<String, Object> pendingChanges;
+
+    /**
+     * The lock, which ensures that the pending changes are not written by multiple threads at the
+     * same time.
+     */
+    private final Object writeLock;
+
+    /**
+     * The runnable, which is used to write the pending changes.
+     */
+    private final Runnable writeRunnable;
+
+    /**
+     * The time window in milliseconds, changes are coalesced within.
+     */
+    private long writeDelay;
+
+    /**
+     * True, if writing the pending changes has been scheduled, false otherwise.
+     */
+    private boolean writeScheduled;
+
+    /**
+     * Creates and returns a runnable, which writes the pending changes, when executed.
+     *
+     * @return The runnable, which has been created, as an instance of the type {@link Runnable}.
+     * The runnable may not be null
+     */
+    @NonNull
+    private Runnable createWriteRunnable() {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                write();
+            }
+
+        };
+    }
+
+    /**
+     * Writes all pending changes to the shared preferences using a single commit. Changes, which
+     * are made while the values are written, are kept and written the next time. Only one thread
+     * writes at a time, because a write, which has obtained the pending changes earlier, must not
+     * overwrite newer values or remove the newer pending changes afterwards.
+     *
+     * @return True, if the changes have been written successfully, false otherwise
+     */
+    private boolean write() {
+        synchronized (writeLock) {
+            Map<String, Object> changes;
+
+            synchronized (pendingChanges) {
+                writeScheduled = false;
+
+                if (pendingChanges.isEmpty()) {
+                    return true;
+                }
+
+                changes = new HashMap<>(pendingChanges);
+            }
+
+            SharedPreferences.Editor editor = sharedPreferences.edit();
+
+            for (Map.Entry<String, Object> entry : changes.entrySet()) {
+                putValue(editor, entry.getKey(), entry.getValue());
+            }
+
+            boolean result = editor.commit();
+
+            synchronized (pendingChanges) {
+                for (Map.Entry<String, Object> entry : changes.entrySet()) {
+                    if (pendingChanges.get(entry.getKey()) == entry.getValue()) {
+                        pendingChanges.remove(entry.getKey());
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Adds a specific value to an editor.
+     *
+     * @param editor
+     *         The editor, the value should be added to, as an instance of the type {@link
+     *         SharedPreferences.Editor}. The editor may not be null
+     * @param key
+     *         The key of the value as a {@link String}. The key may not be null
+     * @param value
+     *         The value, which should be added, as an instance of the class {@link Object}. The
+     *         value may not be null
+     */
+    @SuppressWarnings("unchecked")
+    private void putValue(@NonNull final SharedPreferences.Editor editor, @NonNull final String key,
+                          @NonNull final Object value) {
+        if (value == REMOVED) {
+            editor.remove(key);
+        } else if (value instanceof String) {
+            editor.putString(key, (String) value);
+        } else if (value instanceof Set) {
+            editor.putStringSet(key, (Set<String>) value);
+        } else if (value instanceof Integer) {
+            editor.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            editor.putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            editor.putFloat(key, (Float) value);
+        } else if (value instanceof Boolean) {
+            editor.putBoolean(key, (Boolean) value);
+        }
+    }
+
+    /**
+     * Changes the value, which corresponds to a specific key, and schedules writing it.
+     *
+     * @param key
+     *         The key of the value, which should be changed, as a {@link String}. The key may not
+     *         be null
+     * @param value
+     *         The value, which should be set, as an instance of the class {@link Object} or null,
+     *         if the value should be removed
+     */
+    private void change(@NonNull final String key, @Nullable final Object value) {
+        Condition.INSTANCE.ensureNotNull(key, "The key may not be null");
+
+        synchronized (pendingChanges) {
+            pendingChanges.put(key, value != null ? value : REMOVED);
+
+            if (!writeScheduled) {
+                writeScheduled = true;
+                DataStoreThread.getHandler().postDelayed(writeRunnable, writeDelay);
+            }
+        }
+    }
+
+    /**
+     * Returns the pending value, which corresponds to a specific key. This method must only be
+     * called, while synchronizing on the pending changes and if a pending change for the given key
+     * exists.
+     *
+     * @param key
+     *         The key of the value, which should be returned, as a {@link String}. The key may not
+     *         be null
+     * @param defaultValue
+     *         The value, which should be returned, if the value has been removed, as an instance
+     *         of the class {@link Object}
+     * @return The pending value, which corresponds to the given key, as an instance of the class
+     * {@link Object}
+     */
+    private Object getPendingValue(@NonNull final String key, final Object defaultValue) {
+        Object value = pendingChanges.get(key);
+        return value != REMOVED ? value : defaultValue;
+    }
+
+    /**
+     * Creates a new data store, which writes changed values to specific shared preferences on a
+     * background thread, coalescing all changes, which are made within the default time window.
+     *
+     * @param sharedPreferences
+     *         The shared preferences, the values should be written to, as an instance of the type
+     *         {@link SharedPreferences}. The shared preferences may not be null
+     */
+    public WriteBehindPreferenceDataStore(@NonNull final SharedPreferences sharedPreferences) {
+        this(sharedPreferences, DEFAULT_WRITE_DELAY);
+    }
+
+    /**
+     * Creates a new data store, which writes changed values to specific shared preferences on a
+     * background thread, coalescing all changes, which are made within a specific time window.
+     *
+     * @param sharedPreferences
+     *         The shared preferences, the values should be written to, as an instance of the type
+     *         {@link SharedPreferences}. The shared preferences may not be null
+     * @param writeDelay
+     *         The time window in milliseconds, changes should be coalesced within, as a {@link
+     *         Long} value. The time window must be at least 0
+     */
+    public WriteBehindPreferenceDataStore(@NonNull final SharedPreferences sharedPreferences,
+                                          final long writeDelay) {
+        Condition.INSTANCE
+                .ensureNotNull(sharedPreferences, "The shared preferences may not be null");
+        this.sharedPreferences = sharedPreferences;
+        this.pendingChanges = new HashMap<>();
+        this.writeLock = new Object();
+        this.writeRunnable = createWriteRunnable();
+        setWriteDelay(writeDelay);
+    }
+
+    /**
+     * Returns the shared preferences, the values are written to.
+     *
+     * @return The shared preferences, the values are written to, as an instance of the type {@link
+     * SharedPreferences}. The shared preferences may not be null
+     */
+    @NonNull
+    public final SharedPreferences getSharedPreferences() {
+        return sharedPreferences;
+    }
+
+    /**
+     * Returns the time window, changes are coalesced within.
+     *
+     * @return The time window in milliseconds, changes are coalesced within, as a {@link Long}
+     * value
+     */
+    public final long getWriteDelay() {
+        return writeDelay;
+    }
+
+    /**
+     * Sets the time window, changes should be coalesced within. The time window starts, when a
+     * value is changed, while no changes are pending.
+     *
+     * @param writeDelay
+     *         The time window in milliseconds, changes should be coalesced within, as a {@link
+     *         Long} value. The time window must be at least 0
+     */
+    public final void setWriteDelay(final long writeDelay) {
+        Condition.INSTANCE.ensureAtLeast(writeDelay, 0, "The write delay must be at least 0");
+        this.writeDelay = writeDelay;
+    }
+
+    /**
+     * Returns, whether the data store contains changes, which have not been written yet, or not.
+     *
+     * @return True, if the data store contains changes, which have not been written yet, false
+     * otherwise
+     */
+    public final boolean hasPendingChanges() {
+        synchronized (pendingChanges) {
+            return !pendingChanges.isEmpty();
+        }
+    }
+
+    @Override
+    public final boolean contains(@NonNull final String key) {
+        Condition.INSTANCE.ensureNotNull(key, "The key may not be null");
+
+        synchronized (pendingChanges) {
+            if (pendingChanges.containsKey(key)) {
+                return pendingChanges.get(key) != REMOVED;
+            }
+        }
+
+        return sharedPreferences.contains(key);
+    }
+
+    @NonNull
+    @Override
+    public final Map<String, ?> getAll() {
+        Map<String, Object> values = new HashMap<String, Object>(sharedPreferences.getAll());
+
+        synchronized (pendingChanges) {
+            for (Map.Entry<String, Object> entry : pendingChanges.entrySet()) {
+                if (entry.getValue() == REMOVED) {
+                    values.remove(entry.getKey());
+                } else {
+                    values.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public final void remove(@NonNull final String key) {
+        change(key, null);
+    }
+
+    @Override
+    public final void flush() {
+        synchronized (pendingChanges) {
+            if (!pendingChanges.isEmpty()) {
+                Handler handler = DataStoreThread.getHandler();
+                handler.removeCallbacks(writeRunnable);
+                handler.post(writeRunnable);
+                writeScheduled = true;
+            }
+        }
+    }
+
+    @Override
+    public final boolean commit() {
+        DataStoreThread.getHandler().removeCallbacks(writeRunnable);
+        return write();
+    }
+
+    @Override
+    public final void putString(final String key, @Nullable final String value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putStringSet(final String key, @Nullable final Set<String> values) {
+        change(key, values != null ? new HashSet<>(values) : null);
+    }
+
+    @Override
+    public final void putInt(final String key, final int value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putLong(final String key, final long value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putFloat(final String key, final float value) {
+        change(key, value);
+    }
+
+    @Override
+    public final void putBoolean(final String key, final boolean value) {
+        change(key, value);
+    }
+
+    @Nullable
+    @Override
+    public final String getString(final String key, @Nullable final String defValue) {
+        synchronized (pendingChanges) {
+            if (pendingChanges.containsKey(key)) {
+                return (String) getPendingValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences.getString(key, defValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public final Set<String> getStringSet(final String key, @Nullable final Set<String> defValues) {
+        synchronized (pendingChanges) {
+            if (pendingChanges.containsKey(key)) {
+                return (Set<String>) getPendingValue(key, defValues);
+            }
+        }
+
+        return sharedPreferences.getStringSet(key, defValues);
+    }
+
+    @Override
+    public final int getInt(final String key, final int defValue) {
+        synchronized (pendingChanges) {
+            if (pendingChanges.containsKey(key)) {
+                return (Integer) getPendingValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences.getInt(key, defValue);
+    }
+
+    @Override
+    public final long getLong(final String key, final long defValue) {
+        synchronized (pendingChanges) {
+            if (pendingChanges.containsKey(key)) {
+                return (Long) getPendingValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences.getLong(key, defValue);
+    }
+
+    @Override
+    public final float getFloat(final String key, final float defValue) {
+        synchronized (pendingChanges) {
+            if (pendingChanges.containsKey(key)) {
+                return (Float) getPendingValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences.getFloat(key, defValue);
+    }
+
+    @Override
+    public final boolean getBoolean(final String key, final boolean defValue) {
+        synchronized (pendingChanges) {
+            if (pendingChanges.containsKey(key)) {
+                return (Boolean) getPendingValue(key, defValue);
+            }
+        }
+
+        return sharedPreferences.getBoolean(key, defValue);
+    }
+
+}
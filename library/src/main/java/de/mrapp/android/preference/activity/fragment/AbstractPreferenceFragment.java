@@ -14,30 +14,49 @@
 package de.mrapp.android.preference.activity.fragment;
 
 import android.annotation.SuppressLint;
-import android.content.res.Resources.NotFoundException;
+import android.content.Context;
+import android.content.SharedPreferences;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.Px;
-import androidx.core.content.ContextCompat;
-import androidx.preference.Preference;
+import androidx.annotation.XmlRes;
+import androidx.preference.AndroidResources;
+import androidx.preference.PreferenceDataStore;
 import androidx.preference.PreferenceFragmentCompat;
 import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceManager;
 import androidx.preference.PreferenceScreen;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import de.mrapp.android.preference.activity.R;
+import de.mrapp.android.preference.activity.ThemeAppearance;
 import de.mrapp.android.preference.activity.adapter.PreferenceAdapter;
+import de.mrapp.android.preference.activity.adapter.PreferenceViewPool;
+import de.mrapp.android.preference.activity.adapter.StablePreferenceComparisonCallback;
+import de.mrapp.android.preference.activity.datastore.EditableDataStore;
+import de.mrapp.android.preference.activity.inflater.CompiledPreferenceInflater;
 import de.mrapp.android.util.DisplayUtil;
-import de.mrapp.android.util.ThemeUtil;
+import de.mrapp.util.Condition;
 
 /**
  * An abstract base class for all fragments, which show multiple preferences.
@@ -48,7 +67,9 @@ import de.mrapp.android.util.ThemeUtil;
 public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompat {
 
     /**
-     * An item decoration, which draws dividers above preference categories.
+     * An item decoration, which draws dividers above preference categories. The adapter positions
+     * of the preference categories are kept in a bit set, which is updated incrementally, when the
+     * adapter's data is changed.
      */
     private class DividerDecoration extends RecyclerView.ItemDecoration {
 
@@ -57,6 +78,24 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
          */
         private final Paint paint = new Paint();
 
+        /**
+         * A bit set, which contains the adapter positions of the items, above which a divider
+         * should be drawn.
+         */
+        private final BitSet dividerPositions = new BitSet();
+
+        /**
+         * The data observer, which is used to update the positions of the dividers, when the
+         * adapter's data is changed.
+         */
+        private final RecyclerView.AdapterDataObserver dataObserver = createDataObserver();
+
+        /**
+         * An array, which contains the coordinates of the dividers, which are drawn within a
+         * frame. It is reused across frames.
+         */
+        private float[] lines = new float[0];
+
         /**
          * The height of a divider in pixels.
          */
@@ -78,6 +117,117 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
             }
         }
 
+        /**
+         * Updates the positions of the dividers for a specific range of adapter positions.
+         *
+         * @param positionStart
+         *         The first adapter position, which should be updated, as an {@link Integer} value
+         * @param itemCount
+         *         The number of adapter positions, which should be updated, as an {@link Integer}
+         *         value
+         */
+        @SuppressLint("RestrictedApi")
+        private void updateDividerPositions(final int positionStart, final int itemCount) {
+            int end = Math.min(positionStart + itemCount, adapter.getItemCount());
+
+            for (int i = Math.max(positionStart, 1); i < end; i++) {
+                dividerPositions.set(i, adapter.getItem(i) instanceof PreferenceGroup);
+            }
+        }
+
+        /**
+         * Rebuilds the positions of the dividers by checking all items of the adapter.
+         */
+        private void rebuildDividerPositions() {
+            dividerPositions.clear();
+
+            if (adapter != null) {
+                updateDividerPositions(0, adapter.getItemCount());
+            }
+        }
+
+        /**
+         * Shifts the positions of the dividers, starting at a specific adapter position.
+         *
+         * @param fromPosition
+         *         The first adapter position, which should be shifted, as an {@link Integer} value
+         * @param distance
+         *         The distance, the positions should be shifted by, as an {@link Integer} value.
+         *         Negative values shift the positions towards the start
+         */
+        private void shiftDividerPositions(final int fromPosition, final int distance) {
+            if (distance > 0) {
+                for (int i = dividerPositions.previousSetBit(dividerPositions.length() - 1);
+                     i >= fromPosition; i = dividerPositions.previousSetBit(i - 1)) {
+                    dividerPositions.clear(i);
+                    dividerPositions.set(i + distance);
+                }
+            } else if (distance < 0) {
+                dividerPositions.clear(Math.max(fromPosition + distance, 0), fromPosition);
+
+                for (int i = dividerPositions.nextSetBit(fromPosition); i >= 0;
+                     i = dividerPositions.nextSetBit(i + 1)) {
+                    dividerPositions.clear(i);
+                    dividerPositions.set(i + distance);
+                }
+            }
+        }
+
+        /**
+         * Creates and returns a data observer, which allows to update the positions of the
+         * dividers, when the adapter's data is changed.
+         *
+         * @return The data observer, which has been created, as an instance of the class {@link
+         * RecyclerView.AdapterDataObserver}. The data observer may not be null
+         */
+        @NonNull
+        private RecyclerView.AdapterDataObserver createDataObserver() {
+            return new RecyclerView.AdapterDataObserver() {
+
+                @Override
+                public void onChanged() {
+                    rebuildDividerPositions();
+                }
+
+                @Override
+                public void onItemRangeChanged(final int positionStart, final int itemCount) {
+                    updateDividerPositions(positionStart, itemCount);
+                }
+
+                @Override
+                public void onItemRangeChanged(final int positionStart, final int itemCount,
+                                               @Nullable final Object payload) {
+                    updateDividerPositions(positionStart, itemCount);
+                }
+
+                @Override
+                public void onItemRangeInserted(final int positionStart, final int itemCount) {
+                    shiftDividerPositions(positionStart, itemCount);
+                    updateDividerPositions(positionStart, itemCount);
+
+                    if (positionStart == 0) {
+                        updateDividerPositions(itemCount, 1);
+                    }
+                }
+
+                @Override
+                public void onItemRangeRemoved(final int positionStart, final int itemCount) {
+                    shiftDividerPositions(positionStart + itemCount, -itemCount);
+
+                    if (positionStart == 0) {
+                        dividerPositions.clear(0);
+                    }
+                }
+
+                @Override
+                public void onItemRangeMoved(final int fromPosition, final int toPosition,
+                                             final int itemCount) {
+                    rebuildDividerPositions();
+                }
+
+            };
+        }
+
         /**
          * Returns, whether a divider should be drawn above a view, or not.
          *
@@ -91,29 +241,52 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
          */
         private boolean shouldDrawDividerAbove(@NonNull final View view,
                                                @NonNull final RecyclerView recyclerView) {
-            RecyclerView.ViewHolder viewHolder = recyclerView.getChildViewHolder(view);
-            int position = viewHolder.getAdapterPosition();
-
-            if (position > 0) {
-                @SuppressLint("RestrictedApi") Preference preference = adapter.getItem(position);
-                return preference instanceof PreferenceGroup;
-            }
+            int position = recyclerView.getChildAdapterPosition(view);
+            return position > 0 && dividerPositions.get(position);
+        }
 
-            return false;
+        /**
+         * Sets the adapter, whose items should be decorated.
+         *
+         * @param adapter
+         *         The adapter, which should be set, as an instance of the class {@link
+         *         PreferenceAdapter}. The adapter may not be null
+         */
+        public void setAdapter(@NonNull final PreferenceAdapter adapter) {
+            adapter.registerAdapterDataObserver(dataObserver);
+            rebuildDividerPositions();
         }
 
         @Override
         public void onDrawOver(final Canvas canvas, final RecyclerView parent,
                                final RecyclerView.State state) {
-            paint.setColor(dividerColor);
-            int parentWidth = parent.getWidth();
+            if (dividerHeight > 0 && !dividerPositions.isEmpty()) {
+                int childCount = parent.getChildCount();
+                int parentWidth = parent.getWidth();
+                int lineCount = 0;
+
+                if (lines.length < childCount * 4) {
+                    lines = new float[childCount * 4];
+                }
 
-            for (int i = 0; i < parent.getChildCount(); i++) {
-                View view = parent.getChildAt(i);
+                for (int i = 0; i < childCount; i++) {
+                    View view = parent.getChildAt(i);
+
+                    if (shouldDrawDividerAbove(view, parent)) {
+                        float y = view.getY() + dividerHeight / 2f;
+                        int offset = lineCount * 4;
+                        lines[offset] = 0;
+                        lines[offset + 1] = y;
+                        lines[offset + 2] = parentWidth;
+                        lines[offset + 3] = y;
+                        lineCount++;
+                    }
+                }
 
-                if (shouldDrawDividerAbove(view, parent)) {
-                    float top = view.getY();
-                    canvas.drawRect(0, top, parentWidth, top + dividerHeight, paint);
+                if (lineCount > 0) {
+                    paint.setColor(dividerColor);
+                    paint.setStrokeWidth(dividerHeight);
+                    canvas.drawLines(lines, 0, lineCount * 4, paint);
                 }
             }
         }
@@ -170,6 +343,45 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
 
     }
 
+    /**
+     * A preference hierarchy, which is inflated from a XML resource on a background thread.
+     */
+    private static final class PendingInflation {
+
+        /**
+         * The preference screen, which has been inflated, or null, if the inflation has not been
+         * finished yet or failed.
+         */
+        private PreferenceScreen preferenceScreen;
+
+        /**
+         * The exception, which has been thrown while inflating the preference hierarchy, or null,
+         * if no exception has been thrown.
+         */
+        private RuntimeException error;
+
+        /**
+         * True, if the inflation has been finished, false otherwise.
+         */
+        private boolean finished;
+
+    }
+
+    /**
+     * When attaching this fragment to an activity, the passed bundle can contain this extra string
+     * to specify the name of the shared preferences, which should be used to persist the values of
+     * the fragment's preferences instead of the default shared preferences. The extra is ignored,
+     * if a PreferenceDataStore is used.
+     */
+    public static final String EXTRA_SHARED_PREFERENCES_NAME =
+            "extra_prefs_shared_preferences_name";
+
+    /**
+     * The key, which is used by the class PreferenceFragmentCompat to store the state of the
+     * preference hierarchy within a bundle.
+     */
+    private static final String PREFERENCES_STATE_EXTRA = "android:preferences";
+
     /**
      * The item decoration, which is used to draw dividers above preference categories.
      */
@@ -180,6 +392,48 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
      */
     private PreferenceAdapter adapter;
 
+    /**
+     * True, if the adapter, which is used to manage the fragment's preferences, should use stable
+     * IDs, false otherwise.
+     */
+    private boolean useStableIds;
+
+    /**
+     * True, if preference hierarchies, which are added from XML resources, should be inflated
+     * from a compiled representation, false otherwise.
+     */
+    private boolean useCompiledPreferences;
+
+    /**
+     * The data store, which should be used to persist the values of the fragment's preferences,
+     * or null, if the values should be persisted in the default shared preferences.
+     */
+    private PreferenceDataStore preferenceDataStore;
+
+    /**
+     * The pool, which is shared with the lists of other fragments, or null, if the fragment's list
+     * does not share its views.
+     */
+    private PreferenceViewPool viewPool;
+
+    /**
+     * A list, which contains the preference hierarchies, which are currently inflated on a
+     * background thread, in the order they have been requested.
+     */
+    private final List<PendingInflation> pendingInflations = new ArrayList<>();
+
+    /**
+     * The saved state of the preference hierarchy, which is restored, once all preference
+     * hierarchies, which are inflated on a background thread, have been attached.
+     */
+    private Bundle pendingPreferencesState;
+
+    /**
+     * The view, which is shown instead of the fragment's preferences, while preference
+     * hierarchies are inflated on a background thread.
+     */
+    private View loadingPlaceholder;
+
     /**
      * Obtains all relevant attributes from the activity's current theme.
      */
@@ -192,17 +446,194 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
      * activity's theme.
      */
     private void obtainDividerDecoration() {
-        int dividerColor;
+        int dividerColor = ThemeAppearance.obtain(getActivity()).getDividerColor();
+        this.dividerDecoration.setDividerColor(dividerColor);
+        this.dividerDecoration.setDividerHeight(DisplayUtil.dpToPixels(getActivity(), 1));
+    }
+
+    /**
+     * Attaches the preference hierarchies, which have been inflated on a background thread, in the
+     * order they have been requested. A hierarchy is only attached, once all hierarchies, which
+     * have been requested before, have been attached.
+     */
+    private void attachPendingInflations() {
+        while (!pendingInflations.isEmpty() && pendingInflations.get(0).finished) {
+            PendingInflation pendingInflation = pendingInflations.remove(0);
 
-        try {
-            dividerColor = ThemeUtil.getColor(getActivity(), R.attr.dividerColor);
-        } catch (NotFoundException e) {
-            dividerColor =
-                    ContextCompat.getColor(getActivity(), R.color.preference_divider_color_light);
+            if (pendingInflation.error != null) {
+                throw pendingInflation.error;
+            }
+
+            attachPreferences(pendingInflation.preferenceScreen);
         }
 
-        this.dividerDecoration.setDividerColor(dividerColor);
-        this.dividerDecoration.setDividerHeight(DisplayUtil.dpToPixels(getActivity(), 1));
+        if (pendingInflations.isEmpty()) {
+            PreferenceScreen preferenceScreen = getPreferenceScreen();
+
+            if (pendingPreferencesState != null && preferenceScreen != null) {
+                preferenceScreen.restoreHierarchyState(pendingPreferencesState);
+            }
+
+            pendingPreferencesState = null;
+            adaptLoadingPlaceholder();
+        }
+    }
+
+    /**
+     * Attaches the preferences, which are contained by a specific preference screen, which has
+     * been inflated on a background thread, to the fragment's preference manager and adds them to
+     * the fragment's current preference screen. If the fragment does not have a preference screen
+     * yet, a new one is created.
+     *
+     * @param inflatedPreferenceScreen
+     *         The preference screen, whose preferences should be attached, as an instance of the
+     *         class PreferenceScreen. The preference screen may not be null
+     */
+    private void attachPreferences(@NonNull final PreferenceScreen inflatedPreferenceScreen) {
+        setPreferenceScreen(CompiledPreferenceInflater
+                .attach(getPreferenceManager(), inflatedPreferenceScreen, getPreferenceScreen()));
+    }
+
+    /**
+     * Sets the data store, which should be used to persist the values of the fragment's
+     * preferences, to the fragment's preference manager, if it has been created yet.
+     */
+    private void applyPreferenceDataStore() {
+        PreferenceManager preferenceManager = getPreferenceManager();
+
+        if (preferenceDataStore != null && preferenceManager != null &&
+                preferenceManager.getPreferenceDataStore() != preferenceDataStore) {
+            preferenceManager.setPreferenceDataStore(preferenceDataStore);
+        }
+    }
+
+    /**
+     * Sets the name of the shared preferences, which has been passed to the fragment using the
+     * extra {@link #EXTRA_SHARED_PREFERENCES_NAME}, to the fragment's preference manager, if it
+     * has been created yet. As the shared preferences are not loaded before they are accessed for
+     * the first time, they are loaded lazily, when the fragment's preferences are created.
+     */
+    private void applySharedPreferencesName() {
+        PreferenceManager preferenceManager = getPreferenceManager();
+        Bundle arguments = getArguments();
+        String sharedPreferencesName =
+                arguments != null ? arguments.getString(EXTRA_SHARED_PREFERENCES_NAME) : null;
+
+        if (!TextUtils.isEmpty(sharedPreferencesName) && preferenceManager != null &&
+                !sharedPreferencesName.equals(preferenceManager.getSharedPreferencesName())) {
+            preferenceManager.setSharedPreferencesName(sharedPreferencesName);
+        }
+    }
+
+    /**
+     * Shows or hides the placeholder, which is shown instead of the fragment's preferences, while
+     * preference hierarchies are inflated on a background thread.
+     */
+    private void adaptLoadingPlaceholder() {
+        if (loadingPlaceholder != null) {
+            loadingPlaceholder
+                    .setVisibility(pendingInflations.isEmpty() ? View.GONE : View.VISIBLE);
+        }
+    }
+
+    /**
+     * Inflates a preference hierarchy from a specific XML resource on a background thread and adds
+     * it to the fragment's current preference hierarchy, once it has been inflated. As long as the
+     * inflation is in progress, a progress indicator is shown instead of the fragment's
+     * preferences. If this method is called multiple times, the hierarchies are attached in the
+     * order, the method has been called. The adapter, which is used to manage the fragment's
+     * preferences, is not created before the first hierarchy has been attached.
+     *
+     * @param resourceId
+     *         The resource id of the XML resource, which should be inflated, as an {@link Integer}
+     *         value. The resource id must correspond to a valid XML resource
+     * @param executor
+     *         The executor, which should be used to inflate the preference hierarchy, as an
+     *         instance of the type {@link Executor}. The executor may not be null
+     */
+    public final void addPreferencesFromResourceAsync(@XmlRes final int resourceId,
+                                                      @NonNull final Executor executor) {
+        Condition.INSTANCE.ensureNotNull(executor, "The executor may not be null");
+        applySharedPreferencesName();
+        applyPreferenceDataStore();
+        PreferenceManager preferenceManager = getPreferenceManager();
+        final Context context = preferenceManager.getContext();
+        final SharedPreferences sharedPreferences =
+                preferenceManager.getPreferenceDataStore() == null ?
+                        preferenceManager.getSharedPreferences() : null;
+        final Handler handler = new Handler(Looper.getMainLooper());
+        final PendingInflation pendingInflation = new PendingInflation();
+        pendingInflations.add(pendingInflation);
+        adaptLoadingPlaceholder();
+        executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                PreferenceScreen preferenceScreen = null;
+                RuntimeException error = null;
+
+                try {
+                    preferenceScreen = CompiledPreferenceInflater
+                            .inflateDetached(context, resourceId, useCompiledPreferences,
+                                    sharedPreferences);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+
+                final PreferenceScreen inflatedPreferenceScreen = preferenceScreen;
+                final RuntimeException inflationError = error;
+                handler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (pendingInflations.contains(pendingInflation)) {
+                            pendingInflation.preferenceScreen = inflatedPreferenceScreen;
+                            pendingInflation.error = inflationError;
+                            pendingInflation.finished = true;
+                            attachPendingInflations();
+                        }
+                    }
+
+                });
+            }
+
+        });
+    }
+
+    /**
+     * Inflates a preference hierarchy from a specific XML resource and adds it to the fragment's
+     * current preference hierarchy. If compiled preferences are used, the hierarchy is created
+     * from a compiled representation of the XML resource, which is created, when the resource is
+     * inflated for the first time.
+     *
+     * @param resourceId
+     *         The resource id of the XML resource, which should be inflated, as an {@link Integer}
+     *         value. The resource id must correspond to a valid XML resource
+     */
+    @Override
+    public void addPreferencesFromResource(@XmlRes final int resourceId) {
+        applySharedPreferencesName();
+        applyPreferenceDataStore();
+
+        if (useCompiledPreferences) {
+            PreferenceManager preferenceManager = getPreferenceManager();
+            setPreferenceScreen(CompiledPreferenceInflater
+                    .inflate(preferenceManager, preferenceManager.getContext(), resourceId,
+                            getPreferenceScreen()));
+        } else {
+            super.addPreferencesFromResource(resourceId);
+        }
+    }
+
+    /**
+     * Returns, whether preference hierarchies are currently inflated on a background thread, or
+     * not.
+     *
+     * @return True, if preference hierarchies are currently inflated on a background thread,
+     * false otherwise
+     */
+    public final boolean isInflatingPreferences() {
+        return !pendingInflations.isEmpty();
     }
 
     /**
@@ -226,6 +657,117 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
         this.dividerDecoration.setDividerColor(color);
     }
 
+    /**
+     * Sets, whether the adapter, which is used to manage the fragment's preferences, should use
+     * stable IDs, or not. If stable IDs are used, preferences are identified by their keys, which
+     * allows to reuse and only partially update the views of preferences, when the preference
+     * hierarchy is changed. This method must be called before the fragment's preferences are
+     * shown, e.g. in the fragment's <code>onCreate</code>-method.
+     *
+     * @param useStableIds
+     *         True, if stable IDs should be used, false otherwise
+     */
+    public final void useStableIds(final boolean useStableIds) {
+        Condition.INSTANCE.ensureTrue(adapter == null,
+                "Stable IDs must be enabled or disabled before the adapter has been created",
+                IllegalStateException.class);
+        this.useStableIds = useStableIds;
+    }
+
+    /**
+     * Returns, whether the adapter, which is used to manage the fragment's preferences, uses
+     * stable IDs, or not.
+     *
+     * @return True, if stable IDs are used, false otherwise
+     */
+    public final boolean areStableIdsUsed() {
+        return useStableIds;
+    }
+
+    /**
+     * Sets, whether preference hierarchies, which are added from XML resources, should be inflated
+     * from a compiled representation, or not. If enabled, each XML resource is compiled into a
+     * compact representation, when it is inflated for the first time. Subsequent inflations, e.g.
+     * when the fragment is shown again, do not parse the XML resource anymore. XML resources,
+     * which contain custom preferences or unsupported attributes, are inflated as usual. As the
+     * fragment's preferences are usually added in the method <code>onCreatePreferences</code>,
+     * this method should be called before the super implementation of the fragment's
+     * <code>onCreate</code>-method is invoked.
+     *
+     * @param useCompiledPreferences
+     *         True, if compiled preferences should be used, false otherwise
+     */
+    public final void useCompiledPreferences(final boolean useCompiledPreferences) {
+        this.useCompiledPreferences = useCompiledPreferences;
+    }
+
+    /**
+     * Sets the data store, which should be used to persist the values of the fragment's
+     * preferences. The data store is set to the fragment's preference manager, before preference
+     * hierarchies are inflated from XML resources. As the fragment's preferences are usually added
+     * in the method <code>onCreatePreferences</code>, this method should be called before the
+     * super implementation of the fragment's <code>onCreate</code>-method is invoked. If an {@link
+     * EditableDataStore} is used, its pending changes are written, when the fragment is paused.
+     * Any other data store does not allow to remove values. Therefore, restoring the default
+     * values of a {@link de.mrapp.android.preference.activity.PreferenceFragment} leaves the
+     * values of preferences, which do not provide a default value, unchanged in such case.
+     *
+     * @param preferenceDataStore
+     *         The data store, which should be set, as an instance of the class PreferenceDataStore
+     *         or null, if the values should be persisted in the default shared preferences
+     */
+    public final void setPreferenceDataStore(
+            @Nullable final PreferenceDataStore preferenceDataStore) {
+        this.preferenceDataStore = preferenceDataStore;
+        applyPreferenceDataStore();
+    }
+
+    /**
+     * Returns the data store, which is used to persist the values of the fragment's preferences.
+     *
+     * @return The data store, which is used to persist the values of the fragment's preferences,
+     * as an instance of the class PreferenceDataStore or null, if the values are persisted in the
+     * default shared preferences
+     */
+    @Nullable
+    public final PreferenceDataStore getPreferenceDataStore() {
+        return preferenceDataStore;
+    }
+
+    /**
+     * Returns, whether preference hierarchies, which are added from XML resources, are inflated
+     * from a compiled representation, or not.
+     *
+     * @return True, if compiled preferences are used, false otherwise
+     */
+    public final boolean areCompiledPreferencesUsed() {
+        return useCompiledPreferences;
+    }
+
+    /**
+     * Sets the pool, which should be shared with the lists of other fragments, in order to reuse
+     * the views of preferences across fragments. As the pool determines the view types of the
+     * fragment's adapter, it is only used, if it has been set before the adapter is created.
+     *
+     * @param viewPool
+     *         The pool, which should be set, as an instance of the class {@link
+     *         PreferenceViewPool} or null, if the fragment's list should not share its views
+     */
+    public final void setViewPool(@Nullable final PreferenceViewPool viewPool) {
+        this.viewPool = viewPool;
+    }
+
+    /**
+     * Returns the pool, which is shared with the lists of other fragments.
+     *
+     * @return The pool, which is shared with the lists of other fragments, as an instance of the
+     * class {@link PreferenceViewPool} or null, if the fragment's list does not share its views
+     */
+    @Nullable
+    public final PreferenceViewPool getViewPool() {
+        return viewPool;
+    }
+
     /**
      * The method, which is invoked in order to create the adapter, which is used to manage the
      * fragment's preferences. This method may be overridden by subclasses in order to use custom
@@ -244,11 +786,45 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
         return new PreferenceAdapter(preferenceScreen);
     }
 
+    /**
+     * Returns the adapter, which is used to manage the fragment's preferences.
+     *
+     * @return The adapter, which is used to manage the fragment's preferences, as an instance of
+     * the class {@link PreferenceAdapter} or null, if the adapter has not been created yet
+     */
+    @Nullable
+    protected final PreferenceAdapter getPreferenceAdapter() {
+        return adapter;
+    }
+
     @CallSuper
     @Override
     public void onCreate(final Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         obtainStyledAttributes();
+        pendingPreferencesState = savedInstanceState != null ?
+                savedInstanceState.getBundle(PREFERENCES_STATE_EXTRA) : null;
+    }
+
+    @CallSuper
+    @Override
+    public void onStart() {
+        super.onStart();
+
+        if (pendingInflations.isEmpty()) {
+            pendingPreferencesState = null;
+        }
+    }
+
+    @CallSuper
+    @Override
+    public void onPause() {
+        super.onPause();
+        PreferenceDataStore dataStore = getPreferenceManager().getPreferenceDataStore();
+
+        if (dataStore instanceof EditableDataStore) {
+            ((EditableDataStore) dataStore).flush();
+        }
     }
 
     @CallSuper
@@ -264,15 +840,58 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragmentCompa
         }
 
         recyclerView.addItemDecoration(dividerDecoration);
+
+        if (viewPool != null && (adapter == null || adapter.getViewPool() == viewPool)) {
+            recyclerView.setRecycledViewPool(viewPool);
+            RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+
+            if (layoutManager instanceof LinearLayoutManager) {
+                ((LinearLayoutManager) layoutManager).setRecycleChildrenOnDetach(true);
+            }
+        }
+
+        View listContainer = view.findViewById(AndroidResources.ANDROID_R_LIST_CONTAINER);
+
+        if (listContainer instanceof FrameLayout) {
+            loadingPlaceholder = inflater.inflate(R.layout.preference_loading_placeholder,
+                    (FrameLayout) listContainer, false);
+            ((FrameLayout) listContainer).addView(loadingPlaceholder);
+            adaptLoadingPlaceholder();
+        }
+
         return view;
     }
 
+    @CallSuper
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        loadingPlaceholder = null;
+    }
+
+    @CallSuper
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        pendingInflations.clear();
+    }
+
     @NonNull
     @Override
     protected final RecyclerView.Adapter<?> onCreateAdapter(
             final PreferenceScreen preferenceScreen) {
         if (adapter == null) {
+            PreferenceManager preferenceManager = getPreferenceManager();
+
+            if (useStableIds && preferenceManager.getPreferenceComparisonCallback() == null) {
+                preferenceManager
+                        .setPreferenceComparisonCallback(new StablePreferenceComparisonCallback());
+            }
+
             adapter = onCreatePreferenceAdapter(preferenceScreen);
+            adapter.useStableIds(useStableIds);
+            adapter.setViewPool(viewPool);
+            dividerDecoration.setAdapter(adapter);
         }
 
         return adapter;
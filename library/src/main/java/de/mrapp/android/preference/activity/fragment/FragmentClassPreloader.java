@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.fragment;
+
+import android.os.Process;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import de.mrapp.util.Condition;
+
+/**
+ * Preloads the classes of fragments on low-priority background threads, in order to avoid loading,
+ * linking and initializing them on the main thread, when a fragment is shown for the first time.
+ * The classes are preloaded by using a {@link ReflectiveFragmentFactory}, which memoizes the
+ * fragments' constructors, as well as the class names, which do not correspond to a fragment.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class FragmentClassPreloader {
+
+    /**
+     * The number of seconds, an idle thread is kept alive, before it is terminated.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 1;
+
+    /**
+     * The factory, which is used to preload the classes.
+     */
+    private final ReflectiveFragmentFactory fragmentFactory;
+
+    /**
+     * The executor, which is used to preload the classes.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * True, if the preloading has been cancelled, false otherwise.
+     */
+    private final AtomicBoolean cancelled;
+
+    /**
+     * Creates and returns a factory, which creates low-priority daemon threads.
+     *
+     * @return The factory, which has been created, as an instance of the type {@link
+     * ThreadFactory}. The factory may not be null
+     */
+    @NonNull
+    private static ThreadFactory createThreadFactory() {
+        return new ThreadFactory() {
+
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NonNull final Runnable runnable) {
+                Thread thread = new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+                        runnable.run();
+                    }
+
+                }, FragmentClassPreloader.class.getSimpleName() + " #" +
+                        threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        };
+    }
+
+    /**
+     * Creates a new preloader, which preloads the classes of fragments on low-priority background
+     * threads.
+     *
+     * @param fragmentFactory
+     *         The factory, which should be used to preload the classes, as an instance of the
+     *         class {@link ReflectiveFragmentFactory}. The factory may not be null
+     * @param maxConcurrency
+     *         The maximum number of classes, which should be preloaded concurrently, as an {@link
+     *         Integer} value. The number must be at least 1
+     */
+    public FragmentClassPreloader(@NonNull final ReflectiveFragmentFactory fragmentFactory,
+                                  final int maxConcurrency) {
+        Condition.INSTANCE.ensureNotNull(fragmentFactory, "The fragment factory may not be null");
+        Condition.INSTANCE
+                .ensureAtLeast(maxConcurrency, 1, "The maximum concurrency must be at least 1");
+        this.fragmentFactory = fragmentFactory;
+        this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), createThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.cancelled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Preloads the classes of the fragments, which correspond to specific class names. Duplicate
+     * class names are only preloaded once. If the preloading has been cancelled, this method does
+     * not have any effect.
+     *
+     * @param classNames
+     *         A collection, which contains the fully classified class names of the fragments, whose
+     *         classes should be preloaded, as an instance of the type {@link Collection}. The
+     *         collection may not be null
+     */
+    public final void preload(@NonNull final Collection<String> classNames) {
+        Condition.INSTANCE.ensureNotNull(classNames, "The collection may not be null");
+        Set<String> uniqueClassNames = new LinkedHashSet<>(classNames);
+
+        for (final String className : uniqueClassNames) {
+            if (cancelled.get()) {
+                return;
+            }
+
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (!cancelled.get()) {
+                        fragmentFactory.preload(className);
+                    }
+                }
+
+            });
+        }
+    }
+
+    /**
+     * Cancels the preloading. Classes, which are currently loaded, are loaded completely, but no
+     * further classes are loaded.
+     */
+    public final void cancel() {
+        cancelled.set(true);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns, whether the preloading has been cancelled, or not.
+     *
+     * @return True, if the preloading has been cancelled, false otherwise
+     */
+    public final boolean isCancelled() {
+        return cancelled.get();
+    }
+
+}
@@ -255,6 +255,37 @@ public class NavigationFragment extends AbstractPreferenceFragment
         return isAdapterCreated() ? adapter.getNavigationPreference(index) : null;
     }
 
+    /**
+     * Returns the index of a specific navigation preference among all navigation preferences, which
+     * are contained by the navigation.
+     *
+     * @param navigationPreference
+     *         The navigation preference, whose index should be returned, as an instance of the
+     *         class {@link NavigationPreference}. The navigation preference may not be null
+     * @return The index of the given navigation preference as an {@link Integer} value or -1, if
+     * the navigation preference is not contained by the navigation or if the adapter, which
+     * contains the navigation preferences, has not been initialized yet
+     */
+    public final int indexOfNavigationPreference(
+            @NonNull final NavigationPreference navigationPreference) {
+        return isAdapterCreated() ? adapter.indexOfNavigationPreference(navigationPreference) : -1;
+    }
+
+    /**
+     * Returns the index of the first navigation preference, which is associated with a specific
+     * fragment, among all navigation preferences, which are contained by the navigation.
+     *
+     * @param fragment
+     *         The fully classified class name of the fragment as a {@link String} or null
+     * @return The index of the first navigation preference, which is associated with the given
+     * fragment, as an {@link Integer} value or -1, if no such navigation preference is contained by
+     * the navigation or if the adapter, which contains the navigation preferences, has not been
+     * initialized yet
+     */
+    public final int indexOfFragment(@Nullable final String fragment) {
+        return isAdapterCreated() ? adapter.indexOfFragment(fragment) : -1;
+    }
+
     /**
      * Returns the currently selected navigation preference.
      *
@@ -325,6 +356,17 @@ public class NavigationFragment extends AbstractPreferenceFragment
         }
     }
 
+    /**
+     * Returns, whether the navigation preference, which is currently being selected, has been
+     * clicked by the user, or whether it is selected programmatically. This method is intended to
+     * be called by the callback of the adapter, while it is notified about a selection.
+     *
+     * @return True, if the navigation preference has been clicked by the user, false otherwise
+     */
+    public final boolean isSelectionByUser() {
+        return isAdapterCreated() && adapter.isSelectionByUser();
+    }
+
     /**
      * Returns, whether the adapter, which contains the navigation preferences, has been created
      * yet, or not.
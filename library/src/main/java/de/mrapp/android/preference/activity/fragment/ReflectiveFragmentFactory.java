@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.fragment;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import de.mrapp.android.preference.activity.core.FragmentFactory;
+import de.mrapp.util.Condition;
+
+/**
+ * A {@link FragmentFactory}, which creates fragments using reflection. The constructors of the
+ * fragments' classes are memoized by the factory, in order to avoid loading the classes and
+ * looking up their constructors each time a fragment is created. It is used as a fallback for
+ * fragments, which are not known to a generated factory. In addition, it allows to preload the
+ * classes of fragments in advance.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public class ReflectiveFragmentFactory implements FragmentFactory<Fragment> {
+
+    /**
+     * The class loader, which is used to load the fragments' classes.
+     */
+    private final ClassLoader classLoader;
+
+    /**
+     * A map, which contains the memoized constructors of fragments, mapped to the fully
+     * classified class names of the fragments. As a class name may correspond to different
+     * classes, depending on the class loader, which is used to load it, the map is not shared
+     * between factories.
+     */
+    private final Map<String, Constructor<? extends Fragment>> constructors;
+
+    /**
+     * A set, which contains the class names, which have been found not to correspond to a
+     * fragment, which can be created, when preloading classes.
+     */
+    private final Set<String> invalidClassNames;
+
+    /**
+     * Returns the constructor of the fragment, which corresponds to a specific class name.
+     *
+     * @param className
+     *         The fully classified class name of the fragment as a {@link String}. The class name
+     *         may not be null
+     * @param initialize
+     *         True, if the class should be initialized, if it has not been initialized yet, false
+     *         otherwise
+     * @return The constructor of the fragment as an instance of the class {@link Constructor}.
+     * The constructor may not be null
+     * @throws ClassNotFoundException
+     *         The exception, which is thrown, if the class cannot be found
+     * @throws NoSuchMethodException
+     *         The exception, which is thrown, if the class does not provide a public constructor
+     *         without parameters
+     */
+    @NonNull
+    private Constructor<? extends Fragment> getConstructor(@NonNull final String className,
+                                                           final boolean initialize)
+            throws ClassNotFoundException, NoSuchMethodException {
+        Constructor<? extends Fragment> constructor = constructors.get(className);
+
+        if (constructor == null) {
+            constructor = Class.forName(className, initialize, classLoader)
+                    .asSubclass(Fragment.class).getConstructor();
+            constructors.put(className, constructor);
+        }
+
+        return constructor;
+    }
+
+    /**
+     * Creates a new factory, which creates fragments using reflection.
+     *
+     * @param classLoader
+     *         The class loader, which should be used to load the fragments' classes, as an
+     *         instance of the class {@link ClassLoader}. The class loader may not be null
+     */
+    public ReflectiveFragmentFactory(@NonNull final ClassLoader classLoader) {
+        Condition.INSTANCE.ensureNotNull(classLoader, "The class loader may not be null");
+        this.classLoader = classLoader;
+        this.constructors = new ConcurrentHashMap<>();
+        this.invalidClassNames =
+                Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+
+    @NonNull
+    @Override
+    public final Fragment instantiate(@NonNull final String className) {
+        Condition.INSTANCE.ensureNotNull(className, "The class name may not be null");
+
+        try {
+            return getConstructor(className, false).newInstance();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new Fragment.InstantiationException("Unable to instantiate fragment " +
+                    className + ": make sure class name exists, is public, and is a fragment", e);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new Fragment.InstantiationException("Unable to instantiate fragment " +
+                    className + ": could not find a public constructor without parameters", e);
+        } catch (InstantiationException e) {
+            throw new Fragment.InstantiationException("Unable to instantiate fragment " +
+                    className + ": make sure class name exists, is public, and has an empty " +
+                    "constructor that is public", e);
+        } catch (InvocationTargetException e) {
+            throw new Fragment.InstantiationException("Unable to instantiate fragment " +
+                    className + ": calling the constructor caused an exception", e);
+        }
+    }
+
+    /**
+     * Loads, links and initializes the class of the fragment, which corresponds to a specific
+     * class name, and looks up its constructor, in order to avoid doing so, when the fragment is
+     * created for the first time. If the class name does not correspond to a fragment, which can be
+     * created, this is remembered and subsequent calls return immediately.
+     *
+     * @param className
+     *         The fully classified class name of the fragment as a {@link String}. The class name
+     *         may not be null
+     * @return True, if the class has been preloaded, false, if the class name does not correspond
+     * to a fragment, which can be created
+     */
+    public final boolean preload(@NonNull final String className) {
+        Condition.INSTANCE.ensureNotNull(className, "The class name may not be null");
+
+        if (invalidClassNames.contains(className)) {
+            return false;
+        }
+
+        try {
+            getConstructor(className, true);
+            return true;
+        } catch (ClassNotFoundException | NoSuchMethodException | ClassCastException |
+                LinkageError e) {
+            invalidClassNames.add(className);
+            return false;
+        }
+    }
+
+}
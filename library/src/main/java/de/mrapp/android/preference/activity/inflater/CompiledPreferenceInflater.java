@@ -0,0 +1,342 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.inflater;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Configuration;
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.XmlRes;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import de.mrapp.android.preference.activity.datastore.BufferedSharedPreferences;
+import de.mrapp.util.Condition;
+
+/**
+ * Inflates preference hierarchies from XML resources by compiling them into a compact
+ * representation the first time they are inflated. Subsequent inflations create the preferences
+ * directly from the compiled representation, without parsing the XML resource, resolving the
+ * classes of its elements by name or obtaining styled attributes from attribute sets. Compiled
+ * hierarchies are cached for the lifetime of the process and are compiled again, if the
+ * configuration changes. Hierarchies, which cannot be compiled, e.g. because they contain custom
+ * preferences or unsupported attributes, are inflated using the method
+ * <code>PreferenceManager#inflateFromResource</code>.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+public final class CompiledPreferenceInflater {
+
+    /**
+     * A compiled preference hierarchy, which is contained by the cache.
+     */
+    private static final class CacheEntry {
+
+        /**
+         * The configuration, the hierarchy has been compiled for.
+         */
+        private final Configuration configuration;
+
+        /**
+         * The compiled hierarchy or null, if the hierarchy cannot be compiled.
+         */
+        private final CompiledPreferenceScreen compiledPreferenceScreen;
+
+        /**
+         * Creates a new compiled preference hierarchy, which is contained by the cache.
+         *
+         * @param configuration
+         *         The configuration, the hierarchy has been compiled for, as an instance of the
+         *         class {@link Configuration}. The configuration may not be null
+         * @param compiledPreferenceScreen
+         *         The compiled hierarchy as an instance of the class {@link
+         *         CompiledPreferenceScreen} or null, if the hierarchy cannot be compiled
+         */
+        CacheEntry(@NonNull final Configuration configuration,
+                   @Nullable final CompiledPreferenceScreen compiledPreferenceScreen) {
+            this.configuration = configuration;
+            this.compiledPreferenceScreen = compiledPreferenceScreen;
+        }
+
+    }
+
+    /**
+     * A sparse array, which contains the compiled preference hierarchies, mapped to the resource
+     * ids of the XML resources, they have been compiled from.
+     */
+    private static final SparseArray<CacheEntry> CACHE = new SparseArray<>();
+
+    /**
+     * Creates a new inflater. This constructor should not be used, as this class only provides
+     * static methods.
+     */
+    private CompiledPreferenceInflater() {
+
+    }
+
+    /**
+     * Returns the compiled preference hierarchy, which corresponds to a specific XML resource. If
+     * the resource has not been compiled for the current configuration yet, it is compiled.
+     *
+     * @param context
+     *         The context, which should be used to load the XML resource, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @param resourceId
+     *         The resource id of the XML resource as an {@link Integer} value. The resource id
+     *         must correspond to a valid XML resource
+     * @return The compiled preference hierarchy as an instance of the class {@link
+     * CompiledPreferenceScreen} or null, if the hierarchy cannot be compiled
+     */
+    @Nullable
+    private static CompiledPreferenceScreen obtain(@NonNull final Context context,
+                                                   @XmlRes final int resourceId) {
+        Configuration configuration = context.getResources().getConfiguration();
+
+        synchronized (CACHE) {
+            CacheEntry cacheEntry = CACHE.get(resourceId);
+
+            if (cacheEntry == null || cacheEntry.configuration.diff(configuration) != 0) {
+                cacheEntry = new CacheEntry(new Configuration(configuration),
+                        PreferenceScreenCompiler.compile(context, resourceId));
+                CACHE.put(resourceId, cacheEntry);
+            }
+
+            return cacheEntry.compiledPreferenceScreen;
+        }
+    }
+
+    /**
+     * Removes all preferences from a specific preference group.
+     *
+     * @param preferenceGroup
+     *         The preference group, whose preferences should be removed, as an instance of the
+     *         class PreferenceGroup. The preference group may not be null
+     * @return A list, which contains the preferences, which have been removed, in the order they
+     * have been contained by the preference group, as an instance of the type {@link List}. The
+     * list may not be null
+     */
+    @NonNull
+    private static List<Preference> removePreferences(
+            @NonNull final PreferenceGroup preferenceGroup) {
+        List<Preference> preferences = new ArrayList<>(preferenceGroup.getPreferenceCount());
+
+        for (int i = 0; i < preferenceGroup.getPreferenceCount(); i++) {
+            preferences.add(preferenceGroup.getPreference(i));
+        }
+
+        preferenceGroup.removeAll();
+        return preferences;
+    }
+
+    /**
+     * Adds specific preferences, which have been removed from a detached preference hierarchy, to
+     * a preference group. As a preference group only attaches its direct children to its
+     * preference manager, the preferences, which are contained by nested groups, are removed
+     * before and added again after the group has been added.
+     *
+     * @param preferences
+     *         A list, which contains the preferences, which should be added, as an instance of the
+     *         type {@link List}. The list may not be null
+     * @param preferenceGroup
+     *         The preference group, the preferences should be added to, as an instance of the
+     *         class PreferenceGroup. The preference group may not be null
+     */
+    private static void addPreferences(@NonNull final List<Preference> preferences,
+                                       @NonNull final PreferenceGroup preferenceGroup) {
+        for (Preference preference : preferences) {
+            List<Preference> children = preference instanceof PreferenceGroup ?
+                    removePreferences((PreferenceGroup) preference) : null;
+            preferenceGroup.addPreference(preference);
+
+            if (children != null) {
+                addPreferences(children, (PreferenceGroup) preference);
+            }
+        }
+    }
+
+    /**
+     * Compiles the preference hierarchy, which is defined by a specific XML resource, for the
+     * current configuration, if it has not been compiled yet. This method may be called on a
+     * background thread in order to avoid compiling the hierarchy, when it is inflated for the
+     * first time.
+     *
+     * @param context
+     *         The context, which should be used to load the XML resource, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @param resourceId
+     *         The resource id of the XML resource, which should be compiled, as an {@link Integer}
+     *         value. The resource id must correspond to a valid XML resource
+     * @return True, if the hierarchy has been compiled, false, if it cannot be compiled and is
+     * therefore inflated from XML
+     */
+    public static boolean compile(@NonNull final Context context, @XmlRes final int resourceId) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        return obtain(context, resourceId) != null;
+    }
+
+    /**
+     * Inflates the preference hierarchy, which is defined by a specific XML resource. Like the
+     * method <code>PreferenceManager#inflateFromResource</code>, the default values of the
+     * inflated preferences are written in a single batch. For this purpose, a compiled hierarchy
+     * is inflated using the method {@link #inflateDetached(Context, int, boolean,
+     * SharedPreferences)} and attached using the method {@link #attach(PreferenceManager,
+     * PreferenceScreen, PreferenceScreen)}, unless the preference manager uses a data store.
+     *
+     * @param preferenceManager
+     *         The preference manager, the inflated preferences should be attached to, as an
+     *         instance of the class PreferenceManager. The preference manager may not be null
+     * @param context
+     *         The context, which should be used to create the preferences, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @param resourceId
+     *         The resource id of the XML resource, which should be inflated, as an {@link Integer}
+     *         value. The resource id must correspond to a valid XML resource
+     * @param rootPreferenceScreen
+     *         The preference screen, the inflated preferences should be added to, as an instance
+     *         of the class PreferenceScreen or null, if a new preference screen should be created
+     * @return The preference screen, which contains the inflated preferences, as an instance of
+     * the class PreferenceScreen. The preference screen may not be null
+     */
+    @NonNull
+    public static PreferenceScreen inflate(@NonNull final PreferenceManager preferenceManager,
+                                           @NonNull final Context context,
+                                           @XmlRes final int resourceId,
+                                           @Nullable final PreferenceScreen rootPreferenceScreen) {
+        Condition.INSTANCE
+                .ensureNotNull(preferenceManager, "The preference manager may not be null");
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        CompiledPreferenceScreen compiledPreferenceScreen = obtain(context, resourceId);
+
+        if (compiledPreferenceScreen == null) {
+            return preferenceManager.inflateFromResource(context, resourceId, rootPreferenceScreen);
+        } else if (preferenceManager.getPreferenceDataStore() != null) {
+            return compiledPreferenceScreen.inflate(preferenceManager, context,
+                    rootPreferenceScreen);
+        }
+
+        PreferenceScreen preferenceScreen = rootPreferenceScreen != null ? rootPreferenceScreen :
+                compiledPreferenceScreen.createPreferenceScreen(preferenceManager, context);
+        SharedPreferences sharedPreferences = preferenceManager.getSharedPreferences();
+        return attach(preferenceManager,
+                inflateDetached(context, resourceId, true, sharedPreferences), preferenceScreen);
+    }
+
+    /**
+     * Inflates the preference hierarchy, which is defined by a specific XML resource, without
+     * attaching it to the preference manager of a fragment. The preferences are attached to a
+     * dedicated preference manager, which uses {@link BufferedSharedPreferences}. The preferences
+     * read their values from specific shared preferences, but their default values are only
+     * persisted in the buffer. This method may therefore be called on a background thread. The
+     * inflated hierarchy must be attached using the method {@link #attach(PreferenceManager,
+     * PreferenceScreen, PreferenceScreen)} on the main thread.
+     *
+     * @param context
+     *         The context, which should be used to create the preferences, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @param resourceId
+     *         The resource id of the XML resource, which should be inflated, as an {@link Integer}
+     *         value. The resource id must correspond to a valid XML resource
+     * @param compiled
+     *         True, if the hierarchy should be inflated from a compiled representation of the XML
+     *         resource, false, if it should be inflated from the XML resource
+     * @param sharedPreferences
+     *         The shared preferences, the preferences should read their values from, as an
+     *         instance of the type {@link SharedPreferences} or null, if the preference manager,
+     *         the hierarchy will be attached to, uses a data store
+     * @return The preference screen, which contains the inflated preferences, as an instance of
+     * the class PreferenceScreen. The preference screen may not be null
+     */
+    @SuppressLint("RestrictedApi")
+    @NonNull
+    public static PreferenceScreen inflateDetached(
+            @NonNull final Context context, @XmlRes final int resourceId, final boolean compiled,
+            @Nullable final SharedPreferences sharedPreferences) {
+        Condition.INSTANCE.ensureNotNull(context, "The context may not be null");
+        PreferenceManager preferenceManager =
+                new BufferedSharedPreferences(sharedPreferences).createPreferenceManager(context);
+        CompiledPreferenceScreen compiledPreferenceScreen =
+                compiled ? obtain(context, resourceId) : null;
+        return compiledPreferenceScreen != null ?
+                compiledPreferenceScreen.inflate(preferenceManager, context, null) :
+                preferenceManager.inflateFromResource(context, resourceId, null);
+    }
+
+    /**
+     * Attaches a preference hierarchy, which has been inflated using the method {@link
+     * #inflateDetached(Context, int, boolean, SharedPreferences)}, to a specific preference
+     * manager. The default values, which have been persisted in the buffer of the detached
+     * hierarchy, are written using a single editor, before the preferences are attached.
+     * Therefore, the preferences read their values from the preference manager, when being
+     * attached, without writing any values. This method must be called on the main thread.
+     *
+     * @param preferenceManager
+     *         The preference manager, the preferences should be attached to, as an instance of
+     *         the class PreferenceManager. The preference manager may not be null
+     * @param detachedPreferenceScreen
+     *         The preference screen, which contains the preferences, which should be attached, as
+     *         an instance of the class PreferenceScreen. The preference screen may not be null
+     * @param rootPreferenceScreen
+     *         The preference screen, the preferences should be added to, as an instance of the
+     *         class PreferenceScreen or null, if a new preference screen should be created
+     * @return The preference screen, which contains the attached preferences, as an instance of
+     * the class PreferenceScreen. The preference screen may not be null
+     */
+    @NonNull
+    public static PreferenceScreen attach(@NonNull final PreferenceManager preferenceManager,
+                                          @NonNull final PreferenceScreen detachedPreferenceScreen,
+                                          @Nullable final PreferenceScreen rootPreferenceScreen) {
+        Condition.INSTANCE
+                .ensureNotNull(preferenceManager, "The preference manager may not be null");
+        Condition.INSTANCE.ensureNotNull(detachedPreferenceScreen,
+                "The detached preference screen may not be null");
+        PreferenceScreen preferenceScreen = rootPreferenceScreen;
+
+        if (preferenceScreen == null) {
+            preferenceScreen =
+                    preferenceManager.createPreferenceScreen(detachedPreferenceScreen.getContext());
+            preferenceScreen.setKey(detachedPreferenceScreen.getKey());
+            preferenceScreen.setTitle(detachedPreferenceScreen.getTitle());
+            preferenceScreen.setSummary(detachedPreferenceScreen.getSummary());
+        }
+
+        SharedPreferences buffer =
+                detachedPreferenceScreen.getPreferenceManager().getSharedPreferences();
+
+        if (buffer instanceof BufferedSharedPreferences) {
+            ((BufferedSharedPreferences) buffer).flush();
+        }
+
+        addPreferences(removePreferences(detachedPreferenceScreen), preferenceScreen);
+        return preferenceScreen;
+    }
+
+    /**
+     * Removes all compiled preference hierarchies from the cache.
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+}
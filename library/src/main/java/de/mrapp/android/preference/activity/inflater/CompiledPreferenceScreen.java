@@ -0,0 +1,629 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.inflater;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Resources;
+import android.graphics.Color;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.content.res.AppCompatResources;
+import androidx.preference.DialogPreference;
+import androidx.preference.ListPreference;
+import androidx.preference.MultiSelectListPreference;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import androidx.preference.SeekBarPreference;
+import androidx.preference.TwoStatePreference;
+import de.mrapp.android.preference.activity.NavigationPreference;
+
+/**
+ * A compact representation of a preference hierarchy, which has been compiled from an XML
+ * resource. The elements of the hierarchy are stored in document order. For each element, the
+ * constructor of the preference's class, the index of its parent and the values of its attributes
+ * are stored in flat arrays. Attributes are identified by numeric codes and references to
+ * resources are resolved, when the hierarchy is inflated, in order to respect the current
+ * configuration.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+final class CompiledPreferenceScreen {
+
+    /**
+     * The code of the attribute, which specifies the key of a preference.
+     */
+    static final int ATTRIBUTE_KEY = 0;
+
+    /**
+     * The code of the attribute, which specifies the title of a preference.
+     */
+    static final int ATTRIBUTE_TITLE = 1;
+
+    /**
+     * The code of the attribute, which specifies the summary of a preference.
+     */
+    static final int ATTRIBUTE_SUMMARY = 2;
+
+    /**
+     * The code of the attribute, which specifies the icon of a preference.
+     */
+    static final int ATTRIBUTE_ICON = 3;
+
+    /**
+     * The code of the attribute, which specifies the fragment of a preference.
+     */
+    static final int ATTRIBUTE_FRAGMENT = 4;
+
+    /**
+     * The code of the attribute, which specifies the default value of a preference.
+     */
+    static final int ATTRIBUTE_DEFAULT_VALUE = 5;
+
+    /**
+     * The code of the attribute, which specifies, whether a preference is enabled, or not.
+     */
+    static final int ATTRIBUTE_ENABLED = 6;
+
+    /**
+     * The code of the attribute, which specifies, whether a preference is selectable, or not.
+     */
+    static final int ATTRIBUTE_SELECTABLE = 7;
+
+    /**
+     * The code of the attribute, which specifies, whether a preference is persistent, or not.
+     */
+    static final int ATTRIBUTE_PERSISTENT = 8;
+
+    /**
+     * The code of the attribute, which specifies the key of the preference, a preference depends
+     * on.
+     */
+    static final int ATTRIBUTE_DEPENDENCY = 9;
+
+    /**
+     * The code of the attribute, which specifies the order of a preference.
+     */
+    static final int ATTRIBUTE_ORDER = 10;
+
+    /**
+     * The code of the attribute, which specifies the layout of a preference.
+     */
+    static final int ATTRIBUTE_LAYOUT = 11;
+
+    /**
+     * The code of the attribute, which specifies the widget layout of a preference.
+     */
+    static final int ATTRIBUTE_WIDGET_LAYOUT = 12;
+
+    /**
+     * The code of the attribute, which specifies the breadcrumb title of a navigation preference.
+     */
+    static final int ATTRIBUTE_BREAD_CRUMB_TITLE = 13;
+
+    /**
+     * The code of the attribute, which specifies the tint of a navigation preference's icon.
+     */
+    static final int ATTRIBUTE_TINT = 14;
+
+    /**
+     * The code of the attribute, which specifies the summary of a checked two state preference.
+     */
+    static final int ATTRIBUTE_SUMMARY_ON = 15;
+
+    /**
+     * The code of the attribute, which specifies the summary of an unchecked two state
+     * preference.
+     */
+    static final int ATTRIBUTE_SUMMARY_OFF = 16;
+
+    /**
+     * The code of the attribute, which specifies the state of a two state preference, which
+     * disables its dependents.
+     */
+    static final int ATTRIBUTE_DISABLE_DEPENDENTS_STATE = 17;
+
+    /**
+     * The code of the attribute, which specifies the entries of a list preference.
+     */
+    static final int ATTRIBUTE_ENTRIES = 18;
+
+    /**
+     * The code of the attribute, which specifies the entry values of a list preference.
+     */
+    static final int ATTRIBUTE_ENTRY_VALUES = 19;
+
+    /**
+     * The code of the attribute, which specifies the title of a dialog preference's dialog.
+     */
+    static final int ATTRIBUTE_DIALOG_TITLE = 20;
+
+    /**
+     * The code of the attribute, which specifies the message of a dialog preference's dialog.
+     */
+    static final int ATTRIBUTE_DIALOG_MESSAGE = 21;
+
+    /**
+     * The code of the attribute, which specifies the name of the shared preferences, which are
+     * used by the fragment of a navigation preference.
+     */
+    static final int ATTRIBUTE_SHARED_PREFERENCES_NAME = 22;
+
+    /**
+     * An array, which contains the constructors of the preferences' classes. The first element,
+     * which corresponds to the preference screen, is null.
+     */
+    private final Constructor<? extends Preference>[] constructors;
+
+    /**
+     * An array, which contains the indices of the preferences' parents. The first element, which
+     * corresponds to the preference screen, is -1.
+     */
+    private final int[] parents;
+
+    /**
+     * An array, which contains the index of the first attribute of each preference. It contains
+     * one more element than there are preferences, in order to specify the end of the last
+     * preference's attributes.
+     */
+    private final int[] attributeOffsets;
+
+    /**
+     * An array, which contains the codes of the attributes of all preferences.
+     */
+    private final int[] attributes;
+
+    /**
+     * An array, which contains the resource ids, which are referenced by the attributes of all
+     * preferences, or 0, if an attribute's value is a literal.
+     */
+    private final int[] resourceIds;
+
+    /**
+     * An array, which contains the literal values of the attributes of all preferences, or null,
+     * if an attribute's value is a reference to a resource.
+     */
+    private final String[] literals;
+
+    /**
+     * Returns the text, which is specified by an attribute.
+     *
+     * @param resources
+     *         The resources, which should be used to resolve references, as an instance of the
+     *         class {@link Resources}. The resources may not be null
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     * @return The text, which is specified by the attribute, as an instance of the type {@link
+     * CharSequence}
+     */
+    private static CharSequence getText(@NonNull final Resources resources, final int resourceId,
+                                        @Nullable final String literal) {
+        return resourceId != 0 ? resources.getText(resourceId) : literal;
+    }
+
+    /**
+     * Returns the string, which is specified by an attribute.
+     *
+     * @param resources
+     *         The resources, which should be used to resolve references, as an instance of the
+     *         class {@link Resources}. The resources may not be null
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     * @return The string, which is specified by the attribute, as a {@link String}
+     */
+    private static String getString(@NonNull final Resources resources, final int resourceId,
+                                    @Nullable final String literal) {
+        return resourceId != 0 ? resources.getString(resourceId) : literal;
+    }
+
+    /**
+     * Returns the boolean value, which is specified by an attribute.
+     *
+     * @param resources
+     *         The resources, which should be used to resolve references, as an instance of the
+     *         class {@link Resources}. The resources may not be null
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     * @return The boolean value, which is specified by the attribute, as a {@link Boolean} value
+     */
+    private static boolean getBoolean(@NonNull final Resources resources, final int resourceId,
+                                      @Nullable final String literal) {
+        return resourceId != 0 ? resources.getBoolean(resourceId) : Boolean.parseBoolean(literal);
+    }
+
+    /**
+     * Returns the integer value, which is specified by an attribute.
+     *
+     * @param resources
+     *         The resources, which should be used to resolve references, as an instance of the
+     *         class {@link Resources}. The resources may not be null
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     * @return The integer value, which is specified by the attribute, as an {@link Integer} value
+     */
+    private static int getInteger(@NonNull final Resources resources, final int resourceId,
+                                  @Nullable final String literal) {
+        return resourceId != 0 ? resources.getInteger(resourceId) : Integer.decode(literal);
+    }
+
+    /**
+     * Returns the default value, which is specified by an attribute, depending on the type of a
+     * specific preference.
+     *
+     * @param preference
+     *         The preference, whose default value should be returned, as an instance of the class
+     *         Preference. The preference may not be null
+     * @param resources
+     *         The resources, which should be used to resolve references, as an instance of the
+     *         class {@link Resources}. The resources may not be null
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     * @return The default value as an instance of the class {@link Object} or null, if the
+     * preference does not support default values
+     */
+    @Nullable
+    private static Object getDefaultValue(@NonNull final Preference preference,
+                                          @NonNull final Resources resources,
+                                          final int resourceId, @Nullable final String literal) {
+        if (preference instanceof TwoStatePreference) {
+            return getBoolean(resources, resourceId, literal);
+        } else if (preference instanceof SeekBarPreference) {
+            return getInteger(resources, resourceId, literal);
+        } else if (preference instanceof MultiSelectListPreference) {
+            return resourceId != 0 ?
+                    new HashSet<>(Arrays.asList(resources.getStringArray(resourceId))) : null;
+        } else if (preference instanceof DialogPreference) {
+            return getString(resources, resourceId, literal);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the color state list, which is specified by an attribute.
+     *
+     * @param context
+     *         The context, which should be used to resolve references, as an instance of the class
+     *         {@link Context}. The context may not be null
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     * @return The color state list, which is specified by the attribute, as an instance of the
+     * class {@link ColorStateList}
+     */
+    private static ColorStateList getColorStateList(@NonNull final Context context,
+                                                    final int resourceId,
+                                                    @Nullable final String literal) {
+        return resourceId != 0 ? AppCompatResources.getColorStateList(context, resourceId) :
+                ColorStateList.valueOf(Color.parseColor(literal));
+    }
+
+    /**
+     * Applies a specific attribute to a preference. Attributes, which are not supported by the
+     * preference's class, are ignored.
+     *
+     * @param context
+     *         The context, which should be used to resolve references, as an instance of the class
+     *         {@link Context}. The context may not be null
+     * @param preference
+     *         The preference, the attribute should be applied to, as an instance of the class
+     *         Preference. The preference may not be null
+     * @param attribute
+     *         The code of the attribute, which should be applied, as an {@link Integer} value
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     */
+    private static void applyAttribute(@NonNull final Context context,
+                                       @NonNull final Preference preference, final int attribute,
+                                       final int resourceId, @Nullable final String literal) {
+        Resources resources = context.getResources();
+
+        switch (attribute) {
+            case ATTRIBUTE_KEY:
+                preference.setKey(getString(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_TITLE:
+                preference.setTitle(getText(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_SUMMARY:
+                preference.setSummary(getText(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_ICON:
+                preference.setIcon(resourceId);
+                break;
+            case ATTRIBUTE_FRAGMENT:
+                preference.setFragment(getString(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_DEFAULT_VALUE:
+                Object defaultValue =
+                        getDefaultValue(preference, resources, resourceId, literal);
+
+                if (defaultValue != null) {
+                    preference.setDefaultValue(defaultValue);
+                }
+
+                break;
+            case ATTRIBUTE_ENABLED:
+                preference.setEnabled(getBoolean(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_SELECTABLE:
+                preference.setSelectable(getBoolean(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_PERSISTENT:
+                preference.setPersistent(getBoolean(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_DEPENDENCY:
+                preference.setDependency(getString(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_ORDER:
+                preference.setOrder(getInteger(resources, resourceId, literal));
+                break;
+            case ATTRIBUTE_LAYOUT:
+                preference.setLayoutResource(resourceId);
+                break;
+            case ATTRIBUTE_WIDGET_LAYOUT:
+                preference.setWidgetLayoutResource(resourceId);
+                break;
+            case ATTRIBUTE_BREAD_CRUMB_TITLE:
+                if (preference instanceof NavigationPreference) {
+                    ((NavigationPreference) preference)
+                            .setBreadCrumbTitle(getText(resources, resourceId, literal));
+                }
+
+                break;
+            case ATTRIBUTE_TINT:
+                if (preference instanceof NavigationPreference) {
+                    ((NavigationPreference) preference)
+                            .setIconTintList(getColorStateList(context, resourceId, literal));
+                }
+
+                break;
+            case ATTRIBUTE_SHARED_PREFERENCES_NAME:
+                if (preference instanceof NavigationPreference) {
+                    ((NavigationPreference) preference)
+                            .setSharedPreferencesName(getString(resources, resourceId, literal));
+                }
+
+                break;
+            case ATTRIBUTE_SUMMARY_ON:
+                if (preference instanceof TwoStatePreference) {
+                    ((TwoStatePreference) preference)
+                            .setSummaryOn(getText(resources, resourceId, literal));
+                }
+
+                break;
+            case ATTRIBUTE_SUMMARY_OFF:
+                if (preference instanceof TwoStatePreference) {
+                    ((TwoStatePreference) preference)
+                            .setSummaryOff(getText(resources, resourceId, literal));
+                }
+
+                break;
+            case ATTRIBUTE_DISABLE_DEPENDENTS_STATE:
+                if (preference instanceof TwoStatePreference) {
+                    ((TwoStatePreference) preference).setDisableDependentsState(
+                            getBoolean(resources, resourceId, literal));
+                }
+
+                break;
+            case ATTRIBUTE_ENTRIES:
+                if (preference instanceof ListPreference) {
+                    ((ListPreference) preference).setEntries(resourceId);
+                } else if (preference instanceof MultiSelectListPreference) {
+                    ((MultiSelectListPreference) preference).setEntries(resourceId);
+                }
+
+                break;
+            case ATTRIBUTE_ENTRY_VALUES:
+                if (preference instanceof ListPreference) {
+                    ((ListPreference) preference).setEntryValues(resourceId);
+                } else if (preference instanceof MultiSelectListPreference) {
+                    ((MultiSelectListPreference) preference).setEntryValues(resourceId);
+                }
+
+                break;
+            case ATTRIBUTE_DIALOG_TITLE:
+                if (preference instanceof DialogPreference) {
+                    ((DialogPreference) preference)
+                            .setDialogTitle(getText(resources, resourceId, literal));
+                }
+
+                break;
+            case ATTRIBUTE_DIALOG_MESSAGE:
+                if (preference instanceof DialogPreference) {
+                    ((DialogPreference) preference)
+                            .setDialogMessage(getText(resources, resourceId, literal));
+                }
+
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown attribute: " + attribute);
+        }
+    }
+
+    /**
+     * Applies the attributes of a specific element of the hierarchy to a preference.
+     *
+     * @param context
+     *         The context, which should be used to resolve references, as an instance of the class
+     *         {@link Context}. The context may not be null
+     * @param preference
+     *         The preference, the attributes should be applied to, as an instance of the class
+     *         Preference. The preference may not be null
+     * @param index
+     *         The index of the element, whose attributes should be applied, as an {@link Integer}
+     *         value
+     */
+    private void applyAttributes(@NonNull final Context context,
+                                 @NonNull final Preference preference, final int index) {
+        for (int i = attributeOffsets[index]; i < attributeOffsets[index + 1]; i++) {
+            applyAttribute(context, preference, attributes[i], resourceIds[i], literals[i]);
+        }
+    }
+
+    /**
+     * Creates a new instance of the preference, which corresponds to a specific element of the
+     * hierarchy.
+     *
+     * @param context
+     *         The context, which should be passed to the preference's constructor, as an instance
+     *         of the class {@link Context}. The context may not be null
+     * @param index
+     *         The index of the element, whose preference should be created, as an {@link Integer}
+     *         value
+     * @return The preference, which has been created, as an instance of the class Preference. The
+     * preference may not be null
+     */
+    @NonNull
+    private Preference instantiate(@NonNull final Context context, final int index) {
+        Constructor<? extends Preference> constructor = constructors[index];
+
+        try {
+            return constructor.newInstance(context);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException(
+                    "Failed to instantiate " + constructor.getDeclaringClass().getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(
+                    "Failed to instantiate " + constructor.getDeclaringClass().getName(),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Creates a new compiled preference hierarchy.
+     *
+     * @param constructors
+     *         An array, which contains the constructors of the preferences' classes, as an array
+     *         of the type {@link Constructor}. The array may not be null
+     * @param parents
+     *         An array, which contains the indices of the preferences' parents, as an {@link
+     *         Integer} array. The array may not be null
+     * @param attributeOffsets
+     *         An array, which contains the index of the first attribute of each preference, as an
+     *         {@link Integer} array. The array may not be null
+     * @param attributes
+     *         An array, which contains the codes of the attributes of all preferences, as an
+     *         {@link Integer} array. The array may not be null
+     * @param resourceIds
+     *         An array, which contains the resource ids, which are referenced by the attributes of
+     *         all preferences, as an {@link Integer} array. The array may not be null
+     * @param literals
+     *         An array, which contains the literal values of the attributes of all preferences, as
+     *         a {@link String} array. The array may not be null
+     */
+    CompiledPreferenceScreen(@NonNull final Constructor<? extends Preference>[] constructors,
+                             @NonNull final int[] parents, @NonNull final int[] attributeOffsets,
+                             @NonNull final int[] attributes, @NonNull final int[] resourceIds,
+                             @NonNull final String[] literals) {
+        this.constructors = constructors;
+        this.parents = parents;
+        this.attributeOffsets = attributeOffsets;
+        this.attributes = attributes;
+        this.resourceIds = resourceIds;
+        this.literals = literals;
+    }
+
+    /**
+     * Creates the root preference screen of the hierarchy without adding any preferences to it.
+     *
+     * @param preferenceManager
+     *         The preference manager, the preference screen should be attached to, as an instance
+     *         of the class PreferenceManager. The preference manager may not be null
+     * @param context
+     *         The context, which should be used to create the preference screen, as an instance
+     *         of the class {@link Context}. The context may not be null
+     * @return The preference screen, which has been created, as an instance of the class
+     * PreferenceScreen. The preference screen may not be null
+     */
+    @NonNull
+    PreferenceScreen createPreferenceScreen(@NonNull final PreferenceManager preferenceManager,
+                                            @NonNull final Context context) {
+        PreferenceScreen preferenceScreen = preferenceManager.createPreferenceScreen(context);
+        applyAttributes(context, preferenceScreen, 0);
+        return preferenceScreen;
+    }
+
+    /**
+     * Inflates the hierarchy.
+     *
+     * @param preferenceManager
+     *         The preference manager, the inflated preferences should be attached to, as an
+     *         instance of the class PreferenceManager. The preference manager may not be null
+     * @param context
+     *         The context, which should be used to create the preferences, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @param rootPreferenceScreen
+     *         The preference screen, the inflated preferences should be added to, as an instance
+     *         of the class PreferenceScreen or null, if a new preference screen should be created
+     * @return The preference screen, which contains the inflated preferences, as an instance of
+     * the class PreferenceScreen. The preference screen may not be null
+     */
+    @NonNull
+    PreferenceScreen inflate(@NonNull final PreferenceManager preferenceManager,
+                             @NonNull final Context context,
+                             @Nullable final PreferenceScreen rootPreferenceScreen) {
+        Preference[] preferences = new Preference[constructors.length];
+        PreferenceScreen preferenceScreen = rootPreferenceScreen != null ? rootPreferenceScreen :
+                createPreferenceScreen(preferenceManager, context);
+
+        preferences[0] = preferenceScreen;
+
+        for (int i = 1; i < constructors.length; i++) {
+            Preference preference = instantiate(context, i);
+            applyAttributes(context, preference, i);
+            ((PreferenceGroup) preferences[parents[i]]).addPreference(preference);
+            preferences[i] = preference;
+        }
+
+        return preferenceScreen;
+    }
+
+}
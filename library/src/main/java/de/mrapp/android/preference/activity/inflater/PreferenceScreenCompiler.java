@@ -0,0 +1,402 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.inflater;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.XmlResourceParser;
+import android.graphics.Color;
+import android.util.SparseIntArray;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.XmlRes;
+import androidx.preference.MultiSelectListPreference;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceScreen;
+import androidx.preference.SeekBarPreference;
+import androidx.preference.TwoStatePreference;
+import de.mrapp.android.preference.activity.NavigationPreference;
+import de.mrapp.android.preference.activity.R;
+
+
+/**
+ * Compiles preference hierarchies, which are defined as XML resources, into instances of the
+ * class {@link CompiledPreferenceScreen}. Only hierarchies, which consist of preferences, which are
+ * provided by the AndroidX preference library or by this library, and which only use a supported
+ * set of attributes of the namespace "android", can be compiled. Custom preferences may read
+ * additional attributes in their constructors and are therefore never compiled.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+final class PreferenceScreenCompiler {
+
+    /**
+     * The name of the package, which is used to resolve the class names of elements, which are
+     * not fully qualified.
+     */
+    private static final String DEFAULT_PACKAGE = Preference.class.getPackage().getName() + ".";
+
+    /**
+     * The name of the element, which must be used as the root of a preference hierarchy.
+     */
+    private static final String ROOT_ELEMENT = "PreferenceScreen";
+
+    /**
+     * A sparse array, which maps the resource ids of supported attributes to their codes.
+     */
+    private static final SparseIntArray ATTRIBUTES = new SparseIntArray();
+
+    static {
+        ATTRIBUTES.put(android.R.attr.key, CompiledPreferenceScreen.ATTRIBUTE_KEY);
+        ATTRIBUTES.put(android.R.attr.title, CompiledPreferenceScreen.ATTRIBUTE_TITLE);
+        ATTRIBUTES.put(android.R.attr.summary, CompiledPreferenceScreen.ATTRIBUTE_SUMMARY);
+        ATTRIBUTES.put(android.R.attr.icon, CompiledPreferenceScreen.ATTRIBUTE_ICON);
+        ATTRIBUTES.put(android.R.attr.fragment, CompiledPreferenceScreen.ATTRIBUTE_FRAGMENT);
+        ATTRIBUTES.put(android.R.attr.defaultValue,
+                CompiledPreferenceScreen.ATTRIBUTE_DEFAULT_VALUE);
+        ATTRIBUTES.put(android.R.attr.enabled, CompiledPreferenceScreen.ATTRIBUTE_ENABLED);
+        ATTRIBUTES.put(android.R.attr.selectable, CompiledPreferenceScreen.ATTRIBUTE_SELECTABLE);
+        ATTRIBUTES.put(android.R.attr.persistent, CompiledPreferenceScreen.ATTRIBUTE_PERSISTENT);
+        ATTRIBUTES.put(android.R.attr.dependency, CompiledPreferenceScreen.ATTRIBUTE_DEPENDENCY);
+        ATTRIBUTES.put(android.R.attr.order, CompiledPreferenceScreen.ATTRIBUTE_ORDER);
+        ATTRIBUTES.put(android.R.attr.layout, CompiledPreferenceScreen.ATTRIBUTE_LAYOUT);
+        ATTRIBUTES.put(android.R.attr.widgetLayout,
+                CompiledPreferenceScreen.ATTRIBUTE_WIDGET_LAYOUT);
+        ATTRIBUTES.put(android.R.attr.breadCrumbTitle,
+                CompiledPreferenceScreen.ATTRIBUTE_BREAD_CRUMB_TITLE);
+        ATTRIBUTES.put(android.R.attr.tint, CompiledPreferenceScreen.ATTRIBUTE_TINT);
+        ATTRIBUTES.put(android.R.attr.summaryOn, CompiledPreferenceScreen.ATTRIBUTE_SUMMARY_ON);
+        ATTRIBUTES.put(android.R.attr.summaryOff, CompiledPreferenceScreen.ATTRIBUTE_SUMMARY_OFF);
+        ATTRIBUTES.put(android.R.attr.disableDependentsState,
+                CompiledPreferenceScreen.ATTRIBUTE_DISABLE_DEPENDENTS_STATE);
+        ATTRIBUTES.put(android.R.attr.entries, CompiledPreferenceScreen.ATTRIBUTE_ENTRIES);
+        ATTRIBUTES.put(android.R.attr.entryValues, CompiledPreferenceScreen.ATTRIBUTE_ENTRY_VALUES);
+        ATTRIBUTES.put(android.R.attr.dialogTitle, CompiledPreferenceScreen.ATTRIBUTE_DIALOG_TITLE);
+        ATTRIBUTES.put(android.R.attr.dialogMessage,
+                CompiledPreferenceScreen.ATTRIBUTE_DIALOG_MESSAGE);
+        ATTRIBUTES.put(R.attr.sharedPreferencesName,
+                CompiledPreferenceScreen.ATTRIBUTE_SHARED_PREFERENCES_NAME);
+    }
+
+    /**
+     * Creates a new compiler. This constructor should not be used, as this class only provides
+     * static methods.
+     */
+    private PreferenceScreenCompiler() {
+
+    }
+
+    /**
+     * Returns the constructor, which should be used to create the preference, which corresponds
+     * to a specific element.
+     *
+     * @param classLoader
+     *         The class loader, which should be used to load the preference's class, as an
+     *         instance of the class {@link ClassLoader}. The class loader may not be null
+     * @param name
+     *         The name of the element as a {@link String}. The name may not be null
+     * @return The constructor, which should be used to create the preference, as an instance of
+     * the class {@link Constructor} or null, if the element cannot be compiled
+     */
+    @Nullable
+    private static Constructor<? extends Preference> getConstructor(
+            @NonNull final ClassLoader classLoader, @NonNull final String name) {
+        String className = name.indexOf('.') == -1 ? DEFAULT_PACKAGE + name : name;
+
+        try {
+            Class<?> preferenceClass = Class.forName(className, false, classLoader);
+
+            if (Preference.class.isAssignableFrom(preferenceClass) &&
+                    !PreferenceScreen.class.isAssignableFrom(preferenceClass) &&
+                    !Modifier.isAbstract(preferenceClass.getModifiers()) &&
+                    (preferenceClass.getName().startsWith(DEFAULT_PACKAGE) ||
+                            preferenceClass == NavigationPreference.class)) {
+                return preferenceClass.asSubclass(Preference.class).getConstructor(Context.class);
+            }
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            // The element is inflated from XML instead
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns, whether a specific value of an attribute is supported, or not.
+     *
+     * @param resources
+     *         The resources, which should be used to determine the types of referenced resources,
+     *         as an instance of the class {@link Resources}. The resources may not be null
+     * @param preferenceClass
+     *         The class of the preference, the attribute belongs to, as an instance of the class
+     *         {@link Class}. The class may not be null
+     * @param attribute
+     *         The code of the attribute as an {@link Integer} value
+     * @param resourceId
+     *         The resource id, which is referenced by the attribute, as an {@link Integer} value or
+     *         0, if the attribute's value is a literal
+     * @param literal
+     *         The literal value of the attribute as a {@link String} or null, if the attribute's
+     *         value is a reference to a resource
+     * @return True, if the value is supported, false otherwise
+     */
+    private static boolean isValueSupported(@NonNull final Resources resources,
+                                            @NonNull final Class<?> preferenceClass,
+                                            final int attribute, final int resourceId,
+                                            @Nullable final String literal) {
+        String type;
+
+        if (resourceId != 0) {
+            try {
+                type = resources.getResourceTypeName(resourceId);
+            } catch (Resources.NotFoundException e) {
+                return false;
+            }
+        } else if (literal == null || literal.startsWith("@") || literal.startsWith("?")) {
+            return false;
+        } else {
+            type = null;
+        }
+
+        switch (attribute) {
+            case CompiledPreferenceScreen.ATTRIBUTE_ICON:
+                return "drawable".equals(type) || "mipmap".equals(type) || "color".equals(type);
+            case CompiledPreferenceScreen.ATTRIBUTE_LAYOUT:
+            case CompiledPreferenceScreen.ATTRIBUTE_WIDGET_LAYOUT:
+                return "layout".equals(type);
+            case CompiledPreferenceScreen.ATTRIBUTE_ENTRIES:
+            case CompiledPreferenceScreen.ATTRIBUTE_ENTRY_VALUES:
+                return "array".equals(type);
+            case CompiledPreferenceScreen.ATTRIBUTE_ENABLED:
+            case CompiledPreferenceScreen.ATTRIBUTE_SELECTABLE:
+            case CompiledPreferenceScreen.ATTRIBUTE_PERSISTENT:
+            case CompiledPreferenceScreen.ATTRIBUTE_DISABLE_DEPENDENTS_STATE:
+                return type != null ? "bool".equals(type) : isBoolean(literal);
+            case CompiledPreferenceScreen.ATTRIBUTE_ORDER:
+                return type != null ? "integer".equals(type) : isInteger(literal);
+            case CompiledPreferenceScreen.ATTRIBUTE_TINT:
+                return type != null ? "color".equals(type) : isColor(literal);
+            case CompiledPreferenceScreen.ATTRIBUTE_DEFAULT_VALUE:
+                return isDefaultValueSupported(preferenceClass, type, literal);
+            default:
+                return type == null || "string".equals(type);
+        }
+    }
+
+    /**
+     * Returns, whether a specific default value is supported by a preference's class, or not.
+     *
+     * @param preferenceClass
+     *         The class of the preference as an instance of the class {@link Class}. The class may
+     *         not be null
+     * @param type
+     *         The type of the referenced resource as a {@link String} or null, if the value is a
+     *         literal
+     * @param literal
+     *         The literal value as a {@link String} or null, if the value is a reference to a
+     *         resource
+     * @return True, if the default value is supported, false otherwise
+     */
+    private static boolean isDefaultValueSupported(@NonNull final Class<?> preferenceClass,
+                                                   @Nullable final String type,
+                                                   @Nullable final String literal) {
+        if (TwoStatePreference.class.isAssignableFrom(preferenceClass)) {
+            return type != null ? "bool".equals(type) : isBoolean(literal);
+        } else if (SeekBarPreference.class.isAssignableFrom(preferenceClass)) {
+            return type != null ? "integer".equals(type) : isInteger(literal);
+        } else if (MultiSelectListPreference.class.isAssignableFrom(preferenceClass)) {
+            return "array".equals(type);
+        }
+
+        return type == null || "string".equals(type);
+    }
+
+    /**
+     * Returns, whether a specific literal is a boolean value, or not.
+     *
+     * @param literal
+     *         The literal as a {@link String}
+     * @return True, if the literal is a boolean value, false otherwise
+     */
+    private static boolean isBoolean(@Nullable final String literal) {
+        return "true".equals(literal) || "false".equals(literal);
+    }
+
+    /**
+     * Returns, whether a specific literal is an integer value, or not.
+     *
+     * @param literal
+     *         The literal as a {@link String}
+     * @return True, if the literal is an integer value, false otherwise
+     */
+    private static boolean isInteger(@Nullable final String literal) {
+        try {
+            Integer.decode(literal);
+            return true;
+        } catch (NumberFormatException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns, whether a specific literal is a color, or not.
+     *
+     * @param literal
+     *         The literal as a {@link String}
+     * @return True, if the literal is a color, false otherwise
+     */
+    private static boolean isColor(@Nullable final String literal) {
+        try {
+            Color.parseColor(literal);
+            return true;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts a list of integer values into an array.
+     *
+     * @param list
+     *         The list, which should be converted, as an instance of the type {@link List}. The
+     *         list may not be null
+     * @return The array, which has been created, as an {@link Integer} array. The array may not be
+     * null
+     */
+    @NonNull
+    private static int[] toArray(@NonNull final List<Integer> list) {
+        int[] array = new int[list.size()];
+
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+
+        return array;
+    }
+
+    /**
+     * Compiles the preference hierarchy, which is defined by a specific XML resource.
+     *
+     * @param context
+     *         The context, which should be used to load the XML resource, as an instance of the
+     *         class {@link Context}. The context may not be null
+     * @param resourceId
+     *         The resource id of the XML resource, which should be compiled, as an {@link Integer}
+     *         value. The resource id must correspond to a valid XML resource
+     * @return The compiled preference hierarchy as an instance of the class {@link
+     * CompiledPreferenceScreen} or null, if the hierarchy cannot be compiled
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static CompiledPreferenceScreen compile(@NonNull final Context context,
+                                            @XmlRes final int resourceId) {
+        Resources resources = context.getResources();
+        ClassLoader classLoader = context.getClassLoader();
+        List<Constructor<? extends Preference>> constructors = new ArrayList<>();
+        List<Integer> parents = new ArrayList<>();
+        List<Integer> attributeOffsets = new ArrayList<>();
+        List<Integer> attributes = new ArrayList<>();
+        List<Integer> resourceIds = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        List<Integer> path = new ArrayList<>();
+        XmlResourceParser parser = resources.getXml(resourceId);
+
+        try {
+            int eventType;
+
+            while ((eventType = parser.next()) != XmlPullParser.END_DOCUMENT) {
+                if (eventType == XmlPullParser.START_TAG) {
+                    String name = parser.getName();
+                    Constructor<? extends Preference> constructor;
+                    Class<?> preferenceClass;
+                    int parent;
+
+                    if (path.isEmpty()) {
+                        if (!ROOT_ELEMENT.equals(name)) {
+                            return null;
+                        }
+
+                        constructor = null;
+                        preferenceClass = PreferenceScreen.class;
+                        parent = -1;
+                    } else {
+                        constructor = getConstructor(classLoader, name);
+                        parent = path.get(path.size() - 1);
+                        Constructor<? extends Preference> parentConstructor =
+                                constructors.get(parent);
+
+                        if (constructor == null || (parentConstructor != null &&
+                                !PreferenceGroup.class.isAssignableFrom(
+                                        parentConstructor.getDeclaringClass()))) {
+                            return null;
+                        }
+
+                        preferenceClass = constructor.getDeclaringClass();
+                    }
+
+                    attributeOffsets.add(attributes.size());
+
+                    for (int i = 0; i < parser.getAttributeCount(); i++) {
+                        int attribute = ATTRIBUTES.get(parser.getAttributeNameResource(i), -1);
+                        int attributeResourceId = parser.getAttributeResourceValue(i, 0);
+                        String literal =
+                                attributeResourceId == 0 ? parser.getAttributeValue(i) : null;
+
+                        if (attribute == -1 ||
+                                !isValueSupported(resources, preferenceClass, attribute,
+                                        attributeResourceId, literal)) {
+                            return null;
+                        }
+
+                        attributes.add(attribute);
+                        resourceIds.add(attributeResourceId);
+                        literals.add(literal);
+                    }
+
+                    path.add(constructors.size());
+                    constructors.add(constructor);
+                    parents.add(parent);
+                } else if (eventType == XmlPullParser.END_TAG) {
+                    path.remove(path.size() - 1);
+                }
+            }
+        } catch (XmlPullParserException | IOException e) {
+            return null;
+        } finally {
+            parser.close();
+        }
+
+        if (constructors.isEmpty()) {
+            return null;
+        }
+
+        attributeOffsets.add(attributes.size());
+        return new CompiledPreferenceScreen(
+                constructors.toArray(new Constructor[constructors.size()]), toArray(parents),
+                toArray(attributeOffsets), toArray(attributes), toArray(resourceIds),
+                literals.toArray(new String[literals.size()]));
+    }
+
+}
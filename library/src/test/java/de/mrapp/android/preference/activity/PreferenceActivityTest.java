@@ -0,0 +1,281 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.StrictMode;
+import android.os.strictmode.DiskReadViolation;
+import android.os.strictmode.Violation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.preference.PreferenceFragmentCompat;
+import androidx.preference.PreferenceManager;
+import androidx.test.core.app.ApplicationProvider;
+import de.mrapp.android.preference.activity.datastore.SharedPreferencesPreloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link PreferenceActivity}. The tests use {@link
+ * StrictMode} to ensure, that the default shared preferences, which are preloaded when the
+ * activity is created, are not read from disk, when the navigation is created on the main thread.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PreferenceActivityTest {
+
+    /**
+     * A preference activity, which reads a value from the default shared preferences, when its
+     * navigation is created.
+     */
+    public static class TestActivity extends PreferenceActivity {
+
+        /**
+         * The name of the extra, which specifies, whether the shared preferences should be
+         * preloaded, or not.
+         */
+        private static final String EXTRA_PRELOADING =
+                TestActivity.class.getName() + "::Preloading";
+
+        /**
+         * The value, which has been read from the default shared preferences.
+         */
+        private String value;
+
+        @Override
+        protected final void onCreate(final Bundle savedInstanceState) {
+            setTheme(R.style.PreferenceActivity_Light);
+            setSharedPreferencesPreloadingEnabled(
+                    getIntent().getBooleanExtra(EXTRA_PRELOADING, true));
+            super.onCreate(savedInstanceState);
+        }
+
+        @Override
+        protected final void onCreateNavigation(@NonNull final PreferenceFragmentCompat fragment) {
+            super.onCreateNavigation(fragment);
+            SharedPreferencesPreloader preloader = getSharedPreferencesPreloader();
+
+            if (preloader != null) {
+                try {
+                    assertTrue(preloader.await(TIMEOUT));
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            PreferenceManager preferenceManager = fragment.getPreferenceManager();
+            value = preferenceManager.getSharedPreferences().getString("key0", null);
+            fragment.setPreferenceScreen(
+                    preferenceManager.createPreferenceScreen(preferenceManager.getContext()));
+        }
+
+    }
+
+    /**
+     * The number of milliseconds to wait for the preloading to be finished.
+     */
+    private static final long TIMEOUT = 10000;
+
+    /**
+     * The number of values, which are contained by the default shared preferences, which are
+     * used by the tests.
+     */
+    private static final int VALUE_COUNT = 1000;
+
+    /**
+     * The context, which is used by the tests.
+     */
+    private Context context;
+
+    /**
+     * The thread policy, which has been used before a test has been started.
+     */
+    private StrictMode.ThreadPolicy previousThreadPolicy;
+
+    /**
+     * Writes the file of the default shared preferences without accessing the shared preferences,
+     * in order to ensure that they are read from disk, when they are accessed for the first time.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be written
+     */
+    private void writeDefaultSharedPreferencesFile() throws IOException {
+        File directory = new File(context.getApplicationInfo().dataDir, "shared_prefs");
+        assertTrue(directory.isDirectory() || directory.mkdirs());
+        String name = SharedPreferencesPreloader.getDefaultSharedPreferencesName(context);
+        StringBuilder xml = new StringBuilder(
+                "<?xml version='1.0' encoding='utf-8' standalone='yes' ?>\n<map>\n");
+
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            xml.append("    <string name=\"key").append(i).append("\">value").append(i)
+                    .append("</string>\n");
+        }
+
+        xml.append("</map>\n");
+        OutputStream outputStream = new FileOutputStream(new File(directory, name + ".xml"));
+
+        try {
+            outputStream.write(xml.toString().getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Enables the detection of disk reads on the current thread. Violations are recorded instead
+     * of terminating the process.
+     *
+     * @return A list, the violations are added to, as an instance of the type {@link List}. The
+     * list may not be null
+     */
+    @TargetApi(Build.VERSION_CODES.P)
+    @NonNull
+    private static List<Violation> detectDiskReads() {
+        final List<Violation> violations = new ArrayList<>();
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder().detectDiskReads()
+                .penaltyListener(new Executor() {
+
+                    @Override
+                    public void execute(@NonNull final Runnable runnable) {
+                        runnable.run();
+                    }
+
+                }, new StrictMode.OnThreadViolationListener() {
+
+                    @Override
+                    public void onThreadViolation(final Violation violation) {
+                        violations.add(violation);
+                    }
+
+                }).build());
+        return violations;
+    }
+
+    /**
+     * Returns the number of violations, which have been caused by reading shared preferences from
+     * disk. As violations are reported asynchronously, the main looper is idled before.
+     *
+     * @param violations
+     *         A list, which contains the violations, which have been recorded, as an instance of
+     *         the type {@link List}. The list may not be null
+     * @return The number of violations, which have been caused by reading shared preferences from
+     * disk, as an {@link Integer} value
+     */
+    @TargetApi(Build.VERSION_CODES.P)
+    private static int countSharedPreferencesReads(@NonNull final List<Violation> violations) {
+        ShadowLooper.idleMainLooper();
+        int count = 0;
+
+        for (Violation violation : violations) {
+            if (violation instanceof DiskReadViolation) {
+                for (StackTraceElement element : violation.getStackTrace()) {
+                    if (element.getClassName().equals("android.app.SharedPreferencesImpl")) {
+                        count++;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Creates the activity, which is used by the tests.
+     *
+     * @param preloading
+     *         True, if the shared preferences should be preloaded, false otherwise
+     * @return The activity, which has been created, as an instance of the class {@link
+     * TestActivity}. The activity may not be null
+     */
+    @NonNull
+    private TestActivity createActivity(final boolean preloading) {
+        Intent intent = new Intent(context, TestActivity.class);
+        intent.putExtra(TestActivity.EXTRA_PRELOADING, preloading);
+        return Robolectric.buildActivity(TestActivity.class, intent).setup().get();
+    }
+
+    /**
+     * Initializes the tests.
+     *
+     * @throws IOException
+     *         The exception, which is thrown, if the default shared preferences could not be
+     *         written
+     */
+    @Before
+    public final void setUp() throws IOException {
+        context = ApplicationProvider.getApplicationContext();
+        previousThreadPolicy = StrictMode.getThreadPolicy();
+        writeDefaultSharedPreferencesFile();
+    }
+
+    /**
+     * Restores the thread policy, which has been used before a test has been started.
+     */
+    @After
+    public final void tearDown() {
+        StrictMode.setThreadPolicy(previousThreadPolicy);
+    }
+
+    /**
+     * Tests, that the default shared preferences, which are preloaded, when the activity is
+     * created, are not read from disk, when the navigation is created on the main thread.
+     */
+    @Test
+    public final void testOnCreatePreloadsDefaultSharedPreferences() {
+        List<Violation> violations = detectDiskReads();
+        TestActivity activity = createActivity(true);
+        assertEquals("value0", activity.value);
+        assertEquals(0, countSharedPreferencesReads(violations));
+    }
+
+    /**
+     * Tests, that the default shared preferences are read from disk, when the navigation is
+     * created on the main thread, if preloading is disabled. This ensures, that the other test
+     * does not pass, because disk reads are not detected at all.
+     */
+    @Test
+    public final void testOnCreateWithoutPreloadingReadsDefaultSharedPreferences() {
+        List<Violation> violations = detectDiskReads();
+        TestActivity activity = createActivity(false);
+        assertEquals("value0", activity.value);
+        assertTrue(countSharedPreferencesReads(violations) > 0);
+    }
+
+}
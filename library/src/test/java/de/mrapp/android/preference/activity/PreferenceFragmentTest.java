@@ -0,0 +1,183 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.FragmentActivity;
+import androidx.preference.CheckBoxPreference;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import androidx.preference.TwoStatePreference;
+import androidx.test.core.app.ApplicationProvider;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link PreferenceFragment}. The tests verify the values,
+ * which are persisted, when the default values of preferences with and without a default value
+ * are restored.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PreferenceFragmentTest {
+
+    /**
+     * A preference fragment, which contains a preference with a default value and a preference
+     * without a default value.
+     */
+    public static class TestFragment extends PreferenceFragment {
+
+        @Override
+        public final void onCreatePreferences(final Bundle savedInstanceState,
+                                              final String rootKey) {
+            PreferenceManager preferenceManager = getPreferenceManager();
+            Context context = preferenceManager.getContext();
+            PreferenceScreen preferenceScreen = preferenceManager.createPreferenceScreen(context);
+            CheckBoxPreference preferenceWithDefault = new CheckBoxPreference(context);
+            preferenceWithDefault.setKey(KEY_WITH_DEFAULT);
+            preferenceWithDefault.setDefaultValue(true);
+            preferenceScreen.addPreference(preferenceWithDefault);
+            CheckBoxPreference preferenceWithoutDefault = new CheckBoxPreference(context);
+            preferenceWithoutDefault.setKey(KEY_WITHOUT_DEFAULT);
+            preferenceScreen.addPreference(preferenceWithoutDefault);
+            setPreferenceScreen(preferenceScreen);
+        }
+
+    }
+
+    /**
+     * An activity, which shows a {@link TestFragment}.
+     */
+    public static class TestActivity extends FragmentActivity {
+
+        /**
+         * The fragment, which is shown by the activity.
+         */
+        private TestFragment fragment;
+
+        @Override
+        protected final void onCreate(final Bundle savedInstanceState) {
+            setTheme(R.style.PreferenceActivity_Light);
+            super.onCreate(savedInstanceState);
+            fragment = new TestFragment();
+            getSupportFragmentManager().beginTransaction().add(android.R.id.content, fragment)
+                    .commitNow();
+        }
+
+    }
+
+    /**
+     * The key of the preference, which provides a default value.
+     */
+    private static final String KEY_WITH_DEFAULT = "with_default";
+
+    /**
+     * The key of the preference, which does not provide a default value.
+     */
+    private static final String KEY_WITHOUT_DEFAULT = "without_default";
+
+    /**
+     * The shared preferences, which are used by the tests.
+     */
+    private SharedPreferences sharedPreferences;
+
+    /**
+     * Creates the fragment, which is used by the tests.
+     *
+     * @return The fragment, which has been created, as an instance of the class {@link
+     * TestFragment}. The fragment may not be null
+     */
+    @NonNull
+    private TestFragment createFragment() {
+        return Robolectric.buildActivity(TestActivity.class).setup().get().fragment;
+    }
+
+    /**
+     * Verifies the values, which are persisted and shown by a specific fragment, after the
+     * default values of its preferences have been restored.
+     *
+     * @param fragment
+     *         The fragment as an instance of the class {@link TestFragment}. The fragment may not
+     *         be null
+     */
+    private void verifyRestoredDefaults(@NonNull final TestFragment fragment) {
+        assertTrue(sharedPreferences.getBoolean(KEY_WITH_DEFAULT, false));
+        assertFalse(sharedPreferences.contains(KEY_WITHOUT_DEFAULT));
+        assertTrue(((TwoStatePreference) fragment.findPreference(KEY_WITH_DEFAULT)).isChecked());
+    }
+
+    /**
+     * Initializes the tests.
+     */
+    @Before
+    public final void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        sharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
+        assertTrue(sharedPreferences.edit().clear().putBoolean(KEY_WITH_DEFAULT, false)
+                .putBoolean(KEY_WITHOUT_DEFAULT, true).commit());
+    }
+
+    /**
+     * Tests, that restoring the default values persists the default value of a preference, which
+     * provides a default value, and removes the value of a preference, which does not provide a
+     * default value.
+     */
+    @Test
+    public final void testRestoreDefaults() {
+        TestFragment fragment = createFragment();
+        assertFalse(((TwoStatePreference) fragment.findPreference(KEY_WITH_DEFAULT)).isChecked());
+        fragment.restoreDefaults();
+        verifyRestoredDefaults(fragment);
+    }
+
+    /**
+     * Tests, that restoring the default values asynchronously persists the default value of a
+     * preference, which provides a default value, and removes the value of a preference, which
+     * does not provide a default value.
+     */
+    @Test
+    public final void testRestoreDefaultsAsync() {
+        TestFragment fragment = createFragment();
+        RestoreDefaultsTask task = fragment.restoreDefaultsAsync(new Executor() {
+
+            @Override
+            public void execute(@NonNull final Runnable runnable) {
+                runnable.run();
+            }
+
+        });
+        ShadowLooper.idleMainLooper();
+        assertTrue(task.isFinished());
+        verifyRestoredDefaults(fragment);
+    }
+
+}
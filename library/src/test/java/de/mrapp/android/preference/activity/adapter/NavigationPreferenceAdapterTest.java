@@ -0,0 +1,270 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.adapter;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Color;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import androidx.preference.PreferenceViewHolder;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import de.mrapp.android.preference.activity.NavigationPreference;
+import de.mrapp.android.preference.activity.R;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link NavigationPreferenceAdapter}. The tests ensure, that
+ * a change of the selection only rebinds the rows of the affected navigation preferences by using
+ * the payload {@link NavigationPreferenceAdapter#SELECTION_PAYLOAD}.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@SuppressLint("RestrictedApi")
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class NavigationPreferenceAdapterTest {
+
+    /**
+     * A navigation preference, which counts how often its view holder is bound from scratch.
+     */
+    private static class CountingNavigationPreference extends NavigationPreference {
+
+        /**
+         * The number of times, the preference's view holder has been bound from scratch.
+         */
+        private int bindCount;
+
+        /**
+         * Creates a new navigation preference, which counts how often its view holder is bound
+         * from scratch.
+         *
+         * @param context
+         *         The context, which should be used by the preference, as an instance of the class
+         *         {@link Context}. The context may not be null
+         */
+        CountingNavigationPreference(@NonNull final Context context) {
+            super(context);
+        }
+
+        @Override
+        public void onBindViewHolder(final PreferenceViewHolder holder) {
+            super.onBindViewHolder(holder);
+            bindCount++;
+        }
+
+    }
+
+    /**
+     * An observer, which records the payloads of the changes, the adapter notifies about.
+     */
+    private static class PayloadObserver extends RecyclerView.AdapterDataObserver {
+
+        /**
+         * A list, which contains the positions of the items, which have been changed.
+         */
+        private final List<Integer> positions = new ArrayList<>();
+
+        /**
+         * A list, which contains the payloads of the changes.
+         */
+        private final List<Object> payloads = new ArrayList<>();
+
+        @Override
+        public void onChanged() {
+            throw new AssertionError("The data set should not be changed");
+        }
+
+        @Override
+        public void onItemRangeChanged(final int positionStart, final int itemCount,
+                                       @Nullable final Object payload) {
+            for (int i = 0; i < itemCount; i++) {
+                positions.add(positionStart + i);
+                payloads.add(payload);
+            }
+        }
+
+    }
+
+    /**
+     * The number of navigation preferences, which are used by the tests.
+     */
+    private static final int NAVIGATION_PREFERENCE_COUNT = 8;
+
+    /**
+     * The navigation preferences, which are used by the tests.
+     */
+    private List<CountingNavigationPreference> navigationPreferences;
+
+    /**
+     * The adapter, which is tested.
+     */
+    private NavigationPreferenceAdapter adapter;
+
+    /**
+     * The recycler view, the adapter is attached to.
+     */
+    private RecyclerView recyclerView;
+
+    /**
+     * Measures and lays out the recycler view in order to bind the adapter's pending changes.
+     */
+    private void layout() {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, 480, 1920);
+    }
+
+    /**
+     * Resets the number of times, the view holders of the navigation preferences have been bound
+     * from scratch.
+     */
+    private void resetBindCounts() {
+        for (CountingNavigationPreference navigationPreference : navigationPreferences) {
+            navigationPreference.bindCount = 0;
+        }
+    }
+
+    /**
+     * Asserts, that none of the view holders of the navigation preferences has been bound from
+     * scratch.
+     */
+    private void assertNoFullBinds() {
+        for (CountingNavigationPreference navigationPreference : navigationPreferences) {
+            assertEquals(0, navigationPreference.bindCount);
+        }
+    }
+
+    /**
+     * Returns, whether the row of the navigation preference at a specific position is visualized
+     * as being selected.
+     *
+     * @param position
+     *         The position of the navigation preference as an {@link Integer} value
+     * @return True, if the row is visualized as being selected, false otherwise
+     */
+    private boolean isActivated(final int position) {
+        RecyclerView.ViewHolder viewHolder =
+                recyclerView.findViewHolderForAdapterPosition(position);
+        return viewHolder != null && viewHolder.itemView.isActivated();
+    }
+
+    /**
+     * Initializes the tests.
+     */
+    @Before
+    public final void setUp() {
+        Context context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(),
+                R.style.PreferenceActivity_Light);
+        context.getTheme().applyStyle(R.style.PreferenceActivity_PreferenceTheme, true);
+        PreferenceManager preferenceManager = new PreferenceManager(context);
+        PreferenceScreen preferenceScreen = preferenceManager.createPreferenceScreen(context);
+        navigationPreferences = new ArrayList<>();
+
+        for (int i = 0; i < NAVIGATION_PREFERENCE_COUNT; i++) {
+            CountingNavigationPreference navigationPreference =
+                    new CountingNavigationPreference(context);
+            navigationPreference.setKey("navigation_preference_" + i);
+            navigationPreference.setTitle("Navigation preference " + i);
+            preferenceScreen.addPreference(navigationPreference);
+            navigationPreferences.add(navigationPreference);
+        }
+
+        adapter = new NavigationPreferenceAdapter(preferenceScreen, null);
+        recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        recyclerView.setItemAnimator(null);
+        recyclerView.setAdapter(adapter);
+        layout();
+        adapter.selectNavigationPreference(1, null);
+        layout();
+        resetBindCounts();
+    }
+
+    /**
+     * Tests, that selecting another navigation preference only rebinds the rows of the previously
+     * and newly selected navigation preferences by using the selection payload.
+     */
+    @Test
+    public final void testSelectNavigationPreference() {
+        PayloadObserver observer = new PayloadObserver();
+        adapter.registerAdapterDataObserver(observer);
+        adapter.selectNavigationPreference(5, null);
+        layout();
+        assertEquals(2, observer.positions.size());
+        assertEquals(1, (int) observer.positions.get(0));
+        assertEquals(5, (int) observer.positions.get(1));
+        assertSame(NavigationPreferenceAdapter.SELECTION_PAYLOAD, observer.payloads.get(0));
+        assertSame(NavigationPreferenceAdapter.SELECTION_PAYLOAD, observer.payloads.get(1));
+        assertNoFullBinds();
+        assertFalse(isActivated(1));
+        assertTrue(isActivated(5));
+    }
+
+    /**
+     * Tests, that unselecting the selected navigation preference only rebinds its row by using
+     * the selection payload.
+     */
+    @Test
+    public final void testUnselectNavigationPreference() {
+        PayloadObserver observer = new PayloadObserver();
+        adapter.registerAdapterDataObserver(observer);
+        adapter.selectNavigationPreference(null, null);
+        layout();
+        assertEquals(1, observer.positions.size());
+        assertEquals(1, (int) observer.positions.get(0));
+        assertSame(NavigationPreferenceAdapter.SELECTION_PAYLOAD, observer.payloads.get(0));
+        assertNoFullBinds();
+        assertFalse(isActivated(1));
+    }
+
+    /**
+     * Tests, that changing the selection color only rebinds the row of the selected navigation
+     * preference by using the selection payload.
+     */
+    @Test
+    public final void testSetSelectionColor() {
+        PayloadObserver observer = new PayloadObserver();
+        adapter.registerAdapterDataObserver(observer);
+        adapter.setSelectionColor(Color.RED);
+        layout();
+        assertEquals(1, observer.positions.size());
+        assertEquals(1, (int) observer.positions.get(0));
+        assertSame(NavigationPreferenceAdapter.SELECTION_PAYLOAD, observer.payloads.get(0));
+        assertNoFullBinds();
+        assertTrue(isActivated(1));
+    }
+
+}
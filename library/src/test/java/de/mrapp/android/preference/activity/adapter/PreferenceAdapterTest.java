@@ -0,0 +1,272 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.adapter;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+import androidx.preference.PreferenceViewHolder;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import de.mrapp.android.preference.activity.R;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Tests the functionality of the class {@link PreferenceAdapter}. The tests count the number of
+ * times, the view holders of the adapter's preferences are bound, when a single preference is
+ * inserted, depending on whether stable IDs are used, or not, and verify the IDs of preferences,
+ * which share the same key.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@SuppressLint("RestrictedApi")
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PreferenceAdapterTest {
+
+    /**
+     * A preference, which counts how often its view holder is bound.
+     */
+    private static class CountingPreference extends Preference {
+
+        /**
+         * The number of times, the preference's view holder has been bound.
+         */
+        private int bindCount;
+
+        /**
+         * Creates a new preference, which counts how often its view holder is bound.
+         *
+         * @param context
+         *         The context, which should be used by the preference, as an instance of the class
+         *         {@link Context}. The context may not be null
+         */
+        CountingPreference(@NonNull final Context context) {
+            super(context);
+        }
+
+        @Override
+        public void onBindViewHolder(final PreferenceViewHolder holder) {
+            super.onBindViewHolder(holder);
+            bindCount++;
+        }
+
+    }
+
+    /**
+     * The number of preferences, which are initially contained by the adapter.
+     */
+    private static final int PREFERENCE_COUNT = 8;
+
+    /**
+     * The position, the preference, which is inserted by the tests, is inserted at.
+     */
+    private static final int INSERTION_POSITION = 3;
+
+    /**
+     * The context, which is used by the tests.
+     */
+    private Context context;
+
+    /**
+     * The preference screen, which contains the adapter's preferences.
+     */
+    private PreferenceScreen preferenceScreen;
+
+    /**
+     * The preferences, which are initially contained by the adapter.
+     */
+    private List<CountingPreference> preferences;
+
+    /**
+     * The recycler view, the adapter is attached to.
+     */
+    private RecyclerView recyclerView;
+
+    /**
+     * Creates a preference, which counts how often its view holder is bound.
+     *
+     * @param key
+     *         The key of the preference as a {@link String}. The key may not be null
+     * @param order
+     *         The order of the preference as an {@link Integer} value
+     * @return The preference, which has been created, as an instance of the class {@link
+     * CountingPreference}. The preference may not be null
+     */
+    @NonNull
+    private CountingPreference createPreference(@NonNull final String key, final int order) {
+        CountingPreference preference = new CountingPreference(context);
+        preference.setKey(key);
+        preference.setTitle(key);
+        preference.setOrder(order);
+        preference.setPersistent(false);
+        return preference;
+    }
+
+    /**
+     * Measures and lays out the recycler view in order to bind the adapter's pending changes.
+     */
+    private void layout() {
+        shadowOf(Looper.getMainLooper()).idle();
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, 480, 1920);
+    }
+
+    /**
+     * Creates an adapter, which contains several preferences, and attaches it to a recycler view.
+     * Stable IDs are enabled the same way as by a fragment, whose method <code>useStableIds</code>
+     * has been called.
+     *
+     * @param useStableIds
+     *         True, if stable IDs should be used, false otherwise
+     */
+    private void setUp(final boolean useStableIds) {
+        context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(),
+                R.style.PreferenceActivity_Light);
+        context.getTheme().applyStyle(R.style.PreferenceActivity_PreferenceTheme, true);
+        PreferenceManager preferenceManager = new PreferenceManager(context);
+
+        if (useStableIds) {
+            preferenceManager
+                    .setPreferenceComparisonCallback(new StablePreferenceComparisonCallback());
+        }
+
+        preferenceScreen = preferenceManager.createPreferenceScreen(context);
+        preferences = new ArrayList<>();
+
+        for (int i = 0; i < PREFERENCE_COUNT; i++) {
+            CountingPreference preference = createPreference("preference_" + i, i * 2);
+            preferenceScreen.addPreference(preference);
+            preferences.add(preference);
+        }
+
+        PreferenceAdapter adapter = new PreferenceAdapter(preferenceScreen);
+        adapter.useStableIds(useStableIds);
+        recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        recyclerView.setItemAnimator(null);
+        recyclerView.setAdapter(adapter);
+        layout();
+
+        for (CountingPreference preference : preferences) {
+            assertEquals(1, preference.bindCount);
+            preference.bindCount = 0;
+        }
+    }
+
+    /**
+     * Inserts a single preference and returns the number of times, its view holder has been
+     * bound.
+     *
+     * @return The number of times, the view holder of the inserted preference has been bound, as
+     * an {@link Integer} value
+     */
+    private int insertPreference() {
+        CountingPreference insertedPreference =
+                createPreference("inserted_preference", INSERTION_POSITION * 2 - 1);
+        preferenceScreen.addPreference(insertedPreference);
+        layout();
+        assertEquals(INSERTION_POSITION,
+                recyclerView.getChildAdapterPosition(recyclerView.getChildAt(INSERTION_POSITION)));
+        return insertedPreference.bindCount;
+    }
+
+    /**
+     * Returns the number of times, the view holders of the preferences, which have initially been
+     * contained by the adapter, have been bound since the adapter has been set up.
+     *
+     * @return The number of times, the view holders have been bound, as an {@link Integer} value
+     */
+    private int getBindCountOfUnchangedPreferences() {
+        int bindCount = 0;
+
+        for (CountingPreference preference : preferences) {
+            bindCount += preference.bindCount;
+        }
+
+        return bindCount;
+    }
+
+    /**
+     * Tests, that only the view holder of a preference, which has been inserted, is bound, if
+     * stable IDs are used.
+     */
+    @Test
+    public final void testInsertPreferenceWithStableIds() {
+        setUp(true);
+        assertEquals(1, insertPreference());
+        assertEquals(0, getBindCountOfUnchangedPreferences());
+    }
+
+    /**
+     * Tests, that preferences, which share the same key, are assigned different IDs, if stable IDs
+     * are used, and that a preference, which replaces another preference with the same key, keeps
+     * its ID.
+     */
+    @Test
+    public final void testDuplicateKeysWithStableIds() {
+        setUp(true);
+        PreferenceAdapter adapter = (PreferenceAdapter) recyclerView.getAdapter();
+        long id = adapter.getItemId(0);
+        CountingPreference duplicatePreference = createPreference("preference_0", 1);
+        preferenceScreen.addPreference(duplicatePreference);
+        layout();
+        Set<Long> ids = new HashSet<>();
+
+        for (int i = 0; i < adapter.getItemCount(); i++) {
+            ids.add(adapter.getItemId(i));
+        }
+
+        assertEquals(PREFERENCE_COUNT + 1, ids.size());
+        assertEquals(id, adapter.getItemId(0));
+        preferenceScreen.removePreference(preferences.get(0));
+        layout();
+        assertEquals(id, adapter.getItemId(0));
+        assertEquals(0, adapter.getPreferenceAdapterPosition(duplicatePreference));
+    }
+
+    /**
+     * Tests, that the view holders of all preferences are bound again, when a preference has been
+     * inserted, if stable IDs are not used.
+     */
+    @Test
+    public final void testInsertPreferenceWithoutStableIds() {
+        setUp(false);
+        assertEquals(1, insertPreference());
+        assertEquals(PREFERENCE_COUNT, getBindCountOfUnchangedPreferences());
+    }
+
+}
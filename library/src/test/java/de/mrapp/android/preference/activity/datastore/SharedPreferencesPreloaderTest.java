@@ -0,0 +1,287 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.datastore;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.StrictMode;
+import android.os.strictmode.DiskReadViolation;
+import android.os.strictmode.Violation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the functionality of the class {@link SharedPreferencesPreloader}. The tests use {@link
+ * StrictMode} to ensure, that shared preferences, which have been preloaded, are not read from
+ * disk on the main thread. Violations are recorded by a listener, which allows to verify, that
+ * reading shared preferences, which have not been preloaded, is detected.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SharedPreferencesPreloaderTest {
+
+    /**
+     * The number of milliseconds to wait for the preloading to be finished.
+     */
+    private static final long TIMEOUT = 10000;
+
+    /**
+     * The number of values, which are contained by the shared preferences, which are used by the
+     * tests.
+     */
+    private static final int VALUE_COUNT = 1000;
+
+    /**
+     * A counter, which is used to generate unique names of shared preferences, as shared
+     * preferences, which have been loaded once, are cached for the lifetime of the process.
+     */
+    private static int nameCounter;
+
+    /**
+     * The context, which is used by the tests.
+     */
+    private Context context;
+
+    /**
+     * The thread policy, which has been used before a test has been started.
+     */
+    private StrictMode.ThreadPolicy previousThreadPolicy;
+
+    /**
+     * Returns a unique name of shared preferences.
+     *
+     * @return The name, which has been created, as a {@link String}. The name may not be null
+     */
+    @NonNull
+    private static String createName() {
+        return "preloader_test_" + (++nameCounter);
+    }
+
+    /**
+     * Writes the file of the shared preferences, which correspond to a specific name, without
+     * accessing the shared preferences, in order to ensure that they are read from disk, when they
+     * are accessed for the first time.
+     *
+     * @param name
+     *         The name of the shared preferences as a {@link String}. The name may not be null
+     * @throws IOException
+     *         The exception, which is thrown, if the file could not be written
+     */
+    private void writeSharedPreferencesFile(@NonNull final String name) throws IOException {
+        File directory = new File(context.getApplicationInfo().dataDir, "shared_prefs");
+        assertTrue(directory.isDirectory() || directory.mkdirs());
+        StringBuilder xml = new StringBuilder(
+                "<?xml version='1.0' encoding='utf-8' standalone='yes' ?>\n<map>\n");
+
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            xml.append("    <string name=\"key").append(i).append("\">value").append(i)
+                    .append("</string>\n");
+        }
+
+        xml.append("</map>\n");
+        OutputStream outputStream = new FileOutputStream(new File(directory, name + ".xml"));
+
+        try {
+            outputStream.write(xml.toString().getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Enables the detection of disk reads on the current thread. Violations are recorded instead
+     * of terminating the process.
+     *
+     * @return A list, the violations are added to, as an instance of the type {@link List}. The
+     * list may not be null
+     */
+    @TargetApi(Build.VERSION_CODES.P)
+    @NonNull
+    private static List<Violation> detectDiskReads() {
+        final List<Violation> violations = new ArrayList<>();
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder().detectDiskReads()
+                .penaltyListener(new Executor() {
+
+                    @Override
+                    public void execute(@NonNull final Runnable runnable) {
+                        runnable.run();
+                    }
+
+                }, new StrictMode.OnThreadViolationListener() {
+
+                    @Override
+                    public void onThreadViolation(final Violation violation) {
+                        violations.add(violation);
+                    }
+
+                }).build());
+        return violations;
+    }
+
+    /**
+     * Returns the number of violations, which have been caused by reading shared preferences from
+     * disk. As violations are reported asynchronously, the main looper is idled before.
+     *
+     * @param violations
+     *         A list, which contains the violations, which have been recorded, as an instance of
+     *         the type {@link List}. The list may not be null
+     * @return The number of violations, which have been caused by reading shared preferences from
+     * disk, as an {@link Integer} value
+     */
+    @TargetApi(Build.VERSION_CODES.P)
+    private static int countSharedPreferencesReads(@NonNull final List<Violation> violations) {
+        ShadowLooper.idleMainLooper();
+        int count = 0;
+
+        for (Violation violation : violations) {
+            if (violation instanceof DiskReadViolation) {
+                for (StackTraceElement element : violation.getStackTrace()) {
+                    if (element.getClassName().equals("android.app.SharedPreferencesImpl")) {
+                        count++;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Initializes the tests.
+     */
+    @Before
+    public final void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        previousThreadPolicy = StrictMode.getThreadPolicy();
+    }
+
+    /**
+     * Restores the thread policy, which has been used before a test has been started.
+     */
+    @After
+    public final void tearDown() {
+        StrictMode.setThreadPolicy(previousThreadPolicy);
+    }
+
+    /**
+     * Tests, that shared preferences, which have been preloaded, are not read from disk, when
+     * they are accessed on the main thread.
+     *
+     * @throws Exception
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testPreloadedSharedPreferencesAreNotReadOnMainThread() throws Exception {
+        String name = createName();
+        writeSharedPreferencesFile(name);
+        SharedPreferencesPreloader preloader = new SharedPreferencesPreloader(context);
+        preloader.preload(name);
+        assertTrue(preloader.await(TIMEOUT));
+        List<Violation> violations = detectDiskReads();
+        SharedPreferences sharedPreferences =
+                context.getSharedPreferences(name, Context.MODE_PRIVATE);
+        assertEquals("value0", sharedPreferences.getString("key0", null));
+        assertEquals(VALUE_COUNT, sharedPreferences.getAll().size());
+        preloader.cancel();
+        assertEquals(0, countSharedPreferencesReads(violations));
+    }
+
+    /**
+     * Tests, that reading shared preferences, which have not been preloaded, on the main thread
+     * is detected. This ensures, that the other tests do not pass, because disk reads are not
+     * detected at all.
+     *
+     * @throws Exception
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testNotPreloadedSharedPreferencesAreReadOnMainThread() throws Exception {
+        String name = createName();
+        writeSharedPreferencesFile(name);
+        List<Violation> violations = detectDiskReads();
+        SharedPreferences sharedPreferences =
+                context.getSharedPreferences(name, Context.MODE_PRIVATE);
+        assertEquals("value0", sharedPreferences.getString("key0", null));
+        assertTrue(countSharedPreferencesReads(violations) > 0);
+    }
+
+    /**
+     * Tests, that multiple shared preferences, including the default shared preferences, can be
+     * preloaded at once.
+     *
+     * @throws Exception
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testPreloadMultipleSharedPreferences() throws Exception {
+        String defaultName = SharedPreferencesPreloader.getDefaultSharedPreferencesName(context);
+        String name = createName();
+        writeSharedPreferencesFile(name);
+        SharedPreferencesPreloader preloader = new SharedPreferencesPreloader(context);
+        preloader.preload(defaultName);
+        preloader.preload(name);
+        preloader.preload(name);
+        assertTrue(preloader.await(TIMEOUT));
+        List<Violation> violations = detectDiskReads();
+        assertEquals(VALUE_COUNT,
+                context.getSharedPreferences(name, Context.MODE_PRIVATE).getAll().size());
+        context.getSharedPreferences(defaultName, Context.MODE_PRIVATE).getAll();
+        preloader.cancel();
+        assertEquals(0, countSharedPreferencesReads(violations));
+    }
+
+    /**
+     * Tests, that no shared preferences are loaded, once the preloading has been cancelled.
+     *
+     * @throws Exception
+     *         The exception, which is thrown, if the test fails
+     */
+    @Test
+    public final void testCancel() throws Exception {
+        SharedPreferencesPreloader preloader = new SharedPreferencesPreloader(context);
+        assertFalse(preloader.isCancelled());
+        preloader.cancel();
+        assertTrue(preloader.isCancelled());
+        preloader.preload(createName());
+        assertTrue(preloader.await(TIMEOUT));
+    }
+
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright 2014 - 2019 Michael Rapp
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.mrapp.android.preference.activity.processor;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import de.mrapp.android.preference.activity.core.RegisteredFragment;
+
+/**
+ * An annotation processor, which generates a class, which implements the interface {@code
+ * de.mrapp.android.preference.activity.core.FragmentFactory} and creates fragments by invoking
+ * their constructors directly instead of using reflection. The factory includes all fragments,
+ * which are annotated with {@link RegisteredFragment}, as well as all fragments, which are
+ * referenced by the attribute <code>android:fragment</code> of a <code>NavigationPreference</code>
+ * in the XML resources, which are contained by the resource directories, which are specified by the
+ * option "preferenceActivity.resourceDirectories". The generated class is named
+ * "GeneratedFragmentFactory" and belongs to the package, which is specified by the option
+ * "preferenceActivity.fragmentFactoryPackage", or to the package of the first fragment, if the
+ * option is not specified.
+ *
+ * @author Michael Rapp
+ * @since 7.1.0
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions({FragmentFactoryProcessor.OPTION_PACKAGE,
+        FragmentFactoryProcessor.OPTION_RESOURCE_DIRECTORIES})
+public class FragmentFactoryProcessor extends AbstractProcessor {
+
+    /**
+     * The name of the option, which specifies the package of the generated factory.
+     */
+    public static final String OPTION_PACKAGE = "preferenceActivity.fragmentFactoryPackage";
+
+    /**
+     * The name of the option, which specifies the resource directories, which should be scanned
+     * for navigation preferences. Multiple directories must be separated by the system's path
+     * separator.
+     */
+    public static final String OPTION_RESOURCE_DIRECTORIES =
+            "preferenceActivity.resourceDirectories";
+
+    /**
+     * The simple name of the generated factory.
+     */
+    private static final String FACTORY_NAME = "GeneratedFragmentFactory";
+
+    /**
+     * The fully classified class name of the base class of all fragments.
+     */
+    private static final String FRAGMENT_CLASS_NAME = "androidx.fragment.app.Fragment";
+
+    /**
+     * The fully classified class name of navigation preferences.
+     */
+    private static final String NAVIGATION_PREFERENCE_CLASS_NAME =
+            "de.mrapp.android.preference.activity.NavigationPreference";
+
+    /**
+     * The namespace of the attributes, which are provided by the Android SDK.
+     */
+    private static final String ANDROID_NAMESPACE = "http://schemas.android.com/apk/res/android";
+
+    /**
+     * True, if the factory has already been generated, false otherwise.
+     */
+    private boolean generated;
+
+    /**
+     * Reports a message.
+     *
+     * @param kind
+     *         The kind of the message as a value of the enum {@link Diagnostic.Kind}. The kind may
+     *         not be null
+     * @param message
+     *         The message as a {@link String}. The message may not be null
+     * @param element
+     *         The element, the message refers to, as an instance of the type {@link Element} or
+     *         null, if the message does not refer to an element
+     */
+    private void report(final Diagnostic.Kind kind, final String message, final Element element) {
+        processingEnv.getMessager().printMessage(kind, message, element);
+    }
+
+    /**
+     * Returns, whether a specific class can be created by the generated factory, or not. This
+     * requires the class to be a public and non-abstract subclass of {@link #FRAGMENT_CLASS_NAME},
+     * which provides a public constructor without parameters and is either a top-level class or a
+     * static nested class.
+     *
+     * @param typeElement
+     *         The class as an instance of the type {@link TypeElement}. The class may not be null
+     * @return True, if the class can be created by the generated factory, false otherwise
+     */
+    private boolean isInstantiable(final TypeElement typeElement) {
+        Set<Modifier> modifiers = typeElement.getModifiers();
+
+        if (typeElement.getKind() != ElementKind.CLASS || !modifiers.contains(Modifier.PUBLIC) ||
+                modifiers.contains(Modifier.ABSTRACT) ||
+                (typeElement.getNestingKind() == NestingKind.MEMBER &&
+                        !modifiers.contains(Modifier.STATIC)) ||
+                (typeElement.getNestingKind() != NestingKind.TOP_LEVEL &&
+                        typeElement.getNestingKind() != NestingKind.MEMBER)) {
+            return false;
+        }
+
+        TypeElement fragmentElement =
+                processingEnv.getElementUtils().getTypeElement(FRAGMENT_CLASS_NAME);
+
+        if (fragmentElement != null && !processingEnv.getTypeUtils()
+                .isAssignable(typeElement.asType(),
+                        processingEnv.getTypeUtils().erasure(fragmentElement.asType()))) {
+            return false;
+        }
+
+        for (ExecutableElement constructor : ElementFilter
+                .constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() &&
+                    constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds the fragments, which are annotated with {@link RegisteredFragment}, to a map.
+     *
+     * @param roundEnvironment
+     *         The environment of the current round as an instance of the type {@link
+     *         RoundEnvironment}. The environment may not be null
+     * @param fragments
+     *         The map, the fragments should be added to, as an instance of the type {@link Map}.
+     *         The map may not be null
+     */
+    private void collectAnnotatedFragments(final RoundEnvironment roundEnvironment,
+                                           final Map<String, TypeElement> fragments) {
+        Elements elements = processingEnv.getElementUtils();
+
+        for (Element element : roundEnvironment
+                .getElementsAnnotatedWith(RegisteredFragment.class)) {
+            TypeElement typeElement = (TypeElement) element;
+
+            if (isInstantiable(typeElement)) {
+                fragments.put(elements.getBinaryName(typeElement).toString(), typeElement);
+            } else {
+                report(Diagnostic.Kind.ERROR, "@" + RegisteredFragment.class.getSimpleName() +
+                        " must only be applied to public, non-abstract fragments, which provide " +
+                        "a public constructor without parameters", element);
+            }
+        }
+    }
+
+    /**
+     * Adds the fragments, which are referenced by the navigation preferences, which are contained
+     * by the XML resources of the resource directories, which are specified by the option {@link
+     * #OPTION_RESOURCE_DIRECTORIES}, to a map.
+     *
+     * @param fragments
+     *         The map, the fragments should be added to, as an instance of the type {@link Map}.
+     *         The map may not be null
+     */
+    private void collectReferencedFragments(final Map<String, TypeElement> fragments) {
+        String resourceDirectories = processingEnv.getOptions().get(OPTION_RESOURCE_DIRECTORIES);
+
+        if (resourceDirectories == null || resourceDirectories.isEmpty()) {
+            return;
+        }
+
+        DocumentBuilder documentBuilder;
+
+        try {
+            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+            documentBuilderFactory.setNamespaceAware(true);
+            documentBuilderFactory.setExpandEntityReferences(false);
+            documentBuilder = documentBuilderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            report(Diagnostic.Kind.ERROR, "Failed to create XML parser: " + e.getMessage(), null);
+            return;
+        }
+
+        for (String resourceDirectory : resourceDirectories.split(File.pathSeparator)) {
+            File[] directories = new File(resourceDirectory).listFiles();
+
+            if (directories != null) {
+                for (File directory : directories) {
+                    if (directory.isDirectory() && (directory.getName().equals("xml") ||
+                            directory.getName().startsWith("xml-"))) {
+                        File[] files = directory.listFiles();
+
+                        if (files != null) {
+                            for (File file : files) {
+                                if (file.getName().endsWith(".xml")) {
+                                    collectReferencedFragments(documentBuilder, file, fragments);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the fragments, which are referenced by the navigation preferences, which are contained
+     * by a specific XML resource, to a map. Fragments, which are not part of the current
+     * compilation or cannot be created by the generated factory, are skipped, as they can still
+     * be created using reflection.
+     *
+     * @param documentBuilder
+     *         The document builder, which should be used to parse the XML resource, as an instance
+     *         of the class {@link DocumentBuilder}. The document builder may not be null
+     * @param file
+     *         The XML resource as an instance of the class {@link File}. The file may not be null
+     * @param fragments
+     *         The map, the fragments should be added to, as an instance of the type {@link Map}.
+     *         The map may not be null
+     */
+    private void collectReferencedFragments(final DocumentBuilder documentBuilder,
+                                            final File file,
+                                            final Map<String, TypeElement> fragments) {
+        Document document;
+
+        try {
+            document = documentBuilder.parse(file);
+        } catch (SAXException | IOException e) {
+            report(Diagnostic.Kind.WARNING,
+                    "Failed to parse " + file.getPath() + ": " + e.getMessage(), null);
+            return;
+        }
+
+        Elements elements = processingEnv.getElementUtils();
+        NodeList navigationPreferences =
+                document.getElementsByTagName(NAVIGATION_PREFERENCE_CLASS_NAME);
+
+        for (int i = 0; i < navigationPreferences.getLength(); i++) {
+            org.w3c.dom.Element navigationPreference =
+                    (org.w3c.dom.Element) navigationPreferences.item(i);
+            String className = navigationPreference.getAttributeNS(ANDROID_NAMESPACE, "fragment");
+
+            if (!className.isEmpty() && !className.startsWith("@") &&
+                    !fragments.containsKey(className)) {
+                TypeElement typeElement = elements.getTypeElement(className.replace('$', '.'));
+
+                if (typeElement != null && isInstantiable(typeElement)) {
+                    fragments.put(elements.getBinaryName(typeElement).toString(), typeElement);
+                } else {
+                    report(Diagnostic.Kind.NOTE, "Fragment " + className + ", which is " +
+                            "referenced by " + file.getPath() + ", will be created using " +
+                            "reflection", null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the package of the generated factory.
+     *
+     * @param fragments
+     *         A map, which contains the fragments, which are included in the factory, as an
+     *         instance of the type {@link Map}. The map may not be null
+     * @return The package of the generated factory as a {@link String}. The package may not be
+     * null
+     */
+    private String getPackage(final Map<String, TypeElement> fragments) {
+        String packageName = processingEnv.getOptions().get(OPTION_PACKAGE);
+
+        if (packageName == null || packageName.isEmpty()) {
+            TypeElement firstFragment = fragments.values().iterator().next();
+            packageName = processingEnv.getElementUtils().getPackageOf(firstFragment)
+                    .getQualifiedName().toString();
+        }
+
+        return packageName;
+    }
+
+    /**
+     * Generates the factory.
+     *
+     * @param fragments
+     *         A map, which contains the fragments, which should be included in the factory,
+     *         mapped to their binary names, as an instance of the type {@link Map}. The map may
+     *         not be null
+     */
+    private void generateFactory(final Map<String, TypeElement> fragments) {
+        String packageName = getPackage(fragments);
+        StringBuilder source = new StringBuilder();
+
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("import androidx.fragment.app.Fragment;\n");
+        source.append("import de.mrapp.android.preference.activity.core.FragmentFactory;\n\n");
+        source.append("/**\n");
+        source.append(" * A factory, which creates fragments without using reflection. ");
+        source.append("This class has been\n");
+        source.append(" * generated by");
+        source.append(" the class ").append(FragmentFactoryProcessor.class.getName());
+        source.append(".\n");
+        source.append(" */\n");
+        source.append("public final class ").append(FACTORY_NAME);
+        source.append(" implements FragmentFactory<Fragment> {\n\n");
+        source.append("    @Override\n");
+        source.append("    public Fragment instantiate(final String className) {\n");
+        source.append("        switch (className) {\n");
+
+        for (Map.Entry<String, TypeElement> entry : fragments.entrySet()) {
+            source.append("            case \"").append(entry.getKey()).append("\":\n");
+            source.append("                return new ");
+            source.append(entry.getValue().getQualifiedName()).append("();\n");
+        }
+
+        source.append("            default:\n");
+        source.append("                return null;\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+        source.append("}\n");
+        String factoryName =
+                packageName.isEmpty() ? FACTORY_NAME : packageName + "." + FACTORY_NAME;
+        Collection<TypeElement> originatingElements = fragments.values();
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(factoryName,
+                originatingElements.toArray(new Element[originatingElements.size()]))
+                .openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            report(Diagnostic.Kind.ERROR,
+                    "Failed to generate " + factoryName + ": " + e.getMessage(), null);
+        }
+    }
+
+    @Override
+    public final SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public final boolean process(final Set<? extends TypeElement> annotations,
+                                 final RoundEnvironment roundEnvironment) {
+        if (!generated && !roundEnvironment.processingOver()) {
+            generated = true;
+            Map<String, TypeElement> fragments = new TreeMap<>();
+            collectAnnotatedFragments(roundEnvironment, fragments);
+            collectReferencedFragments(fragments);
+
+            if (!fragments.isEmpty()) {
+                generateFactory(fragments);
+            }
+        }
+
+        return false;
+    }
+
+}